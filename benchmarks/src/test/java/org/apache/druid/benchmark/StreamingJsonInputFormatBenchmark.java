@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.druid.data.input.InputEntityReader;
+import org.apache.druid.data.input.InputFormat;
+import org.apache.druid.data.input.InputRow;
+import org.apache.druid.data.input.InputRowSchema;
+import org.apache.druid.data.input.impl.ByteEntity;
+import org.apache.druid.data.input.impl.DimensionsSpec;
+import org.apache.druid.data.input.impl.JsonInputFormat;
+import org.apache.druid.data.input.impl.StreamingJsonInputFormat;
+import org.apache.druid.data.input.impl.TimestampSpec;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.parsers.CloseableIterator;
+import org.apache.druid.java.util.common.parsers.JSONPathFieldSpec;
+import org.apache.druid.java.util.common.parsers.JSONPathSpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link JsonInputFormat} with {@link StreamingJsonInputFormat} on the events generated by
+ * {@link FlattenJSONBenchmarkUtil}, reading a handful of dimensions and metrics out of each event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 10)
+@Measurement(iterations = 25)
+@Fork(value = 1)
+public class StreamingJsonInputFormatBenchmark
+{
+  private static final int NUM_EVENTS = 10000;
+
+  @Param({"json", "json_streaming"})
+  private String format;
+
+  @Param({"flat", "nested"})
+  private String input;
+
+  private byte[] events;
+  private InputFormat inputFormat;
+  private InputRowSchema inputRowSchema;
+
+  @Setup
+  public void prepare() throws Exception
+  {
+    final FlattenJSONBenchmarkUtil gen = new FlattenJSONBenchmarkUtil();
+    final StringBuilder builder = new StringBuilder();
+    final JSONPathSpec flattenSpec;
+    inputRowSchema = new InputRowSchema(
+        new TimestampSpec("ts", "iso", null),
+        new DimensionsSpec(DimensionsSpec.getDefaultSchemas(ImmutableList.of("d1", "d2", "e1.d1", "e2.d3"))),
+        ImmutableList.of("m3", "e3.m1"),
+        ImmutableSet.of("m3", "e3.m1")
+    );
+    if ("flat".equals(input)) {
+      for (int i = 0; i < NUM_EVENTS; i++) {
+        builder.append(gen.generateFlatEvent()).append('\n');
+      }
+      flattenSpec = JSONPathSpec.DEFAULT;
+    } else {
+      for (int i = 0; i < NUM_EVENTS; i++) {
+        builder.append(gen.generateNestedEvent()).append('\n');
+      }
+      flattenSpec = new JSONPathSpec(
+          true,
+          ImmutableList.of(
+              JSONPathFieldSpec.createNestedField("e1.d1", "$.e1.d1"),
+              JSONPathFieldSpec.createNestedField("e2.d3", "$.e2.d3"),
+              JSONPathFieldSpec.createNestedField("e3.m1", "$.e3.m1")
+          )
+      );
+    }
+    events = StringUtils.toUtf8(builder.toString());
+
+    if ("json".equals(format)) {
+      inputFormat = new JsonInputFormat(flattenSpec, null);
+    } else {
+      inputFormat = new StreamingJsonInputFormat(flattenSpec, null, Collections.emptyList());
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void read(final Blackhole blackhole) throws IOException
+  {
+    final InputEntityReader reader = inputFormat.createReader(inputRowSchema, new ByteEntity(events), null);
+    try (CloseableIterator<InputRow> iterator = reader.read()) {
+      while (iterator.hasNext()) {
+        final InputRow row = iterator.next();
+        for (String dimension : row.getDimensions()) {
+          blackhole.consume(row.getDimension(dimension));
+        }
+        for (String metric : inputRowSchema.getMetricNames()) {
+          blackhole.consume(row.getMetric(metric));
+        }
+      }
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException
+  {
+    Options opt = new OptionsBuilder()
+        .include(StreamingJsonInputFormatBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -32,6 +32,7 @@ import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.math.expr.ExprMacroTable;
 import org.apache.druid.query.aggregation.hyperloglog.HyperUniquesSerde;
 import org.apache.druid.segment.IndexIO;
+import org.apache.druid.segment.IndexMergerConfig;
 import org.apache.druid.segment.IndexMergerV9;
 import org.apache.druid.segment.IndexSpec;
 import org.apache.druid.segment.QueryableIndex;
@@ -78,6 +79,9 @@ public class IndexMergeBenchmark
   @Param({"true", "false"})
   private boolean rollup;
 
+  @Param({"1", "4"})
+  private int numColumnThreads;
+
   private static final Logger log = new Logger(IndexMergeBenchmark.class);
   private static final int RNG_SEED = 9999;
   private static final IndexMergerV9 INDEX_MERGER_V9;
@@ -91,6 +95,7 @@ public class IndexMergeBenchmark
   private List<QueryableIndex> indexesToMerge;
   private BenchmarkSchemaInfo schemaInfo;
   private File tmpDir;
+  private IndexMergerV9 indexMerger;
 
   static {
     JSON_MAPPER = new DefaultObjectMapper();
@@ -118,6 +123,13 @@ public class IndexMergeBenchmark
 
     ComplexMetrics.registerSerde("hyperUnique", new HyperUniquesSerde());
 
+    indexMerger = new IndexMergerV9(
+        JSON_MAPPER,
+        INDEX_IO,
+        OffHeapMemorySegmentWriteOutMediumFactory.instance(),
+        new IndexMergerConfig(numColumnThreads)
+    );
+
     indexesToMerge = new ArrayList<>();
 
     schemaInfo = BenchmarkSchemas.SCHEMA_MAP.get(schema);
@@ -186,7 +198,7 @@ public class IndexMergeBenchmark
     try {
       log.info(tmpFile.getAbsolutePath() + " isFile: " + tmpFile.isFile() + " isDir:" + tmpFile.isDirectory());
 
-      File mergedFile = INDEX_MERGER_V9.mergeQueryableIndex(
+      File mergedFile = indexMerger.mergeQueryableIndex(
           indexesToMerge,
           rollup,
           schemaInfo.getAggsArray(),
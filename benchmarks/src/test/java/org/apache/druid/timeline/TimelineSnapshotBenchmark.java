@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.timeline;
+
+import com.google.common.collect.Lists;
+import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.timeline.partition.NumberedShardSpec;
+import org.apache.druid.timeline.partition.PartitionChunk;
+import org.joda.time.Interval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares lookups on a {@link VersionedIntervalTimeline} with lookups on its {@link TimelineSnapshot}, for timelines
+ * of hourly segments as large as a Broker sees for big datasources.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-XX:+UseG1GC", "-Xmx8g"})
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class TimelineSnapshotBenchmark
+{
+  private static final String DATA_SOURCE = "dataSource";
+  private static final String VERSION = DateTimes.of("2020-01-01").toString();
+
+  // 5 years of hourly intervals: 43,824 intervals, so 1,095,600 segments with 25 segments per interval.
+  private static final Interval TOTAL_INTERVAL = Intervals.of("2015/2020");
+
+  @Param({"1", "25"})
+  private int numSegmentsPerInterval;
+
+  @Param({"24", "720"})
+  private int numIntervalsPerQuery;
+
+  private List<Interval> intervals;
+  private VersionedIntervalTimeline<String, DataSegment> timeline;
+  private TimelineSnapshot<String, DataSegment> snapshot;
+  private DataSegment newSegment;
+  private PartitionChunk<DataSegment> newChunk;
+
+  @Setup
+  public void setup()
+  {
+    intervals = Lists.newArrayList(Granularities.HOUR.getIterable(TOTAL_INTERVAL));
+    final List<DataSegment> segments = new ArrayList<>(intervals.size() * numSegmentsPerInterval);
+    for (Interval interval : intervals) {
+      for (int i = 0; i < numSegmentsPerInterval; i++) {
+        segments.add(newSegment(interval, i));
+      }
+    }
+
+    timeline = VersionedIntervalTimeline.forSegments(segments);
+    snapshot = timeline.snapshot();
+    newSegment = newSegment(intervals.get(intervals.size() / 2), numSegmentsPerInterval);
+    newChunk = newSegment.getShardSpec().createChunk(newSegment);
+  }
+
+  @Benchmark
+  public void lookupTimeline(Blackhole blackhole)
+  {
+    blackhole.consume(timeline.lookup(randomQueryInterval()));
+  }
+
+  @Benchmark
+  public void lookupSnapshot(Blackhole blackhole)
+  {
+    blackhole.consume(snapshot.lookup(randomQueryInterval()));
+  }
+
+  /**
+   * Cost of adding and removing a segment and rebuilding the snapshot in between, which is paid once per modification.
+   */
+  @Benchmark
+  @Threads(1)
+  public void rebuildSnapshot(Blackhole blackhole)
+  {
+    timeline.add(newSegment.getInterval(), newSegment.getVersion(), newChunk);
+    blackhole.consume(timeline.snapshot());
+    timeline.remove(newSegment.getInterval(), newSegment.getVersion(), newChunk);
+  }
+
+  private Interval randomQueryInterval()
+  {
+    final int start = ThreadLocalRandom.current().nextInt(intervals.size() - numIntervalsPerQuery);
+    return new Interval(intervals.get(start).getStart(), intervals.get(start + numIntervalsPerQuery - 1).getEnd());
+  }
+
+  private static DataSegment newSegment(Interval interval, int partitionNum)
+  {
+    return new DataSegment(
+        DATA_SOURCE,
+        interval,
+        VERSION,
+        null,
+        null,
+        null,
+        new NumberedShardSpec(partitionNum, 0),
+        9,
+        10
+    );
+  }
+}
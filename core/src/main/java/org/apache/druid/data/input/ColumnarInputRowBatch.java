@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.data.input;
+
+import com.google.common.collect.Sets;
+import org.apache.druid.data.input.impl.DimensionsSpec;
+import org.apache.druid.data.input.impl.MapInputRowParser;
+import org.apache.druid.data.input.impl.TimestampSpec;
+import org.apache.druid.java.util.common.parsers.ParseException;
+import org.joda.time.DateTime;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * {@link InputRowBatch} backed by column accessors, for formats which decode data into column vectors. Each column is
+ * an {@link IntFunction} from the row number to the value of the row, which must already be converted the way the
+ * format's flattener would convert it. Rows are lightweight views over the columns, so no per-row map is allocated.
+ *
+ * Rows are built with the same semantics as {@link MapInputRowParser#parse(InputRowSchema, Map)} applied to a map
+ * with the given field names as keys.
+ */
+public class ColumnarInputRowBatch implements InputRowBatch
+{
+  private final TimestampSpec timestampSpec;
+  private final int size;
+  private final List<String> fieldNames;
+  private final Map<String, IntFunction<Object>> columns;
+  private final List<String> dimensions;
+
+  /**
+   * @param fieldNames fields returned by the format for each row, used for schemaless dimension discovery
+   * @param columns    accessors of all the fields which can be read, which can include more than fieldNames
+   */
+  public ColumnarInputRowBatch(
+      InputRowSchema inputRowSchema,
+      int size,
+      List<String> fieldNames,
+      Map<String, IntFunction<Object>> columns
+  )
+  {
+    this.timestampSpec = inputRowSchema.getTimestampSpec();
+    this.size = size;
+    this.fieldNames = fieldNames;
+    this.columns = columns;
+
+    final DimensionsSpec dimensionsSpec = inputRowSchema.getDimensionsSpec();
+    if (!dimensionsSpec.getDimensionNames().isEmpty()) {
+      this.dimensions = dimensionsSpec.getDimensionNames();
+    } else {
+      this.dimensions = new ArrayList<>(
+          Sets.difference(Sets.newLinkedHashSet(fieldNames), dimensionsSpec.getDimensionExclusions())
+      );
+    }
+  }
+
+  @Override
+  public int size()
+  {
+    return size;
+  }
+
+  @Override
+  public InputRow getRow(int rowNumber)
+  {
+    final DateTime timestamp;
+    try {
+      timestamp = timestampSpec.parseDateTime(getValue(timestampSpec.getTimestampColumn(), rowNumber));
+      if (timestamp == null) {
+        throw new NullPointerException("Null timestamp in input");
+      }
+    }
+    catch (Exception e) {
+      throw new ParseException(e, "Unparseable timestamp found! Event: %s", toMap(rowNumber));
+    }
+    return new ColumnarInputRow(timestamp, rowNumber);
+  }
+
+  @Nullable
+  private Object getValue(String column, int rowNumber)
+  {
+    final IntFunction<Object> accessor = columns.get(column);
+    return accessor == null ? null : accessor.apply(rowNumber);
+  }
+
+  private Map<String, Object> toMap(int rowNumber)
+  {
+    final Map<String, Object> event = new LinkedHashMap<>();
+    for (String fieldName : fieldNames) {
+      event.put(fieldName, getValue(fieldName, rowNumber));
+    }
+    return event;
+  }
+
+  private class ColumnarInputRow implements InputRow
+  {
+    private final DateTime timestamp;
+    private final int rowNumber;
+
+    private ColumnarInputRow(DateTime timestamp, int rowNumber)
+    {
+      this.timestamp = timestamp;
+      this.rowNumber = rowNumber;
+    }
+
+    @Override
+    public List<String> getDimensions()
+    {
+      return dimensions;
+    }
+
+    @Override
+    public long getTimestampFromEpoch()
+    {
+      return timestamp.getMillis();
+    }
+
+    @Override
+    public DateTime getTimestamp()
+    {
+      return timestamp;
+    }
+
+    @Override
+    public List<String> getDimension(String dimension)
+    {
+      return Rows.objectToStrings(getValue(dimension, rowNumber));
+    }
+
+    @Nullable
+    @Override
+    public Object getRaw(String dimension)
+    {
+      return getValue(dimension, rowNumber);
+    }
+
+    @Nullable
+    @Override
+    public Number getMetric(String metric)
+    {
+      return Rows.objectToNumber(metric, getValue(metric, rowNumber), true);
+    }
+
+    @Override
+    public int compareTo(Row o)
+    {
+      return timestamp.compareTo(o.getTimestamp());
+    }
+
+    @Override
+    public String toString()
+    {
+      return "ColumnarInputRow{" +
+             "timestamp=" + timestamp +
+             ", event=" + toMap(rowNumber) +
+             ", dimensions=" + dimensions +
+             '}';
+    }
+  }
+}
@@ -36,5 +36,15 @@ public interface InputEntityReader
 {
   CloseableIterator<InputRow> read() throws IOException;
 
+  /**
+   * Reads data in batches of rows. Columnar formats can override this to build batches directly from the column
+   * vectors they decode, see {@link ColumnarInputRowBatch}. The default implementation groups the rows returned by
+   * {@link #read()}.
+   */
+  default CloseableIterator<InputRowBatch> readBatches() throws IOException
+  {
+    return InputRowBatches.fromRows(read(), InputRowBatches.DEFAULT_BATCH_SIZE);
+  }
+
   CloseableIterator<InputRowListPlusRawValues> sample() throws IOException;
 }
@@ -29,6 +29,7 @@ import org.apache.druid.data.input.impl.JsonInputFormat;
 import org.apache.druid.data.input.impl.NestedInputFormat;
 import org.apache.druid.data.input.impl.RegexInputFormat;
 import org.apache.druid.data.input.impl.SplittableInputSource;
+import org.apache.druid.data.input.impl.StreamingJsonInputFormat;
 import org.apache.druid.guice.annotations.UnstableApi;
 
 import java.io.File;
@@ -46,6 +47,7 @@ import java.io.IOException;
 @JsonSubTypes(value = {
     @Type(name = "csv", value = CsvInputFormat.class),
     @Type(name = "json", value = JsonInputFormat.class),
+    @Type(name = "json_streaming", value = StreamingJsonInputFormat.class),
     @Type(name = "regex", value = RegexInputFormat.class),
     @Type(name = "tsv", value = DelimitedInputFormat.class)
 })
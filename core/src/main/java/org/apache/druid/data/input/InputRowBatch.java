@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.data.input;
+
+import org.apache.druid.guice.annotations.UnstableApi;
+import org.apache.druid.java.util.common.parsers.ParseException;
+
+import javax.annotation.Nullable;
+
+/**
+ * A batch of rows returned by {@link InputEntityReader#readBatches()} and {@link InputSourceReader#readBatches()}.
+ *
+ * Columnar formats can implement batches directly on top of the column vectors they decode (see
+ * {@link ColumnarInputRowBatch}), so that the returned rows are views over those columns rather than per-row maps.
+ * Other formats get batches of the rows returned by {@link InputEntityReader#read()}, see
+ * {@link InputRowBatches#fromRows}.
+ */
+@UnstableApi
+public interface InputRowBatch
+{
+  /**
+   * Returns the number of rows in this batch, including rows which will turn out to be unparseable or filtered out.
+   */
+  int size();
+
+  /**
+   * Returns the row at the given position, or null if the row is filtered out. Rows can be fetched in any order and
+   * more than once.
+   *
+   * @throws ParseException if the row at the given position cannot be parsed. Other rows of this batch are still
+   *                        readable.
+   */
+  @Nullable
+  InputRow getRow(int rowNumber);
+}
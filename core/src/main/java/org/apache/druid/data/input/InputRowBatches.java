@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.data.input;
+
+import org.apache.druid.java.util.common.parsers.CloseableIterator;
+import org.apache.druid.java.util.common.parsers.ParseException;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public final class InputRowBatches
+{
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+
+  private InputRowBatches()
+  {
+    // No instantiation.
+  }
+
+  /**
+   * Groups the given rows into batches of at most batchSize rows. {@link ParseException}s thrown by the given iterator
+   * are kept at their position and rethrown by {@link InputRowBatch#getRow}. Any other exception is thrown
+   * immediately.
+   */
+  public static CloseableIterator<InputRowBatch> fromRows(CloseableIterator<InputRow> rows, int batchSize)
+  {
+    return new CloseableIterator<InputRowBatch>()
+    {
+      @Override
+      public boolean hasNext()
+      {
+        return rows.hasNext();
+      }
+
+      @Override
+      public InputRowBatch next()
+      {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        final List<Object> rowsOrExceptions = new ArrayList<>(batchSize);
+        while (rowsOrExceptions.size() < batchSize && rows.hasNext()) {
+          try {
+            rowsOrExceptions.add(rows.next());
+          }
+          catch (ParseException e) {
+            rowsOrExceptions.add(e);
+          }
+        }
+        return new RowListBatch(rowsOrExceptions);
+      }
+
+      @Override
+      public void close() throws IOException
+      {
+        rows.close();
+      }
+    };
+  }
+
+  /**
+   * Returns an iterator over all rows of the given batches. {@link ParseException}s thrown by
+   * {@link InputRowBatch#getRow} are thrown by {@link CloseableIterator#next()}, after which the iterator moves on to
+   * the next row like {@link InputSourceReader#read()} does.
+   */
+  public static CloseableIterator<InputRow> toRows(CloseableIterator<InputRowBatch> batches)
+  {
+    return new CloseableIterator<InputRow>()
+    {
+      @Nullable
+      private InputRowBatch batch;
+      private int rowNumber;
+
+      @Override
+      public boolean hasNext()
+      {
+        while (batch == null || rowNumber >= batch.size()) {
+          if (!batches.hasNext()) {
+            return false;
+          }
+          batch = batches.next();
+          rowNumber = 0;
+        }
+        return true;
+      }
+
+      @Nullable
+      @Override
+      public InputRow next()
+      {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return batch.getRow(rowNumber++);
+      }
+
+      @Override
+      public void close() throws IOException
+      {
+        batches.close();
+      }
+    };
+  }
+
+  private static class RowListBatch implements InputRowBatch
+  {
+    private final List<Object> rowsOrExceptions;
+
+    private RowListBatch(List<Object> rowsOrExceptions)
+    {
+      this.rowsOrExceptions = rowsOrExceptions;
+    }
+
+    @Override
+    public int size()
+    {
+      return rowsOrExceptions.size();
+    }
+
+    @Nullable
+    @Override
+    public InputRow getRow(int rowNumber)
+    {
+      final Object rowOrException = rowsOrExceptions.get(rowNumber);
+      if (rowOrException instanceof ParseException) {
+        throw (ParseException) rowOrException;
+      }
+      return (InputRow) rowOrException;
+    }
+  }
+}
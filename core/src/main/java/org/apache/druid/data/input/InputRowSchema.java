@@ -22,7 +22,9 @@ package org.apache.druid.data.input;
 import org.apache.druid.data.input.impl.DimensionsSpec;
 import org.apache.druid.data.input.impl.TimestampSpec;
 
+import javax.annotation.Nullable;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Schema of {@link InputRow}.
@@ -32,12 +34,25 @@ public class InputRowSchema
   private final TimestampSpec timestampSpec;
   private final DimensionsSpec dimensionsSpec;
   private final List<String> metricNames;
+  @Nullable
+  private final Set<String> metricAndTransformInputColumns;
 
   public InputRowSchema(TimestampSpec timestampSpec, DimensionsSpec dimensionsSpec, List<String> metricNames)
+  {
+    this(timestampSpec, dimensionsSpec, metricNames, null);
+  }
+
+  public InputRowSchema(
+      TimestampSpec timestampSpec,
+      DimensionsSpec dimensionsSpec,
+      List<String> metricNames,
+      @Nullable Set<String> metricAndTransformInputColumns
+  )
   {
     this.timestampSpec = timestampSpec;
     this.dimensionsSpec = dimensionsSpec;
     this.metricNames = metricNames;
+    this.metricAndTransformInputColumns = metricAndTransformInputColumns;
   }
 
   public TimestampSpec getTimestampSpec()
@@ -54,4 +69,14 @@ public class InputRowSchema
   {
     return metricNames;
   }
+
+  /**
+   * Returns the input columns read by the aggregators, the transforms and the transform filter of the ingestion spec,
+   * or null if they are unknown, in which case readers must not assume that any input column is unused.
+   */
+  @Nullable
+  public Set<String> getMetricAndTransformInputColumns()
+  {
+    return metricAndTransformInputColumns;
+  }
 }
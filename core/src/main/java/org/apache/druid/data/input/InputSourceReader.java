@@ -39,5 +39,13 @@ public interface InputSourceReader
 {
   CloseableIterator<InputRow> read() throws IOException;
 
+  /**
+   * Reads data in batches of rows. See {@link InputEntityReader#readBatches()}.
+   */
+  default CloseableIterator<InputRowBatch> readBatches() throws IOException
+  {
+    return InputRowBatches.fromRows(read(), InputRowBatches.DEFAULT_BATCH_SIZE);
+  }
+
   CloseableIterator<InputRowListPlusRawValues> sample() throws IOException;
 }
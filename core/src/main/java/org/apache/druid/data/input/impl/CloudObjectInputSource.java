@@ -19,6 +19,7 @@
 
 package org.apache.druid.data.input.impl;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.primitives.Ints;
 import org.apache.druid.data.input.AbstractInputSource;
@@ -28,6 +29,8 @@ import org.apache.druid.data.input.InputRowSchema;
 import org.apache.druid.data.input.InputSourceReader;
 import org.apache.druid.data.input.InputSplit;
 import org.apache.druid.data.input.SplitHintSpec;
+import org.apache.druid.java.util.common.CloseableIterators;
+import org.apache.druid.java.util.common.parsers.CloseableIterator;
 import org.apache.druid.utils.CollectionUtils;
 
 import javax.annotation.Nullable;
@@ -44,17 +47,21 @@ public abstract class CloudObjectInputSource extends AbstractInputSource
   private final List<URI> uris;
   private final List<URI> prefixes;
   private final List<CloudObjectLocation> objects;
+  @Nullable
+  private final InputEntityPrefetchConfig prefetchConfig;
 
   public CloudObjectInputSource(
       String scheme,
       @Nullable List<URI> uris,
       @Nullable List<URI> prefixes,
-      @Nullable List<CloudObjectLocation> objects
+      @Nullable List<CloudObjectLocation> objects,
+      @Nullable InputEntityPrefetchConfig prefetchConfig
   )
   {
     this.uris = uris;
     this.prefixes = prefixes;
     this.objects = objects;
+    this.prefetchConfig = prefetchConfig;
 
     if (!CollectionUtils.isNullOrEmpty(objects)) {
       throwIfIllegalArgs(!CollectionUtils.isNullOrEmpty(uris) || !CollectionUtils.isNullOrEmpty(prefixes));
@@ -87,6 +94,18 @@ public abstract class CloudObjectInputSource extends AbstractInputSource
     return objects;
   }
 
+  /**
+   * If set, objects are fetched ahead into local files while the previous ones are being read. See
+   * {@link PrefetchingInputEntityIterator}.
+   */
+  @Nullable
+  @JsonProperty("prefetch")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public InputEntityPrefetchConfig getPrefetchConfig()
+  {
+    return prefetchConfig;
+  }
+
   /**
    * Create the correct {@link InputEntity} for this input source given a split on a {@link CloudObjectLocation}. This
    * is called internally by {@link #formattableReader} and operates on the output of {@link #createSplits}.
@@ -146,12 +165,13 @@ public abstract class CloudObjectInputSource extends AbstractInputSource
       @Nullable File temporaryDirectory
   )
   {
-    return new InputEntityIteratingReader(
-        inputRowSchema,
-        inputFormat,
-        createSplits(inputFormat, null).flatMap(split -> split.get().stream()).map(this::createEntity).iterator(),
-        temporaryDirectory
+    CloseableIterator<InputEntity> entities = CloseableIterators.withEmptyBaggage(
+        createSplits(inputFormat, null).flatMap(split -> split.get().stream()).map(this::createEntity).iterator()
     );
+    if (prefetchConfig != null) {
+      entities = new PrefetchingInputEntityIterator(entities, prefetchConfig, temporaryDirectory);
+    }
+    return new InputEntityIteratingReader(inputRowSchema, inputFormat, entities, temporaryDirectory);
   }
 
   @Override
@@ -166,13 +186,14 @@ public abstract class CloudObjectInputSource extends AbstractInputSource
     CloudObjectInputSource that = (CloudObjectInputSource) o;
     return Objects.equals(uris, that.uris) &&
            Objects.equals(prefixes, that.prefixes) &&
-           Objects.equals(objects, that.objects);
+           Objects.equals(objects, that.objects) &&
+           Objects.equals(prefetchConfig, that.prefetchConfig);
   }
 
   @Override
   public int hashCode()
   {
-    return Objects.hash(uris, prefixes, objects);
+    return Objects.hash(uris, prefixes, objects, prefetchConfig);
   }
 
   private void throwIfIllegalArgs(boolean clause) throws IllegalArgumentException
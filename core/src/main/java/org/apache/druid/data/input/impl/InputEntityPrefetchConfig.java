@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.data.input.impl;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * Configures {@link PrefetchingInputEntityIterator} for input sources that read many remote objects, such as
+ * {@link CloudObjectInputSource}s.
+ */
+public class InputEntityPrefetchConfig
+{
+  private static final int DEFAULT_PREFETCH_COUNT = 4;
+  private static final long DEFAULT_MAX_PREFETCH_BYTES = 1024 * 1024 * 1024; // 1GB
+
+  // Number of objects fetched ahead of the one being read, which is also the number of concurrent fetches.
+  private final int prefetchCount;
+
+  // Fetching stops once this many bytes are fetched but not yet read. Objects are fetched whole, so the actual size of
+  // fetched data can be bigger by the size of the objects in flight.
+  private final long maxPrefetchBytes;
+
+  @JsonCreator
+  public InputEntityPrefetchConfig(
+      @JsonProperty("prefetchCount") @Nullable Integer prefetchCount,
+      @JsonProperty("maxPrefetchBytes") @Nullable Long maxPrefetchBytes
+  )
+  {
+    this.prefetchCount = prefetchCount == null ? DEFAULT_PREFETCH_COUNT : prefetchCount;
+    this.maxPrefetchBytes = maxPrefetchBytes == null ? DEFAULT_MAX_PREFETCH_BYTES : maxPrefetchBytes;
+    Preconditions.checkArgument(this.prefetchCount > 0, "prefetchCount must be positive");
+    Preconditions.checkArgument(this.maxPrefetchBytes > 0, "maxPrefetchBytes must be positive");
+  }
+
+  @JsonProperty
+  public int getPrefetchCount()
+  {
+    return prefetchCount;
+  }
+
+  @JsonProperty
+  public long getMaxPrefetchBytes()
+  {
+    return maxPrefetchBytes;
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    InputEntityPrefetchConfig that = (InputEntityPrefetchConfig) o;
+    return prefetchCount == that.prefetchCount &&
+           maxPrefetchBytes == that.maxPrefetchBytes;
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(prefetchCount, maxPrefetchBytes);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "InputEntityPrefetchConfig{" +
+           "prefetchCount=" + prefetchCount +
+           ", maxPrefetchBytes=" + maxPrefetchBytes +
+           '}';
+  }
+}
@@ -61,6 +61,11 @@ public class JsonInputFormat extends NestedInputFormat
     return featureSpec;
   }
 
+  ObjectMapper getObjectMapper()
+  {
+    return objectMapper;
+  }
+
   @Override
   public boolean isSplittable()
   {
@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.data.input.impl;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.druid.data.input.InputEntity;
+import org.apache.druid.java.util.common.RE;
+import org.apache.druid.java.util.common.concurrent.Execs;
+import org.apache.druid.java.util.common.logger.Logger;
+import org.apache.druid.java.util.common.parsers.CloseableIterator;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Iterator of {@link InputEntity}s which fetches the next entities into local files in background threads while the
+ * current one is being read. This hides the per-object request latency of remote storage when reading many small
+ * objects, which would otherwise dominate the ingestion time.
+ *
+ * Up to {@link InputEntityPrefetchConfig#getPrefetchCount()} entities are fetched concurrently. No new fetch is started
+ * once {@link InputEntityPrefetchConfig#getMaxPrefetchBytes()} bytes are fetched but not read yet, unless nothing is
+ * being fetched. Entities are returned in the order of the delegate iterator. The local file of an entity is deleted
+ * when the next entity is requested, so an entity must be fully read before calling {@link #next()} again, as
+ * {@link InputEntityIteratingReader} does.
+ */
+public class PrefetchingInputEntityIterator implements CloseableIterator<InputEntity>
+{
+  private static final Logger LOG = new Logger(PrefetchingInputEntityIterator.class);
+  private static final int FETCH_BUFFER_SIZE = 64 * 1024;
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+  private final CloseableIterator<? extends InputEntity> delegate;
+  private final InputEntityPrefetchConfig config;
+  @Nullable
+  private final File temporaryDirectory;
+  private final ExecutorService fetchExecutor;
+  private final Deque<PendingFetch> pendingFetches = new ArrayDeque<>();
+  private final AtomicLong fetchedBytes = new AtomicLong();
+
+  // Fetched files which are not deleted yet. Guarded by itself, as is "closed".
+  private final Set<PrefetchedFile> fetchedFiles = new HashSet<>();
+  private boolean closed = false;
+
+  @Nullable
+  private PrefetchedFile current;
+
+  public PrefetchingInputEntityIterator(
+      CloseableIterator<? extends InputEntity> delegate,
+      InputEntityPrefetchConfig config,
+      @Nullable File temporaryDirectory
+  )
+  {
+    this.delegate = delegate;
+    this.config = config;
+    this.temporaryDirectory = temporaryDirectory;
+    this.fetchExecutor = Execs.multiThreaded(config.getPrefetchCount(), "input-entity-prefetch-%d");
+  }
+
+  @Override
+  public boolean hasNext()
+  {
+    startFetches();
+    return !pendingFetches.isEmpty();
+  }
+
+  @Override
+  public InputEntity next()
+  {
+    releaseCurrent();
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    final PendingFetch pendingFetch = pendingFetches.poll();
+    try {
+      current = pendingFetch.future.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    catch (ExecutionException e) {
+      throw new RE(e.getCause(), "Failed to fetch entity[%s]", pendingFetch.entity.getUri());
+    }
+    startFetches();
+    return new PrefetchedEntity(pendingFetch.entity, current);
+  }
+
+  @Override
+  public void close() throws IOException
+  {
+    final ArrayList<PrefetchedFile> toDelete;
+    synchronized (fetchedFiles) {
+      closed = true;
+      toDelete = new ArrayList<>(fetchedFiles);
+    }
+    for (PendingFetch pendingFetch : pendingFetches) {
+      pendingFetch.future.cancel(true);
+    }
+    pendingFetches.clear();
+    fetchExecutor.shutdownNow();
+    try {
+      // Fetches finishing after this point delete their own files, but wait a bit so that they don't outlive the task.
+      if (!fetchExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOG.warn("Prefetch threads did not terminate in [%d] seconds", SHUTDOWN_TIMEOUT_SECONDS);
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    toDelete.forEach(PrefetchedFile::close);
+    current = null;
+    delegate.close();
+  }
+
+  @VisibleForTesting
+  long getFetchedBytes()
+  {
+    return fetchedBytes.get();
+  }
+
+  private void startFetches()
+  {
+    while (pendingFetches.size() < config.getPrefetchCount()
+           && (pendingFetches.isEmpty() || fetchedBytes.get() < config.getMaxPrefetchBytes())
+           && delegate.hasNext()) {
+      final InputEntity entity = delegate.next();
+      pendingFetches.add(new PendingFetch(entity, fetchExecutor.submit(() -> fetch(entity))));
+    }
+  }
+
+  private PrefetchedFile fetch(InputEntity entity) throws IOException
+  {
+    final InputEntity.CleanableFile file = entity.fetch(temporaryDirectory, new byte[FETCH_BUFFER_SIZE]);
+    final PrefetchedFile prefetchedFile = new PrefetchedFile(file);
+    synchronized (fetchedFiles) {
+      if (!closed) {
+        fetchedFiles.add(prefetchedFile);
+        fetchedBytes.addAndGet(prefetchedFile.size);
+        return prefetchedFile;
+      }
+    }
+    // This iterator was closed while fetching; nobody will read this file.
+    file.close();
+    return prefetchedFile;
+  }
+
+  private void releaseCurrent()
+  {
+    if (current != null) {
+      current.close();
+      current = null;
+    }
+  }
+
+  private static class PendingFetch
+  {
+    private final InputEntity entity;
+    private final Future<PrefetchedFile> future;
+
+    private PendingFetch(InputEntity entity, Future<PrefetchedFile> future)
+    {
+      this.entity = entity;
+      this.future = future;
+    }
+  }
+
+  private class PrefetchedFile
+  {
+    private final InputEntity.CleanableFile file;
+    private final long size;
+
+    private PrefetchedFile(InputEntity.CleanableFile file)
+    {
+      this.file = file;
+      this.size = file.file().length();
+    }
+
+    private void close()
+    {
+      synchronized (fetchedFiles) {
+        if (!fetchedFiles.remove(this)) {
+          return;
+        }
+        fetchedBytes.addAndGet(-size);
+      }
+      try {
+        file.close();
+      }
+      catch (IOException e) {
+        LOG.warn(e, "Failed to remove prefetched file[%s]", file.file());
+      }
+    }
+  }
+
+  /**
+   * An entity whose data is already in a local file. The file is owned by the iterator, so {@link #fetch} returns
+   * it without copying and closing the returned {@link CleanableFile} does not delete it.
+   */
+  private static class PrefetchedEntity implements InputEntity
+  {
+    private final InputEntity entity;
+    private final File file;
+
+    private PrefetchedEntity(InputEntity entity, PrefetchedFile prefetchedFile)
+    {
+      this.entity = entity;
+      this.file = prefetchedFile.file.file();
+    }
+
+    @Nullable
+    @Override
+    public URI getUri()
+    {
+      return entity.getUri();
+    }
+
+    @Override
+    public InputStream open() throws IOException
+    {
+      return new FileInputStream(file);
+    }
+
+    @Override
+    public CleanableFile fetch(File temporaryDirectory, byte[] fetchBuffer)
+    {
+      return new CleanableFile()
+      {
+        @Override
+        public File file()
+        {
+          return file;
+        }
+
+        @Override
+        public void close()
+        {
+          // The file is deleted by PrefetchingInputEntityIterator.
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.data.input.impl;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.druid.data.input.InputEntity;
+import org.apache.druid.data.input.InputEntityReader;
+import org.apache.druid.data.input.InputRowSchema;
+import org.apache.druid.java.util.common.parsers.JSONPathSpec;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Newline-delimited JSON format that tokenizes each line with a streaming parser and only materializes the top-level
+ * fields referenced by the ingestion spec, skipping every other subtree. See {@link StreamingJsonReader}.
+ *
+ * Fields read by the timestamp spec, dimensions spec, aggregators, transforms, transform filter and flatten spec are
+ * found automatically, see {@link org.apache.druid.data.input.InputRowSchema#getMetricAndTransformInputColumns()}.
+ * Additional fields can be listed in {@link #getKeepFields()}.
+ */
+public class StreamingJsonInputFormat extends JsonInputFormat
+{
+  private final List<String> keepFields;
+
+  @JsonCreator
+  public StreamingJsonInputFormat(
+      @JsonProperty("flattenSpec") @Nullable JSONPathSpec flattenSpec,
+      @JsonProperty("featureSpec") @Nullable Map<String, Boolean> featureSpec,
+      @JsonProperty("keepFields") @Nullable List<String> keepFields
+  )
+  {
+    super(flattenSpec, featureSpec);
+    this.keepFields = keepFields == null ? Collections.emptyList() : keepFields;
+  }
+
+  @JsonProperty
+  public List<String> getKeepFields()
+  {
+    return keepFields;
+  }
+
+  @Override
+  public InputEntityReader createReader(InputRowSchema inputRowSchema, InputEntity source, File temporaryDirectory)
+  {
+    return new StreamingJsonReader(inputRowSchema, source, getFlattenSpec(), getObjectMapper(), keepFields);
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (!super.equals(o)) {
+      return false;
+    }
+    StreamingJsonInputFormat that = (StreamingJsonInputFormat) o;
+    return Objects.equals(keepFields, that.keepFields);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(super.hashCode(), keepFields);
+  }
+}
@@ -0,0 +1,405 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.data.input.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.druid.data.input.InputEntity;
+import org.apache.druid.data.input.InputRow;
+import org.apache.druid.data.input.InputRowSchema;
+import org.apache.druid.data.input.IntermediateRowParsingReader;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.parsers.CloseableIterator;
+import org.apache.druid.java.util.common.parsers.JSONFlattenerMaker;
+import org.apache.druid.java.util.common.parsers.JSONPathFieldSpec;
+import org.apache.druid.java.util.common.parsers.JSONPathFieldType;
+import org.apache.druid.java.util.common.parsers.JSONPathSpec;
+import org.apache.druid.java.util.common.parsers.ObjectFlattener;
+import org.apache.druid.java.util.common.parsers.ObjectFlatteners;
+import org.apache.druid.java.util.common.parsers.ParseException;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Reader for {@link StreamingJsonInputFormat}. Unlike {@link JsonReader}, lines are split directly on the raw bytes
+ * and each line is tokenized with a streaming {@link JsonParser}, so no intermediate {@link String} or full
+ * {@link JsonNode} tree is built per event. Top-level fields that the ingestion spec does not reference are skipped
+ * with {@link JsonParser#skipChildren()}.
+ *
+ * If the flattenSpec only contains root fields, referenced values are converted straight into the row map without
+ * going through {@link JSONFlattenerMaker}. Otherwise, a partial tree holding only the referenced top-level fields is
+ * handed to the regular flattener. If the referenced fields cannot be determined (schemaless dimensions, unknown
+ * inputs of aggregators or transforms, jq fields or JSONPath expressions not rooted at a named field), every field is
+ * read.
+ */
+public class StreamingJsonReader extends IntermediateRowParsingReader<byte[]>
+{
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final InputRowSchema inputRowSchema;
+  private final InputEntity source;
+  private final ObjectMapper mapper;
+  private final ObjectFlattener<JsonNode> flattener;
+  @Nullable
+  private final Set<String> referencedFields;
+  private final boolean convertDirectly;
+  private final CharsetEncoder enc = StandardCharsets.UTF_8.newEncoder();
+
+  StreamingJsonReader(
+      InputRowSchema inputRowSchema,
+      InputEntity source,
+      JSONPathSpec flattenSpec,
+      ObjectMapper mapper,
+      List<String> keepFields
+  )
+  {
+    this.inputRowSchema = inputRowSchema;
+    this.source = source;
+    this.mapper = mapper;
+    this.flattener = ObjectFlatteners.create(flattenSpec, new JSONFlattenerMaker());
+    this.referencedFields = findReferencedFields(inputRowSchema, flattenSpec, keepFields);
+    this.convertDirectly = referencedFields != null && flattenSpec.getFields().stream().allMatch(
+        fieldSpec -> fieldSpec.getType() == JSONPathFieldType.ROOT && fieldSpec.getName().equals(fieldSpec.getExpr())
+    );
+  }
+
+  @Override
+  protected CloseableIterator<byte[]> intermediateRowIterator() throws IOException
+  {
+    return new ByteLineIterator(source.open());
+  }
+
+  @Override
+  protected List<InputRow> parseInputRows(byte[] line) throws IOException, ParseException
+  {
+    final Map<String, Object> event;
+    try (JsonParser parser = mapper.getFactory().createParser(line)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new ParseException("Expected a JSON object in line [%s]", StringUtils.fromUtf8(line));
+      }
+      event = convertDirectly ? readReferencedFields(parser) : flattener.flatten(readReferencedTree(parser));
+    }
+    catch (IOException e) {
+      throw new ParseException(e, "Unable to parse row [%s]", StringUtils.fromUtf8(line));
+    }
+    return Collections.singletonList(MapInputRowParser.parse(inputRowSchema, event));
+  }
+
+  @Override
+  protected Map<String, Object> toMap(byte[] intermediateRow) throws IOException
+  {
+    //noinspection unchecked
+    return mapper.readValue(intermediateRow, Map.class);
+  }
+
+  @VisibleForTesting
+  @Nullable
+  Set<String> getReferencedFields()
+  {
+    return referencedFields;
+  }
+
+  private boolean isReferenced(String field)
+  {
+    return referencedFields == null || referencedFields.contains(field);
+  }
+
+  /**
+   * Reads the remaining fields of the current object into a map, converting values the same way
+   * {@link JSONFlattenerMaker} converts root fields.
+   */
+  private Map<String, Object> readReferencedFields(JsonParser parser) throws IOException
+  {
+    final Map<String, Object> event = new HashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String field = parser.getCurrentName();
+      parser.nextToken();
+      if (isReferenced(field)) {
+        event.put(field, readValue(parser));
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return event;
+  }
+
+  private ObjectNode readReferencedTree(JsonParser parser) throws IOException
+  {
+    final ObjectNode node = mapper.createObjectNode();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String field = parser.getCurrentName();
+      parser.nextToken();
+      if (isReferenced(field)) {
+        node.set(field, mapper.readTree(parser));
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return node;
+  }
+
+  @Nullable
+  private Object readValue(JsonParser parser) throws IOException
+  {
+    switch (parser.getCurrentToken()) {
+      case VALUE_NULL:
+        return null;
+      case VALUE_TRUE:
+        return true;
+      case VALUE_FALSE:
+        return false;
+      case VALUE_NUMBER_INT:
+        if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+          return parser.getDoubleValue();
+        }
+        return parser.getLongValue();
+      case VALUE_NUMBER_FLOAT:
+        return parser.getDoubleValue();
+      case VALUE_STRING:
+        return charsetFix(parser.getText());
+      case START_ARRAY:
+        final List<Object> list = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          if (parser.getCurrentToken() != JsonToken.VALUE_NULL) {
+            list.add(readValue(parser));
+          }
+        }
+        return list;
+      case START_OBJECT:
+        final Map<String, Object> map = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          final String field = parser.getCurrentName();
+          parser.nextToken();
+          map.put(field, readValue(parser));
+        }
+        return map;
+      default:
+        return parser.getEmbeddedObject();
+    }
+  }
+
+  private String charsetFix(String s)
+  {
+    if (!enc.canEncode(s)) {
+      // Same as JSONFlattenerMaker: replace characters that decode fine but do not encode back into the same bytes.
+      return StringUtils.fromUtf8(StringUtils.toUtf8(s));
+    } else {
+      return s;
+    }
+  }
+
+  /**
+   * Returns the top-level fields read by the given schema and flattenSpec, or null if every field must be read.
+   */
+  @Nullable
+  private static Set<String> findReferencedFields(
+      InputRowSchema inputRowSchema,
+      JSONPathSpec flattenSpec,
+      List<String> keepFields
+  )
+  {
+    final DimensionsSpec dimensionsSpec = inputRowSchema.getDimensionsSpec();
+    if (!dimensionsSpec.hasCustomDimensions()) {
+      // Schemaless: every discovered field becomes a dimension.
+      return null;
+    }
+
+    final Set<String> metricAndTransformInputColumns = inputRowSchema.getMetricAndTransformInputColumns();
+    if (metricAndTransformInputColumns == null) {
+      // Unknown inputs of aggregators or transforms could be any field.
+      return null;
+    }
+
+    final Set<String> fields = new HashSet<>(metricAndTransformInputColumns);
+    fields.add(inputRowSchema.getTimestampSpec().getTimestampColumn());
+    fields.addAll(dimensionsSpec.getDimensionNames());
+    for (SpatialDimensionSchema spatialDimension : dimensionsSpec.getSpatialDimensions()) {
+      fields.addAll(spatialDimension.getDims());
+    }
+    fields.addAll(keepFields);
+
+    for (JSONPathFieldSpec fieldSpec : flattenSpec.getFields()) {
+      switch (fieldSpec.getType()) {
+        case ROOT:
+          fields.add(fieldSpec.getExpr());
+          break;
+        case PATH:
+          final String rootField = findJsonPathRootField(fieldSpec.getExpr());
+          if (rootField == null) {
+            return null;
+          }
+          fields.add(rootField);
+          break;
+        default:
+          return null;
+      }
+    }
+    return fields;
+  }
+
+  /**
+   * Returns the top-level field a JSONPath expression such as {@code $.foo.bar} or {@code $['foo'][0]} starts from,
+   * or null if the expression may read from more than one top-level field (deep scans, wildcards, filters, etc).
+   */
+  @VisibleForTesting
+  @Nullable
+  static String findJsonPathRootField(String expr)
+  {
+    if (expr.startsWith("$['") || expr.startsWith("$[\"")) {
+      final int end = expr.indexOf(expr.charAt(2) + "]", 3);
+      return end < 0 ? null : expr.substring(3, end);
+    }
+    if (!expr.startsWith("$.")) {
+      return null;
+    }
+    int end = 2;
+    while (end < expr.length() && expr.charAt(end) != '.' && expr.charAt(end) != '[') {
+      end++;
+    }
+    final String field = expr.substring(2, end);
+    return field.isEmpty() || "*".equals(field) ? null : field;
+  }
+
+  /**
+   * Splits an {@link InputStream} into lines on '\n', '\r' or "\r\n", like {@link org.apache.commons.io.LineIterator}
+   * does, but without decoding the bytes into {@link String}s.
+   */
+  private static class ByteLineIterator implements CloseableIterator<byte[]>
+  {
+    private final InputStream in;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int start = 0;
+    private int end = 0;
+    private boolean eof = false;
+    private boolean skipLineFeed = false;
+    @Nullable
+    private byte[] nextLine;
+
+    private ByteLineIterator(InputStream in)
+    {
+      this.in = in;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+      if (nextLine == null) {
+        try {
+          nextLine = readLine();
+        }
+        catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+      return nextLine != null;
+    }
+
+    @Override
+    public byte[] next()
+    {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final byte[] line = nextLine;
+      nextLine = null;
+      return line;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+      in.close();
+    }
+
+    @Nullable
+    private byte[] readLine() throws IOException
+    {
+      if (skipLineFeed) {
+        if (start == end && !eof) {
+          fill();
+        }
+        if (start < end && buffer[start] == '\n') {
+          start++;
+        }
+        skipLineFeed = false;
+      }
+
+      int scan = start;
+      while (true) {
+        for (; scan < end; scan++) {
+          final byte b = buffer[scan];
+          if (b == '\n' || b == '\r') {
+            final byte[] line = Arrays.copyOfRange(buffer, start, scan);
+            start = scan + 1;
+            skipLineFeed = b == '\r';
+            return line;
+          }
+        }
+        if (eof) {
+          if (start < end) {
+            final byte[] line = Arrays.copyOfRange(buffer, start, end);
+            start = end;
+            return line;
+          }
+          return null;
+        }
+        final int scanned = scan - start;
+        fill();
+        scan = start + scanned;
+      }
+    }
+
+    private void fill() throws IOException
+    {
+      if (start > 0) {
+        System.arraycopy(buffer, start, buffer, 0, end - start);
+        end -= start;
+        start = 0;
+      }
+      if (end == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      }
+      final int read = in.read(buffer, end, buffer.length - end);
+      if (read < 0) {
+        eof = true;
+      } else {
+        end += read;
+      }
+    }
+  }
+}
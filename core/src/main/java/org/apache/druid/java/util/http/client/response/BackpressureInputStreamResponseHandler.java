@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.java.util.http.client.response;
+
+import com.google.common.base.Preconditions;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.handler.codec.http.HttpChunk;
+import org.jboss.netty.handler.codec.http.HttpResponse;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A response handler which returns the response body as an {@link InputStream} as soon as the response headers are
+ * received, like {@link InputStreamResponseHandler}. Unlike it, this handler exerts backpressure: the HTTP client stops
+ * reading from the connection while more than maxQueuedBytes have been received but not read from the stream yet, so
+ * a slow reader doesn't make the whole response pile up in memory. The client may deliver a few more chunks after
+ * reading is suspended, so the buffered bytes can slightly exceed maxQueuedBytes.
+ *
+ * Closing the stream before the end of the response discards the rest of the response.
+ */
+public class BackpressureInputStreamResponseHandler implements HttpResponseHandler<InputStream, InputStream>
+{
+  private static final Chunk END = new Chunk(null, 0, null);
+
+  private final long maxQueuedBytes;
+  private final BlockingQueue<Chunk> queue = new LinkedBlockingQueue<>();
+  private final AtomicLong queuedBytes = new AtomicLong(0);
+  private volatile TrafficCop trafficCop;
+  private volatile boolean closed;
+
+  public BackpressureInputStreamResponseHandler(long maxQueuedBytes)
+  {
+    Preconditions.checkArgument(maxQueuedBytes > 0, "maxQueuedBytes must be positive");
+    this.maxQueuedBytes = maxQueuedBytes;
+  }
+
+  @Override
+  public ClientResponse<InputStream> handleResponse(HttpResponse response, TrafficCop trafficCop)
+  {
+    this.trafficCop = trafficCop;
+    final boolean continueReading = enqueue(response.getContent(), 0);
+    return ClientResponse.finished(new ChunkInputStream(), continueReading);
+  }
+
+  @Override
+  public ClientResponse<InputStream> handleChunk(
+      ClientResponse<InputStream> clientResponse,
+      HttpChunk chunk,
+      long chunkNum
+  )
+  {
+    return ClientResponse.finished(clientResponse.getObj(), enqueue(chunk.getContent(), chunkNum));
+  }
+
+  @Override
+  public ClientResponse<InputStream> done(ClientResponse<InputStream> clientResponse)
+  {
+    queue.add(END);
+    return ClientResponse.finished(clientResponse.getObj());
+  }
+
+  @Override
+  public void exceptionCaught(ClientResponse<InputStream> clientResponse, Throwable e)
+  {
+    queue.add(new Chunk(null, 0, e));
+  }
+
+  /**
+   * Returns false if reading should be suspended.
+   */
+  private boolean enqueue(ChannelBuffer content, long chunkNum)
+  {
+    if (closed) {
+      // Nobody will read it. Keep reading to drain the connection.
+      return true;
+    }
+    if (content.readableBytes() == 0) {
+      return queuedBytes.get() < maxQueuedBytes;
+    }
+    final byte[] bytes = new byte[content.readableBytes()];
+    content.readBytes(bytes);
+    // Count the bytes before queueing them, so that queuedBytes is never lower than the number of queued bytes.
+    final long currentQueuedBytes = queuedBytes.addAndGet(bytes.length);
+    queue.add(new Chunk(bytes, chunkNum, null));
+    return currentQueuedBytes < maxQueuedBytes;
+  }
+
+  private static class Chunk
+  {
+    @Nullable
+    private final byte[] bytes;
+    private final long chunkNum;
+    @Nullable
+    private final Throwable error;
+
+    private Chunk(@Nullable byte[] bytes, long chunkNum, @Nullable Throwable error)
+    {
+      this.bytes = bytes;
+      this.chunkNum = chunkNum;
+      this.error = error;
+    }
+  }
+
+  private class ChunkInputStream extends InputStream
+  {
+    private byte[] current = new byte[0];
+    private int position = 0;
+    private boolean finished = false;
+    @Nullable
+    private IOException failure = null;
+
+    @Override
+    public int read() throws IOException
+    {
+      if (!ensureAvailable()) {
+        return -1;
+      }
+      return current[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+      if (len == 0) {
+        return 0;
+      }
+      if (!ensureAvailable()) {
+        return -1;
+      }
+      final int numRead = Math.min(len, current.length - position);
+      System.arraycopy(current, position, b, off, numRead);
+      position += numRead;
+      return numRead;
+    }
+
+    @Override
+    public int available()
+    {
+      return current.length - position;
+    }
+
+    @Override
+    public void close()
+    {
+      if (!closed) {
+        closed = true;
+        queue.clear();
+        queuedBytes.set(0);
+        if (trafficCop != null) {
+          trafficCop.resume(Long.MAX_VALUE);
+        }
+      }
+    }
+
+    /**
+     * Waits until there are bytes to read. Returns false at the end of the response.
+     */
+    private boolean ensureAvailable() throws IOException
+    {
+      while (position == current.length) {
+        if (failure != null) {
+          throw failure;
+        }
+        if (finished || closed) {
+          return false;
+        }
+
+        final Chunk chunk;
+        try {
+          chunk = queue.take();
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while waiting for the response");
+        }
+
+        if (chunk.error != null) {
+          failure = new IOException(chunk.error);
+        } else if (chunk.bytes == null) {
+          finished = true;
+        } else {
+          current = chunk.bytes;
+          position = 0;
+          if (queuedBytes.addAndGet(-chunk.bytes.length) < maxQueuedBytes) {
+            trafficCop.resume(chunk.chunkNum);
+          }
+        }
+      }
+      return true;
+    }
+  }
+}
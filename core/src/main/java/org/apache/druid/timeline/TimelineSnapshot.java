@@ -0,0 +1,288 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.timeline;
+
+import org.apache.druid.timeline.partition.PartitionHolder;
+import org.joda.time.Interval;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable snapshot of the visible entries of a {@link VersionedIntervalTimeline}, created by
+ * {@link VersionedIntervalTimeline#snapshot()}. Lookups do not acquire any lock and can run concurrently with
+ * modifications of the timeline, which are not reflected in the snapshot.
+ *
+ * Visible timeline entries never overlap, so they are sorted by both their start and their end. The snapshot stores
+ * them in arrays and finds the entries overlapping an interval with a binary search on their end, which makes lookups
+ * O(log n + k) for n visible entries of which k are returned. The {@link PartitionHolder}s of returned holders are
+ * immutable and shared between lookups.
+ *
+ * A snapshot of a modified timeline is derived from the previous snapshot by {@link #withReplacedEntries}, which only
+ * creates holders for the entries overlapping the modified range and copies the arrays of the others.
+ *
+ * {@link #findEntry} is not served from the snapshot, but from the timeline it was created from.
+ */
+public class TimelineSnapshot<VersionType, ObjectType extends Overshadowable<ObjectType>>
+    implements TimelineLookup<VersionType, ObjectType>
+{
+  private final long modificationCount;
+  private final Entries<VersionType, ObjectType> completeEntries;
+  private final Entries<VersionType, ObjectType> incompleteEntries;
+  private final TimelineLookup<VersionType, ObjectType> timeline;
+
+  /**
+   * @param modificationCount  modification count of the timeline when this snapshot was created
+   * @param completeHolders   visible entries with complete partitions, sorted by interval
+   * @param incompleteHolders visible entries including incomplete partitions, sorted by interval
+   * @param timeline          timeline this snapshot was created from
+   */
+  TimelineSnapshot(
+      long modificationCount,
+      List<TimelineObjectHolder<VersionType, ObjectType>> completeHolders,
+      List<TimelineObjectHolder<VersionType, ObjectType>> incompleteHolders,
+      TimelineLookup<VersionType, ObjectType> timeline
+  )
+  {
+    this(modificationCount, new Entries<>(completeHolders), new Entries<>(incompleteHolders), timeline);
+  }
+
+  private TimelineSnapshot(
+      long modificationCount,
+      Entries<VersionType, ObjectType> completeEntries,
+      Entries<VersionType, ObjectType> incompleteEntries,
+      TimelineLookup<VersionType, ObjectType> timeline
+  )
+  {
+    this.modificationCount = modificationCount;
+    this.completeEntries = completeEntries;
+    this.incompleteEntries = incompleteEntries;
+    this.timeline = timeline;
+  }
+
+  /**
+   * Returns a snapshot in which the entries overlapping the range from startMillis to endMillis are replaced with the
+   * given ones, which must be all the visible entries of the timeline overlapping that range, sorted by interval. The
+   * timeline must not have added or removed visible entries outside of that range since this snapshot was created.
+   *
+   * @param modificationCount modification count of the timeline when the given entries were read
+   */
+  TimelineSnapshot<VersionType, ObjectType> withReplacedEntries(
+      long modificationCount,
+      long startMillis,
+      long endMillis,
+      List<TimelineObjectHolder<VersionType, ObjectType>> completeHolders,
+      List<TimelineObjectHolder<VersionType, ObjectType>> incompleteHolders
+  )
+  {
+    return new TimelineSnapshot<>(
+        modificationCount,
+        completeEntries.replace(startMillis, endMillis, completeHolders),
+        incompleteEntries.replace(startMillis, endMillis, incompleteHolders),
+        timeline
+    );
+  }
+
+  long getModificationCount()
+  {
+    return modificationCount;
+  }
+
+  public int getNumVisibleEntries()
+  {
+    return incompleteEntries.holders.length;
+  }
+
+  @Override
+  public List<TimelineObjectHolder<VersionType, ObjectType>> lookup(Interval interval)
+  {
+    return completeEntries.lookup(interval);
+  }
+
+  @Override
+  public List<TimelineObjectHolder<VersionType, ObjectType>> lookupWithIncompletePartitions(Interval interval)
+  {
+    return incompleteEntries.lookup(interval);
+  }
+
+  @Nullable
+  @Override
+  public PartitionHolder<ObjectType> findEntry(Interval interval, VersionType version)
+  {
+    return timeline.findEntry(interval, version);
+  }
+
+  private static class Entries<VersionType, ObjectType extends Overshadowable<ObjectType>>
+  {
+    private final long[] starts;
+    private final long[] ends;
+    private final TimelineObjectHolder<VersionType, ObjectType>[] holders;
+
+    @SuppressWarnings("unchecked")
+    private Entries(List<TimelineObjectHolder<VersionType, ObjectType>> sortedHolders)
+    {
+      this.starts = new long[sortedHolders.size()];
+      this.ends = new long[sortedHolders.size()];
+      this.holders = sortedHolders.toArray(new TimelineObjectHolder[0]);
+
+      for (int i = 0; i < holders.length; i++) {
+        starts[i] = holders[i].getInterval().getStartMillis();
+        ends[i] = holders[i].getInterval().getEndMillis();
+      }
+    }
+
+    private Entries(long[] starts, long[] ends, TimelineObjectHolder<VersionType, ObjectType>[] holders)
+    {
+      this.starts = starts;
+      this.ends = ends;
+      this.holders = holders;
+    }
+
+    /**
+     * Returns entries in which the entries overlapping the given range are replaced with the given sorted holders.
+     */
+    @SuppressWarnings("unchecked")
+    private Entries<VersionType, ObjectType> replace(
+        long startMillis,
+        long endMillis,
+        List<TimelineObjectHolder<VersionType, ObjectType>> sortedHolders
+    )
+    {
+      final int from = firstEndingAfter(startMillis);
+      final int to = Math.max(from, firstStartingAtOrAfter(endMillis));
+
+      final int numReplacing = sortedHolders.size();
+      final int numAfter = holders.length - to;
+      final int size = from + numReplacing + numAfter;
+      final long[] newStarts = new long[size];
+      final long[] newEnds = new long[size];
+      final TimelineObjectHolder<VersionType, ObjectType>[] newHolders = new TimelineObjectHolder[size];
+
+      System.arraycopy(starts, 0, newStarts, 0, from);
+      System.arraycopy(ends, 0, newEnds, 0, from);
+      System.arraycopy(holders, 0, newHolders, 0, from);
+      for (int i = 0; i < numReplacing; i++) {
+        final TimelineObjectHolder<VersionType, ObjectType> holder = sortedHolders.get(i);
+        newStarts[from + i] = holder.getInterval().getStartMillis();
+        newEnds[from + i] = holder.getInterval().getEndMillis();
+        newHolders[from + i] = holder;
+      }
+      System.arraycopy(starts, to, newStarts, from + numReplacing, numAfter);
+      System.arraycopy(ends, to, newEnds, from + numReplacing, numAfter);
+      System.arraycopy(holders, to, newHolders, from + numReplacing, numAfter);
+
+      return new Entries<>(newStarts, newEnds, newHolders);
+    }
+
+    /**
+     * Same as {@link VersionedIntervalTimeline#lookup}: returns the entries overlapping the given interval, with the
+     * intervals of the first and last entries clipped to the given interval.
+     */
+    private List<TimelineObjectHolder<VersionType, ObjectType>> lookup(Interval interval)
+    {
+      final long queryStart = interval.getStartMillis();
+      final long queryEnd = interval.getEndMillis();
+
+      // Entries overlap the interval iff they start before its end and end after its start.
+      final int from = firstEndingAfter(queryStart);
+      int to = from;
+      while (to < holders.length && starts[to] < queryEnd) {
+        to++;
+      }
+
+      if (from == to) {
+        return Collections.emptyList();
+      }
+
+      final List<TimelineObjectHolder<VersionType, ObjectType>> retVal = new ArrayList<>(to - from);
+      for (int i = from; i < to; i++) {
+        retVal.add(holders[i]);
+      }
+
+      final TimelineObjectHolder<VersionType, ObjectType> firstEntry = retVal.get(0);
+      if (queryStart > starts[from]) {
+        retVal.set(
+            0,
+            new TimelineObjectHolder<>(
+                new Interval(interval.getStart(), firstEntry.getInterval().getEnd()),
+                firstEntry.getTrueInterval(),
+                firstEntry.getVersion(),
+                firstEntry.getObject()
+            )
+        );
+      }
+
+      final TimelineObjectHolder<VersionType, ObjectType> lastEntry = retVal.get(retVal.size() - 1);
+      if (queryEnd < ends[to - 1]) {
+        retVal.set(
+            retVal.size() - 1,
+            new TimelineObjectHolder<>(
+                new Interval(lastEntry.getInterval().getStart(), interval.getEnd()),
+                lastEntry.getTrueInterval(),
+                lastEntry.getVersion(),
+                lastEntry.getObject()
+            )
+        );
+      }
+
+      return retVal;
+    }
+
+    /**
+     * Returns the index of the first entry ending after the given instant, or the number of entries if there is none.
+     */
+    private int firstEndingAfter(long instant)
+    {
+      int low = 0;
+      int high = ends.length;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        if (ends[mid] <= instant) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * Returns the index of the first entry starting at or after the given instant, or the number of entries if there
+     * is none.
+     */
+    private int firstStartingAtOrAfter(long instant)
+    {
+      int low = 0;
+      int high = starts.length;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        if (starts[mid] < instant) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+}
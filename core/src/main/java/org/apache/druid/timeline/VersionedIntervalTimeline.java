@@ -26,8 +26,10 @@ import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Iterators;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
 import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.Intervals;
 import org.apache.druid.java.util.common.UOE;
 import org.apache.druid.java.util.common.guava.Comparators;
+import org.apache.druid.timeline.partition.ImmutablePartitionHolder;
 import org.apache.druid.timeline.partition.PartitionChunk;
 import org.apache.druid.timeline.partition.PartitionHolder;
 import org.apache.druid.utils.CollectionUtils;
@@ -47,7 +49,10 @@ import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -70,6 +75,10 @@ import java.util.stream.StreamSupport;
  * and {@link #remove} methods to achieve "atomic" updates. First add new items, then check if those items caused
  * anything to be overshadowed, if so, remove the overshadowed elements and you have effectively updated your data set
  * without any user impact.
+ *
+ * For read-heavy usage, {@link #snapshot()} returns an immutable {@link TimelineSnapshot} that can be looked up without
+ * locking. Snapshots are cached until the timeline is next modified. {@link #asSnapshotView} serves lookups from the
+ * cached snapshot and rebuilds it in the background, so that readers do not pay for the rebuild.
  */
 public class VersionedIntervalTimeline<VersionType, ObjectType extends Overshadowable<ObjectType>>
     implements TimelineLookup<VersionType, ObjectType>
@@ -103,6 +112,18 @@ public class VersionedIntervalTimeline<VersionType, ObjectType extends Overshado
   // true interval -> version -> timelineEntry
   private final Map<Interval, TreeMap<VersionType, TimelineEntry>> allTimelineEntries = new HashMap<>();
   private final AtomicInteger numObjects = new AtomicInteger();
+  private final AtomicLong modificationCount = new AtomicLong();
+  // Time of the first modification not reflected in the cached snapshot, or 0 if there is none.
+  private volatile long snapshotStaleSinceMillis = 0;
+  // Range covering the visible entries added, removed or modified since the cached snapshot was built. Updated by
+  // writers under the write lock, and reset by snapshot() under the read lock and snapshotLock.
+  private long modifiedStartMillis = Long.MAX_VALUE;
+  private long modifiedEndMillis = Long.MIN_VALUE;
+  private final AtomicBoolean snapshotRebuildScheduled = new AtomicBoolean();
+
+  private final Object snapshotLock = new Object();
+  @Nullable
+  private volatile TimelineSnapshot<VersionType, ObjectType> snapshot;
 
   private final Comparator<? super VersionType> versionComparator;
 
@@ -210,6 +231,7 @@ public class VersionedIntervalTimeline<VersionType, ObjectType extends Overshado
           } else {
             PartitionHolder<ObjectType> partitionHolder = entry.getPartitionHolder();
             if (partitionHolder.add(object)) {
+              entry.invalidateVisiblePartitionHolder();
               numObjects.incrementAndGet();
             }
           }
@@ -221,6 +243,7 @@ public class VersionedIntervalTimeline<VersionType, ObjectType extends Overshado
       // "isComplete" is O(objects in holder) so defer it to the end of addAll.
       for (Entry<TimelineEntry, Interval> entry : allEntries.entrySet()) {
         Interval interval = entry.getValue();
+        markModified(interval);
 
         if (entry.getKey().getPartitionHolder().isComplete()) {
           add(completePartitionsTimeline, interval, entry.getKey());
@@ -253,6 +276,8 @@ public class VersionedIntervalTimeline<VersionType, ObjectType extends Overshado
       if (removedChunk == null) {
         return null;
       }
+      entry.invalidateVisiblePartitionHolder();
+      markModified(interval);
       numObjects.decrementAndGet();
       if (entry.getPartitionHolder().isEmpty()) {
         versionEntries.remove(version);
@@ -326,6 +351,198 @@ public class VersionedIntervalTimeline<VersionType, ObjectType extends Overshado
     }
   }
 
+  /**
+   * Records a modification of the entries of the given true interval. The visible entries added to or removed from the
+   * visible timelines are recorded by {@link #markVisibleEntryModified}, this covers changes of the partitions of the
+   * visible entries of that interval.
+   */
+  @GuardedBy("lock")
+  private void markModified(Interval interval)
+  {
+    modificationCount.incrementAndGet();
+    markVisibleEntryModified(interval);
+    if (snapshotStaleSinceMillis == 0) {
+      snapshotStaleSinceMillis = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * Returns an immutable snapshot of the visible entries of this timeline. The snapshot is cached and only rebuilt
+   * after this timeline is modified, so calling this method between modifications is cheap and does not acquire any
+   * lock. Rebuilding is incremental: only the visible entries overlapping the range of the entries added, removed or
+   * modified since the previous snapshot are copied from this timeline, the others are taken from the previous
+   * snapshot.
+   */
+  public TimelineSnapshot<VersionType, ObjectType> snapshot()
+  {
+    final TimelineSnapshot<VersionType, ObjectType> current = snapshot;
+    if (current != null && current.getModificationCount() == modificationCount.get()) {
+      return current;
+    }
+
+    lock.readLock().lock();
+    try {
+      synchronized (snapshotLock) {
+        // modificationCount cannot change while we are holding the read lock.
+        final long count = modificationCount.get();
+        if (snapshot == null) {
+          snapshot = new TimelineSnapshot<>(
+              count,
+              toSnapshotHolders(completePartitionsTimeline.entrySet()),
+              toSnapshotHolders(incompletePartitionsTimeline.entrySet()),
+              this
+          );
+          resetModifiedRange();
+        } else if (snapshot.getModificationCount() != count) {
+          // Visible entries not overlapping the modified range are the same in the previous snapshot and the timeline.
+          final long start = modifiedStartMillis;
+          final long end = modifiedEndMillis;
+          snapshot = snapshot.withReplacedEntries(
+              count,
+              start,
+              end,
+              toSnapshotHolders(entriesOverlapping(completePartitionsTimeline, start, end)),
+              toSnapshotHolders(entriesOverlapping(incompletePartitionsTimeline, start, end))
+          );
+          resetModifiedRange();
+        }
+        return snapshot;
+      }
+    }
+    finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @GuardedBy("lock")
+  private void markVisibleEntryModified(Interval interval)
+  {
+    modifiedStartMillis = Math.min(modifiedStartMillis, interval.getStartMillis());
+    modifiedEndMillis = Math.max(modifiedEndMillis, interval.getEndMillis());
+  }
+
+  @GuardedBy("snapshotLock")
+  private void resetModifiedRange()
+  {
+    modifiedStartMillis = Long.MAX_VALUE;
+    modifiedEndMillis = Long.MIN_VALUE;
+    snapshotStaleSinceMillis = 0;
+  }
+
+  /**
+   * Returns the visible entries of the given timeline overlapping the given range, in order.
+   */
+  @GuardedBy("lock")
+  private List<Entry<Interval, TimelineEntry>> entriesOverlapping(
+      NavigableMap<Interval, TimelineEntry> timeline,
+      long startMillis,
+      long endMillis
+  )
+  {
+    // Visible entries do not overlap, so the only entry starting before the range which can overlap it is the last one.
+    final Interval startKey = Intervals.utc(startMillis, startMillis);
+    final Interval lowerKey = timeline.lowerKey(startKey);
+    final List<Entry<Interval, TimelineEntry>> entries = new ArrayList<>();
+    for (Entry<Interval, TimelineEntry> entry : timeline.tailMap(lowerKey == null ? startKey : lowerKey, true)
+                                                        .entrySet()) {
+      if (entry.getKey().getStartMillis() >= endMillis) {
+        break;
+      }
+      if (entry.getKey().getEndMillis() > startMillis) {
+        entries.add(entry);
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * Rebuilds the cached {@link #snapshot()} on the given executor. Requests made while a rebuild is pending are
+   * coalesced, so that a burst of modifications is followed by a single rebuild.
+   */
+  public void scheduleSnapshotRebuild(Executor rebuildExecutor)
+  {
+    if (snapshotRebuildScheduled.compareAndSet(false, true)) {
+      rebuildExecutor.execute(
+          () -> {
+            // reset first, so that modifications made during the rebuild schedule another one
+            snapshotRebuildScheduled.set(false);
+            snapshot();
+          }
+      );
+    }
+  }
+
+  /**
+   * Returns a view of this timeline whose lookups are served from the cached {@link #snapshot()}. Unlike a single
+   * snapshot, the view reflects modifications of this timeline made after it was created.
+   *
+   * If maxStalenessMillis is 0 or less, lookups always see the latest modifications, rebuilding a stale snapshot
+   * themselves. Otherwise lookups may use a stale snapshot, for at most maxStalenessMillis after the first
+   * modification it misses, and schedule a rebuild on the given executor meanwhile. Either way, writers can call
+   * {@link #scheduleSnapshotRebuild} after modifications so that the snapshot is usually fresh before the next lookup.
+   */
+  public TimelineLookup<VersionType, ObjectType> asSnapshotView(Executor rebuildExecutor, long maxStalenessMillis)
+  {
+    return new TimelineLookup<VersionType, ObjectType>()
+    {
+      @Override
+      public List<TimelineObjectHolder<VersionType, ObjectType>> lookup(Interval interval)
+      {
+        return latestSnapshot(rebuildExecutor, maxStalenessMillis).lookup(interval);
+      }
+
+      @Override
+      public List<TimelineObjectHolder<VersionType, ObjectType>> lookupWithIncompletePartitions(Interval interval)
+      {
+        return latestSnapshot(rebuildExecutor, maxStalenessMillis).lookupWithIncompletePartitions(interval);
+      }
+
+      @Nullable
+      @Override
+      public PartitionHolder<ObjectType> findEntry(Interval interval, VersionType version)
+      {
+        return VersionedIntervalTimeline.this.findEntry(interval, version);
+      }
+    };
+  }
+
+  private TimelineSnapshot<VersionType, ObjectType> latestSnapshot(Executor rebuildExecutor, long maxStalenessMillis)
+  {
+    final TimelineSnapshot<VersionType, ObjectType> current = snapshot;
+    if (current == null) {
+      return snapshot();
+    }
+    if (current.getModificationCount() != modificationCount.get()) {
+      final long staleSinceMillis = snapshotStaleSinceMillis;
+      if (maxStalenessMillis <= 0
+          || (staleSinceMillis != 0 && System.currentTimeMillis() - staleSinceMillis > maxStalenessMillis)) {
+        return snapshot();
+      }
+      scheduleSnapshotRebuild(rebuildExecutor);
+    }
+    return current;
+  }
+
+  @GuardedBy("lock")
+  private List<TimelineObjectHolder<VersionType, ObjectType>> toSnapshotHolders(
+      Collection<Entry<Interval, TimelineEntry>> entries
+  )
+  {
+    final List<TimelineObjectHolder<VersionType, ObjectType>> holders = new ArrayList<>(entries.size());
+    for (Entry<Interval, TimelineEntry> entry : entries) {
+      final TimelineEntry val = entry.getValue();
+      holders.add(
+          new TimelineObjectHolder<>(
+              entry.getKey(),
+              val.getTrueInterval(),
+              val.getVersion(),
+              val.getVisiblePartitionHolder()
+          )
+      );
+    }
+    return holders;
+  }
+
   public boolean isEmpty()
   {
     lock.readLock().lock();
@@ -605,6 +822,7 @@ public class VersionedIntervalTimeline<VersionType, ObjectType extends Overshado
         // since the entry version is greater than the existing one, the given entry overwrites the existing one
         // if overlapped.
         final TimelineEntry oldEntry = timeline.remove(currKey);
+        markVisibleEntryModified(currKey);
 
         if (currKey.contains(entryInterval)) {
           //     |      cur      |
@@ -630,6 +848,7 @@ public class VersionedIntervalTimeline<VersionType, ObjectType extends Overshado
         if (timeline.get(currKey).equals(entry)) {
           // This occurs when restoring segments
           timeline.remove(currKey);
+          markVisibleEntryModified(currKey);
         } else {
           throw new UOE(
               "Cannot add overlapping segments [%s and %s] with the same version [%s]",
@@ -658,6 +877,7 @@ public class VersionedIntervalTimeline<VersionType, ObjectType extends Overshado
   {
     if (interval != null && interval.toDurationMillis() > 0) {
       timeline.put(interval, entry);
+      markVisibleEntryModified(interval);
     }
   }
 
@@ -697,6 +917,7 @@ public class VersionedIntervalTimeline<VersionType, ObjectType extends Overshado
   )
   {
     timeline.remove(interval);
+    markVisibleEntryModified(interval);
 
     for (Entry<Interval, TreeMap<VersionType, TimelineEntry>> versionEntry : allTimelineEntries.entrySet()) {
       if (versionEntry.getKey().overlap(interval) != null) {
@@ -726,10 +947,20 @@ public class VersionedIntervalTimeline<VersionType, ObjectType extends Overshado
       timeline = completePartitionsTimeline;
     }
 
-    for (Entry<Interval, TimelineEntry> entry : timeline.entrySet()) {
+    // Visible entries never overlap, so entries before the last one starting before the interval cannot overlap it,
+    // and neither can entries starting at or after its end.
+    final Interval floorKey = timeline.floorKey(new Interval(interval.getStart(), interval.getStart()));
+    final NavigableMap<Interval, TimelineEntry> candidates =
+        floorKey == null ? timeline : timeline.tailMap(floorKey, true);
+
+    for (Entry<Interval, TimelineEntry> entry : candidates.entrySet()) {
       Interval timelineInterval = entry.getKey();
       TimelineEntry val = entry.getValue();
 
+      if (timelineInterval.getStartMillis() >= interval.getEndMillis()) {
+        break;
+      }
+
       if (timelineInterval.overlaps(interval)) {
         retVal.add(
             new TimelineObjectHolder<>(
@@ -782,6 +1013,13 @@ public class VersionedIntervalTimeline<VersionType, ObjectType extends Overshado
     private final VersionType version;
     private final PartitionHolder<ObjectType> partitionHolder;
 
+    /**
+     * Cached copy of the visible chunks of {@link #partitionHolder}, shared by {@link TimelineSnapshot}s. Must only be
+     * accessed while holding the timeline lock.
+     */
+    @Nullable
+    private ImmutablePartitionHolder<ObjectType> visiblePartitionHolder;
+
     TimelineEntry(Interval trueInterval, VersionType version, PartitionHolder<ObjectType> partitionHolder)
     {
       this.trueInterval = Preconditions.checkNotNull(trueInterval);
@@ -804,6 +1042,19 @@ public class VersionedIntervalTimeline<VersionType, ObjectType extends Overshado
       return partitionHolder;
     }
 
+    ImmutablePartitionHolder<ObjectType> getVisiblePartitionHolder()
+    {
+      if (visiblePartitionHolder == null) {
+        visiblePartitionHolder = partitionHolder.asImmutable();
+      }
+      return visiblePartitionHolder;
+    }
+
+    void invalidateVisiblePartitionHolder()
+    {
+      visiblePartitionHolder = null;
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.data.input;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.druid.data.input.impl.DimensionsSpec;
+import org.apache.druid.data.input.impl.TimestampSpec;
+import org.apache.druid.java.util.common.CloseableIterators;
+import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.parsers.CloseableIterator;
+import org.apache.druid.java.util.common.parsers.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+public class InputRowBatchesTest
+{
+  private static final InputRowSchema SCHEMA = new InputRowSchema(
+      new TimestampSpec("ts", "millis", null),
+      new DimensionsSpec(null, ImmutableList.of("ts"), null),
+      Collections.emptyList()
+  );
+
+  @Test
+  public void testFromRowsKeepsParseExceptionsInPlace() throws IOException
+  {
+    final List<Object> rowsOrExceptions = new ArrayList<>();
+    for (int i = 0; i < 7; i++) {
+      rowsOrExceptions.add(
+          i % 3 == 1
+          ? new ParseException("bad row %s", i)
+          : new MapBasedInputRow(i, ImmutableList.of("dim"), ImmutableMap.of("dim", i))
+      );
+    }
+
+    final List<InputRowBatch> batches = new ArrayList<>();
+    try (CloseableIterator<InputRowBatch> iterator = InputRowBatches.fromRows(throwingIterator(rowsOrExceptions), 3)) {
+      iterator.forEachRemaining(batches::add);
+    }
+    Assert.assertEquals(3, batches.size());
+    Assert.assertEquals(3, batches.get(0).size());
+    Assert.assertEquals(1, batches.get(2).size());
+
+    try (CloseableIterator<InputRow> iterator = InputRowBatches.toRows(
+        CloseableIterators.withEmptyBaggage(batches.iterator())
+    )) {
+      for (int i = 0; i < 7; i++) {
+        Assert.assertTrue(iterator.hasNext());
+        if (i % 3 == 1) {
+          try {
+            iterator.next();
+            Assert.fail("Expected a ParseException");
+          }
+          catch (ParseException e) {
+            Assert.assertEquals("bad row " + i, e.getMessage());
+          }
+        } else {
+          Assert.assertEquals(i, iterator.next().getTimestampFromEpoch());
+        }
+      }
+      Assert.assertFalse(iterator.hasNext());
+    }
+  }
+
+  @Test
+  public void testColumnarInputRowBatch()
+  {
+    final long[] timestamps = {1000L, 2000L, 3000L};
+    final String[] dims = {"a", null, "c"};
+    final Map<String, IntFunction<Object>> columns = ImmutableMap.of(
+        "ts", row -> timestamps[row],
+        "dim", row -> dims[row],
+        "met", row -> row * 2L,
+        "other", row -> "x"
+    );
+    final ColumnarInputRowBatch batch = new ColumnarInputRowBatch(
+        SCHEMA,
+        3,
+        ImmutableList.of("ts", "dim", "met"),
+        columns
+    );
+    Assert.assertEquals(3, batch.size());
+
+    final InputRow row = batch.getRow(2);
+    Assert.assertEquals(DateTimes.utc(3000L), row.getTimestamp());
+    Assert.assertEquals(ImmutableList.of("dim", "met"), row.getDimensions());
+    Assert.assertEquals(ImmutableList.of("c"), row.getDimension("dim"));
+    Assert.assertEquals(4L, row.getMetric("met"));
+    Assert.assertEquals("x", row.getRaw("other"));
+    Assert.assertNull(row.getRaw("missing"));
+    Assert.assertTrue(batch.getRow(1).getDimension("dim").isEmpty());
+
+    final InputRowSchema explicitSchema = new InputRowSchema(
+        new TimestampSpec("ts", "millis", null),
+        new DimensionsSpec(DimensionsSpec.getDefaultSchemas(ImmutableList.of("other"))),
+        Collections.emptyList()
+    );
+    Assert.assertEquals(
+        ImmutableList.of("other"),
+        new ColumnarInputRowBatch(explicitSchema, 3, ImmutableList.of("ts", "dim"), columns).getRow(0).getDimensions()
+    );
+  }
+
+  @Test(expected = ParseException.class)
+  public void testColumnarInputRowBatchNullTimestamp()
+  {
+    final ColumnarInputRowBatch batch = new ColumnarInputRowBatch(
+        SCHEMA,
+        1,
+        ImmutableList.of("ts"),
+        ImmutableMap.of("ts", row -> null)
+    );
+    batch.getRow(0);
+  }
+
+  private static CloseableIterator<InputRow> throwingIterator(List<Object> rowsOrExceptions)
+  {
+    final Iterator<Object> delegate = rowsOrExceptions.iterator();
+    return new CloseableIterator<InputRow>()
+    {
+      @Override
+      public boolean hasNext()
+      {
+        return delegate.hasNext();
+      }
+
+      @Override
+      public InputRow next()
+      {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        final Object next = delegate.next();
+        if (next instanceof ParseException) {
+          throw (ParseException) next;
+        }
+        return (InputRow) next;
+      }
+
+      @Override
+      public void close()
+      {
+        // do nothing
+      }
+    };
+  }
+}
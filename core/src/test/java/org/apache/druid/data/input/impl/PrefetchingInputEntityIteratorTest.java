@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.data.input.impl;
+
+import org.apache.druid.data.input.InputEntity;
+import org.apache.druid.java.util.common.CloseableIterators;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.parsers.CloseableIterator;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PrefetchingInputEntityIteratorTest
+{
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Rule
+  public final ExpectedException expectedException = ExpectedException.none();
+
+  @Test
+  public void testReadInOrder() throws IOException
+  {
+    final File tempDir = temporaryFolder.newFolder();
+    final List<InputEntity> entities = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      entities.add(new SlowEntity(i, null));
+    }
+
+    final List<String> read = new ArrayList<>();
+    try (PrefetchingInputEntityIterator iterator = new PrefetchingInputEntityIterator(
+        CloseableIterators.withEmptyBaggage(entities.iterator()),
+        new InputEntityPrefetchConfig(3, null),
+        tempDir
+    )) {
+      while (iterator.hasNext()) {
+        final InputEntity entity = iterator.next();
+        Assert.assertEquals(URI.create("test://" + read.size()), entity.getUri());
+        read.add(readAll(entity));
+        // At most the current entity and the ones fetched ahead of it are kept on disk.
+        Assert.assertTrue(countFiles(tempDir) <= 4);
+      }
+    }
+
+    Assert.assertEquals(20, read.size());
+    for (int i = 0; i < read.size(); i++) {
+      Assert.assertEquals(SlowEntity.content(i), read.get(i));
+    }
+    Assert.assertEquals(0, countFiles(tempDir));
+  }
+
+  @Test(timeout = 60_000L)
+  public void testFetchConcurrently() throws IOException
+  {
+    // Each entity can be opened only when all three of them are being fetched at the same time.
+    final CountDownLatch allFetching = new CountDownLatch(3);
+    final List<InputEntity> entities = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      entities.add(new SlowEntity(i, allFetching));
+    }
+
+    try (PrefetchingInputEntityIterator iterator = new PrefetchingInputEntityIterator(
+        CloseableIterators.withEmptyBaggage(entities.iterator()),
+        new InputEntityPrefetchConfig(3, null),
+        temporaryFolder.newFolder()
+    )) {
+      for (int i = 0; i < 3; i++) {
+        Assert.assertEquals(SlowEntity.content(i), readAll(iterator.next()));
+      }
+      Assert.assertFalse(iterator.hasNext());
+    }
+  }
+
+  @Test
+  public void testCloseDeletesPrefetchedFiles() throws IOException
+  {
+    final File tempDir = temporaryFolder.newFolder();
+    final AtomicInteger numOpened = new AtomicInteger();
+    final List<InputEntity> entities = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      entities.add(new SlowEntity(i, null)
+      {
+        @Override
+        public InputStream open() throws IOException
+        {
+          numOpened.incrementAndGet();
+          return super.open();
+        }
+      });
+    }
+
+    final PrefetchingInputEntityIterator iterator = new PrefetchingInputEntityIterator(
+        CloseableIterators.withEmptyBaggage(entities.iterator()),
+        new InputEntityPrefetchConfig(4, null),
+        tempDir
+    );
+    Assert.assertEquals(SlowEntity.content(0), readAll(iterator.next()));
+    iterator.close();
+
+    // Only the first entity and the ones fetched ahead of it were opened.
+    Assert.assertTrue(numOpened.get() <= 5);
+    Assert.assertEquals(0, iterator.getFetchedBytes());
+    Assert.assertEquals(0, countFiles(tempDir));
+  }
+
+  @Test
+  public void testFetchFailure() throws IOException
+  {
+    final List<InputEntity> entities = new ArrayList<>();
+    entities.add(new SlowEntity(0, null));
+    entities.add(new SlowEntity(1, null)
+    {
+      @Override
+      public InputStream open() throws IOException
+      {
+        throw new IOException("injected failure");
+      }
+    });
+
+    try (PrefetchingInputEntityIterator iterator = new PrefetchingInputEntityIterator(
+        CloseableIterators.withEmptyBaggage(entities.iterator()),
+        new InputEntityPrefetchConfig(2, null),
+        temporaryFolder.newFolder()
+    )) {
+      Assert.assertEquals(SlowEntity.content(0), readAll(iterator.next()));
+      expectedException.expect(RuntimeException.class);
+      expectedException.expectMessage("Failed to fetch entity[test://1]");
+      iterator.next();
+    }
+  }
+
+  private static String readAll(InputEntity entity) throws IOException
+  {
+    try (InputStream in = entity.open()) {
+      final StringBuilder builder = new StringBuilder();
+      final byte[] buffer = new byte[16];
+      int read;
+      while ((read = in.read(buffer)) > 0) {
+        builder.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+      }
+      return builder.toString();
+    }
+  }
+
+  private static int countFiles(File dir)
+  {
+    return dir.list().length;
+  }
+
+  /**
+   * Stand-in for a remote object. Opening it takes a while, and optionally waits for a latch shared with other
+   * entities to check that they are fetched concurrently.
+   */
+  private static class SlowEntity implements InputEntity
+  {
+    private final int id;
+    @Nullable
+    private final CountDownLatch latch;
+
+    private SlowEntity(int id, @Nullable CountDownLatch latch)
+    {
+      this.id = id;
+      this.latch = latch;
+    }
+
+    private static String content(int id)
+    {
+      return StringUtils.format("row-%02d\n", id);
+    }
+
+    @Override
+    public URI getUri()
+    {
+      return URI.create("test://" + id);
+    }
+
+    @Override
+    public InputStream open() throws IOException
+    {
+      try {
+        if (latch != null) {
+          latch.countDown();
+          if (!latch.await(30, TimeUnit.SECONDS)) {
+            throw new IOException("Entities are not fetched concurrently");
+          }
+        } else {
+          Thread.sleep(10);
+        }
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+      return new ByteArrayInputStream(StringUtils.toUtf8(content(id)));
+    }
+  }
+}
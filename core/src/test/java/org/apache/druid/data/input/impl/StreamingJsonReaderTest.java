@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.data.input.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.druid.data.input.InputEntityReader;
+import org.apache.druid.data.input.InputFormat;
+import org.apache.druid.data.input.InputRow;
+import org.apache.druid.data.input.InputRowSchema;
+import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.parsers.CloseableIterator;
+import org.apache.druid.java.util.common.parsers.JSONPathFieldSpec;
+import org.apache.druid.java.util.common.parsers.JSONPathFieldType;
+import org.apache.druid.java.util.common.parsers.JSONPathSpec;
+import org.apache.druid.java.util.common.parsers.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class StreamingJsonReaderTest
+{
+  private static final String EVENTS =
+      "{\"timestamp\":\"2019-01-01\",\"foo\":\"x\",\"baz\":4,\"o\":{\"mg\":1},\"skip\":{\"a\":[1,{\"b\":2}]},\"m\":5}\n"
+      + "{\"skip\":[[],{}],\"timestamp\":\"2019-01-02\",\"foo\":[\"y\",null,\"z\"],\"o\":{\"mg\":2.5},\"m\":6}\r\n"
+      + "{\"timestamp\":\"2019-01-03\",\"foo\":null,\"bar\":true,\"baz\":12345678901234567890}";
+
+  private static final InputRowSchema SCHEMA = new InputRowSchema(
+      new TimestampSpec("timestamp", "iso", null),
+      new DimensionsSpec(DimensionsSpec.getDefaultSchemas(ImmutableList.of("foo", "bar", "root_baz", "path_omg"))),
+      Collections.emptyList(),
+      Collections.emptySet()
+  );
+
+  private static final JSONPathSpec FLATTEN_SPEC = new JSONPathSpec(
+      true,
+      ImmutableList.of(
+          new JSONPathFieldSpec(JSONPathFieldType.ROOT, "root_baz", "baz"),
+          new JSONPathFieldSpec(JSONPathFieldType.PATH, "path_omg", "$.o.mg")
+      )
+  );
+
+  @Test
+  public void testSerde() throws IOException
+  {
+    final ObjectMapper mapper = new ObjectMapper();
+    final StreamingJsonInputFormat format = new StreamingJsonInputFormat(
+        FLATTEN_SPEC,
+        null,
+        ImmutableList.of("m")
+    );
+    final byte[] bytes = mapper.writeValueAsBytes(format);
+    final StreamingJsonInputFormat fromJson = (StreamingJsonInputFormat) mapper.readValue(bytes, InputFormat.class);
+    Assert.assertEquals(format, fromJson);
+  }
+
+  @Test
+  public void testSameRowsAsJsonReaderWithPathFields() throws IOException
+  {
+    assertSameRows(SCHEMA, FLATTEN_SPEC, ImmutableList.of("m"));
+  }
+
+  @Test
+  public void testSameRowsAsJsonReaderWithRootFieldsOnly() throws IOException
+  {
+    final InputRowSchema schema = new InputRowSchema(
+        new TimestampSpec("timestamp", "iso", null),
+        new DimensionsSpec(DimensionsSpec.getDefaultSchemas(ImmutableList.of("foo", "bar", "baz"))),
+        ImmutableList.of("sum_m"),
+        ImmutableSet.of("m")
+    );
+    assertSameRows(schema, JSONPathSpec.DEFAULT, Collections.emptyList());
+  }
+
+  @Test
+  public void testSameRowsAsJsonReaderWithSchemalessDimensions() throws IOException
+  {
+    final InputRowSchema schema = new InputRowSchema(
+        new TimestampSpec("timestamp", "iso", null),
+        DimensionsSpec.EMPTY,
+        Collections.emptyList()
+    );
+    assertSameRows(schema, FLATTEN_SPEC, Collections.emptyList());
+  }
+
+  @Test
+  public void testReferencedFields()
+  {
+    Assert.assertEquals(
+        ImmutableSet.of("timestamp", "foo", "bar", "root_baz", "path_omg", "baz", "o", "m"),
+        createReader(SCHEMA, FLATTEN_SPEC, ImmutableList.of("m")).getReferencedFields()
+    );
+    Assert.assertNull(
+        createReader(
+            SCHEMA,
+            new JSONPathSpec(true, ImmutableList.of(JSONPathFieldSpec.createJqField("jq", ".o.mg"))),
+            Collections.emptyList()
+        ).getReferencedFields()
+    );
+    Assert.assertNull(
+        createReader(
+            new InputRowSchema(new TimestampSpec("timestamp", "iso", null), DimensionsSpec.EMPTY, ImmutableList.of()),
+            FLATTEN_SPEC,
+            Collections.emptyList()
+        ).getReferencedFields()
+    );
+  }
+
+  @Test
+  public void testReferencedFieldsIncludeMetricAndTransformInputs()
+  {
+    final InputRowSchema schema = new InputRowSchema(
+        SCHEMA.getTimestampSpec(),
+        SCHEMA.getDimensionsSpec(),
+        ImmutableList.of("sum_m"),
+        ImmutableSet.of("m", "skip")
+    );
+    Assert.assertEquals(
+        ImmutableSet.of("timestamp", "foo", "bar", "root_baz", "path_omg", "baz", "o", "m", "skip"),
+        createReader(schema, FLATTEN_SPEC, Collections.emptyList()).getReferencedFields()
+    );
+
+    // Unknown inputs of aggregators or transforms could be any field.
+    Assert.assertNull(
+        createReader(
+            new InputRowSchema(SCHEMA.getTimestampSpec(), SCHEMA.getDimensionsSpec(), ImmutableList.of("sum_m")),
+            FLATTEN_SPEC,
+            Collections.emptyList()
+        ).getReferencedFields()
+    );
+  }
+
+  @Test
+  public void testUnreferencedFieldsAreNotRead() throws IOException
+  {
+    try (CloseableIterator<InputRow> iterator = createReader(SCHEMA, FLATTEN_SPEC, Collections.emptyList()).read()) {
+      final InputRow row = iterator.next();
+      Assert.assertEquals(DateTimes.of("2019-01-01"), row.getTimestamp());
+      Assert.assertEquals(ImmutableList.of("4"), row.getDimension("root_baz"));
+      Assert.assertEquals(ImmutableList.of("1"), row.getDimension("path_omg"));
+      Assert.assertNull(row.getRaw("skip"));
+      Assert.assertNull(row.getRaw("m"));
+    }
+  }
+
+  @Test
+  public void testFindJsonPathRootField()
+  {
+    Assert.assertEquals("o", StreamingJsonReader.findJsonPathRootField("$.o.mg"));
+    Assert.assertEquals("o", StreamingJsonReader.findJsonPathRootField("$.o[0]"));
+    Assert.assertEquals("e1.d1", StreamingJsonReader.findJsonPathRootField("$['e1.d1']"));
+    Assert.assertEquals("a", StreamingJsonReader.findJsonPathRootField("$[\"a\"].b"));
+    Assert.assertNull(StreamingJsonReader.findJsonPathRootField("$..mg"));
+    Assert.assertNull(StreamingJsonReader.findJsonPathRootField("$.*.mg"));
+    Assert.assertNull(StreamingJsonReader.findJsonPathRootField("$.[?(@.o)].o.mg"));
+    Assert.assertNull(StreamingJsonReader.findJsonPathRootField("$[0]"));
+  }
+
+  @Test
+  public void testParseError() throws IOException
+  {
+    final String lines = "{\"timestamp\":\"2019-01-01\",\"foo\":\n[1,2]\n{\"timestamp\":\"2019-01-01\"}\n";
+    final InputEntityReader reader = new StreamingJsonInputFormat(null, null, null).createReader(
+        SCHEMA,
+        new ByteEntity(StringUtils.toUtf8(lines)),
+        null
+    );
+    try (CloseableIterator<InputRow> iterator = reader.read()) {
+      for (int i = 0; i < 2; i++) {
+        try {
+          iterator.next();
+          Assert.fail("Expected a ParseException");
+        }
+        catch (ParseException e) {
+          // expected
+        }
+      }
+      Assert.assertEquals(DateTimes.of("2019-01-01"), iterator.next().getTimestamp());
+      Assert.assertFalse(iterator.hasNext());
+    }
+  }
+
+  private static StreamingJsonReader createReader(
+      InputRowSchema schema,
+      JSONPathSpec flattenSpec,
+      List<String> keepFields
+  )
+  {
+    return (StreamingJsonReader) new StreamingJsonInputFormat(flattenSpec, null, keepFields).createReader(
+        schema,
+        new ByteEntity(StringUtils.toUtf8(EVENTS)),
+        null
+    );
+  }
+
+  private static void assertSameRows(InputRowSchema schema, JSONPathSpec flattenSpec, List<String> keepFields)
+      throws IOException
+  {
+    final List<InputRow> expected = readAll(
+        new JsonInputFormat(flattenSpec, null).createReader(schema, new ByteEntity(StringUtils.toUtf8(EVENTS)), null)
+    );
+    final List<InputRow> actual = readAll(createReader(schema, flattenSpec, keepFields));
+    Assert.assertEquals(3, actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Assert.assertEquals(expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+      Assert.assertEquals(expected.get(i).getDimensions(), actual.get(i).getDimensions());
+      for (String dimension : expected.get(i).getDimensions()) {
+        Assert.assertEquals(dimension, expected.get(i).getDimension(dimension), actual.get(i).getDimension(dimension));
+      }
+      for (String metric : schema.getMetricNames()) {
+        Assert.assertEquals(metric, expected.get(i).getMetric(metric), actual.get(i).getMetric(metric));
+      }
+      for (String field : keepFields) {
+        Assert.assertEquals(field, expected.get(i).getRaw(field), actual.get(i).getRaw(field));
+      }
+    }
+  }
+
+  private static List<InputRow> readAll(InputEntityReader reader) throws IOException
+  {
+    final List<InputRow> rows = new ArrayList<>();
+    try (CloseableIterator<InputRow> iterator = reader.read()) {
+      iterator.forEachRemaining(rows::add);
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.java.util.http.client.response;
+
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.http.DefaultHttpChunk;
+import org.jboss.netty.handler.codec.http.DefaultHttpResponse;
+import org.jboss.netty.handler.codec.http.HttpResponse;
+import org.jboss.netty.handler.codec.http.HttpResponseStatus;
+import org.jboss.netty.handler.codec.http.HttpVersion;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BackpressureInputStreamResponseHandlerTest
+{
+  private final List<Long> resumedChunkNums = new ArrayList<>();
+  private final HttpResponseHandler.TrafficCop trafficCop = chunkNum -> {
+    resumedChunkNums.add(chunkNum);
+    return 0;
+  };
+
+  @Test
+  public void testSuspendAndResume() throws IOException
+  {
+    final BackpressureInputStreamResponseHandler handler = new BackpressureInputStreamResponseHandler(100);
+    ClientResponse<InputStream> clientResponse = handler.handleResponse(makeResponse(), trafficCop);
+    Assert.assertTrue(clientResponse.isFinished());
+    Assert.assertTrue(clientResponse.isContinueReading());
+
+    clientResponse = handler.handleChunk(clientResponse, makeChunk(60, (byte) 1), 1);
+    Assert.assertTrue(clientResponse.isContinueReading());
+    clientResponse = handler.handleChunk(clientResponse, makeChunk(60, (byte) 2), 2);
+    Assert.assertFalse(clientResponse.isContinueReading());
+    clientResponse = handler.done(clientResponse);
+
+    final InputStream stream = clientResponse.getObj();
+    final byte[] buffer = new byte[60];
+    Assert.assertEquals(60, stream.read(buffer));
+    Assert.assertEquals(1, buffer[0]);
+    // 60 bytes are still queued, which is below the limit.
+    Assert.assertEquals(1, resumedChunkNums.size());
+    Assert.assertEquals(1L, (long) resumedChunkNums.get(0));
+
+    Assert.assertEquals(60, stream.read(buffer));
+    Assert.assertEquals(2, buffer[59]);
+    Assert.assertEquals(-1, stream.read(buffer));
+    Assert.assertEquals(-1, stream.read());
+  }
+
+  @Test
+  public void testException() throws IOException
+  {
+    final BackpressureInputStreamResponseHandler handler = new BackpressureInputStreamResponseHandler(100);
+    ClientResponse<InputStream> clientResponse = handler.handleResponse(makeResponse(), trafficCop);
+    clientResponse = handler.handleChunk(clientResponse, makeChunk(10, (byte) 1), 1);
+    handler.exceptionCaught(clientResponse, new RuntimeException("failed"));
+
+    final InputStream stream = clientResponse.getObj();
+    Assert.assertEquals(10, stream.read(new byte[20]));
+    try {
+      stream.read();
+      Assert.fail("expected exception");
+    }
+    catch (IOException e) {
+      Assert.assertEquals("failed", e.getCause().getMessage());
+    }
+  }
+
+  @Test
+  public void testCloseDiscardsResponse() throws IOException
+  {
+    final BackpressureInputStreamResponseHandler handler = new BackpressureInputStreamResponseHandler(100);
+    ClientResponse<InputStream> clientResponse = handler.handleResponse(makeResponse(), trafficCop);
+    clientResponse = handler.handleChunk(clientResponse, makeChunk(200, (byte) 1), 1);
+    Assert.assertFalse(clientResponse.isContinueReading());
+
+    clientResponse.getObj().close();
+    Assert.assertEquals(Long.MAX_VALUE, (long) resumedChunkNums.get(0));
+
+    // The rest of the response is read and dropped.
+    clientResponse = handler.handleChunk(clientResponse, makeChunk(200, (byte) 2), 2);
+    Assert.assertTrue(clientResponse.isContinueReading());
+    Assert.assertEquals(-1, clientResponse.getObj().read());
+  }
+
+  private static HttpResponse makeResponse()
+  {
+    final HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+    response.setChunked(true);
+    return response;
+  }
+
+  private static DefaultHttpChunk makeChunk(int size, byte value)
+  {
+    final byte[] bytes = new byte[size];
+    for (int i = 0; i < size; i++) {
+      bytes[i] = value;
+    }
+    return new DefaultHttpChunk(ChannelBuffers.wrappedBuffer(bytes));
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.timeline;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.Pair;
+import org.apache.druid.timeline.partition.OvershadowableInteger;
+import org.apache.druid.timeline.partition.PartitionChunk;
+import org.joda.time.DateTime;
+import org.joda.time.Interval;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class TimelineSnapshotTest extends VersionedIntervalTimelineTestBase
+{
+  @Before
+  public void setUp()
+  {
+    timeline = makeStringIntegerTimeline();
+
+    add("2011-01-01/2011-01-10", "1", 1);
+    add("2011-01-10/2011-01-20", "1", 2);
+    add("2011-01-05/2011-01-15", "2", 3);
+    add("2011-02-01/2011-02-05", "1", 4);
+    add("2011-03-01/2011-03-05", "1", makeNumbered("1", 0, 2, 5));
+  }
+
+  @Test
+  public void testLookupSameAsTimeline()
+  {
+    final TimelineSnapshot<String, OvershadowableInteger> snapshot = timeline.snapshot();
+    for (String interval : ImmutableList.of(
+        "2011-01-01/2011-01-20",
+        "2010-12-01/2011-04-01",
+        "2011-01-03/2011-01-07",
+        "2011-01-06/2011-01-08",
+        "2011-01-15/2011-02-03",
+        "2011-01-20/2011-02-01",
+        "2011-02-05/2011-03-01",
+        "2011-01-07/2011-01-07",
+        "2011-01-05/2011-01-05",
+        "2012-01-01/2012-02-01"
+    )) {
+      assertSameHolders(
+          timeline.lookup(Intervals.of(interval)),
+          snapshot.lookup(Intervals.of(interval))
+      );
+      assertSameHolders(
+          timeline.lookupWithIncompletePartitions(Intervals.of(interval)),
+          snapshot.lookupWithIncompletePartitions(Intervals.of(interval))
+      );
+    }
+  }
+
+  @Test
+  public void testLookupIncompletePartitions()
+  {
+    final TimelineSnapshot<String, OvershadowableInteger> snapshot = timeline.snapshot();
+    Assert.assertEquals(Collections.emptyList(), snapshot.lookup(Intervals.of("2011-03-01/2011-03-05")));
+    assertValues(
+        Collections.singletonList(
+            createExpected("2011-03-01/2011-03-05", "1", Collections.singletonList(makeNumbered("1", 0, 2, 5)))
+        ),
+        snapshot.lookupWithIncompletePartitions(Intervals.of("2011-03-01/2011-03-05"))
+    );
+  }
+
+  @Test
+  public void testSnapshotIsImmutable()
+  {
+    final TimelineSnapshot<String, OvershadowableInteger> snapshot = timeline.snapshot();
+    Assert.assertSame(snapshot, timeline.snapshot());
+
+    add("2011-01-01/2011-01-20", "3", 6);
+
+    assertValues(
+        Arrays.asList(
+            createExpected("2011-01-01/2011-01-05", "1", 1),
+            createExpected("2011-01-05/2011-01-15", "2", 3),
+            createExpected("2011-01-15/2011-01-20", "1", 2)
+        ),
+        snapshot.lookup(Intervals.of("2011-01-01/2011-01-20"))
+    );
+
+    final TimelineSnapshot<String, OvershadowableInteger> newSnapshot = timeline.snapshot();
+    Assert.assertNotSame(snapshot, newSnapshot);
+    assertValues(
+        Collections.singletonList(createExpected("2011-01-01/2011-01-20", "3", 6)),
+        newSnapshot.lookup(Intervals.of("2011-01-01/2011-01-20"))
+    );
+  }
+
+  @Test
+  public void testSnapshotReflectsAddedPartitions()
+  {
+    final TimelineSnapshot<String, OvershadowableInteger> snapshot = timeline.snapshot();
+    add("2011-03-01/2011-03-05", "1", makeNumbered("1", 1, 2, 6));
+
+    Assert.assertEquals(Collections.emptyList(), snapshot.lookup(Intervals.of("2011-03-01/2011-03-05")));
+    assertValues(
+        Collections.singletonList(
+            createExpected(
+                "2011-03-01/2011-03-05",
+                "1",
+                Arrays.asList(makeNumbered("1", 0, 2, 5), makeNumbered("1", 1, 2, 6))
+            )
+        ),
+        timeline.snapshot().lookup(Intervals.of("2011-03-01/2011-03-05"))
+    );
+  }
+
+  @Test
+  public void testSnapshotViewReflectsRemovals()
+  {
+    final TimelineLookup<String, OvershadowableInteger> view = timeline.asSnapshotView(Runnable::run, Long.MAX_VALUE);
+    Assert.assertEquals(1, view.lookup(Intervals.of("2011-02-01/2011-02-05")).size());
+
+    timeline.remove(Intervals.of("2011-02-01/2011-02-05"), "1", makeSingle("1", 4));
+    timeline.scheduleSnapshotRebuild(Runnable::run);
+
+    Assert.assertEquals(Collections.emptyList(), view.lookup(Intervals.of("2011-02-01/2011-02-05")));
+    Assert.assertNull(view.findEntry(Intervals.of("2011-02-01/2011-02-05"), "1"));
+  }
+
+  @Test
+  public void testSnapshotViewRebuildsInBackground()
+  {
+    final List<Runnable> rebuilds = new ArrayList<>();
+    final TimelineLookup<String, OvershadowableInteger> view = timeline.asSnapshotView(rebuilds::add, Long.MAX_VALUE);
+    Assert.assertEquals(1, view.lookup(Intervals.of("2011-02-01/2011-02-05")).size());
+
+    timeline.remove(Intervals.of("2011-02-01/2011-02-05"), "1", makeSingle("1", 4));
+
+    // the stale snapshot is served and the rebuild is left to the executor; requests are coalesced
+    Assert.assertEquals(1, view.lookup(Intervals.of("2011-02-01/2011-02-05")).size());
+    Assert.assertEquals(1, view.lookup(Intervals.of("2011-02-01/2011-02-05")).size());
+    timeline.scheduleSnapshotRebuild(rebuilds::add);
+    Assert.assertEquals(1, rebuilds.size());
+
+    rebuilds.remove(0).run();
+    Assert.assertEquals(Collections.emptyList(), view.lookup(Intervals.of("2011-02-01/2011-02-05")));
+    Assert.assertEquals(Collections.emptyList(), rebuilds);
+  }
+
+  @Test
+  public void testSnapshotViewRebuildsWhenTooStale()
+  {
+    final List<Runnable> rebuilds = new ArrayList<>();
+    final TimelineLookup<String, OvershadowableInteger> view = timeline.asSnapshotView(rebuilds::add, -1);
+    Assert.assertEquals(1, view.lookup(Intervals.of("2011-02-01/2011-02-05")).size());
+
+    timeline.remove(Intervals.of("2011-02-01/2011-02-05"), "1", makeSingle("1", 4));
+
+    Assert.assertEquals(Collections.emptyList(), view.lookup(Intervals.of("2011-02-01/2011-02-05")));
+    Assert.assertEquals(Collections.emptyList(), rebuilds);
+  }
+
+  @Test
+  public void testIncrementalRebuildSameAsTimeline()
+  {
+    final Random random = new Random(9);
+    final DateTime start = DateTimes.of("2011-01-01");
+    final List<Pair<Interval, PartitionChunk<OvershadowableInteger>>> added = new ArrayList<>();
+    final Set<Pair<Interval, String>> addedKeys = new HashSet<>();
+
+    for (int i = 0; i < 500; i++) {
+      if (!added.isEmpty() && random.nextInt(3) == 0) {
+        final Pair<Interval, PartitionChunk<OvershadowableInteger>> removed =
+            added.remove(random.nextInt(added.size()));
+        final String version = removed.rhs.getObject().getVersion();
+        Assert.assertNotNull(timeline.remove(removed.lhs, version, removed.rhs));
+        addedKeys.remove(Pair.of(removed.lhs, version));
+      } else {
+        final DateTime intervalStart = start.plusDays(random.nextInt(60));
+        final Interval interval = new Interval(intervalStart, intervalStart.plusDays(1 + random.nextInt(10)));
+        final String version = String.valueOf(random.nextInt(5));
+        if (addedKeys.add(Pair.of(interval, version))) {
+          // some entries have incomplete partitions
+          final PartitionChunk<OvershadowableInteger> chunk = random.nextBoolean()
+                                                              ? makeSingle(version, i)
+                                                              : makeNumbered(version, 0, 2, i);
+          add(interval, version, chunk);
+          added.add(Pair.of(interval, chunk));
+        }
+      }
+
+      final TimelineSnapshot<String, OvershadowableInteger> snapshot = timeline.snapshot();
+      final DateTime lookupStart = start.plusDays(random.nextInt(70));
+      for (Interval interval : ImmutableList.of(
+          Intervals.of("2010-12-01/2011-04-01"),
+          new Interval(lookupStart, lookupStart.plusDays(1 + random.nextInt(20)))
+      )) {
+        assertSameHolders(timeline.lookup(interval), snapshot.lookup(interval));
+        assertSameHolders(
+            timeline.lookupWithIncompletePartitions(interval),
+            snapshot.lookupWithIncompletePartitions(interval)
+        );
+      }
+    }
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSnapshotPartitionHoldersAreImmutable()
+  {
+    timeline.snapshot()
+            .lookup(Intervals.of("2011-02-01/2011-02-05"))
+            .get(0)
+            .getObject()
+            .add(makeSingle("1", 1, 7));
+  }
+
+  private static void assertSameHolders(
+      List<TimelineObjectHolder<String, OvershadowableInteger>> expected,
+      List<TimelineObjectHolder<String, OvershadowableInteger>> actual
+  )
+  {
+    Assert.assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      final TimelineObjectHolder<String, OvershadowableInteger> expectedHolder = expected.get(i);
+      final TimelineObjectHolder<String, OvershadowableInteger> actualHolder = actual.get(i);
+      Assert.assertEquals(expectedHolder.getInterval(), actualHolder.getInterval());
+      Assert.assertEquals(expectedHolder.getTrueInterval(), actualHolder.getTrueInterval());
+      Assert.assertEquals(expectedHolder.getVersion(), actualHolder.getVersion());
+      final List<PartitionChunk<OvershadowableInteger>> expectedChunks = Lists.newArrayList(expectedHolder.getObject());
+      final List<PartitionChunk<OvershadowableInteger>> actualChunks = Lists.newArrayList(actualHolder.getObject());
+      Assert.assertEquals(expectedChunks, actualChunks);
+    }
+  }
+}
@@ -31,6 +31,7 @@ import com.google.inject.util.Providers;
 import org.apache.druid.client.CachingClusteredClient;
 import org.apache.druid.client.DruidServer;
 import org.apache.druid.client.ImmutableDruidServer;
+import org.apache.druid.client.QueryCoalescingConfig;
 import org.apache.druid.client.TimelineServerView;
 import org.apache.druid.client.cache.CacheConfig;
 import org.apache.druid.client.cache.CachePopulatorStats;
@@ -51,6 +52,7 @@ import org.apache.druid.java.util.emitter.core.Event;
 import org.apache.druid.java.util.emitter.service.ServiceEmitter;
 import org.apache.druid.query.DruidProcessingConfig;
 import org.apache.druid.query.Query;
+import org.apache.druid.query.QueryCoalescer;
 import org.apache.druid.query.QueryPlus;
 import org.apache.druid.query.QueryRunner;
 import org.apache.druid.query.QuerySegmentWalker;
@@ -363,7 +365,8 @@ public class MovingAverageQueryTest extends InitializedNullHandlingTest
           }
         },
         ForkJoinPool.commonPool(),
-        QueryStackTests.DEFAULT_NOOP_SCHEDULER
+        QueryStackTests.DEFAULT_NOOP_SCHEDULER,
+        QueryStackTests.DEFAULT_NOOP_HEDGER
     );
 
     ClientQuerySegmentWalker walker = new ClientQuerySegmentWalker(
@@ -381,7 +384,8 @@ public class MovingAverageQueryTest extends InitializedNullHandlingTest
         jsonMapper,
         serverConfig,
         null,
-        new CacheConfig()
+        new CacheConfig(),
+        new QueryCoalescer(new QueryCoalescingConfig())
     );
 
     defineMocks();
@@ -28,6 +28,7 @@ import org.apache.druid.data.input.InputSplit;
 import org.apache.druid.data.input.SplitHintSpec;
 import org.apache.druid.data.input.impl.CloudObjectInputSource;
 import org.apache.druid.data.input.impl.CloudObjectLocation;
+import org.apache.druid.data.input.impl.InputEntityPrefetchConfig;
 import org.apache.druid.data.input.impl.SplittableInputSource;
 import org.apache.druid.storage.azure.AzureCloudBlobHolderToCloudObjectLocationConverter;
 import org.apache.druid.storage.azure.AzureCloudBlobIterableFactory;
@@ -68,10 +69,11 @@ public class AzureInputSource extends CloudObjectInputSource
       @JacksonInject AzureInputDataConfig inputDataConfig,
       @JsonProperty("uris") @Nullable List<URI> uris,
       @JsonProperty("prefixes") @Nullable List<URI> prefixes,
-      @JsonProperty("objects") @Nullable List<CloudObjectLocation> objects
+      @JsonProperty("objects") @Nullable List<CloudObjectLocation> objects,
+      @JsonProperty("prefetch") @Nullable InputEntityPrefetchConfig prefetchConfig
   )
   {
-    super(SCHEME, uris, prefixes, objects);
+    super(SCHEME, uris, prefixes, objects, prefetchConfig);
     this.storage = Preconditions.checkNotNull(storage, "AzureStorage");
     this.entityFactory = Preconditions.checkNotNull(entityFactory, "AzureEntityFactory");
     this.azureCloudBlobIterableFactory = Preconditions.checkNotNull(
@@ -96,7 +98,8 @@ public class AzureInputSource extends CloudObjectInputSource
         inputDataConfig,
         null,
         null,
-        split.get()
+        split.get(),
+        getPrefetchConfig()
     );
   }
 
@@ -165,6 +168,7 @@ public class AzureInputSource extends CloudObjectInputSource
            "uris=" + getUris() +
            ", prefixes=" + getPrefixes() +
            ", objects=" + getObjects() +
+           ", prefetchConfig=" + getPrefetchConfig() +
            '}';
   }
 }
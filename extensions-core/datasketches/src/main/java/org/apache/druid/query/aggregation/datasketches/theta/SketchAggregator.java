@@ -21,27 +21,47 @@ package org.apache.druid.query.aggregation.datasketches.theta;
 
 import org.apache.datasketches.Family;
 import org.apache.datasketches.theta.SetOperation;
+import org.apache.datasketches.theta.Sketch;
 import org.apache.datasketches.theta.Union;
 import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.query.aggregation.Aggregator;
 import org.apache.druid.segment.BaseObjectColumnValueSelector;
 
 import javax.annotation.Nullable;
 
+import java.lang.reflect.Field;
 import java.util.List;
 
 public class SketchAggregator implements Aggregator
 {
+  private static final Logger log = new Logger(SketchAggregator.class);
+
+  /**
+   * The sketch inside a {@link Union}, whose hash table holds most of the memory of the union. Union does not expose
+   * its size, so it is read from this sketch. Null if the datasketches version on the classpath has no such field, in
+   * which case unions are assumed to have their maximum size.
+   */
+  @Nullable
+  private static final Field UNION_SKETCH_FIELD = findUnionSketchField();
+
   private final BaseObjectColumnValueSelector selector;
   private final int size;
+  private final long maxSizeInBytes;
 
   @Nullable
   private Union union;
 
+  /**
+   * Estimated on-heap size of {@link #union}, see {@link #aggregateWithSize()}.
+   */
+  private long sizeInBytes = 0;
+
   public SketchAggregator(BaseObjectColumnValueSelector selector, int size)
   {
     this.selector = selector;
     this.size = size;
+    this.maxSizeInBytes = SetOperation.getMaxUnionBytes(size);
   }
 
   private void initUnion()
@@ -64,6 +84,28 @@ public class SketchAggregator implements Aggregator
     }
   }
 
+  /**
+   * Reports the current size of the hash table of the union. The first call reports the size of the new union, and
+   * later calls only report a change when the hash table has been resized.
+   */
+  @Override
+  public long aggregateWithSize()
+  {
+    Object update = selector.getObject();
+    if (update == null) {
+      return 0;
+    }
+    synchronized (this) {
+      if (union == null) {
+        initUnion();
+      }
+      updateUnion(union, update);
+      final long previousSizeInBytes = sizeInBytes;
+      sizeInBytes = getUnionSizeInBytes();
+      return sizeInBytes - previousSizeInBytes;
+    }
+  }
+
   @Override
   public Object get()
   {
@@ -104,6 +146,33 @@ public class SketchAggregator implements Aggregator
     union = null;
   }
 
+  private long getUnionSizeInBytes()
+  {
+    if (UNION_SKETCH_FIELD == null) {
+      return maxSizeInBytes;
+    }
+    try {
+      return ((Sketch) UNION_SKETCH_FIELD.get(union)).getCurrentBytes(false);
+    }
+    catch (IllegalAccessException e) {
+      return maxSizeInBytes;
+    }
+  }
+
+  @Nullable
+  private static Field findUnionSketchField()
+  {
+    try {
+      final Field field = Class.forName("org.apache.datasketches.theta.UnionImpl").getDeclaredField("gadget_");
+      field.setAccessible(true);
+      return field;
+    }
+    catch (ReflectiveOperationException | RuntimeException e) {
+      log.warn(e, "Cannot determine the size of theta sketch unions, assuming their maximum size");
+      return null;
+    }
+  }
+
   static void updateUnion(Union union, Object update)
   {
     if (update instanceof SketchHolder) {
@@ -28,6 +28,7 @@ import org.apache.datasketches.theta.Union;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.query.aggregation.AggregateCombiner;
 import org.apache.druid.query.aggregation.Aggregator;
+import org.apache.druid.query.aggregation.AggregatorAndSize;
 import org.apache.druid.query.aggregation.AggregatorFactory;
 import org.apache.druid.query.aggregation.BufferAggregator;
 import org.apache.druid.query.aggregation.ObjectAggregateCombiner;
@@ -69,6 +70,17 @@ public abstract class SketchAggregatorFactory extends AggregatorFactory
     return new SketchAggregator(selector, size);
   }
 
+  /**
+   * The union of {@link SketchAggregator} is created on the first aggregated value and grows with the data, so the
+   * aggregator starts with no size instead of {@link #getMaxIntermediateSize()}, which is reserved for the largest
+   * possible union. {@link SketchAggregator#aggregateWithSize()} reports the actual size of the union.
+   */
+  @Override
+  public AggregatorAndSize factorizeWithSize(ColumnSelectorFactory metricFactory)
+  {
+    return new AggregatorAndSize(factorize(metricFactory), 0);
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public BufferAggregator factorizeBuffered(ColumnSelectorFactory metricFactory)
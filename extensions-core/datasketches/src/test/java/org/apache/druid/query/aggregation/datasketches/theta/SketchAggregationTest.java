@@ -37,6 +37,7 @@ import org.apache.druid.query.Query;
 import org.apache.druid.query.aggregation.AggregationTestHelper;
 import org.apache.druid.query.aggregation.AggregatorFactory;
 import org.apache.druid.query.aggregation.PostAggregator;
+import org.apache.druid.query.aggregation.TestObjectColumnSelector;
 import org.apache.druid.query.aggregation.post.FieldAccessPostAggregator;
 import org.apache.druid.query.groupby.GroupByQuery;
 import org.apache.druid.query.groupby.GroupByQueryConfig;
@@ -309,6 +310,42 @@ public class SketchAggregationTest
 
   }
 
+  @Test
+  public void testAggregateWithSize()
+  {
+    final String[] values = new String[1000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = "value" + i;
+    }
+    final TestObjectColumnSelector<String> selector = new TestObjectColumnSelector<>(values);
+    final SketchAggregatorFactory factory =
+        new SketchMergeAggregatorFactory("name", "fieldName", 4096, null, null, null);
+    final SketchAggregator agg = new SketchAggregator(selector, 4096);
+    final long maxSize = factory.getMaxIntermediateSize();
+
+    // the first value reports the size of the new union
+    long size = agg.aggregateWithSize();
+    selector.increment();
+    Assert.assertTrue(size > 0);
+    final long initialSize = size;
+
+    int numResizes = 0;
+    for (int i = 1; i < values.length; i++) {
+      final long delta = agg.aggregateWithSize();
+      selector.increment();
+      Assert.assertTrue(delta >= 0);
+      if (delta > 0) {
+        numResizes++;
+      }
+      size += delta;
+    }
+    // the union only grows when its hash table is resized, up to its maximum size
+    Assert.assertTrue(numResizes > 0);
+    Assert.assertTrue(numResizes < 10);
+    Assert.assertTrue(size > initialSize);
+    Assert.assertTrue(size <= maxSize);
+  }
+
   private void assertAggregatorFactorySerde(AggregatorFactory agg) throws Exception
   {
     Assert.assertEquals(
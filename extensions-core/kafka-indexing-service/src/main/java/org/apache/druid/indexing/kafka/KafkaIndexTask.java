@@ -159,7 +159,7 @@ public class KafkaIndexTask extends SeekableStreamIndexTask<Integer, Long>
 
       props.put("auto.offset.reset", "none");
 
-      return new KafkaRecordSupplier(props, configMapper);
+      return new KafkaRecordSupplier(props, configMapper, getTuningConfig().getMaxPrefetchedPolls());
     }
     finally {
       Thread.currentThread().setContextClassLoader(currCtxCl);
@@ -21,6 +21,7 @@ package org.apache.druid.indexing.kafka;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
 import org.apache.druid.indexing.seekablestream.SeekableStreamIndexTaskTuningConfig;
 import org.apache.druid.segment.IndexSpec;
 import org.apache.druid.segment.writeout.SegmentWriteOutMediumFactory;
@@ -28,9 +29,14 @@ import org.joda.time.Period;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.util.Objects;
 
 public class KafkaIndexTaskTuningConfig extends SeekableStreamIndexTaskTuningConfig
 {
+  private static final int DEFAULT_MAX_PREFETCHED_POLLS = 0;
+
+  private final int maxPrefetchedPolls;
+
   @JsonCreator
   public KafkaIndexTaskTuningConfig(
       @JsonProperty("maxRowsInMemory") @Nullable Integer maxRowsInMemory,
@@ -51,7 +57,12 @@ public class KafkaIndexTaskTuningConfig extends SeekableStreamIndexTaskTuningCon
       @JsonProperty("intermediateHandoffPeriod") @Nullable Period intermediateHandoffPeriod,
       @JsonProperty("logParseExceptions") @Nullable Boolean logParseExceptions,
       @JsonProperty("maxParseExceptions") @Nullable Integer maxParseExceptions,
-      @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions
+      @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions,
+      @JsonProperty("useOffheapIncrementalIndex") @Nullable Boolean useOffheapIncrementalIndex,
+      @JsonProperty("numIndexingThreads") @Nullable Integer numIndexingThreads,
+      @JsonProperty("intermediatePersistMergeFactor") @Nullable Integer intermediatePersistMergeFactor,
+      @JsonProperty("numParseThreads") @Nullable Integer numParseThreads,
+      @JsonProperty("maxPrefetchedPolls") @Nullable Integer maxPrefetchedPolls
   )
   {
     super(
@@ -73,8 +84,24 @@ public class KafkaIndexTaskTuningConfig extends SeekableStreamIndexTaskTuningCon
         intermediateHandoffPeriod,
         logParseExceptions,
         maxParseExceptions,
-        maxSavedParseExceptions
+        maxSavedParseExceptions,
+        useOffheapIncrementalIndex,
+        numIndexingThreads,
+        intermediatePersistMergeFactor,
+        numParseThreads
     );
+    this.maxPrefetchedPolls = maxPrefetchedPolls == null ? DEFAULT_MAX_PREFETCHED_POLLS : maxPrefetchedPolls;
+    Preconditions.checkArgument(this.maxPrefetchedPolls >= 0, "maxPrefetchedPolls must be >= 0");
+  }
+
+  /**
+   * Number of poll results the record supplier of a task may fetch from Kafka ahead of the ones being indexed.
+   * 0 disables prefetching.
+   */
+  @JsonProperty
+  public int getMaxPrefetchedPolls()
+  {
+    return maxPrefetchedPolls;
   }
 
   @Override
@@ -98,10 +125,36 @@ public class KafkaIndexTaskTuningConfig extends SeekableStreamIndexTaskTuningCon
         getIntermediateHandoffPeriod(),
         isLogParseExceptions(),
         getMaxParseExceptions(),
-        getMaxSavedParseExceptions()
+        getMaxSavedParseExceptions(),
+        isUseOffheapIncrementalIndex(),
+        getNumIndexingThreads(),
+        getIntermediatePersistMergeFactor(),
+        getNumParseThreads(),
+        maxPrefetchedPolls
     );
   }
 
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    if (!super.equals(o)) {
+      return false;
+    }
+    KafkaIndexTaskTuningConfig that = (KafkaIndexTaskTuningConfig) o;
+    return maxPrefetchedPolls == that.maxPrefetchedPolls;
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(super.hashCode(), maxPrefetchedPolls);
+  }
 
   @Override
   public String toString()
@@ -124,6 +177,11 @@ public class KafkaIndexTaskTuningConfig extends SeekableStreamIndexTaskTuningCon
            ", logParseExceptions=" + isLogParseExceptions() +
            ", maxParseExceptions=" + getMaxParseExceptions() +
            ", maxSavedParseExceptions=" + getMaxSavedParseExceptions() +
+           ", useOffheapIncrementalIndex=" + isUseOffheapIncrementalIndex() +
+           ", numIndexingThreads=" + getNumIndexingThreads() +
+           ", intermediatePersistMergeFactor=" + getIntermediatePersistMergeFactor() +
+           ", numParseThreads=" + getNumParseThreads() +
+           ", maxPrefetchedPolls=" + maxPrefetchedPolls +
            '}';
   }
 
@@ -28,97 +28,246 @@ import org.apache.druid.indexing.seekablestream.common.RecordSupplier;
 import org.apache.druid.indexing.seekablestream.common.StreamException;
 import org.apache.druid.indexing.seekablestream.common.StreamPartition;
 import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.concurrent.Execs;
+import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.metadata.PasswordProvider;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.InterruptException;
 import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.Deserializer;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
+/**
+ * {@link RecordSupplier} reading from Kafka using a {@link KafkaConsumer}.
+ *
+ * If maxPrefetchedPolls is positive, a background thread keeps polling the consumer while the records returned by
+ * the previous {@link #poll} are being processed, and {@link #poll} hands out the fetched batches in order. At most
+ * maxPrefetchedPolls batches are buffered. Any call that repositions the consumer, or asks for its position, first
+ * discards the buffered batches and rewinds the consumer to the offsets following the records already returned, so
+ * prefetching is invisible to callers. Errors thrown by the consumer in the background thread, such as
+ * {@link org.apache.kafka.clients.consumer.OffsetOutOfRangeException}, are rethrown by {@link #poll} once the batches
+ * fetched before them have been returned.
+ */
 public class KafkaRecordSupplier implements RecordSupplier<Integer, Long>
 {
+  private static final Logger log = new Logger(KafkaRecordSupplier.class);
+  private static final long PREFETCH_POLL_TIMEOUT_MILLIS = 100;
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
   private final KafkaConsumer<byte[], byte[]> consumer;
-  private boolean closed;
+
+  // Guards the consumer, which is not thread-safe, and the prefetching state below. The lock is fair, so that callers
+  // waiting for it get it before the prefetch thread starts another poll. They wait for at most one poll then.
+  private final ReentrantLock lock = new ReentrantLock(true);
+  private final Condition prefetchingChanged = lock.newCondition();
+  @Nullable
+  private final ExecutorService prefetchExec;
+  @Nullable
+  private final BlockingQueue<PrefetchedBatch> prefetchedBatches;
+  private volatile long generation;
+  private volatile boolean prefetching;
+  // Offsets following the last records returned by poll(), while prefetching. Only used by the caller thread.
+  @Nullable
+  private Map<TopicPartition, Long> nextOffsets;
+  private volatile boolean closed;
 
   public KafkaRecordSupplier(
       Map<String, Object> consumerProperties,
       ObjectMapper sortingMapper
   )
   {
-    this(getKafkaConsumer(sortingMapper, consumerProperties));
+    this(consumerProperties, sortingMapper, 0);
+  }
+
+  public KafkaRecordSupplier(
+      Map<String, Object> consumerProperties,
+      ObjectMapper sortingMapper,
+      int maxPrefetchedPolls
+  )
+  {
+    this(getKafkaConsumer(sortingMapper, consumerProperties), maxPrefetchedPolls);
   }
 
   @VisibleForTesting
   public KafkaRecordSupplier(
       KafkaConsumer<byte[], byte[]> consumer
   )
+  {
+    this(consumer, 0);
+  }
+
+  @VisibleForTesting
+  public KafkaRecordSupplier(
+      KafkaConsumer<byte[], byte[]> consumer,
+      int maxPrefetchedPolls
+  )
   {
     this.consumer = consumer;
+    if (maxPrefetchedPolls > 0) {
+      this.prefetchedBatches = new ArrayBlockingQueue<>(maxPrefetchedPolls);
+      this.prefetchExec = Execs.singleThreaded("KafkaRecordSupplier-prefetch-%d");
+      this.prefetchExec.submit(this::prefetchLoop);
+    } else {
+      this.prefetchedBatches = null;
+      this.prefetchExec = null;
+    }
   }
 
   @Override
   public void assign(Set<StreamPartition<Integer>> streamPartitions)
   {
-    wrapExceptions(() -> consumer.assign(streamPartitions
-                                             .stream()
-                                             .map(x -> new TopicPartition(x.getStream(), x.getPartitionId()))
-                                             .collect(Collectors.toSet())));
+    lock.lock();
+    try {
+      stopPrefetching();
+      wrapExceptions(() -> consumer.assign(streamPartitions
+                                               .stream()
+                                               .map(x -> new TopicPartition(x.getStream(), x.getPartitionId()))
+                                               .collect(Collectors.toSet())));
+    }
+    finally {
+      lock.unlock();
+    }
   }
 
   @Override
   public void seek(StreamPartition<Integer> partition, Long sequenceNumber)
   {
-    wrapExceptions(() -> consumer.seek(
-        new TopicPartition(partition.getStream(), partition.getPartitionId()),
-        sequenceNumber
-    ));
+    lock.lock();
+    try {
+      stopPrefetching();
+      wrapExceptions(() -> consumer.seek(
+          new TopicPartition(partition.getStream(), partition.getPartitionId()),
+          sequenceNumber
+      ));
+    }
+    finally {
+      lock.unlock();
+    }
   }
 
   @Override
   public void seekToEarliest(Set<StreamPartition<Integer>> partitions)
   {
-    wrapExceptions(() -> consumer.seekToBeginning(partitions
-                                                      .stream()
-                                                      .map(e -> new TopicPartition(e.getStream(), e.getPartitionId()))
-                                                      .collect(Collectors.toList())));
+    lock.lock();
+    try {
+      stopPrefetching();
+      wrapExceptions(() -> consumer.seekToBeginning(partitions
+                                                        .stream()
+                                                        .map(e -> new TopicPartition(e.getStream(), e.getPartitionId()))
+                                                        .collect(Collectors.toList())));
+    }
+    finally {
+      lock.unlock();
+    }
   }
 
   @Override
   public void seekToLatest(Set<StreamPartition<Integer>> partitions)
   {
-    wrapExceptions(() -> consumer.seekToEnd(partitions
-                                                .stream()
-                                                .map(e -> new TopicPartition(e.getStream(), e.getPartitionId()))
-                                                .collect(Collectors.toList())));
+    lock.lock();
+    try {
+      stopPrefetching();
+      wrapExceptions(() -> consumer.seekToEnd(partitions
+                                                  .stream()
+                                                  .map(e -> new TopicPartition(e.getStream(), e.getPartitionId()))
+                                                  .collect(Collectors.toList())));
+    }
+    finally {
+      lock.unlock();
+    }
   }
 
   @Override
   public Set<StreamPartition<Integer>> getAssignment()
   {
-    return wrapExceptions(() -> consumer.assignment()
-                                        .stream()
-                                        .map(e -> new StreamPartition<>(e.topic(), e.partition()))
-                                        .collect(Collectors.toSet()));
+    lock.lock();
+    try {
+      return wrapExceptions(() -> consumer.assignment()
+                                          .stream()
+                                          .map(e -> new StreamPartition<>(e.topic(), e.partition()))
+                                          .collect(Collectors.toSet()));
+    }
+    finally {
+      lock.unlock();
+    }
   }
 
   @Nonnull
   @Override
   public List<OrderedPartitionableRecord<Integer, Long>> poll(long timeout)
+  {
+    if (prefetchedBatches == null) {
+      return pollConsumer(timeout);
+    }
+
+    // Checked first so that the caller does not wait for the lock, held by the prefetch thread while it polls.
+    if (!prefetching) {
+      lock.lock();
+      try {
+        startPrefetching();
+      }
+      finally {
+        lock.unlock();
+      }
+    }
+    final long deadline = System.currentTimeMillis() + timeout;
+    while (true) {
+      final PrefetchedBatch batch;
+      try {
+        batch = prefetchedBatches.poll(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+      }
+      catch (InterruptedException e) {
+        // Same exception as the one thrown by an interrupted KafkaConsumer.poll()
+        throw new InterruptException(e);
+      }
+      if (batch == null) {
+        return new ArrayList<>();
+      }
+      if (batch.generation != generation) {
+        // Fetched before the consumer was repositioned
+        continue;
+      }
+      if (batch.exception != null) {
+        if (batch.exception instanceof RuntimeException) {
+          throw (RuntimeException) batch.exception;
+        }
+        throw new StreamException(batch.exception);
+      }
+      for (OrderedPartitionableRecord<Integer, Long> record : batch.records) {
+        nextOffsets.put(
+            new TopicPartition(record.getStream(), record.getPartitionId()),
+            record.getSequenceNumber() + 1
+        );
+      }
+      return batch.records;
+    }
+  }
+
+  private List<OrderedPartitionableRecord<Integer, Long>> pollConsumer(long timeout)
   {
     List<OrderedPartitionableRecord<Integer, Long>> polledRecords = new ArrayList<>();
     for (ConsumerRecord<byte[], byte[]> record : consumer.poll(Duration.ofMillis(timeout))) {
@@ -155,22 +304,35 @@ public class KafkaRecordSupplier implements RecordSupplier<Integer, Long>
   @Override
   public Long getPosition(StreamPartition<Integer> partition)
   {
-    return wrapExceptions(() -> consumer.position(new TopicPartition(
-        partition.getStream(),
-        partition.getPartitionId()
-    )));
+    lock.lock();
+    try {
+      stopPrefetching();
+      return wrapExceptions(() -> consumer.position(new TopicPartition(
+          partition.getStream(),
+          partition.getPartitionId()
+      )));
+    }
+    finally {
+      lock.unlock();
+    }
   }
 
   @Override
   public Set<Integer> getPartitionIds(String stream)
   {
-    return wrapExceptions(() -> {
-      List<PartitionInfo> partitions = consumer.partitionsFor(stream);
-      if (partitions == null) {
-        throw new ISE("Topic [%s] is not found in KafkaConsumer's list of topics", stream);
-      }
-      return partitions.stream().map(PartitionInfo::partition).collect(Collectors.toSet());
-    });
+    lock.lock();
+    try {
+      return wrapExceptions(() -> {
+        List<PartitionInfo> partitions = consumer.partitionsFor(stream);
+        if (partitions == null) {
+          throw new ISE("Topic [%s] is not found in KafkaConsumer's list of topics", stream);
+        }
+        return partitions.stream().map(PartitionInfo::partition).collect(Collectors.toSet());
+      });
+    }
+    finally {
+      lock.unlock();
+    }
   }
 
   @Override
@@ -179,8 +341,121 @@ public class KafkaRecordSupplier implements RecordSupplier<Integer, Long>
     if (closed) {
       return;
     }
-    closed = true;
-    consumer.close();
+    lock.lock();
+    try {
+      closed = true;
+      prefetchingChanged.signalAll();
+    }
+    finally {
+      lock.unlock();
+    }
+    if (prefetchExec != null) {
+      // Interrupts a prefetching poll, so that the lock is released quickly
+      prefetchExec.shutdownNow();
+      try {
+        if (!prefetchExec.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          log.warn("Prefetch thread did not terminate in [%d] seconds", SHUTDOWN_TIMEOUT_SECONDS);
+        }
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    lock.lock();
+    try {
+      consumer.close();
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Starts prefetching from the current consumer position if it's not running. Must be called holding the lock.
+   */
+  private void startPrefetching()
+  {
+    if (prefetching || closed) {
+      return;
+    }
+    if (nextOffsets == null) {
+      final Map<TopicPartition, Long> offsets = new HashMap<>();
+      for (TopicPartition topicPartition : consumer.assignment()) {
+        offsets.put(topicPartition, consumer.position(topicPartition));
+      }
+      nextOffsets = offsets;
+    }
+    generation++;
+    prefetching = true;
+    prefetchingChanged.signalAll();
+  }
+
+  /**
+   * Stops prefetching, drops the prefetched batches and rewinds the consumer to the offsets following the records
+   * returned by {@link #poll}. Must be called holding the lock.
+   */
+  private void stopPrefetching()
+  {
+    if (prefetchedBatches == null) {
+      return;
+    }
+    generation++;
+    prefetching = false;
+    prefetchedBatches.clear();
+    if (nextOffsets != null) {
+      final Set<TopicPartition> assignment = consumer.assignment();
+      for (Map.Entry<TopicPartition, Long> entry : nextOffsets.entrySet()) {
+        if (assignment.contains(entry.getKey())) {
+          consumer.seek(entry.getKey(), entry.getValue());
+        }
+      }
+      nextOffsets = null;
+    }
+  }
+
+  private void prefetchLoop()
+  {
+    while (!closed) {
+      final PrefetchedBatch batch;
+      lock.lock();
+      try {
+        try {
+          while (!prefetching && !closed) {
+            prefetchingChanged.await();
+          }
+        }
+        catch (InterruptedException e) {
+          return;
+        }
+        if (closed) {
+          return;
+        }
+        List<OrderedPartitionableRecord<Integer, Long>> records = null;
+        Exception exception = null;
+        try {
+          records = pollConsumer(PREFETCH_POLL_TIMEOUT_MILLIS);
+        }
+        catch (Exception e) {
+          // Polling again would most likely fail the same way. Wait for the caller to handle it, or to reposition.
+          exception = e;
+          prefetching = false;
+        }
+        if (records != null && records.isEmpty()) {
+          continue;
+        }
+        batch = new PrefetchedBatch(generation, records, exception);
+      }
+      finally {
+        lock.unlock();
+      }
+      try {
+        // Blocks while maxPrefetchedPolls batches are waiting for the caller, which bounds the buffered records
+        prefetchedBatches.put(batch);
+      }
+      catch (InterruptedException e) {
+        return;
+      }
+    }
   }
 
   public static void addConsumerPropertiesFromConfig(
@@ -252,6 +527,26 @@ public class KafkaRecordSupplier implements RecordSupplier<Integer, Long>
     }
   }
 
+  private static class PrefetchedBatch
+  {
+    private final long generation;
+    @Nullable
+    private final List<OrderedPartitionableRecord<Integer, Long>> records;
+    @Nullable
+    private final Exception exception;
+
+    private PrefetchedBatch(
+        long generation,
+        @Nullable List<OrderedPartitionableRecord<Integer, Long>> records,
+        @Nullable Exception exception
+    )
+    {
+      this.generation = generation;
+      this.records = records;
+      this.exception = exception;
+    }
+  }
+
   private static <T> T wrapExceptions(Callable<T> callable)
   {
     try {
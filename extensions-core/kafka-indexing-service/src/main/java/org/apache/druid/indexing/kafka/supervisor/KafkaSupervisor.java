@@ -129,7 +129,7 @@ public class KafkaSupervisor extends SeekableStreamSupervisor<Integer, Long>
   @Override
   protected int getTaskGroupIdForPartition(Integer partitionId)
   {
-    return partitionId % spec.getIoConfig().getTaskCount();
+    return partitionId % getActiveTaskCount();
   }
 
   @Override
@@ -67,6 +67,11 @@ public class KafkaSupervisorTuningConfig extends KafkaIndexTaskTuningConfig
         null,
         null,
         null,
+        null,
+        null,
+        null,
+        null,
+        null,
         null
     );
   }
@@ -96,7 +101,12 @@ public class KafkaSupervisorTuningConfig extends KafkaIndexTaskTuningConfig
       @JsonProperty("intermediateHandoffPeriod") Period intermediateHandoffPeriod,
       @JsonProperty("logParseExceptions") @Nullable Boolean logParseExceptions,
       @JsonProperty("maxParseExceptions") @Nullable Integer maxParseExceptions,
-      @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions
+      @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions,
+      @JsonProperty("useOffheapIncrementalIndex") @Nullable Boolean useOffheapIncrementalIndex,
+      @JsonProperty("numIndexingThreads") @Nullable Integer numIndexingThreads,
+      @JsonProperty("intermediatePersistMergeFactor") @Nullable Integer intermediatePersistMergeFactor,
+      @JsonProperty("numParseThreads") @Nullable Integer numParseThreads,
+      @JsonProperty("maxPrefetchedPolls") @Nullable Integer maxPrefetchedPolls
   )
   {
     super(
@@ -117,7 +127,12 @@ public class KafkaSupervisorTuningConfig extends KafkaIndexTaskTuningConfig
         intermediateHandoffPeriod,
         logParseExceptions,
         maxParseExceptions,
-        maxSavedParseExceptions
+        maxSavedParseExceptions,
+        useOffheapIncrementalIndex,
+        numIndexingThreads,
+        intermediatePersistMergeFactor,
+        numParseThreads,
+        maxPrefetchedPolls
     );
     this.workerThreads = workerThreads;
     this.chatThreads = chatThreads;
@@ -212,6 +227,11 @@ public class KafkaSupervisorTuningConfig extends KafkaIndexTaskTuningConfig
            ", logParseExceptions=" + isLogParseExceptions() +
            ", maxParseExceptions=" + getMaxParseExceptions() +
            ", maxSavedParseExceptions=" + getMaxSavedParseExceptions() +
+           ", useOffheapIncrementalIndex=" + isUseOffheapIncrementalIndex() +
+           ", numIndexingThreads=" + getNumIndexingThreads() +
+           ", intermediatePersistMergeFactor=" + getIntermediatePersistMergeFactor() +
+           ", numParseThreads=" + getNumParseThreads() +
+           ", maxPrefetchedPolls=" + getMaxPrefetchedPolls() +
            '}';
   }
 
@@ -236,7 +256,12 @@ public class KafkaSupervisorTuningConfig extends KafkaIndexTaskTuningConfig
         getIntermediateHandoffPeriod(),
         isLogParseExceptions(),
         getMaxParseExceptions(),
-        getMaxSavedParseExceptions()
+        getMaxSavedParseExceptions(),
+        isUseOffheapIncrementalIndex(),
+        getNumIndexingThreads(),
+        getIntermediatePersistMergeFactor(),
+        getNumParseThreads(),
+        getMaxPrefetchedPolls()
     );
   }
 }
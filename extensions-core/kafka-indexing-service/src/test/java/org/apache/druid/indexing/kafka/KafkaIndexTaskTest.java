@@ -183,6 +183,7 @@ public class KafkaIndexTaskTest extends SeekableStreamIndexTaskTestBase
   private boolean doHandoff = true;
   private Integer maxRowsPerSegment = null;
   private Long maxTotalRows = null;
+  private Integer numParseThreads = null;
   private Period intermediateHandoffPeriod = null;
 
   private AppenderatorsManager appenderatorsManager;
@@ -1287,6 +1288,19 @@ public class KafkaIndexTaskTest extends SeekableStreamIndexTaskTestBase
 
   @Test(timeout = 60_000L)
   public void testMultipleParseExceptionsSuccess() throws Exception
+  {
+    runMultipleParseExceptionsSuccess();
+  }
+
+  @Test(timeout = 60_000L)
+  public void testMultipleParseExceptionsSuccessWithParallelParsing() throws Exception
+  {
+    numParseThreads = 4;
+    // Rows and parse exceptions are expected in the same order as with a single parse thread.
+    runMultipleParseExceptionsSuccess();
+  }
+
+  private void runMultipleParseExceptionsSuccess() throws Exception
   {
     reportParseExceptions = false;
     maxParseExceptions = 6;
@@ -2467,7 +2481,12 @@ public class KafkaIndexTaskTest extends SeekableStreamIndexTaskTestBase
         intermediateHandoffPeriod,
         logParseExceptions,
         maxParseExceptions,
-        maxSavedParseExceptions
+        maxSavedParseExceptions,
+        null,
+        null,
+        null,
+        numParseThreads,
+        null
     );
     if (!context.containsKey(SeekableStreamSupervisor.CHECKPOINTS_CTX_KEY)) {
       final TreeMap<Integer, Map<Integer, Long>> checkpoints = new TreeMap<>();
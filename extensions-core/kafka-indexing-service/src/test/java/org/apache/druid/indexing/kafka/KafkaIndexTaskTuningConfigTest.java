@@ -19,6 +19,7 @@
 
 package org.apache.druid.indexing.kafka;
 
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.druid.indexing.kafka.supervisor.KafkaSupervisorTuningConfig;
@@ -27,15 +28,21 @@ import org.apache.druid.jackson.DefaultObjectMapper;
 import org.apache.druid.segment.IndexSpec;
 import org.apache.druid.segment.data.CompressionStrategy;
 import org.apache.druid.segment.indexing.TuningConfig;
+import org.hamcrest.CoreMatchers;
 import org.joda.time.Period;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 
 import java.io.File;
 import java.io.IOException;
 
 public class KafkaIndexTaskTuningConfigTest
 {
+  @Rule
+  public final ExpectedException expectedException = ExpectedException.none();
+
   private final ObjectMapper mapper;
 
   public KafkaIndexTaskTuningConfigTest()
@@ -69,6 +76,7 @@ public class KafkaIndexTaskTuningConfigTest
     Assert.assertEquals(new IndexSpec(), config.getIndexSpecForIntermediatePersists());
     Assert.assertEquals(false, config.isReportParseExceptions());
     Assert.assertEquals(0, config.getHandoffConditionTimeout());
+    Assert.assertEquals(0, config.getMaxPrefetchedPolls());
   }
 
   @Test
@@ -84,6 +92,7 @@ public class KafkaIndexTaskTuningConfigTest
                      + "  \"maxPendingPersists\": 100,\n"
                      + "  \"reportParseExceptions\": true,\n"
                      + "  \"handoffConditionTimeout\": 100,\n"
+                     + "  \"maxPrefetchedPolls\": 2,\n"
                      + "  \"indexSpec\": { \"metricCompression\" : \"NONE\" },\n"
                      + "  \"indexSpecForIntermediatePersists\": { \"dimensionCompression\" : \"uncompressed\" }\n"
                      + "}";
@@ -107,10 +116,19 @@ public class KafkaIndexTaskTuningConfigTest
     Assert.assertEquals(100, config.getMaxPendingPersists());
     Assert.assertEquals(true, config.isReportParseExceptions());
     Assert.assertEquals(100, config.getHandoffConditionTimeout());
+    Assert.assertEquals(2, config.getMaxPrefetchedPolls());
     Assert.assertEquals(new IndexSpec(null, null, CompressionStrategy.NONE, null), config.getIndexSpec());
     Assert.assertEquals(new IndexSpec(null, CompressionStrategy.UNCOMPRESSED, null, null), config.getIndexSpecForIntermediatePersists());
   }
 
+  @Test
+  public void testInvalidIntermediatePersistMergeFactor() throws Exception
+  {
+    expectedException.expect(JsonMappingException.class);
+    expectedException.expectCause(CoreMatchers.instanceOf(IllegalArgumentException.class));
+    mapper.readValue("{\"type\": \"kafka\", \"intermediatePersistMergeFactor\": 1}", TuningConfig.class);
+  }
+
   @Test
   public void testConvert()
   {
@@ -138,7 +156,12 @@ public class KafkaIndexTaskTuningConfigTest
         null,
         null,
         null,
-        null
+        null,
+        null,
+        null,
+        null,
+        null,
+        3
     );
     KafkaIndexTaskTuningConfig copy = (KafkaIndexTaskTuningConfig) original.convertToTaskTuningConfig();
 
@@ -152,6 +175,7 @@ public class KafkaIndexTaskTuningConfigTest
     Assert.assertEquals(new IndexSpec(), copy.getIndexSpec());
     Assert.assertEquals(true, copy.isReportParseExceptions());
     Assert.assertEquals(5L, copy.getHandoffConditionTimeout());
+    Assert.assertEquals(3, copy.getMaxPrefetchedPolls());
   }
 
   @Test
@@ -175,7 +199,12 @@ public class KafkaIndexTaskTuningConfigTest
         null,
         true,
         42,
-        42
+        42,
+        null,
+        null,
+        null,
+        null,
+        null
     );
 
     String serialized = mapper.writeValueAsString(base);
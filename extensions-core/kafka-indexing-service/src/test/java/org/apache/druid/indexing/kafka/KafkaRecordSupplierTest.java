@@ -534,6 +534,93 @@ public class KafkaRecordSupplierTest
     recordSupplier.close();
   }
 
+  @Test
+  public void testPollWithPrefetch() throws InterruptedException, ExecutionException
+  {
+    // Insert data
+    insertData();
+
+    Set<StreamPartition<Integer>> partitions = ImmutableSet.of(
+        StreamPartition.of(topic, 0),
+        StreamPartition.of(topic, 1)
+    );
+
+    KafkaRecordSupplier recordSupplier = new KafkaRecordSupplier(
+        kafkaServer.consumerProperties(), OBJECT_MAPPER, 2);
+
+    recordSupplier.assign(partitions);
+    recordSupplier.seekToEarliest(partitions);
+
+    List<OrderedPartitionableRecord<Integer, Long>> initialRecords = new ArrayList<>(createOrderedPartitionableRecords());
+
+    List<OrderedPartitionableRecord<Integer, Long>> polledRecords = new ArrayList<>();
+    for (int i = 0; polledRecords.size() != initialRecords.size() && i < pollRetry * 2; i++) {
+      polledRecords.addAll(recordSupplier.poll(poll_timeout_millis));
+      Thread.sleep(200);
+    }
+
+    Assert.assertEquals(partitions, recordSupplier.getAssignment());
+    Assert.assertEquals(initialRecords.size(), polledRecords.size());
+    Assert.assertTrue(initialRecords.containsAll(polledRecords));
+
+    recordSupplier.close();
+  }
+
+  @Test
+  public void testPositionWithPrefetch() throws InterruptedException, ExecutionException
+  {
+    // Insert data
+    insertData();
+
+    StreamPartition<Integer> partition0 = StreamPartition.of(topic, 0);
+    StreamPartition<Integer> partition1 = StreamPartition.of(topic, 1);
+
+    Set<StreamPartition<Integer>> partitions = ImmutableSet.of(
+        StreamPartition.of(topic, 0),
+        StreamPartition.of(topic, 1)
+    );
+
+    KafkaRecordSupplier recordSupplier = new KafkaRecordSupplier(
+        kafkaServer.consumerProperties(), OBJECT_MAPPER, 2);
+
+    recordSupplier.assign(partitions);
+    recordSupplier.seekToEarliest(partitions);
+
+    List<OrderedPartitionableRecord<Integer, Long>> polledRecords = new ArrayList<>();
+    for (int i = 0; polledRecords.isEmpty() && i < pollRetry; i++) {
+      polledRecords.addAll(recordSupplier.poll(poll_timeout_millis));
+    }
+    Assert.assertFalse(polledRecords.isEmpty());
+
+    // The position follows the returned records, not the ones fetched in the background
+    Map<Integer, Long> expectedPositions = new HashMap<>(ImmutableMap.of(0, 0L, 1, 0L));
+    for (OrderedPartitionableRecord<Integer, Long> record : polledRecords) {
+      expectedPositions.put(record.getPartitionId(), record.getSequenceNumber() + 1);
+    }
+    Assert.assertEquals(expectedPositions.get(0), recordSupplier.getPosition(partition0));
+    Assert.assertEquals(expectedPositions.get(1), recordSupplier.getPosition(partition1));
+
+    // Records which were prefetched but not returned yet are returned after repositioning another partition
+    recordSupplier.seek(partition1, 2L);
+    expectedPositions.put(1, 2L);
+
+    List<OrderedPartitionableRecord<Integer, Long>> initialRecords = createOrderedPartitionableRecords();
+    int expectedCount = (int) (11 - expectedPositions.get(0) + 4 - expectedPositions.get(1));
+    List<OrderedPartitionableRecord<Integer, Long>> remainingRecords = new ArrayList<>();
+    for (int i = 0; remainingRecords.size() != expectedCount && i < pollRetry; i++) {
+      remainingRecords.addAll(recordSupplier.poll(poll_timeout_millis));
+      Thread.sleep(200);
+    }
+
+    Assert.assertEquals(expectedCount, remainingRecords.size());
+    Assert.assertTrue(initialRecords.containsAll(remainingRecords));
+    for (OrderedPartitionableRecord<Integer, Long> record : remainingRecords) {
+      Assert.assertTrue(record.getSequenceNumber() >= expectedPositions.get(record.getPartitionId()));
+    }
+
+    recordSupplier.close();
+  }
+
   private void insertData() throws ExecutionException, InterruptedException
   {
     try (final KafkaProducer<byte[], byte[]> kafkaProducer = kafkaServer.newProducer()) {
@@ -25,10 +25,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
 import org.apache.druid.indexing.kafka.KafkaIndexTaskModule;
 import org.apache.druid.indexing.kafka.KafkaRecordSupplier;
+import org.apache.druid.indexing.seekablestream.supervisor.LagBasedAutoScalerConfig;
 import org.apache.druid.jackson.DefaultObjectMapper;
 import org.apache.druid.java.util.common.DateTimes;
 import org.hamcrest.CoreMatchers;
 import org.joda.time.Duration;
+import org.joda.time.Period;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -80,6 +82,58 @@ public class KafkaSupervisorIOConfigTest
     Assert.assertFalse("lateMessageRejectionPeriod", config.getLateMessageRejectionPeriod().isPresent());
     Assert.assertFalse("earlyMessageRejectionPeriod", config.getEarlyMessageRejectionPeriod().isPresent());
     Assert.assertFalse("lateMessageRejectionStartDateTime", config.getLateMessageRejectionStartDateTime().isPresent());
+    Assert.assertNull(config.getAutoScalerConfig());
+  }
+
+  @Test
+  public void testSerdeWithAutoScalerConfig() throws Exception
+  {
+    String jsonStr = "{\n"
+                     + "  \"type\": \"kafka\",\n"
+                     + "  \"topic\": \"my-topic\",\n"
+                     + "  \"taskCount\": 4,\n"
+                     + "  \"consumerProperties\": {\"bootstrap.servers\":\"localhost:9092\"},\n"
+                     + "  \"autoScalerConfig\": {\n"
+                     + "    \"taskCountMin\": 2,\n"
+                     + "    \"taskCountMax\": 8,\n"
+                     + "    \"lagCollectionPeriod\": \"PT1M\",\n"
+                     + "    \"scaleOutThreshold\": 1000\n"
+                     + "  }\n"
+                     + "}";
+
+    KafkaSupervisorIOConfig config = mapper.readValue(
+        mapper.writeValueAsString(
+            mapper.readValue(
+                jsonStr,
+                KafkaSupervisorIOConfig.class
+            )
+        ), KafkaSupervisorIOConfig.class
+    );
+
+    Assert.assertEquals(4, (int) config.getTaskCount());
+    Assert.assertEquals(
+        new LagBasedAutoScalerConfig(2, 8, Period.minutes(1), null, 1000L, null, null, null, null, null, null),
+        config.getAutoScalerConfig()
+    );
+    Assert.assertEquals(Duration.standardMinutes(10), config.getAutoScalerConfig().getLagCollectionRange());
+    Assert.assertEquals(1000, config.getAutoScalerConfig().getScaleOutThreshold());
+    Assert.assertEquals(1_000_000, config.getAutoScalerConfig().getScaleInThreshold());
+  }
+
+  @Test
+  public void testAutoScalerConfigWithInvalidTaskCountMax() throws Exception
+  {
+    String jsonStr = "{\n"
+                     + "  \"type\": \"kafka\",\n"
+                     + "  \"topic\": \"my-topic\",\n"
+                     + "  \"consumerProperties\": {\"bootstrap.servers\":\"localhost:9092\"},\n"
+                     + "  \"autoScalerConfig\": {\"taskCountMin\": 4, \"taskCountMax\": 2}\n"
+                     + "}";
+
+    exception.expect(JsonMappingException.class);
+    exception.expectCause(CoreMatchers.isA(IllegalArgumentException.class));
+    exception.expectMessage(CoreMatchers.containsString("taskCountMax[2] must not be smaller than taskCountMin[4]"));
+    mapper.readValue(jsonStr, KafkaSupervisorIOConfig.class);
   }
 
   @Test
@@ -280,6 +280,11 @@ public class KafkaSupervisorTest extends EasyMockSupport
             null,
             null,
             null,
+            null,
+            null,
+            null,
+            null,
+            null,
             null
         ),
         null
@@ -3103,6 +3108,11 @@ public class KafkaSupervisorTest extends EasyMockSupport
             null,
             null,
             null,
+            null,
+            null,
+            null,
+            null,
+            null,
             null
         )
     );
@@ -3142,6 +3152,11 @@ public class KafkaSupervisorTest extends EasyMockSupport
         null,
         null,
         null,
+        null,
+        null,
+        null,
+        null,
+        null,
         null
     );
 
@@ -3399,6 +3414,7 @@ public class KafkaSupervisorTest extends EasyMockSupport
         new Period("PT30M"),
         lateMessageRejectionPeriod,
         earlyMessageRejectionPeriod,
+        null,
         null
     );
 
@@ -3447,6 +3463,11 @@ public class KafkaSupervisorTest extends EasyMockSupport
         null,
         null,
         null,
+        null,
+        null,
+        null,
+        null,
+        null,
         null
     );
 
@@ -3509,6 +3530,7 @@ public class KafkaSupervisorTest extends EasyMockSupport
         new Period("PT30M"),
         lateMessageRejectionPeriod,
         earlyMessageRejectionPeriod,
+        null,
         null
     );
 
@@ -3557,6 +3579,11 @@ public class KafkaSupervisorTest extends EasyMockSupport
         null,
         null,
         null,
+        null,
+        null,
+        null,
+        null,
+        null,
         null
     );
 
@@ -3623,6 +3650,7 @@ public class KafkaSupervisorTest extends EasyMockSupport
         new Period("PT30M"),
         lateMessageRejectionPeriod,
         earlyMessageRejectionPeriod,
+        null,
         null
     );
 
@@ -74,7 +74,11 @@ public class KinesisIndexTaskTuningConfig extends SeekableStreamIndexTaskTuningC
       @JsonProperty("maxParseExceptions") @Nullable Integer maxParseExceptions,
       @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions,
       @JsonProperty("maxRecordsPerPoll") @Nullable Integer maxRecordsPerPoll,
-      @JsonProperty("intermediateHandoffPeriod") @Nullable Period intermediateHandoffPeriod
+      @JsonProperty("intermediateHandoffPeriod") @Nullable Period intermediateHandoffPeriod,
+      @JsonProperty("useOffheapIncrementalIndex") @Nullable Boolean useOffheapIncrementalIndex,
+      @JsonProperty("numIndexingThreads") @Nullable Integer numIndexingThreads,
+      @JsonProperty("intermediatePersistMergeFactor") @Nullable Integer intermediatePersistMergeFactor,
+      @JsonProperty("numParseThreads") @Nullable Integer numParseThreads
   )
   {
     super(
@@ -96,7 +100,11 @@ public class KinesisIndexTaskTuningConfig extends SeekableStreamIndexTaskTuningC
         intermediateHandoffPeriod,
         logParseExceptions,
         maxParseExceptions,
-        maxSavedParseExceptions
+        maxSavedParseExceptions,
+        useOffheapIncrementalIndex,
+        numIndexingThreads,
+        intermediatePersistMergeFactor,
+        numParseThreads
     );
     this.recordBufferSize = recordBufferSize == null ? DEFAULT_RECORD_BUFFER_SIZE : recordBufferSize;
     this.recordBufferOfferTimeout = recordBufferOfferTimeout == null
@@ -178,7 +186,11 @@ public class KinesisIndexTaskTuningConfig extends SeekableStreamIndexTaskTuningC
         getMaxParseExceptions(),
         getMaxSavedParseExceptions(),
         getMaxRecordsPerPoll(),
-        getIntermediateHandoffPeriod()
+        getIntermediateHandoffPeriod(),
+        isUseOffheapIncrementalIndex(),
+        getNumIndexingThreads(),
+        getIntermediatePersistMergeFactor(),
+        getNumParseThreads()
     );
   }
 
@@ -244,6 +256,10 @@ public class KinesisIndexTaskTuningConfig extends SeekableStreamIndexTaskTuningC
            ", maxSavedParseExceptions=" + getMaxSavedParseExceptions() +
            ", maxRecordsPerPoll=" + maxRecordsPerPoll +
            ", intermediateHandoffPeriod=" + getIntermediateHandoffPeriod() +
+           ", useOffheapIncrementalIndex=" + isUseOffheapIncrementalIndex() +
+           ", numIndexingThreads=" + getNumIndexingThreads() +
+           ", intermediatePersistMergeFactor=" + getIntermediatePersistMergeFactor() +
+           ", numParseThreads=" + getNumParseThreads() +
            '}';
   }
 }
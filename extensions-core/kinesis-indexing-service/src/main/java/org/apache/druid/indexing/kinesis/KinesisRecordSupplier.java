@@ -45,7 +45,6 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Queues;
 import org.apache.druid.common.aws.AWSCredentialsConfig;
 import org.apache.druid.common.aws.AWSCredentialsUtils;
 import org.apache.druid.indexing.kinesis.supervisor.KinesisSupervisor;
@@ -83,16 +82,26 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
  * This class implements a local buffer for storing fetched Kinesis records. Fetching is done
  * in background threads.
+ *
+ * Each shard is read independently into its own bounded buffer, which gets an equal share of recordBufferSize among
+ * the currently assigned shards, and {@link #poll} takes records from the shards in turn. A shard whose buffer is full,
+ * or which is throttled, only delays itself, so a busy shard can neither starve the others nor be starved by them.
+ * Shards returning no records are fetched less and less often, up to {@link #MAX_EMPTY_FETCH_BACKOFF_MS}, which leaves
+ * the fetch threads and the per-shard GetRecords rate limit to the shards that have data.
  */
 public class KinesisRecordSupplier implements RecordSupplier<String, String>
 {
   private static final EmittingLogger log = new EmittingLogger(KinesisRecordSupplier.class);
   private static final long PROVISIONED_THROUGHPUT_EXCEEDED_BACKOFF_MS = 3000;
+  private static final long MAX_PROVISIONED_THROUGHPUT_EXCEEDED_BACKOFF_MS = 30000;
+  private static final long MIN_EMPTY_FETCH_BACKOFF_MS = 50;
+  private static final long MAX_EMPTY_FETCH_BACKOFF_MS = 1000;
   private static final long EXCEPTION_RETRY_DELAY_MS = 10000;
 
   private static boolean isServiceExceptionRecoverable(AmazonServiceException ex)
@@ -105,6 +114,10 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
   private class PartitionResource
   {
     private final StreamPartition<String> streamPartition;
+    // Not bounded itself, since the bound changes with the assignment. Only the fetch runnable adds records, and it
+    // does not add more than bufferSize, see offerRecord().
+    private final BlockingQueue<OrderedPartitionableRecord<String, String>> records = new LinkedBlockingQueue<>();
+    private volatile int bufferSize;
 
     // shardIterator points to the record that will be polled next by recordRunnable
     // can be null when shard is closed due to the user shard splitting or changing the number
@@ -117,9 +130,52 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
 
     private volatile long currentLagMillis;
 
-    PartitionResource(StreamPartition<String> streamPartition)
+    // Delays before the next fetch, only used by the fetch runnable of this partition.
+    private long emptyFetchBackoffMillis;
+    private long throughputExceededBackoffMillis;
+
+    PartitionResource(StreamPartition<String> streamPartition, int bufferSize)
     {
       this.streamPartition = streamPartition;
+      this.bufferSize = bufferSize;
+    }
+
+    void setBufferSize(int bufferSize)
+    {
+      this.bufferSize = bufferSize;
+      notifySpaceAvailable();
+    }
+
+    /**
+     * Adds the record to the buffer, waiting up to recordBufferOfferTimeout for the buffer to hold less than
+     * bufferSize records. Returns false if it still does not.
+     */
+    private boolean offerRecord(OrderedPartitionableRecord<String, String> record) throws InterruptedException
+    {
+      if (records.size() >= bufferSize) {
+        synchronized (this) {
+          final long deadline = System.currentTimeMillis() + recordBufferOfferTimeout;
+          while (records.size() >= bufferSize) {
+            final long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+              return false;
+            }
+            wait(remaining);
+          }
+        }
+      }
+      records.add(record);
+      return true;
+    }
+
+    /**
+     * Called after records are taken from the buffer, or its size is changed.
+     */
+    private void notifySpaceAvailable()
+    {
+      synchronized (this) {
+        notifyAll();
+      }
     }
 
     void startBackgroundFetch()
@@ -136,6 +192,8 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
 
       stopRequested = false;
       started = true;
+      emptyFetchBackoffMillis = 0;
+      throughputExceededBackoffMillis = 0;
 
       rescheduleRunnable(fetchDelayMillis);
     }
@@ -229,9 +287,11 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
 
             recordsResult = null;
 
-            if (!records.offer(currRecord, recordBufferOfferTimeout, TimeUnit.MILLISECONDS)) {
+            if (!offerRecord(currRecord)) {
               log.warn("OrderedPartitionableRecord buffer full, retrying in [%,dms]", recordBufferFullWait);
               rescheduleRunnable(recordBufferFullWait);
+            } else {
+              notifyRecordsAvailable();
             }
 
             return;
@@ -241,6 +301,7 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
               shardIterator).withLimit(recordsPerFetch));
 
           currentLagMillis = recordsResult.getMillisBehindLatest();
+          throughputExceededBackoffMillis = 0;
 
           // list will come back empty if there are no records
           for (Record kinesisRecord : recordsResult.getRecords()) {
@@ -279,17 +340,18 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
                 currRecord.getStream(),
                 currRecord.getPartitionId(),
                 currRecord.getSequenceNumber(),
-                records.remainingCapacity(),
+                bufferSize - records.size(),
                 currRecord.getData().stream().map(StringUtils::fromUtf8).collect(Collectors.toList())
             );
 
             // If the buffer was full and we weren't able to add the message, grab a new stream iterator starting
             // from this message and back off for a bit to let the buffer drain before retrying.
-            if (!records.offer(currRecord, recordBufferOfferTimeout, TimeUnit.MILLISECONDS)) {
+            if (!offerRecord(currRecord)) {
               log.warn(
                   "OrderedPartitionableRecord buffer full, storing iterator and retrying in [%,dms]",
                   recordBufferFullWait
               );
+              notifyRecordsAvailable();
 
               shardIterator = kinesis.getShardIterator(
                   currRecord.getStream(),
@@ -305,7 +367,17 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
 
           shardIterator = recordsResult.getNextShardIterator(); // will be null if the shard has been closed
 
-          rescheduleRunnable(fetchDelayMillis);
+          if (recordsResult.getRecords().isEmpty()) {
+            // Nothing new in this shard; back off exponentially so that idle shards don't use up fetch threads
+            emptyFetchBackoffMillis = emptyFetchBackoffMillis == 0
+                                      ? Math.max(fetchDelayMillis, MIN_EMPTY_FETCH_BACKOFF_MS)
+                                      : Math.min(emptyFetchBackoffMillis * 2, MAX_EMPTY_FETCH_BACKOFF_MS);
+            rescheduleRunnable(Math.max(emptyFetchBackoffMillis, fetchDelayMillis));
+          } else {
+            emptyFetchBackoffMillis = 0;
+            notifyRecordsAvailable();
+            rescheduleRunnable(fetchDelayMillis);
+          }
         }
         catch (ProvisionedThroughputExceededException e) {
           log.warn(
@@ -314,7 +386,14 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
               + "that the request rate for the stream is too high, or the requested data is too large for "
               + "the available throughput. Reduce the frequency or size of your requests."
           );
-          long retryMs = Math.max(PROVISIONED_THROUGHPUT_EXCEEDED_BACKOFF_MS, fetchDelayMillis);
+          // Back off exponentially while the shard keeps being throttled
+          throughputExceededBackoffMillis = throughputExceededBackoffMillis == 0
+                                            ? PROVISIONED_THROUGHPUT_EXCEEDED_BACKOFF_MS
+                                            : Math.min(
+                                                throughputExceededBackoffMillis * 2,
+                                                MAX_PROVISIONED_THROUGHPUT_EXCEEDED_BACKOFF_MS
+                                            );
+          long retryMs = Math.max(throughputExceededBackoffMillis, fetchDelayMillis);
           rescheduleRunnable(retryMs);
         }
         catch (InterruptedException e) {
@@ -403,7 +482,9 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
 
   private final ConcurrentMap<StreamPartition<String>, PartitionResource> partitionResources =
       new ConcurrentHashMap<>();
-  private BlockingQueue<OrderedPartitionableRecord<String, String>> records;
+  // Notified by the fetch runnables when they add records to a buffer
+  private final Object recordsAvailable = new Object();
+  private final AtomicInteger pollRotation = new AtomicInteger();
 
   private volatile boolean checkPartitionsStarted = false;
   private volatile boolean closed = false;
@@ -469,8 +550,6 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
         fetchThreads,
         Execs.makeThreadFactory("KinesisRecordSupplier-Worker-%d")
     );
-
-    records = new LinkedBlockingQueue<>(recordBufferSize);
   }
 
   public static AmazonKinesis getAmazonKinesisClient(
@@ -528,11 +607,13 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
   {
     checkIfClosed();
 
+    // each assigned shard gets an equal share of the buffer, including the shards which were already assigned
+    final int partitionBufferSize = Math.max(1, recordBufferSize / Math.max(1, collection.size()));
     collection.forEach(
-        streamPartition -> partitionResources.putIfAbsent(
+        streamPartition -> partitionResources.computeIfAbsent(
             streamPartition,
-            new PartitionResource(streamPartition)
-        )
+            k -> new PartitionResource(k, partitionBufferSize)
+        ).setBufferSize(partitionBufferSize)
     );
 
     for (Iterator<Map.Entry<StreamPartition<String>, PartitionResource>> i = partitionResources.entrySet()
@@ -587,21 +668,20 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
     }
 
     try {
-      int expectedSize = Math.min(Math.max(records.size(), 1), maxRecordsPerPoll);
-
-      List<OrderedPartitionableRecord<String, String>> polledRecords = new ArrayList<>(expectedSize);
-
-      Queues.drain(
-          records,
-          polledRecords,
-          expectedSize,
-          timeout,
-          TimeUnit.MILLISECONDS
-      );
-
-      polledRecords = polledRecords.stream()
-                                   .filter(x -> partitionResources.containsKey(x.getStreamPartition()))
-                                   .collect(Collectors.toList());
+      final long deadline = System.currentTimeMillis() + timeout;
+      List<OrderedPartitionableRecord<String, String>> polledRecords = drainBuffers();
+      while (polledRecords.isEmpty()) {
+        final long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          break;
+        }
+        synchronized (recordsAvailable) {
+          if (bufferSize() == 0) {
+            recordsAvailable.wait(remaining);
+          }
+        }
+        polledRecords = drainBuffers();
+      }
 
       return polledRecords;
     }
@@ -612,6 +692,42 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
 
   }
 
+  /**
+   * Takes up to maxRecordsPerPoll buffered records, the same number from each shard as far as they have records. The
+   * shard taken from first changes with every call, so that no shard is favored when the limit is hit.
+   */
+  private List<OrderedPartitionableRecord<String, String>> drainBuffers()
+  {
+    final List<PartitionResource> resources = new ArrayList<>(partitionResources.values());
+    final List<OrderedPartitionableRecord<String, String>> polledRecords = new ArrayList<>();
+    if (resources.isEmpty()) {
+      return polledRecords;
+    }
+
+    final int start = Math.floorMod(pollRotation.getAndIncrement(), resources.size());
+    boolean drained = true;
+    while (drained && polledRecords.size() < maxRecordsPerPoll) {
+      drained = false;
+      final int perPartition = Math.max(1, (maxRecordsPerPoll - polledRecords.size()) / resources.size());
+      for (int i = 0; i < resources.size() && polledRecords.size() < maxRecordsPerPoll; i++) {
+        final PartitionResource resource = resources.get((start + i) % resources.size());
+        final int maxElements = Math.min(perPartition, maxRecordsPerPoll - polledRecords.size());
+        if (resource.records.drainTo(polledRecords, maxElements) > 0) {
+          resource.notifySpaceAvailable();
+          drained = true;
+        }
+      }
+    }
+    return polledRecords;
+  }
+
+  private void notifyRecordsAvailable()
+  {
+    synchronized (recordsAvailable) {
+      recordsAvailable.notifyAll();
+    }
+  }
+
   @Nullable
   @Override
   public String getLatestSequenceNumber(StreamPartition<String> partition)
@@ -752,14 +868,14 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
         Execs.makeThreadFactory("KinesisRecordSupplier-Worker-%d")
     );
 
-    // filter records in buffer and only retain ones whose partition was not seeked
-    BlockingQueue<OrderedPartitionableRecord<String, String>> newQ = new LinkedBlockingQueue<>(recordBufferSize);
-
-    records.stream()
-           .filter(x -> !partitions.contains(x.getStreamPartition()))
-           .forEachOrdered(newQ::offer);
-
-    records = newQ;
+    // drop buffered records of the seeked partitions, the others are still valid
+    for (StreamPartition<String> partition : partitions) {
+      final PartitionResource resource = partitionResources.get(partition);
+      if (resource != null) {
+        resource.records.clear();
+        resource.notifySpaceAvailable();
+      }
+    }
 
     // restart fetching threads
     partitionResources.values().forEach(x -> x.started = false);
@@ -874,9 +990,19 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
     }
   }
 
+  @VisibleForTesting
+  int getPartitionBufferSize(StreamPartition<String> partition)
+  {
+    return partitionResources.get(partition).bufferSize;
+  }
+
   @VisibleForTesting
   public int bufferSize()
   {
-    return records.size();
+    int size = 0;
+    for (PartitionResource resource : partitionResources.values()) {
+      size += resource.records.size();
+    }
+    return size;
   }
 }
@@ -229,7 +229,7 @@ public class KinesisSupervisor extends SeekableStreamSupervisor<String, String>
     if (index < 0) {
       return index;
     }
-    return availablePartitions.indexOf(partitionId) % spec.getIoConfig().getTaskCount();
+    return availablePartitions.indexOf(partitionId) % getActiveTaskCount();
   }
 
   @Override
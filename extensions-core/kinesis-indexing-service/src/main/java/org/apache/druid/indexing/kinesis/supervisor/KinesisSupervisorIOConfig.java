@@ -25,10 +25,13 @@ import com.google.common.base.Preconditions;
 import org.apache.druid.data.input.InputFormat;
 import org.apache.druid.indexing.kinesis.KinesisIndexTaskIOConfig;
 import org.apache.druid.indexing.kinesis.KinesisRegion;
+import org.apache.druid.indexing.seekablestream.supervisor.LagBasedAutoScalerConfig;
 import org.apache.druid.indexing.seekablestream.supervisor.SeekableStreamSupervisorIOConfig;
 import org.joda.time.DateTime;
 import org.joda.time.Period;
 
+import javax.annotation.Nullable;
+
 public class KinesisSupervisorIOConfig extends SeekableStreamSupervisorIOConfig
 {
   private final String endpoint;
@@ -70,7 +73,8 @@ public class KinesisSupervisorIOConfig extends SeekableStreamSupervisorIOConfig
       @JsonProperty("fetchDelayMillis") Integer fetchDelayMillis,
       @JsonProperty("awsAssumedRoleArn") String awsAssumedRoleArn,
       @JsonProperty("awsExternalId") String awsExternalId,
-      @JsonProperty("deaggregate") boolean deaggregate
+      @JsonProperty("deaggregate") boolean deaggregate,
+      @JsonProperty("autoScalerConfig") @Nullable LagBasedAutoScalerConfig autoScalerConfig
   )
   {
     super(
@@ -85,7 +89,8 @@ public class KinesisSupervisorIOConfig extends SeekableStreamSupervisorIOConfig
         completionTimeout,
         lateMessageRejectionPeriod,
         earlyMessageRejectionPeriod,
-        lateMessageRejectionStartDateTime
+        lateMessageRejectionStartDateTime,
+        autoScalerConfig
     );
     this.endpoint = endpoint != null
                     ? endpoint
@@ -158,6 +163,7 @@ public class KinesisSupervisorIOConfig extends SeekableStreamSupervisorIOConfig
            ", awsAssumedRoleArn='" + awsAssumedRoleArn + '\'' +
            ", awsExternalId='" + awsExternalId + '\'' +
            ", deaggregate=" + deaggregate +
+           ", autoScalerConfig=" + getAutoScalerConfig() +
            '}';
   }
 }
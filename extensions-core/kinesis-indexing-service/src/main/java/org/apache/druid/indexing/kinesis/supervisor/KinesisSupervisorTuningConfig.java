@@ -75,6 +75,10 @@ public class KinesisSupervisorTuningConfig extends KinesisIndexTaskTuningConfig
         null,
         null,
         null,
+        null,
+        null,
+        null,
+        null,
         null
     );
   }
@@ -111,7 +115,11 @@ public class KinesisSupervisorTuningConfig extends KinesisIndexTaskTuningConfig
       @JsonProperty("maxRecordsPerPoll") @Nullable Integer maxRecordsPerPoll,
       @JsonProperty("intermediateHandoffPeriod") Period intermediateHandoffPeriod,
       @JsonProperty("repartitionTransitionDuration") Period repartitionTransitionDuration,
-      @JsonProperty("offsetFetchPeriod") Period offsetFetchPeriod
+      @JsonProperty("offsetFetchPeriod") Period offsetFetchPeriod,
+      @JsonProperty("useOffheapIncrementalIndex") @Nullable Boolean useOffheapIncrementalIndex,
+      @JsonProperty("numIndexingThreads") @Nullable Integer numIndexingThreads,
+      @JsonProperty("intermediatePersistMergeFactor") @Nullable Integer intermediatePersistMergeFactor,
+      @JsonProperty("numParseThreads") @Nullable Integer numParseThreads
   )
   {
     super(
@@ -139,7 +147,11 @@ public class KinesisSupervisorTuningConfig extends KinesisIndexTaskTuningConfig
         maxParseExceptions,
         maxSavedParseExceptions,
         maxRecordsPerPoll,
-        intermediateHandoffPeriod
+        intermediateHandoffPeriod,
+        useOffheapIncrementalIndex,
+        numIndexingThreads,
+        intermediatePersistMergeFactor,
+        numParseThreads
     );
 
     this.workerThreads = workerThreads;
@@ -241,6 +253,10 @@ public class KinesisSupervisorTuningConfig extends KinesisIndexTaskTuningConfig
            ", maxRecordsPerPoll=" + getMaxRecordsPerPoll() +
            ", intermediateHandoffPeriod=" + getIntermediateHandoffPeriod() +
            ", repartitionTransitionDuration=" + getRepartitionTransitionDuration() +
+           ", useOffheapIncrementalIndex=" + isUseOffheapIncrementalIndex() +
+           ", numIndexingThreads=" + getNumIndexingThreads() +
+           ", intermediatePersistMergeFactor=" + getIntermediatePersistMergeFactor() +
+           ", numParseThreads=" + getNumParseThreads() +
            '}';
   }
 
@@ -272,7 +288,11 @@ public class KinesisSupervisorTuningConfig extends KinesisIndexTaskTuningConfig
         getMaxParseExceptions(),
         getMaxSavedParseExceptions(),
         getMaxRecordsPerPoll(),
-        getIntermediateHandoffPeriod()
+        getIntermediateHandoffPeriod(),
+        isUseOffheapIncrementalIndex(),
+        getNumIndexingThreads(),
+        getIntermediatePersistMergeFactor(),
+        getNumParseThreads()
     );
   }
 }
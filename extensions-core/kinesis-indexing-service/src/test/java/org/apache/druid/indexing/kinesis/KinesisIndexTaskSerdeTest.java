@@ -72,6 +72,10 @@ public class KinesisIndexTaskSerdeTest
       null,
       null,
       null,
+      null,
+      null,
+      null,
+      null,
       null
   );
   private static final KinesisIndexTaskIOConfig IO_CONFIG = new KinesisIndexTaskIOConfig(
@@ -2705,7 +2705,11 @@ public class KinesisIndexTaskTest extends SeekableStreamIndexTaskTestBase
         maxParseExceptions,
         maxSavedParseExceptions,
         maxRecordsPerPoll,
-        intermediateHandoffPeriod
+        intermediateHandoffPeriod,
+        null,
+        null,
+        null,
+        null
     );
     return createTask(taskId, dataSchema, ioConfig, tuningConfig, context);
   }
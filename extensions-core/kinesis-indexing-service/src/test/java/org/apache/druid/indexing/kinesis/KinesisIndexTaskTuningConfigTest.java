@@ -160,7 +160,11 @@ public class KinesisIndexTaskTuningConfigTest
         500,
         500,
         6000,
-        new Period("P3D")
+        new Period("P3D"),
+        null,
+        null,
+        null,
+        null
     );
 
     String serialized = mapper.writeValueAsString(base);
@@ -219,7 +223,11 @@ public class KinesisIndexTaskTuningConfigTest
         500,
         500,
         6000,
-        new Period("P3D")
+        new Period("P3D"),
+        null,
+        null,
+        null,
+        null
     );
 
     String serialized = mapper.writeValueAsString(new TestModifiedKinesisIndexTaskTuningConfig(base, "loool"));
@@ -313,6 +321,10 @@ public class KinesisIndexTaskTuningConfigTest
         null,
         null,
         null,
+        null,
+        null,
+        null,
+        null,
         null
     );
     KinesisIndexTaskTuningConfig copy = (KinesisIndexTaskTuningConfig) original.convertToTaskTuningConfig();
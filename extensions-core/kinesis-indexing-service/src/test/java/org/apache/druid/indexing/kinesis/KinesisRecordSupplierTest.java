@@ -222,6 +222,37 @@ public class KinesisRecordSupplierTest extends EasyMockSupport
     Assert.assertEquals(expectedRequest, capturedRequest.getValue());
   }
 
+  @Test
+  public void testAssignSharesBufferAmongAssignedShards()
+  {
+    final StreamPartition<String> shard0 = StreamPartition.of(STREAM, SHARD_ID0);
+    final StreamPartition<String> shard1 = StreamPartition.of(STREAM, SHARD_ID1);
+
+    recordSupplier = new KinesisRecordSupplier(
+        kinesis,
+        recordsPerFetch,
+        0,
+        2,
+        false,
+        100,
+        5000,
+        5000,
+        60000,
+        5
+    );
+
+    recordSupplier.assign(ImmutableSet.of(shard0));
+    Assert.assertEquals(100, recordSupplier.getPartitionBufferSize(shard0));
+
+    // the buffer of the shard already assigned shrinks
+    recordSupplier.assign(ImmutableSet.of(shard0, shard1));
+    Assert.assertEquals(50, recordSupplier.getPartitionBufferSize(shard0));
+    Assert.assertEquals(50, recordSupplier.getPartitionBufferSize(shard1));
+
+    recordSupplier.assign(ImmutableSet.of(shard1));
+    Assert.assertEquals(100, recordSupplier.getPartitionBufferSize(shard1));
+  }
+
   private static GetRecordsRequest generateGetRecordsReq(String shardIterator, int limit)
   {
     return new GetRecordsRequest().withShardIterator(shardIterator).withLimit(limit);
@@ -311,6 +342,80 @@ public class KinesisRecordSupplierTest extends EasyMockSupport
     Assert.assertEquals(SHARDS_LAG_MILLIS, recordSupplier.getPartitionTimeLag());
   }
 
+  @Test
+  public void testPollTakesRecordsFromAllShards() throws InterruptedException
+  {
+    recordsPerFetch = 100;
+
+    EasyMock.expect(kinesis.getShardIterator(
+        EasyMock.anyObject(),
+        EasyMock.eq(SHARD_ID0),
+        EasyMock.anyString(),
+        EasyMock.anyString()
+    )).andReturn(
+        getShardIteratorResult0).anyTimes();
+
+    EasyMock.expect(kinesis.getShardIterator(
+        EasyMock.anyObject(),
+        EasyMock.eq(SHARD_ID1),
+        EasyMock.anyString(),
+        EasyMock.anyString()
+    )).andReturn(
+        getShardIteratorResult1).anyTimes();
+
+    EasyMock.expect(getShardIteratorResult0.getShardIterator()).andReturn(SHARD0_ITERATOR).anyTimes();
+    EasyMock.expect(getShardIteratorResult1.getShardIterator()).andReturn(SHARD1_ITERATOR).anyTimes();
+    EasyMock.expect(kinesis.getRecords(generateGetRecordsReq(SHARD0_ITERATOR, recordsPerFetch)))
+            .andReturn(getRecordsResult0)
+            .anyTimes();
+    EasyMock.expect(kinesis.getRecords(generateGetRecordsReq(SHARD1_ITERATOR, recordsPerFetch)))
+            .andReturn(getRecordsResult1)
+            .anyTimes();
+    EasyMock.expect(getRecordsResult0.getRecords()).andReturn(SHARD0_RECORDS).anyTimes();
+    EasyMock.expect(getRecordsResult1.getRecords()).andReturn(SHARD1_RECORDS).anyTimes();
+    EasyMock.expect(getRecordsResult0.getNextShardIterator()).andReturn(null).anyTimes();
+    EasyMock.expect(getRecordsResult1.getNextShardIterator()).andReturn(null).anyTimes();
+    EasyMock.expect(getRecordsResult0.getMillisBehindLatest()).andReturn(SHARD0_LAG_MILLIS).anyTimes();
+    EasyMock.expect(getRecordsResult1.getMillisBehindLatest()).andReturn(SHARD1_LAG_MILLIS).anyTimes();
+
+    replayAll();
+
+    Set<StreamPartition<String>> partitions = ImmutableSet.of(
+        StreamPartition.of(STREAM, SHARD_ID0),
+        StreamPartition.of(STREAM, SHARD_ID1)
+    );
+
+    recordSupplier = new KinesisRecordSupplier(
+        kinesis,
+        recordsPerFetch,
+        0,
+        2,
+        false,
+        100,
+        5000,
+        5000,
+        60000,
+        2
+    );
+
+    recordSupplier.assign(partitions);
+    recordSupplier.seekToEarliest(partitions);
+    recordSupplier.start();
+
+    while (recordSupplier.bufferSize() < 12) {
+      Thread.sleep(100);
+    }
+
+    // shard 1 has more records buffered, but both shards get their turn
+    List<OrderedPartitionableRecord<String, String>> polledRecords = recordSupplier.poll(POLL_TIMEOUT_MILLIS);
+
+    Assert.assertEquals(2, polledRecords.size());
+    Assert.assertEquals(
+        ImmutableSet.of(ALL_RECORDS.get(0), ALL_RECORDS.get(2)),
+        ImmutableSet.copyOf(polledRecords)
+    );
+  }
+
   @Test
   public void testSeek()
       throws InterruptedException
@@ -152,7 +152,8 @@ public class KinesisSamplerSpecTest extends EasyMockSupport
             null,
             null,
             null,
-            false
+            false,
+            null
         ),
         null,
         null,
@@ -90,7 +90,11 @@ public class TestModifiedKinesisIndexTaskTuningConfig extends KinesisIndexTaskTu
         maxParseExceptions,
         maxSavedParseExceptions,
         maxRecordsPerPoll,
-        intermediateHandoffPeriod
+        intermediateHandoffPeriod,
+        null,
+        null,
+        null,
+        null
     );
     this.extra = extra;
   }
@@ -122,7 +126,11 @@ public class TestModifiedKinesisIndexTaskTuningConfig extends KinesisIndexTaskTu
         base.getMaxParseExceptions(),
         base.getMaxSavedParseExceptions(),
         base.getMaxRecordsPerPoll(),
-        base.getIntermediateHandoffPeriod()
+        base.getIntermediateHandoffPeriod(),
+        base.isUseOffheapIncrementalIndex(),
+        base.getNumIndexingThreads(),
+        base.getIntermediatePersistMergeFactor(),
+        base.getNumParseThreads()
     );
     this.extra = extra;
   }
@@ -19,20 +19,29 @@
 
 package org.apache.druid.data.input.orc;
 
+import org.apache.druid.data.input.ColumnarInputRowBatch;
 import org.apache.druid.data.input.InputEntity;
 import org.apache.druid.data.input.InputEntity.CleanableFile;
 import org.apache.druid.data.input.InputRow;
+import org.apache.druid.data.input.InputRowBatch;
 import org.apache.druid.data.input.InputRowSchema;
 import org.apache.druid.data.input.IntermediateRowParsingReader;
 import org.apache.druid.data.input.impl.MapInputRowParser;
 import org.apache.druid.java.util.common.io.Closer;
 import org.apache.druid.java.util.common.parsers.CloseableIterator;
+import org.apache.druid.java.util.common.parsers.JSONPathFieldSpec;
+import org.apache.druid.java.util.common.parsers.JSONPathFieldType;
 import org.apache.druid.java.util.common.parsers.JSONPathSpec;
 import org.apache.druid.java.util.common.parsers.ObjectFlattener;
 import org.apache.druid.java.util.common.parsers.ObjectFlatteners;
 import org.apache.druid.java.util.common.parsers.ParseException;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.orc.OrcFile;
 import org.apache.orc.Reader;
@@ -41,12 +50,17 @@ import org.apache.orc.TypeDescription;
 import org.apache.orc.mapred.OrcMapredRecordReader;
 import org.apache.orc.mapred.OrcStruct;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
 
 public class OrcReader extends IntermediateRowParsingReader<OrcStruct>
 {
@@ -54,6 +68,8 @@ public class OrcReader extends IntermediateRowParsingReader<OrcStruct>
   private final InputRowSchema inputRowSchema;
   private final InputEntity source;
   private final File temporaryDirectory;
+  private final JSONPathSpec flattenSpec;
+  private final OrcStructConverter converter;
   private final ObjectFlattener<OrcStruct> orcStructFlattener;
 
   OrcReader(
@@ -69,6 +85,8 @@ public class OrcReader extends IntermediateRowParsingReader<OrcStruct>
     this.inputRowSchema = inputRowSchema;
     this.source = source;
     this.temporaryDirectory = temporaryDirectory;
+    this.flattenSpec = flattenSpec;
+    this.converter = new OrcStructConverter(binaryAsString);
     this.orcStructFlattener = ObjectFlatteners.create(flattenSpec, new OrcStructFlattenerMaker(binaryAsString));
   }
 
@@ -76,22 +94,7 @@ public class OrcReader extends IntermediateRowParsingReader<OrcStruct>
   protected CloseableIterator<OrcStruct> intermediateRowIterator() throws IOException
   {
     final Closer closer = Closer.create();
-
-    // We fetch here to cache a copy locally. However, this might need to be changed if we want to split an orc file
-    // into several InputSplits in the future.
-    final byte[] buffer = new byte[InputEntity.DEFAULT_FETCH_BUFFER_SIZE];
-    final CleanableFile file = closer.register(source.fetch(temporaryDirectory, buffer));
-    final Path path = new Path(file.file().toURI());
-
-    final ClassLoader currentClassLoader = Thread.currentThread().getContextClassLoader();
-    final Reader reader;
-    try {
-      Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
-      reader = closer.register(OrcFile.createReader(path, OrcFile.readerOptions(conf)));
-    }
-    finally {
-      Thread.currentThread().setContextClassLoader(currentClassLoader);
-    }
+    final Reader reader = openReader(closer);
     // The below line will get the schmea to read the whole columns.
     // This can be improved by projecting some columns only what users want in the future.
     final TypeDescription schema = reader.getSchema();
@@ -142,6 +145,168 @@ public class OrcReader extends IntermediateRowParsingReader<OrcStruct>
     };
   }
 
+  /**
+   * Reads ORC {@link VectorizedRowBatch}es and wraps them into {@link ColumnarInputRowBatch}es, so that rows are read
+   * straight from the column vectors without building an {@link OrcStruct} and a flattened map per row. This is only
+   * possible when the flattenSpec has no JSONPath fields, which are evaluated against OrcStructs.
+   */
+  @Override
+  public CloseableIterator<InputRowBatch> readBatches() throws IOException
+  {
+    if (flattenSpec.getFields().stream().anyMatch(fieldSpec -> fieldSpec.getType() != JSONPathFieldType.ROOT)) {
+      return super.readBatches();
+    }
+
+    final Closer closer = Closer.create();
+    final Reader reader = openReader(closer);
+    final TypeDescription schema = reader.getSchema();
+    if (schema.getCategory() != TypeDescription.Category.STRUCT) {
+      closer.close();
+      return super.readBatches();
+    }
+    final RecordReader batchReader = reader.rows(reader.options());
+    closer.register(batchReader::close);
+
+    final List<String> fieldNames = new ArrayList<>();
+    for (JSONPathFieldSpec fieldSpec : flattenSpec.getFields()) {
+      fieldNames.add(fieldSpec.getName());
+    }
+    if (flattenSpec.isUseFieldDiscovery()) {
+      for (String field : OrcStructFlattenerMaker.discoverRootFields(schema)) {
+        if (!fieldNames.contains(field)) {
+          fieldNames.add(field);
+        }
+      }
+    }
+
+    return new CloseableIterator<InputRowBatch>()
+    {
+      @Nullable
+      VectorizedRowBatch batch = null;
+
+      @Override
+      public boolean hasNext()
+      {
+        if (batch == null) {
+          try {
+            // Rows of a returned InputRowBatch are views over its column vectors, which can be kept in memory for a
+            // while. A new VectorizedRowBatch is created for every batch so that column vectors are never reused.
+            batch = schema.createRowBatch();
+            if (!batchReader.nextBatch(batch) || batch.size == 0) {
+              batch = null;
+            }
+          }
+          catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+        }
+        return batch != null;
+      }
+
+      @Override
+      public InputRowBatch next()
+      {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        final VectorizedRowBatch currentBatch = batch;
+        batch = null;
+
+        final Map<String, IntFunction<Object>> columns = new HashMap<>();
+        final List<String> orcFieldNames = schema.getFieldNames();
+        for (int i = 0; i < orcFieldNames.size(); i++) {
+          columns.put(orcFieldNames.get(i), makeColumnAccessor(currentBatch.cols[i], schema.getChildren().get(i)));
+        }
+        for (JSONPathFieldSpec fieldSpec : flattenSpec.getFields()) {
+          final IntFunction<Object> accessor = columns.get(fieldSpec.getExpr());
+          columns.put(fieldSpec.getName(), accessor == null ? row -> null : accessor);
+        }
+        return new ColumnarInputRowBatch(inputRowSchema, currentBatch.size, fieldNames, columns);
+      }
+
+      @Override
+      public void close() throws IOException
+      {
+        closer.close();
+      }
+    };
+  }
+
+  /**
+   * Returns a function reading values from the given column vector, converted the same way
+   * {@link OrcStructConverter} converts struct fields. Common primitive types are read straight from the vectors.
+   */
+  private IntFunction<Object> makeColumnAccessor(ColumnVector vector, TypeDescription type)
+  {
+    switch (type.getCategory()) {
+      case LONG: {
+        final LongColumnVector longVector = (LongColumnVector) vector;
+        return row -> {
+          final int i = longVector.isRepeating ? 0 : row;
+          return longVector.noNulls || !longVector.isNull[i] ? (Object) longVector.vector[i] : null;
+        };
+      }
+      case INT: {
+        final LongColumnVector longVector = (LongColumnVector) vector;
+        return row -> {
+          final int i = longVector.isRepeating ? 0 : row;
+          return longVector.noNulls || !longVector.isNull[i] ? (Object) (int) longVector.vector[i] : null;
+        };
+      }
+      case DOUBLE: {
+        final DoubleColumnVector doubleVector = (DoubleColumnVector) vector;
+        return row -> {
+          final int i = doubleVector.isRepeating ? 0 : row;
+          return doubleVector.noNulls || !doubleVector.isNull[i] ? (Object) doubleVector.vector[i] : null;
+        };
+      }
+      case FLOAT: {
+        final DoubleColumnVector doubleVector = (DoubleColumnVector) vector;
+        return row -> {
+          final int i = doubleVector.isRepeating ? 0 : row;
+          return doubleVector.noNulls || !doubleVector.isNull[i] ? (Object) (float) doubleVector.vector[i] : null;
+        };
+      }
+      case STRING:
+      case VARCHAR: {
+        final BytesColumnVector bytesVector = (BytesColumnVector) vector;
+        return row -> {
+          final int i = bytesVector.isRepeating ? 0 : row;
+          if (bytesVector.noNulls || !bytesVector.isNull[i]) {
+            return new String(
+                bytesVector.vector[i],
+                bytesVector.start[i],
+                bytesVector.length[i],
+                StandardCharsets.UTF_8
+            );
+          } else {
+            return null;
+          }
+        };
+      }
+      default:
+        return row -> converter.convertValue(type, OrcMapredRecordReader.nextValue(vector, row, type, null));
+    }
+  }
+
+  private Reader openReader(Closer closer) throws IOException
+  {
+    // We fetch here to cache a copy locally. However, this might need to be changed if we want to split an orc file
+    // into several InputSplits in the future.
+    final byte[] buffer = new byte[InputEntity.DEFAULT_FETCH_BUFFER_SIZE];
+    final CleanableFile file = closer.register(source.fetch(temporaryDirectory, buffer));
+    final Path path = new Path(file.file().toURI());
+
+    final ClassLoader currentClassLoader = Thread.currentThread().getContextClassLoader();
+    try {
+      Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
+      return closer.register(OrcFile.createReader(path, OrcFile.readerOptions(conf)));
+    }
+    finally {
+      Thread.currentThread().setContextClassLoader(currentClassLoader);
+    }
+  }
+
   @Override
   protected List<InputRow> parseInputRows(OrcStruct intermediateRow) throws ParseException
   {
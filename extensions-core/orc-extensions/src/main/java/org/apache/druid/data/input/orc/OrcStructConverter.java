@@ -200,6 +200,16 @@ class OrcStructConverter
     TypeDescription fieldDescription = schema.getChildren().get(fieldIndex);
     WritableComparable fieldValue = struct.getFieldValue(fieldIndex);
 
+    return convertValue(fieldDescription, fieldValue);
+  }
+
+  /**
+   * Convert a value of the given type, the same way {@link OrcStructConverter#convertField(OrcStruct, int)} converts
+   * struct fields. This is used to convert values read directly from ORC column vectors.
+   */
+  @Nullable
+  Object convertValue(TypeDescription fieldDescription, @Nullable WritableComparable fieldValue)
+  {
     if (fieldValue == null) {
       return null;
     }
@@ -56,8 +56,13 @@ public class OrcStructFlattenerMaker implements ObjectFlatteners.FlattenerMaker<
   @Override
   public Iterable<String> discoverRootFields(OrcStruct obj)
   {
-    List<String> fields = obj.getSchema().getFieldNames();
-    List<TypeDescription> children = obj.getSchema().getChildren();
+    return discoverRootFields(obj.getSchema());
+  }
+
+  static List<String> discoverRootFields(TypeDescription schema)
+  {
+    List<String> fields = schema.getFieldNames();
+    List<TypeDescription> children = schema.getChildren();
     List<String> primitiveFields = new ArrayList<>();
     for (int i = 0; i < fields.size(); i++) {
       if (children.get(i).getCategory().isPrimitive() || (children.get(i).getCategory().equals(TypeDescription.Category.LIST) &&
@@ -24,6 +24,7 @@ import com.google.common.collect.Iterables;
 import org.apache.druid.data.input.InputEntityReader;
 import org.apache.druid.data.input.InputFormat;
 import org.apache.druid.data.input.InputRow;
+import org.apache.druid.data.input.InputRowBatches;
 import org.apache.druid.data.input.InputRowSchema;
 import org.apache.druid.data.input.impl.DimensionsSpec;
 import org.apache.druid.data.input.impl.FileEntity;
@@ -252,6 +253,81 @@ public class OrcReaderTest
     }
   }
 
+  @Test
+  public void testReadBatches() throws IOException
+  {
+    assertReadBatchesSameAsRead(
+        new TimestampSpec("timestamp", "auto", null),
+        new DimensionsSpec(DimensionsSpec.getDefaultSchemas(ImmutableList.of("col1", "col2"))),
+        new OrcInputFormat(null, null, new Configuration()),
+        "example/test_1.orc"
+    );
+    assertReadBatchesSameAsRead(
+        new TimestampSpec("ts", "millis", null),
+        new DimensionsSpec(null),
+        new OrcInputFormat(
+            new JSONPathSpec(true, ImmutableList.of(new JSONPathFieldSpec(JSONPathFieldType.ROOT, "user", "userid"))),
+            null,
+            new Configuration()
+        ),
+        "example/orc_split_elim.orc"
+    );
+    assertReadBatchesSameAsRead(
+        new TimestampSpec("time", "millis", null),
+        new DimensionsSpec(null, Collections.singletonList("time"), null),
+        new OrcInputFormat(new JSONPathSpec(true, null), null, new Configuration()),
+        "example/TestOrcFile.testDate1900.orc"
+    );
+  }
+
+  @Test
+  public void testReadBatchesWithPathFields() throws IOException
+  {
+    assertReadBatchesSameAsRead(
+        new TimestampSpec("timestamp", "auto", null),
+        new DimensionsSpec(null),
+        new OrcInputFormat(
+            new JSONPathSpec(
+                true,
+                ImmutableList.of(new JSONPathFieldSpec(JSONPathFieldType.PATH, "col7-subcol7", "$.col7.subcol7"))
+            ),
+            null,
+            new Configuration()
+        ),
+        "example/test_2.orc"
+    );
+  }
+
+  private void assertReadBatchesSameAsRead(
+      TimestampSpec timestampSpec,
+      DimensionsSpec dimensionsSpec,
+      InputFormat inputFormat,
+      String dataFile
+  ) throws IOException
+  {
+    final InputEntityReader rowReader = createReader(timestampSpec, dimensionsSpec, inputFormat, dataFile);
+    final InputEntityReader batchReader = createReader(timestampSpec, dimensionsSpec, inputFormat, dataFile);
+    int actualRowCount = 0;
+    try (
+        CloseableIterator<InputRow> expectedRows = rowReader.read();
+        CloseableIterator<InputRow> actualRows = InputRowBatches.toRows(batchReader.readBatches())
+    ) {
+      while (expectedRows.hasNext()) {
+        Assert.assertTrue(actualRows.hasNext());
+        final InputRow expected = expectedRows.next();
+        final InputRow actual = actualRows.next();
+        Assert.assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        Assert.assertEquals(expected.getDimensions(), actual.getDimensions());
+        for (String dimension : expected.getDimensions()) {
+          Assert.assertEquals(expected.getDimension(dimension), actual.getDimension(dimension));
+        }
+        actualRowCount++;
+      }
+      Assert.assertFalse(actualRows.hasNext());
+    }
+    Assert.assertTrue(actualRowCount > 0);
+  }
+
   private InputEntityReader createReader(
       TimestampSpec timestampSpec,
       DimensionsSpec dimensionsSpec,
@@ -34,6 +34,7 @@ import org.apache.druid.data.input.InputSplit;
 import org.apache.druid.data.input.SplitHintSpec;
 import org.apache.druid.data.input.impl.CloudObjectInputSource;
 import org.apache.druid.data.input.impl.CloudObjectLocation;
+import org.apache.druid.data.input.impl.InputEntityPrefetchConfig;
 import org.apache.druid.data.input.impl.SplittableInputSource;
 import org.apache.druid.storage.s3.S3InputDataConfig;
 import org.apache.druid.storage.s3.S3StorageDruidModule;
@@ -84,10 +85,11 @@ public class S3InputSource extends CloudObjectInputSource
       @JsonProperty("uris") @Nullable List<URI> uris,
       @JsonProperty("prefixes") @Nullable List<URI> prefixes,
       @JsonProperty("objects") @Nullable List<CloudObjectLocation> objects,
-      @JsonProperty("properties") @Nullable S3InputSourceConfig s3InputSourceConfig
+      @JsonProperty("properties") @Nullable S3InputSourceConfig s3InputSourceConfig,
+      @JsonProperty("prefetch") @Nullable InputEntityPrefetchConfig prefetchConfig
   )
   {
-    super(S3StorageDruidModule.SCHEME, uris, prefixes, objects);
+    super(S3StorageDruidModule.SCHEME, uris, prefixes, objects, prefetchConfig);
     this.inputDataConfig = Preconditions.checkNotNull(inputDataConfig, "S3DataSegmentPusherConfig");
     Preconditions.checkNotNull(s3Client, "s3Client");
     this.s3InputSourceConfig = s3InputSourceConfig;
@@ -149,7 +151,8 @@ public class S3InputSource extends CloudObjectInputSource
         null,
         null,
         split.get(),
-        getS3InputSourceConfig()
+        getS3InputSourceConfig(),
+        getPrefetchConfig()
     );
   }
 
@@ -183,6 +186,7 @@ public class S3InputSource extends CloudObjectInputSource
            ", prefixes=" + getPrefixes() +
            ", objects=" + getObjects() +
            ", s3InputSourceConfig=" + getS3InputSourceConfig() +
+           ", prefetchConfig=" + getPrefetchConfig() +
            '}';
   }
 
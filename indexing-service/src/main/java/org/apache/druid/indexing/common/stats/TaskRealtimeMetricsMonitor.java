@@ -102,6 +102,7 @@ public class TaskRealtimeMetricsMonitor extends AbstractMonitor
     emitter.emit(builder.build("ingest/events/duplicate", dedup));
 
     emitter.emit(builder.build("ingest/rows/output", metrics.rowOutput() - previousFireDepartmentMetrics.rowOutput()));
+    emitter.emit(builder.build("ingest/rows/rolledUpInBuffer", metrics.rowsRolledUpInBuffer() - previousFireDepartmentMetrics.rowsRolledUpInBuffer()));
     emitter.emit(builder.build("ingest/persists/count", metrics.numPersists() - previousFireDepartmentMetrics.numPersists()));
     emitter.emit(builder.build("ingest/persists/time", metrics.persistTimeMillis() - previousFireDepartmentMetrics.persistTimeMillis()));
     emitter.emit(builder.build("ingest/persists/cpu", metrics.persistCpuTime() - previousFireDepartmentMetrics.persistCpuTime()));
@@ -111,6 +112,9 @@ public class TaskRealtimeMetricsMonitor extends AbstractMonitor
             metrics.persistBackPressureMillis() - previousFireDepartmentMetrics.persistBackPressureMillis()
         )
     );
+    emitter.emit(builder.build("ingest/persists/heapBytes/rows", metrics.persistedFactsBytes() - previousFireDepartmentMetrics.persistedFactsBytes()));
+    emitter.emit(builder.build("ingest/persists/heapBytes/aggregators", metrics.persistedAggregatorBytes() - previousFireDepartmentMetrics.persistedAggregatorBytes()));
+    emitter.emit(builder.build("ingest/persists/heapBytes/dictionaries", metrics.persistedDictionaryBytes() - previousFireDepartmentMetrics.persistedDictionaryBytes()));
     emitter.emit(builder.build("ingest/persists/failed", metrics.failedPersists() - previousFireDepartmentMetrics.failedPersists()));
     emitter.emit(builder.build("ingest/handoff/failed", metrics.failedHandoffs() - previousFireDepartmentMetrics.failedHandoffs()));
     emitter.emit(builder.build("ingest/merge/time", metrics.mergeTimeMillis() - previousFireDepartmentMetrics.mergeTimeMillis()));
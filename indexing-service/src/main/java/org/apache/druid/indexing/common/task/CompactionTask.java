@@ -23,12 +23,14 @@ import com.fasterxml.jackson.annotation.JacksonInject;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import org.apache.curator.shaded.com.google.common.base.Verify;
 import org.apache.druid.client.coordinator.CoordinatorClient;
@@ -49,8 +51,11 @@ import org.apache.druid.indexer.partitions.DynamicPartitionsSpec;
 import org.apache.druid.indexer.partitions.PartitionsSpec;
 import org.apache.druid.indexing.common.RetryPolicyFactory;
 import org.apache.druid.indexing.common.SegmentLoaderFactory;
+import org.apache.druid.indexing.common.TaskLock;
 import org.apache.druid.indexing.common.TaskToolbox;
+import org.apache.druid.indexing.common.actions.LockListAction;
 import org.apache.druid.indexing.common.actions.RetrieveUsedSegmentsAction;
+import org.apache.druid.indexing.common.actions.SegmentTransactionalInsertAction;
 import org.apache.druid.indexing.common.actions.TaskActionClient;
 import org.apache.druid.indexing.common.stats.RowIngestionMetersFactory;
 import org.apache.druid.indexing.common.task.IndexTask.IndexTuningConfig;
@@ -59,6 +64,7 @@ import org.apache.druid.indexing.common.task.batch.parallel.ParallelIndexIngesti
 import org.apache.druid.indexing.common.task.batch.parallel.ParallelIndexSupervisorTask;
 import org.apache.druid.indexing.common.task.batch.parallel.ParallelIndexTuningConfig;
 import org.apache.druid.indexing.input.DruidInputSource;
+import org.apache.druid.indexing.overlord.SegmentPublishResult;
 import org.apache.druid.indexing.overlord.Segments;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.JodaUtils;
@@ -73,6 +79,8 @@ import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.query.aggregation.AggregatorFactory;
 import org.apache.druid.segment.DimensionHandler;
 import org.apache.druid.segment.IndexIO;
+import org.apache.druid.segment.IndexMerger;
+import org.apache.druid.segment.IndexMergerV9;
 import org.apache.druid.segment.QueryableIndex;
 import org.apache.druid.segment.column.ColumnHolder;
 import org.apache.druid.segment.column.ValueType;
@@ -85,9 +93,11 @@ import org.apache.druid.segment.realtime.appenderator.AppenderatorsManager;
 import org.apache.druid.segment.realtime.firehose.ChatHandlerProvider;
 import org.apache.druid.server.coordinator.duty.CompactSegments;
 import org.apache.druid.server.security.AuthorizerMapper;
+import org.apache.druid.timeline.CompactionState;
 import org.apache.druid.timeline.DataSegment;
 import org.apache.druid.timeline.TimelineObjectHolder;
 import org.apache.druid.timeline.VersionedIntervalTimeline;
+import org.apache.druid.timeline.partition.NumberedShardSpec;
 import org.apache.druid.timeline.partition.PartitionChunk;
 import org.apache.druid.timeline.partition.PartitionHolder;
 import org.joda.time.Interval;
@@ -100,10 +110,13 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -128,6 +141,14 @@ public class CompactionTask extends AbstractBatchIndexTask
    */
   public static final String CTX_KEY_APPENDERATOR_TRACKING_TASK_ID = "appenderatorTrackingTaskId";
 
+  /**
+   * Context flag to compact the segments of each interval by merging their columns with
+   * {@link IndexMergerV9#mergeQueryableIndex}, instead of reading and indexing their rows again, when the compaction
+   * spec doesn't change the schema, granularity or partitioning of the segments. See {@link #tryMergeSegments}.
+   */
+  public static final String CTX_KEY_MERGE_SEGMENTS_IF_COMPATIBLE = "mergeSegmentsIfCompatible";
+  private static final boolean DEFAULT_MERGE_SEGMENTS_IF_COMPATIBLE = false;
+
   private static final String TYPE = "compact";
 
   static {
@@ -275,7 +296,9 @@ public class CompactionTask extends AbstractBatchIndexTask
           null,
           indexTuningConfig.isLogParseExceptions(),
           indexTuningConfig.getMaxParseExceptions(),
-          indexTuningConfig.getMaxSavedParseExceptions()
+          indexTuningConfig.getMaxSavedParseExceptions(),
+          null,
+          null
       );
     } else {
       throw new ISE(
@@ -371,6 +394,13 @@ public class CompactionTask extends AbstractBatchIndexTask
   @Override
   public TaskStatus runTask(TaskToolbox toolbox) throws Exception
   {
+    if (getContextValue(CTX_KEY_MERGE_SEGMENTS_IF_COMPATIBLE, DEFAULT_MERGE_SEGMENTS_IF_COMPATIBLE)) {
+      final TaskStatus mergeStatus = tryMergeSegments(toolbox);
+      if (mergeStatus != null) {
+        return mergeStatus;
+      }
+    }
+
     final List<ParallelIndexIngestionSpec> ingestionSpecs = createIngestionSchema(
         toolbox,
         segmentProvider,
@@ -473,6 +503,206 @@ public class CompactionTask extends AbstractBatchIndexTask
     return StringUtils.format("%s_%d", getId(), i);
   }
 
+  /**
+   * Compacts the segments of each interval into a single segment by merging their columns, which neither parses nor
+   * re-encodes the rows. This produces the same segments as indexing the rows again, but is only possible if the
+   * compaction spec keeps the schema and granularity of the segments, the segments of each interval fit in a single
+   * segment of the dynamic partitionsSpec, no segment is partially overshadowed, the segments agree on the types of
+   * their columns, and the task uses time chunk locks.
+   *
+   * @return the status of the task, or null if the segments must be indexed again
+   */
+  @Nullable
+  private TaskStatus tryMergeSegments(TaskToolbox toolbox) throws Exception
+  {
+    if (dimensionsSpec != null || metricsSpec != null || segmentGranularity != null) {
+      log.info("Compaction spec changes the schema or granularity of segments, indexing them again.");
+      return null;
+    }
+    if (getTaskLockHelper().isUseSegmentLock()) {
+      log.info("Segment lock is used, indexing segments again.");
+      return null;
+    }
+    final ParallelIndexTuningConfig compactionTuningConfig = partitionConfigurationManager.computeTuningConfig();
+    if (!(compactionTuningConfig.getGivenOrDefaultPartitionsSpec() instanceof DynamicPartitionsSpec)) {
+      log.info("Compaction partitionsSpec is not dynamic, indexing segments again.");
+      return null;
+    }
+    final DynamicPartitionsSpec partitionsSpec =
+        (DynamicPartitionsSpec) compactionTuningConfig.getGivenOrDefaultPartitionsSpec();
+
+    final Pair<Map<DataSegment, File>, List<TimelineObjectHolder<String, DataSegment>>> pair = prepareSegments(
+        toolbox,
+        segmentProvider
+    );
+    final List<TimelineObjectHolder<String, DataSegment>> timelineSegments = pair.rhs;
+    for (TimelineObjectHolder<String, DataSegment> holder : timelineSegments) {
+      for (PartitionChunk<DataSegment> chunk : holder.getObject()) {
+        if (!holder.getInterval().equals(chunk.getObject().getInterval())) {
+          log.info("Segment[%s] is partially overshadowed, indexing segments again.", chunk.getObject().getId());
+          return null;
+        }
+      }
+    }
+
+    final List<Pair<QueryableIndex, DataSegment>> queryableIndexAndSegments = loadSegments(
+        timelineSegments,
+        pair.lhs,
+        toolbox.getIndexIO()
+    );
+    try {
+      if (queryableIndexAndSegments.isEmpty()
+          || !canMergeSegments(queryableIndexAndSegments, partitionsSpec.getMaxRowsPerSegment())) {
+        return null;
+      }
+      final AggregatorFactory[] metricAggs = createMetricsSpec(queryableIndexAndSegments);
+      final boolean rollup = queryableIndexAndSegments.stream().allMatch(p -> {
+        final Boolean isRollup = p.lhs.getMetadata().isRollup();
+        return isRollup != null && isRollup;
+      });
+      final CompactionState compactionState =
+          getContextValue(Tasks.STORE_COMPACTION_STATE_KEY, Tasks.DEFAULT_STORE_COMPACTION_STATE)
+          ? new CompactionState(
+              compactionTuningConfig.getPartitionsSpec(),
+              jsonMapper.convertValue(
+                  compactionTuningConfig.getIndexSpec(),
+                  new TypeReference<Map<String, Object>>() {}
+              )
+          )
+          : null;
+      final Map<Interval, String> intervalToVersion = toolbox
+          .getTaskActionClient()
+          .submit(new LockListAction())
+          .stream()
+          .collect(Collectors.toMap(TaskLock::getInterval, TaskLock::getVersion));
+
+      final Set<DataSegment> segmentsToPublish = new HashSet<>();
+      for (Entry<Interval, List<QueryableIndex>> entry : groupByInterval(queryableIndexAndSegments).entrySet()) {
+        final Interval interval = entry.getKey();
+        final List<QueryableIndex> indexes = entry.getValue();
+        final String version = intervalToVersion
+            .entrySet()
+            .stream()
+            .filter(lock -> lock.getKey().contains(interval))
+            .map(Entry::getValue)
+            .findFirst()
+            .orElseThrow(() -> new ISE("Cannot find a version for interval[%s]", interval));
+
+        final long startTime = System.nanoTime();
+        final File mergedFile = toolbox.getIndexMergerV9().mergeQueryableIndex(
+            indexes,
+            rollup,
+            metricAggs,
+            new File(
+                toolbox.getMergeDir(),
+                StringUtils.format("%d_%d", interval.getStartMillis(), interval.getEndMillis())
+            ),
+            compactionTuningConfig.getIndexSpec(),
+            compactionTuningConfig.getSegmentWriteOutMediumFactory()
+        );
+        final DataSegment segment = toolbox.getSegmentPusher().push(
+            mergedFile,
+            new DataSegment(
+                getDataSource(),
+                interval,
+                version,
+                ImmutableMap.of(),
+                IndexMerger.getMergedDimensionsFromQueryableIndexes(indexes),
+                Arrays.stream(metricAggs).map(AggregatorFactory::getName).collect(Collectors.toList()),
+                new NumberedShardSpec(0, 0),
+                compactionState,
+                null,
+                0
+            ),
+            false
+        );
+        log.info(
+            "Merged [%d] segments of interval[%s] into segment[%s] in [%,d] ms.",
+            indexes.size(),
+            interval,
+            segment.getId(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)
+        );
+        segmentsToPublish.add(segment);
+      }
+
+      final SegmentPublishResult result = toolbox
+          .getTaskActionClient()
+          .submit(SegmentTransactionalInsertAction.overwriteAction(null, segmentsToPublish));
+      if (!result.isSuccess()) {
+        log.error("Failed to publish merged segments: %s", result.getErrorMsg());
+        return TaskStatus.failure(getId());
+      }
+      log.info("Published [%d] merged segments.", segmentsToPublish.size());
+      return TaskStatus.success(getId());
+    }
+    finally {
+      queryableIndexAndSegments.forEach(p -> p.lhs.close());
+    }
+  }
+
+  /**
+   * Checks the conditions of {@link #tryMergeSegments} that depend on the data of the segments.
+   */
+  @VisibleForTesting
+  static boolean canMergeSegments(
+      List<Pair<QueryableIndex, DataSegment>> queryableIndexAndSegments,
+      int maxRowsPerSegment
+  )
+  {
+    final Map<String, ValueType> columnTypes = new HashMap<>();
+    final List<AggregatorFactory[]> aggregatorFactories = new ArrayList<>();
+    for (Pair<QueryableIndex, DataSegment> pair : queryableIndexAndSegments) {
+      final QueryableIndex index = pair.lhs;
+      if (index.getMetadata() == null) {
+        log.info("Index metadata doesn't exist for segment[%s], indexing segments again.", pair.rhs.getId());
+        return false;
+      }
+      aggregatorFactories.add(index.getMetadata().getAggregators());
+      for (String column : index.getColumnNames()) {
+        final ValueType type = index.getColumnHolder(column).getCapabilities().getType();
+        final ValueType otherType = columnTypes.putIfAbsent(column, type);
+        if (otherType != null && otherType != type) {
+          log.info(
+              "Column[%s] has types[%s, %s] in different segments, indexing segments again.",
+              column,
+              type,
+              otherType
+          );
+          return false;
+        }
+      }
+    }
+    if (AggregatorFactory.mergeAggregators(aggregatorFactories) == null) {
+      return false;
+    }
+
+    for (Entry<Interval, List<QueryableIndex>> entry : groupByInterval(queryableIndexAndSegments).entrySet()) {
+      final long numRows = entry.getValue().stream().mapToLong(QueryableIndex::getNumRows).sum();
+      if (numRows > maxRowsPerSegment) {
+        log.info(
+            "Segments of interval[%s] have [%,d] rows, more than maxRowsPerSegment[%,d], indexing segments again.",
+            entry.getKey(),
+            numRows,
+            maxRowsPerSegment
+        );
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Map<Interval, List<QueryableIndex>> groupByInterval(
+      List<Pair<QueryableIndex, DataSegment>> queryableIndexAndSegments
+  )
+  {
+    final Map<Interval, List<QueryableIndex>> intervalToIndexes = new TreeMap<>(Comparators.intervalsByStartThenEnd());
+    queryableIndexAndSegments.forEach(
+        p -> intervalToIndexes.computeIfAbsent(p.rhs.getInterval(), k -> new ArrayList<>()).add(p.lhs)
+    );
+    return intervalToIndexes;
+  }
+
   /**
    * Generate {@link ParallelIndexIngestionSpec} from input segments.
    *
@@ -23,14 +23,19 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Inject;
 import org.apache.druid.guice.annotations.EscalatedClient;
 import org.apache.druid.java.util.common.FileUtils;
+import org.apache.druid.java.util.common.IOE;
+import org.apache.druid.java.util.common.RetryUtils;
 import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.java.util.http.client.HttpClient;
 import org.apache.druid.java.util.http.client.Request;
-import org.apache.druid.java.util.http.client.response.InputStreamResponseHandler;
+import org.apache.druid.java.util.http.client.response.BackpressureInputStreamResponseHandler;
+import org.apache.druid.utils.CompressionUtils;
 import org.jboss.netty.handler.codec.http.HttpMethod;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.concurrent.ExecutionException;
 
@@ -43,7 +48,10 @@ public class HttpShuffleClient implements ShuffleClient
   @VisibleForTesting
   static final int NUM_FETCH_RETRIES = 3;
 
+  private static final Logger LOG = new Logger(HttpShuffleClient.class);
   private static final int BUFFER_SIZE = 1024 * 4;
+  // Maximum number of bytes received from the network but not yet written to disk, per fetch.
+  private static final long MAX_QUEUED_BYTES_PER_FETCH = 4 * 1024 * 1024;
 
   private final HttpClient httpClient;
 
@@ -67,15 +75,7 @@ public class HttpShuffleClient implements ShuffleClient
     final URI uri = location.toIntermediaryDataServerURI(supervisorTaskId);
     FileUtils.copyLarge(
         uri,
-        u -> {
-          try {
-            return httpClient.go(new Request(HttpMethod.GET, u.toURL()), new InputStreamResponseHandler())
-                             .get();
-          }
-          catch (InterruptedException | ExecutionException e) {
-            throw new IOException(e);
-          }
-        },
+        this::open,
         zippedFile,
         buffer,
         t -> t instanceof IOException,
@@ -84,4 +84,60 @@ public class HttpShuffleClient implements ShuffleClient
     );
     return zippedFile;
   }
+
+  /**
+   * Unzips the response stream directly into the unzippedDir. Compared to {@link #fetchSegmentFile}, this avoids
+   * writing the zipped file to disk and reading it back, and decompression overlaps with the network transfer.
+   * Reads from the connection are suspended while the unzip falls behind, so at most about
+   * {@link #MAX_QUEUED_BYTES_PER_FETCH} of the response are held in memory. Partially unzipped files are removed
+   * before retrying.
+   */
+  @Override
+  public <T, P extends PartitionLocation<T>> File fetchAndUnzipSegmentFile(
+      File partitionDir,
+      String supervisorTaskId,
+      P location,
+      File unzippedDir
+  ) throws IOException
+  {
+    final URI uri = location.toIntermediaryDataServerURI(supervisorTaskId);
+    try {
+      RetryUtils.retry(
+          () -> {
+            if (!unzippedDir.exists() && !unzippedDir.mkdirs()) {
+              throw new IOE("Failed to create directory[%s]", unzippedDir);
+            }
+            return CompressionUtils.unzip(open(uri), unzippedDir);
+          },
+          t -> t instanceof IOException,
+          () -> {
+            try {
+              FileUtils.deleteDirectory(unzippedDir);
+            }
+            catch (IOException e) {
+              LOG.warn(e, "Failed to clean up directory[%s]", unzippedDir);
+            }
+          },
+          NUM_FETCH_RETRIES,
+          StringUtils.format("Failed to fetch file[%s]", uri)
+      );
+    }
+    catch (Exception e) {
+      throw new IOException(e);
+    }
+    return unzippedDir;
+  }
+
+  private InputStream open(URI uri) throws IOException
+  {
+    try {
+      return httpClient.go(
+          new Request(HttpMethod.GET, uri.toURL()),
+          new BackpressureInputStreamResponseHandler(MAX_QUEUED_BYTES_PER_FETCH)
+      ).get();
+    }
+    catch (InterruptedException | ExecutionException e) {
+      throw new IOException(e);
+    }
+  }
 }
@@ -75,7 +75,7 @@ abstract class InputSourceSplitParallelIndexTaskRunner<T extends Task, R extends
   }
 
   @Override
-  final int estimateTotalNumSubTasks() throws IOException
+  int estimateTotalNumSubTasks() throws IOException
   {
     return baseInputSource.estimateNumSplits(
         ingestionSchema.getIOConfig().getInputFormat(),
@@ -54,7 +54,6 @@ import org.apache.druid.indexing.common.task.IndexTask;
 import org.apache.druid.indexing.common.task.IndexTask.IndexIngestionSpec;
 import org.apache.druid.indexing.common.task.IndexTask.IndexTuningConfig;
 import org.apache.druid.indexing.common.task.IndexTaskUtils;
-import org.apache.druid.indexing.common.task.Task;
 import org.apache.druid.indexing.common.task.TaskResource;
 import org.apache.druid.indexing.common.task.Tasks;
 import org.apache.druid.indexing.common.task.batch.parallel.ParallelIndexTaskRunner.SubTaskSpecStatus;
@@ -65,6 +64,7 @@ import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.Pair;
 import org.apache.druid.java.util.common.granularity.Granularity;
+import org.apache.druid.java.util.common.guava.Comparators;
 import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.segment.indexing.TuningConfig;
 import org.apache.druid.segment.indexing.granularity.ArbitraryGranularitySpec;
@@ -109,6 +109,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -129,6 +130,14 @@ public class ParallelIndexSupervisorTask extends AbstractBatchIndexTask implemen
 
   private static final Logger LOG = new Logger(ParallelIndexSupervisorTask.class);
 
+  /**
+   * Minimum number of sampled splits that must have rows of an interval to estimate its partitions from a sample of
+   * the splits. If the input is grouped by time, the number of rows of an interval is estimated within about
+   * 1 / MIN_SAMPLED_SPLITS_PER_INTERVAL.
+   */
+  @VisibleForTesting
+  static final int MIN_SAMPLED_SPLITS_PER_INTERVAL = 5;
+
   private final ParallelIndexIngestionSpec ingestionSchema;
   private final InputSource baseInputSource;
   private final IndexingServiceClient indexingServiceClient;
@@ -257,12 +266,12 @@ public class ParallelIndexSupervisorTask extends AbstractBatchIndexTask implemen
   }
 
   @Nullable
-  private <T extends Task, R extends SubTaskReport> ParallelIndexTaskRunner<T, R> createRunner(
+  private <R extends ParallelIndexTaskRunner<?, ?>> R createRunner(
       TaskToolbox toolbox,
-      Function<TaskToolbox, ParallelIndexTaskRunner<T, R>> runnerCreator
+      Function<TaskToolbox, R> runnerCreator
   )
   {
-    final ParallelIndexTaskRunner<T, R> newRunner = runnerCreator.apply(toolbox);
+    final R newRunner = runnerCreator.apply(toolbox);
     if (currentSubTaskHolder.setTask(newRunner)) {
       return newRunner;
     } else {
@@ -307,7 +316,10 @@ public class ParallelIndexSupervisorTask extends AbstractBatchIndexTask implemen
   }
 
   @VisibleForTesting
-  PartialDimensionDistributionParallelIndexTaskRunner createPartialDimensionDistributionRunner(TaskToolbox toolbox)
+  PartialDimensionDistributionParallelIndexTaskRunner createPartialDimensionDistributionRunner(
+      TaskToolbox toolbox,
+      double samplingRatio
+  )
   {
     return new PartialDimensionDistributionParallelIndexTaskRunner(
         toolbox,
@@ -315,7 +327,8 @@ public class ParallelIndexSupervisorTask extends AbstractBatchIndexTask implemen
         getGroupId(),
         ingestionSchema,
         getContext(),
-        indexingServiceClient
+        indexingServiceClient,
+        samplingRatio
     );
   }
 
@@ -579,10 +592,11 @@ public class ParallelIndexSupervisorTask extends AbstractBatchIndexTask implemen
 
   private TaskStatus runRangePartitionMultiPhaseParallel(TaskToolbox toolbox) throws Exception
   {
-    ParallelIndexTaskRunner<PartialDimensionDistributionTask, DimensionDistributionReport> distributionRunner =
+    final double samplingRatio = ingestionSchema.getTuningConfig().getRangePartitionSamplingRatio();
+    PartialDimensionDistributionParallelIndexTaskRunner distributionRunner =
         createRunner(
             toolbox,
-            this::createPartialDimensionDistributionRunner
+            tb -> createPartialDimensionDistributionRunner(tb, samplingRatio)
         );
 
     TaskState distributionState = runNextPhase(distributionRunner);
@@ -590,8 +604,24 @@ public class ParallelIndexSupervisorTask extends AbstractBatchIndexTask implemen
       return TaskStatus.failure(getId(), PartialDimensionDistributionTask.TYPE + " failed");
     }
 
+    if (distributionRunner.getSampledFraction() < 1) {
+      final Set<Interval> undersampledIntervals = findUndersampledIntervals(distributionRunner.getReports().values());
+      if (!undersampledIntervals.isEmpty()) {
+        LOG.info(
+            "Intervals%s have rows in fewer than [%d] sampled splits. Reading all splits to determine partitions.",
+            undersampledIntervals,
+            MIN_SAMPLED_SPLITS_PER_INTERVAL
+        );
+        distributionRunner = createRunner(toolbox, tb -> createPartialDimensionDistributionRunner(tb, 1.0));
+        distributionState = runNextPhase(distributionRunner);
+        if (distributionState.isFailure()) {
+          return TaskStatus.failure(getId(), PartialDimensionDistributionTask.TYPE + " failed");
+        }
+      }
+    }
+
     Map<Interval, PartitionBoundaries> intervalToPartitions =
-        determineAllRangePartitions(distributionRunner.getReports().values());
+        determineAllRangePartitions(distributionRunner.getReports().values(), distributionRunner.getSampledFraction());
 
     if (intervalToPartitions.isEmpty()) {
       String msg = "No valid rows for single dimension partitioning."
@@ -628,18 +658,71 @@ public class ParallelIndexSupervisorTask extends AbstractBatchIndexTask implemen
     return TaskStatus.fromCode(getId(), mergeState);
   }
 
-  private Map<Interval, PartitionBoundaries> determineAllRangePartitions(Collection<DimensionDistributionReport> reports)
+  /**
+   * Returns the intervals of the granularitySpec for which fewer than {@link #MIN_SAMPLED_SPLITS_PER_INTERVAL} of the
+   * given reports have rows. The number of rows of such intervals cannot be estimated reliably from the sampled splits.
+   * For example, if the input is grouped by time, an interval found in a single sampled split may have no rows in the
+   * other splits at all, or in all the splits up to the next sampled one. Intervals found in no sampled split at all
+   * would have no partitions.
+   */
+  @VisibleForTesting
+  Set<Interval> findUndersampledIntervals(Collection<DimensionDistributionReport> reports)
+  {
+    final Map<Interval, Integer> intervalToNumSplits = new HashMap<>();
+    for (DimensionDistributionReport report : reports) {
+      for (Interval interval : report.getIntervalToDistribution().keySet()) {
+        intervalToNumSplits.merge(interval, 1, Integer::sum);
+      }
+    }
+
+    // The intervals are always present in the granularitySpec since range partitioning requires perfect rollup.
+    final SortedSet<Interval> bucketIntervals = ingestionSchema.getDataSchema()
+                                                               .getGranularitySpec()
+                                                               .bucketIntervals()
+                                                               .get();
+    final Set<Interval> undersampledIntervals = new TreeSet<>(Comparators.intervalsByStartThenEnd());
+    for (Interval interval : bucketIntervals) {
+      if (intervalToNumSplits.getOrDefault(interval, 0) < MIN_SAMPLED_SPLITS_PER_INTERVAL) {
+        undersampledIntervals.add(interval);
+      }
+    }
+    return undersampledIntervals;
+  }
+
+  /**
+   * Determines the partitions of each interval. If the reports cover only the sampled splits, sampledFraction is the
+   * fraction of splits they cover, and every interval must have been found in at least
+   * {@link #MIN_SAMPLED_SPLITS_PER_INTERVAL} of them, see {@link #findUndersampledIntervals}.
+   */
+  @VisibleForTesting
+  Map<Interval, PartitionBoundaries> determineAllRangePartitions(
+      Collection<DimensionDistributionReport> reports,
+      double sampledFraction
+  )
   {
+    if (sampledFraction < 1) {
+      final Set<Interval> undersampledIntervals = findUndersampledIntervals(reports);
+      if (!undersampledIntervals.isEmpty()) {
+        throw new ISE("Cannot estimate partitions of undersampled intervals%s", undersampledIntervals);
+      }
+    }
+
     Multimap<Interval, StringDistribution> intervalToDistributions = ArrayListMultimap.create();
     reports.forEach(report -> {
       Map<Interval, StringDistribution> intervalToDistribution = report.getIntervalToDistribution();
       intervalToDistribution.forEach(intervalToDistributions::put);
     });
 
-    return CollectionUtils.mapValues(intervalToDistributions.asMap(), this::determineRangePartition);
+    return CollectionUtils.mapValues(
+        intervalToDistributions.asMap(),
+        distributions -> determineRangePartition(distributions, sampledFraction)
+    );
   }
 
-  private PartitionBoundaries determineRangePartition(Collection<StringDistribution> distributions)
+  private PartitionBoundaries determineRangePartition(
+      Collection<StringDistribution> distributions,
+      double sampledFraction
+  )
   {
     StringDistributionMerger distributionMerger = new StringSketchMerger();
     distributions.forEach(distributionMerger::merge);
@@ -648,17 +731,30 @@ public class ParallelIndexSupervisorTask extends AbstractBatchIndexTask implemen
     SingleDimensionPartitionsSpec partitionsSpec =
         (SingleDimensionPartitionsSpec) ingestionSchema.getTuningConfig().getGivenOrDefaultPartitionsSpec();
 
+    // The distribution covers only the sampled splits if sampling is enabled. Scale the partition sizes down by
+    // the fraction of splits actually read so that the number of partitions is estimated for the whole input.
+    // This is accurate enough only for intervals found in enough sampled splits, see findUndersampledIntervals().
     final PartitionBoundaries partitions;
     Integer targetRowsPerSegment = partitionsSpec.getTargetRowsPerSegment();
     if (targetRowsPerSegment == null) {
-      partitions = mergedDistribution.getEvenPartitionsByMaxSize(partitionsSpec.getMaxRowsPerSegment());
+      partitions = mergedDistribution.getEvenPartitionsByMaxSize(
+          scaleForSampling(partitionsSpec.getMaxRowsPerSegment(), sampledFraction)
+      );
     } else {
-      partitions = mergedDistribution.getEvenPartitionsByTargetSize(targetRowsPerSegment);
+      partitions = mergedDistribution.getEvenPartitionsByTargetSize(
+          scaleForSampling(targetRowsPerSegment, sampledFraction)
+      );
     }
 
     return partitions;
   }
 
+  @VisibleForTesting
+  static int scaleForSampling(int numRows, double sampledFraction)
+  {
+    return Math.max(1, (int) Math.round(numRows * sampledFraction));
+  }
+
   private static Map<Pair<Interval, Integer>, List<HashPartitionLocation>> groupHashPartitionLocationsPerPartition(
       Map<String, GeneratedHashPartitionsReport> subTaskIdToReport
   )
@@ -45,6 +45,8 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
   private static final int DEFAULT_CHAT_HANDLER_NUM_RETRIES = 5;
   private static final int DEFAULT_MAX_NUM_SEGMENTS_TO_MERGE = 100;
   private static final int DEFAULT_TOTAL_NUM_MERGE_TASKS = 10;
+  private static final int DEFAULT_MAX_NUM_CONCURRENT_FETCHES = 4;
+  private static final double DEFAULT_RANGE_PARTITION_SAMPLING_RATIO = 1.0;
 
   private final SplitHintSpec splitHintSpec;
 
@@ -69,6 +71,18 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
    */
   private final int totalNumMergeTasks;
 
+  /**
+   * Max number of partition files fetched at the same time by a partial segment merge task.
+   * Used only when this task runs with shuffle.
+   */
+  private final int maxNumConcurrentFetches;
+
+  /**
+   * Fraction of input splits read by {@link PartialDimensionDistributionTask}s to determine the range partitions.
+   * Used only when this task runs with {@link SingleDimensionPartitionsSpec}.
+   */
+  private final double rangePartitionSamplingRatio;
+
   public static ParallelIndexTuningConfig defaultConfig()
   {
     return new ParallelIndexTuningConfig(
@@ -97,6 +111,8 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
         null,
         null,
         null,
+        null,
+        null,
         null
     );
   }
@@ -128,7 +144,9 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
       @JsonProperty("totalNumMergeTasks") @Nullable Integer totalNumMergeTasks,
       @JsonProperty("logParseExceptions") @Nullable Boolean logParseExceptions,
       @JsonProperty("maxParseExceptions") @Nullable Integer maxParseExceptions,
-      @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions
+      @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions,
+      @JsonProperty("maxNumConcurrentFetches") @Nullable Integer maxNumConcurrentFetches,
+      @JsonProperty("rangePartitionSamplingRatio") @Nullable Double rangePartitionSamplingRatio
   )
   {
     super(
@@ -183,9 +201,22 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
                             ? DEFAULT_TOTAL_NUM_MERGE_TASKS
                             : totalNumMergeTasks;
 
+    this.maxNumConcurrentFetches = maxNumConcurrentFetches == null
+                                   ? DEFAULT_MAX_NUM_CONCURRENT_FETCHES
+                                   : maxNumConcurrentFetches;
+
+    this.rangePartitionSamplingRatio = rangePartitionSamplingRatio == null
+                                       ? DEFAULT_RANGE_PARTITION_SAMPLING_RATIO
+                                       : rangePartitionSamplingRatio;
+
     Preconditions.checkArgument(this.maxNumConcurrentSubTasks > 0, "maxNumConcurrentSubTasks must be positive");
     Preconditions.checkArgument(this.maxNumSegmentsToMerge > 0, "maxNumSegmentsToMerge must be positive");
     Preconditions.checkArgument(this.totalNumMergeTasks > 0, "totalNumMergeTasks must be positive");
+    Preconditions.checkArgument(this.maxNumConcurrentFetches > 0, "maxNumConcurrentFetches must be positive");
+    Preconditions.checkArgument(
+        this.rangePartitionSamplingRatio > 0 && this.rangePartitionSamplingRatio <= 1,
+        "rangePartitionSamplingRatio must be in (0, 1]"
+    );
     if (getPartitionsSpec() != null && getPartitionsSpec() instanceof SingleDimensionPartitionsSpec) {
       if (((SingleDimensionPartitionsSpec) getPartitionsSpec()).getPartitionDimension() == null) {
         throw new IAE("partitionDimension must be specified");
@@ -242,6 +273,18 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
     return totalNumMergeTasks;
   }
 
+  @JsonProperty
+  public int getMaxNumConcurrentFetches()
+  {
+    return maxNumConcurrentFetches;
+  }
+
+  @JsonProperty
+  public double getRangePartitionSamplingRatio()
+  {
+    return rangePartitionSamplingRatio;
+  }
+
   @Override
   public ParallelIndexTuningConfig withPartitionsSpec(PartitionsSpec partitionsSpec)
   {
@@ -271,7 +314,9 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
         getTotalNumMergeTasks(),
         isLogParseExceptions(),
         getMaxParseExceptions(),
-        getMaxSavedParseExceptions()
+        getMaxSavedParseExceptions(),
+        getMaxNumConcurrentFetches(),
+        getRangePartitionSamplingRatio()
     );
   }
 
@@ -294,6 +339,8 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
            chatHandlerNumRetries == that.chatHandlerNumRetries &&
            maxNumSegmentsToMerge == that.maxNumSegmentsToMerge &&
            totalNumMergeTasks == that.totalNumMergeTasks &&
+           maxNumConcurrentFetches == that.maxNumConcurrentFetches &&
+           Double.compare(that.rangePartitionSamplingRatio, rangePartitionSamplingRatio) == 0 &&
            Objects.equals(splitHintSpec, that.splitHintSpec) &&
            Objects.equals(chatHandlerTimeout, that.chatHandlerTimeout);
   }
@@ -310,7 +357,9 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
         chatHandlerTimeout,
         chatHandlerNumRetries,
         maxNumSegmentsToMerge,
-        totalNumMergeTasks
+        totalNumMergeTasks,
+        maxNumConcurrentFetches,
+        rangePartitionSamplingRatio
     );
   }
 
@@ -326,6 +375,8 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
            ", chatHandlerNumRetries=" + chatHandlerNumRetries +
            ", maxNumSegmentsToMerge=" + maxNumSegmentsToMerge +
            ", totalNumMergeTasks=" + totalNumMergeTasks +
+           ", maxNumConcurrentFetches=" + maxNumConcurrentFetches +
+           ", rangePartitionSamplingRatio=" + rangePartitionSamplingRatio +
            "} " + super.toString();
   }
 }
@@ -20,11 +20,15 @@
 package org.apache.druid.indexing.common.task.batch.parallel;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
 import org.apache.druid.client.indexing.IndexingServiceClient;
 import org.apache.druid.data.input.InputSplit;
 import org.apache.druid.indexing.common.TaskToolbox;
 import org.apache.druid.indexing.common.task.IndexTaskClientFactory;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.Map;
 
 /**
@@ -39,13 +43,19 @@ class PartialDimensionDistributionParallelIndexTaskRunner
   // For tests
   private final IndexTaskClientFactory<ParallelIndexSupervisorTaskClient> taskClientFactory;
 
+  private final double samplingRatio;
+
+  @Nullable
+  private SamplingIterator<SubTaskSpec<PartialDimensionDistributionTask>> sampledSubTaskSpecs;
+
   PartialDimensionDistributionParallelIndexTaskRunner(
       TaskToolbox toolbox,
       String taskId,
       String groupId,
       ParallelIndexIngestionSpec ingestionSchema,
       Map<String, Object> context,
-      IndexingServiceClient indexingServiceClient
+      IndexingServiceClient indexingServiceClient,
+      double samplingRatio
   )
   {
     this(
@@ -55,6 +65,7 @@ class PartialDimensionDistributionParallelIndexTaskRunner
         ingestionSchema,
         context,
         indexingServiceClient,
+        samplingRatio,
         null
     );
   }
@@ -67,6 +78,7 @@ class PartialDimensionDistributionParallelIndexTaskRunner
       ParallelIndexIngestionSpec ingestionSchema,
       Map<String, Object> context,
       IndexingServiceClient indexingServiceClient,
+      double samplingRatio,
       IndexTaskClientFactory<ParallelIndexSupervisorTaskClient> taskClientFactory
   )
   {
@@ -79,6 +91,7 @@ class PartialDimensionDistributionParallelIndexTaskRunner
         indexingServiceClient
     );
     this.taskClientFactory = taskClientFactory;
+    this.samplingRatio = samplingRatio;
   }
 
   @Override
@@ -87,6 +100,88 @@ class PartialDimensionDistributionParallelIndexTaskRunner
     return PHASE_NAME;
   }
 
+  /**
+   * Creates sub tasks only for the sampled splits if {@link ParallelIndexTuningConfig#getRangePartitionSamplingRatio()}
+   * is less than 1. The distributions reported by the sub tasks then cover only the sampled rows, which
+   * {@link ParallelIndexSupervisorTask} takes into account when it determines the partitions.
+   */
+  @Override
+  Iterator<SubTaskSpec<PartialDimensionDistributionTask>> subTaskSpecIterator() throws IOException
+  {
+    sampledSubTaskSpecs = sample(super.subTaskSpecIterator(), samplingRatio);
+    return sampledSubTaskSpecs;
+  }
+
+  /**
+   * Returns the fraction of input splits which were actually read by the sub tasks. This can be larger than
+   * {@link ParallelIndexTuningConfig#getRangePartitionSamplingRatio()} since the number of sampled splits is rounded
+   * up. Should be called after this runner finishes.
+   */
+  double getSampledFraction()
+  {
+    return sampledSubTaskSpecs == null ? 1.0 : sampledSubTaskSpecs.getSampledFraction();
+  }
+
+  @Override
+  int estimateTotalNumSubTasks() throws IOException
+  {
+    return estimateNumSamples(super.estimateTotalNumSubTasks(), samplingRatio);
+  }
+
+  /**
+   * Returns an iterator of the given ratio of elements from the given iterator. The sampled elements are spread evenly
+   * over the input, and the first element is always sampled so that the result is never empty for non-empty input.
+   */
+  @VisibleForTesting
+  static <T> SamplingIterator<T> sample(Iterator<T> iterator, double ratio)
+  {
+    return new SamplingIterator<>(iterator, ratio);
+  }
+
+  @VisibleForTesting
+  static int estimateNumSamples(int numElements, double ratio)
+  {
+    return numElements == 0 ? 0 : (int) Math.ceil(numElements * ratio);
+  }
+
+  @VisibleForTesting
+  static class SamplingIterator<T> extends AbstractIterator<T>
+  {
+    private final Iterator<T> delegate;
+    private final double ratio;
+
+    private int numElements;
+    private int numSampled;
+
+    private SamplingIterator(Iterator<T> delegate, double ratio)
+    {
+      this.delegate = delegate;
+      this.ratio = ratio;
+    }
+
+    @Override
+    protected T computeNext()
+    {
+      while (delegate.hasNext()) {
+        final T element = delegate.next();
+        final int i = numElements++;
+        if (ratio >= 1 || Math.ceil((i + 1) * ratio) > Math.ceil(i * ratio)) {
+          numSampled++;
+          return element;
+        }
+      }
+      return endOfData();
+    }
+
+    /**
+     * Returns the fraction of elements returned so far among the elements read from the delegate.
+     */
+    double getSampledFraction()
+    {
+      return numElements == 0 ? 1.0 : (double) numSampled / numElements;
+    }
+  }
+
   @Override
   SubTaskSpec<PartialDimensionDistributionTask> createSubTaskSpec(
       String id,
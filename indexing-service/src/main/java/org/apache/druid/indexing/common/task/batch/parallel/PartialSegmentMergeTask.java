@@ -22,6 +22,7 @@ package org.apache.druid.indexing.common.task.batch.parallel;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Maps;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
@@ -40,6 +41,7 @@ import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.Pair;
 import org.apache.druid.java.util.common.RetryUtils;
 import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.concurrent.Execs;
 import org.apache.druid.java.util.common.io.Closer;
 import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.query.aggregation.AggregatorFactory;
@@ -51,7 +53,6 @@ import org.apache.druid.segment.indexing.DataSchema;
 import org.apache.druid.segment.loading.DataSegmentPusher;
 import org.apache.druid.timeline.DataSegment;
 import org.apache.druid.timeline.partition.ShardSpec;
-import org.apache.druid.utils.CompressionUtils;
 import org.joda.time.Interval;
 
 import javax.annotation.Nullable;
@@ -66,6 +67,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -200,6 +204,11 @@ abstract class PartialSegmentMergeTask<S extends ShardSpec, P extends PartitionL
     return TaskStatus.success(getId());
   }
 
+  /**
+   * Fetches and unzips partition files from the middleManagers which created them. Up to
+   * {@link ParallelIndexTuningConfig#getMaxNumConcurrentFetches()} files are fetched at the same time, each of them
+   * being unzipped while it's transferred.
+   */
   private Map<Interval, Int2ObjectMap<List<File>>> fetchSegmentFiles(
       TaskToolbox toolbox,
       Map<Interval, Int2ObjectMap<List<P>>> intervalToPartitions
@@ -209,39 +218,76 @@ abstract class PartialSegmentMergeTask<S extends ShardSpec, P extends PartitionL
     FileUtils.deleteQuietly(tempDir);
     FileUtils.forceMkdir(tempDir);
 
-    final Map<Interval, Int2ObjectMap<List<File>>> intervalToUnzippedFiles = new HashMap<>();
-    // Fetch partition files
-    for (Entry<Interval, Int2ObjectMap<List<P>>> entryPerInterval : intervalToPartitions.entrySet()) {
-      final Interval interval = entryPerInterval.getKey();
-      for (Int2ObjectMap.Entry<List<P>> entryPerPartitionId :
-          entryPerInterval.getValue().int2ObjectEntrySet()) {
-        final int partitionId = entryPerPartitionId.getIntKey();
-        final File partitionDir = FileUtils.getFile(
-            tempDir,
-            interval.getStart().toString(),
-            interval.getEnd().toString(),
-            Integer.toString(partitionId)
-        );
-        FileUtils.forceMkdir(partitionDir);
-        for (P location : entryPerPartitionId.getValue()) {
-          final File zippedFile = shuffleClient.fetchSegmentFile(partitionDir, supervisorTaskId, location);
-          try {
+    final Map<Interval, Int2ObjectMap<List<Future<File>>>> intervalToFetchFutures = new HashMap<>();
+    final ExecutorService fetchExecutor = Execs.multiThreaded(
+        getTuningConfig().getMaxNumConcurrentFetches(),
+        "partial-segment-fetch-%d"
+    );
+    try {
+      // Fetch partition files
+      for (Entry<Interval, Int2ObjectMap<List<P>>> entryPerInterval : intervalToPartitions.entrySet()) {
+        final Interval interval = entryPerInterval.getKey();
+        for (Int2ObjectMap.Entry<List<P>> entryPerPartitionId :
+            entryPerInterval.getValue().int2ObjectEntrySet()) {
+          final int partitionId = entryPerPartitionId.getIntKey();
+          final File partitionDir = FileUtils.getFile(
+              tempDir,
+              interval.getStart().toString(),
+              interval.getEnd().toString(),
+              Integer.toString(partitionId)
+          );
+          FileUtils.forceMkdir(partitionDir);
+          for (P location : entryPerPartitionId.getValue()) {
             final File unzippedDir = new File(partitionDir, StringUtils.format("unzipped_%s", location.getSubTaskId()));
-            FileUtils.forceMkdir(unzippedDir);
-            CompressionUtils.unzip(zippedFile, unzippedDir);
-            intervalToUnzippedFiles.computeIfAbsent(interval, k -> new Int2ObjectOpenHashMap<>())
-                                   .computeIfAbsent(partitionId, k -> new ArrayList<>())
-                                   .add(unzippedDir);
+            intervalToFetchFutures.computeIfAbsent(interval, k -> new Int2ObjectOpenHashMap<>())
+                                  .computeIfAbsent(partitionId, k -> new ArrayList<>())
+                                  .add(
+                                      fetchExecutor.submit(
+                                          () -> shuffleClient.fetchAndUnzipSegmentFile(
+                                              partitionDir,
+                                              supervisorTaskId,
+                                              location,
+                                              unzippedDir
+                                          )
+                                      )
+                                  );
           }
-          finally {
-            if (!zippedFile.delete()) {
-              LOG.warn("Failed to delete temp file[%s]", zippedFile);
-            }
+        }
+      }
+
+      final Map<Interval, Int2ObjectMap<List<File>>> intervalToUnzippedFiles = new HashMap<>();
+      for (Entry<Interval, Int2ObjectMap<List<Future<File>>>> entryPerInterval : intervalToFetchFutures.entrySet()) {
+        final Int2ObjectMap<List<File>> partitionIdToUnzippedFiles = new Int2ObjectOpenHashMap<>();
+        for (Int2ObjectMap.Entry<List<Future<File>>> entryPerPartitionId :
+            entryPerInterval.getValue().int2ObjectEntrySet()) {
+          final List<File> unzippedFiles = new ArrayList<>(entryPerPartitionId.getValue().size());
+          for (Future<File> future : entryPerPartitionId.getValue()) {
+            unzippedFiles.add(waitForFetch(future));
           }
+          partitionIdToUnzippedFiles.put(entryPerPartitionId.getIntKey(), unzippedFiles);
         }
+        intervalToUnzippedFiles.put(entryPerInterval.getKey(), partitionIdToUnzippedFiles);
       }
+      return intervalToUnzippedFiles;
+    }
+    finally {
+      fetchExecutor.shutdownNow();
+    }
+  }
+
+  private static File waitForFetch(Future<File> future) throws IOException
+  {
+    try {
+      return future.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), IOException.class);
+      throw new RuntimeException(e.getCause());
     }
-    return intervalToUnzippedFiles;
   }
 
   /**
@@ -19,6 +19,10 @@
 
 package org.apache.druid.indexing.common.task.batch.parallel;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.druid.java.util.common.logger.Logger;
+import org.apache.druid.utils.CompressionUtils;
+
 import java.io.File;
 import java.io.IOException;
 
@@ -32,6 +36,8 @@ import java.io.IOException;
  */
 public interface ShuffleClient
 {
+  Logger LOG = new Logger(ShuffleClient.class);
+
   /**
    * Fetch the segment file into the local storage for the given supervisorTaskId and the location.
    * If the segment file should be fetched from a remote site, the returned file will be created under the given
@@ -39,4 +45,31 @@ public interface ShuffleClient
    */
   <T, P extends PartitionLocation<T>> File fetchSegmentFile(File partitionDir, String supervisorTaskId, P location)
       throws IOException;
+
+  /**
+   * Fetch the segment file for the given supervisorTaskId and the location, and unzip it into the given unzippedDir.
+   * Implementations can override this method to unzip the segment file while fetching it instead of writing the zipped
+   * file to the local storage first. The unzippedDir is created if it doesn't exist.
+   *
+   * @return the directory containing the unzipped segment files, which is unzippedDir
+   */
+  default <T, P extends PartitionLocation<T>> File fetchAndUnzipSegmentFile(
+      File partitionDir,
+      String supervisorTaskId,
+      P location,
+      File unzippedDir
+  ) throws IOException
+  {
+    final File zippedFile = fetchSegmentFile(partitionDir, supervisorTaskId, location);
+    try {
+      FileUtils.forceMkdir(unzippedDir);
+      CompressionUtils.unzip(zippedFile, unzippedDir);
+    }
+    finally {
+      if (!zippedFile.delete()) {
+        LOG.warn("Failed to delete temp file[%s]", zippedFile);
+      }
+    }
+    return unzippedDir;
+  }
 }
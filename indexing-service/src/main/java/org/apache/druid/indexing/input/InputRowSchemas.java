@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.indexing.input;
+
+import org.apache.druid.data.input.InputRowSchema;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.segment.indexing.DataSchema;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class InputRowSchemas
+{
+  private InputRowSchemas()
+  {
+  }
+
+  /**
+   * Creates the {@link InputRowSchema} of the rows read for the given dataSchema, including the input columns read by
+   * its aggregators, transforms and transform filter.
+   */
+  public static InputRowSchema fromDataSchema(DataSchema dataSchema)
+  {
+    return new InputRowSchema(
+        dataSchema.getTimestampSpec(),
+        dataSchema.getDimensionsSpec(),
+        Arrays.stream(dataSchema.getAggregators()).map(AggregatorFactory::getName).collect(Collectors.toList()),
+        findMetricAndTransformInputColumns(dataSchema)
+    );
+  }
+
+  @Nullable
+  private static Set<String> findMetricAndTransformInputColumns(DataSchema dataSchema)
+  {
+    final Set<String> transformColumns = dataSchema.getTransformSpec().getRequiredColumns();
+    if (transformColumns == null) {
+      return null;
+    }
+    final Set<String> columns = new HashSet<>(transformColumns);
+    for (AggregatorFactory aggregator : dataSchema.getAggregators()) {
+      final List<String> aggregatorColumns = aggregator.requiredFields();
+      if (aggregatorColumns == null) {
+        return null;
+      }
+      columns.addAll(aggregatorColumns);
+    }
+    return columns;
+  }
+}
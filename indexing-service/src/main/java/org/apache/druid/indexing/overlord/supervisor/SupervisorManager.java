@@ -107,6 +107,29 @@ public class SupervisorManager
     }
   }
 
+  /**
+   * Stores the spec of a running supervisor in the metadata store again, for supervisors which change their own spec,
+   * so that they are restarted with the change. Does nothing if the supervisor was stopped or its spec was replaced in
+   * the meantime.
+   *
+   * @return true if the spec was stored
+   */
+  public boolean persistSupervisorSpec(SupervisorSpec spec)
+  {
+    Preconditions.checkState(started, "SupervisorManager not started");
+    Preconditions.checkNotNull(spec, "spec");
+    Preconditions.checkNotNull(spec.getId(), "spec.getId()");
+
+    synchronized (lock) {
+      Pair<Supervisor, SupervisorSpec> pair = supervisors.get(spec.getId());
+      if (pair == null || pair.rhs != spec) {
+        return false;
+      }
+      metadataSupervisorManager.insert(spec.getId(), spec);
+      return true;
+    }
+  }
+
   @LifecycleStart
   public void start()
   {
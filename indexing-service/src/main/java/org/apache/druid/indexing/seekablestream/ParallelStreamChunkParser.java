@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.seekablestream;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Futures;
+import org.apache.druid.data.input.InputRow;
+import org.apache.druid.indexing.seekablestream.common.OrderedPartitionableRecord;
+import org.apache.druid.java.util.common.concurrent.Execs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+/**
+ * Parses the records returned by a single poll of {@link org.apache.druid.indexing.seekablestream.common.RecordSupplier}
+ * in a pool of threads, each of which has its own {@link StreamChunkParser}.
+ *
+ * {@link SeekableStreamIndexTaskRunner} consumes the parsed rows in the order the records were polled, and adds them
+ * to the driver in its own thread while the following records are still being parsed. Offsets and sequences are
+ * therefore updated exactly as if the records were parsed in the runner thread. The memory held by parsed rows is
+ * bounded by the poll size.
+ *
+ * Parsing only overlaps with adding rows of the same poll: the runner polls again once all rows of the previous poll
+ * have been added, since the record supplier is not thread-safe and its assignment and offsets are managed by the
+ * runner thread.
+ */
+class ParallelStreamChunkParser implements Closeable
+{
+  private final ExecutorService parseExec;
+  private final ThreadLocal<StreamChunkParser> parsers;
+
+  ParallelStreamChunkParser(int numThreads, String taskId, Supplier<StreamChunkParser> parserSupplier)
+  {
+    this.parseExec = Execs.multiThreaded(numThreads, taskId + "-parse-%d");
+    this.parsers = ThreadLocal.withInitial(parserSupplier::get);
+  }
+
+  /**
+   * Starts parsing the given records. The returned list has a future per record, in the same order as the records.
+   * Records without data are not parsed and their futures return an empty list. Records rejected by shouldParse, such
+   * as the ones the runner has already read, are not parsed either and have a null future.
+   */
+  <PartitionIdType, SequenceOffsetType> List<Future<List<InputRow>>> parse(
+      List<OrderedPartitionableRecord<PartitionIdType, SequenceOffsetType>> records,
+      Predicate<OrderedPartitionableRecord<PartitionIdType, SequenceOffsetType>> shouldParse
+  )
+  {
+    final List<Future<List<InputRow>>> futures = new ArrayList<>(records.size());
+    for (OrderedPartitionableRecord<PartitionIdType, SequenceOffsetType> record : records) {
+      final List<byte[]> valueBytess = record.getData();
+      if (!shouldParse.test(record)) {
+        futures.add(null);
+      } else if (valueBytess == null || valueBytess.isEmpty()) {
+        futures.add(Futures.immediateFuture(Collections.emptyList()));
+      } else {
+        futures.add(parseExec.submit(() -> parsers.get().parse(valueBytess)));
+      }
+    }
+    return futures;
+  }
+
+  /**
+   * Waits for the given future returned by {@link #parse} and returns the parsed rows. Exceptions thrown while parsing,
+   * including {@link org.apache.druid.java.util.common.parsers.ParseException}, are rethrown as they are.
+   */
+  static List<InputRow> getRows(Future<List<InputRow>> future) throws IOException, InterruptedException
+  {
+    try {
+      return future.get();
+    }
+    catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      Throwables.propagateIfPossible(cause, IOException.class);
+      throw new RuntimeException(cause);
+    }
+  }
+
+  @Override
+  public void close()
+  {
+    parseExec.shutdownNow();
+  }
+}
@@ -63,6 +63,7 @@ import org.apache.druid.indexing.common.stats.RowIngestionMeters;
 import org.apache.druid.indexing.common.stats.RowIngestionMetersFactory;
 import org.apache.druid.indexing.common.task.IndexTaskUtils;
 import org.apache.druid.indexing.common.task.RealtimeIndexTask;
+import org.apache.druid.indexing.input.InputRowSchemas;
 import org.apache.druid.indexing.seekablestream.common.OrderedPartitionableRecord;
 import org.apache.druid.indexing.seekablestream.common.OrderedSequenceNumber;
 import org.apache.druid.indexing.seekablestream.common.RecordSupplier;
@@ -74,7 +75,6 @@ import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.collect.Utils;
 import org.apache.druid.java.util.common.parsers.ParseException;
 import org.apache.druid.java.util.emitter.EmittingLogger;
-import org.apache.druid.query.aggregation.AggregatorFactory;
 import org.apache.druid.segment.indexing.RealtimeIOConfig;
 import org.apache.druid.segment.realtime.FireDepartment;
 import org.apache.druid.segment.realtime.FireDepartmentMetrics;
@@ -110,7 +110,6 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -247,13 +246,7 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
     this.task = task;
     this.ioConfig = task.getIOConfig();
     this.tuningConfig = task.getTuningConfig();
-    this.inputRowSchema = new InputRowSchema(
-        task.getDataSchema().getTimestampSpec(),
-        task.getDataSchema().getDimensionsSpec(),
-        Arrays.stream(task.getDataSchema().getAggregators())
-              .map(AggregatorFactory::getName)
-              .collect(Collectors.toList())
-    );
+    this.inputRowSchema = InputRowSchemas.fromDataSchema(task.getDataSchema());
     this.inputFormat = ioConfig.getInputFormat(parser == null ? null : parser.getParseSpec());
     this.parser = parser;
     this.authorizerMapper = authorizerMapper;
@@ -370,7 +363,7 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
     setToolbox(toolbox);
 
     // Now we can initialize StreamChunkReader with the given toolbox.
-    final StreamChunkParser parser = new StreamChunkParser(
+    final Supplier<StreamChunkParser> parserSupplier = () -> new StreamChunkParser(
         this.parser,
         new SettableByteEntityReader(
             inputFormat,
@@ -379,6 +372,7 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
             toolbox.getIndexingTmpDir()
         )
     );
+    final StreamChunkParser parser = parserSupplier.get();
 
     initializeSequences();
 
@@ -416,7 +410,8 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
     );
 
     Throwable caughtExceptionOuter = null;
-    try (final RecordSupplier<PartitionIdType, SequenceOffsetType> recordSupplier = task.newTaskRecordSupplier()) {
+    try (final RecordSupplier<PartitionIdType, SequenceOffsetType> recordSupplier = task.newTaskRecordSupplier();
+         final ParallelStreamChunkParser parallelParser = createParallelParser(parserSupplier)) {
 
       if (appenderatorsManager.shouldTaskMakeNodeAnnouncements()) {
         toolbox.getDataSegmentServerAnnouncer().announce();
@@ -612,8 +607,16 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
           // note: getRecords() also updates assignment
           stillReading = !assignment.isEmpty();
 
+          // Parse the records of this poll in the background if parallel parsing is enabled. The rows are still
+          // added to the driver in this thread, in the order the records were read. Records outside the offsets to
+          // read are skipped below, so they are not parsed.
+          final List<Future<List<InputRow>>> parsedRecords = parallelParser == null
+                                                             ? null
+                                                             : parallelParser.parse(records, this::isRecordToRead);
+
           SequenceMetadata<PartitionIdType, SequenceOffsetType> sequenceToCheckpoint = null;
-          for (OrderedPartitionableRecord<PartitionIdType, SequenceOffsetType> record : records) {
+          for (int recordIndex = 0; recordIndex < records.size(); recordIndex++) {
+            final OrderedPartitionableRecord<PartitionIdType, SequenceOffsetType> record = records.get(recordIndex);
             final boolean shouldProcess = verifyRecordInRange(record.getPartitionId(), record.getSequenceNumber());
 
             log.trace(
@@ -630,6 +633,8 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
                 final List<InputRow> rows;
                 if (valueBytess == null || valueBytess.isEmpty()) {
                   rows = Utils.nullableListOf((InputRow) null);
+                } else if (parsedRecords != null && parsedRecords.get(recordIndex) != null) {
+                  rows = ParallelStreamChunkParser.getRows(parsedRecords.get(recordIndex));
                 } else {
                   rows = parser.parse(valueBytess);
                 }
@@ -682,7 +687,11 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
                     }
 
                     if (addResult.getParseException() != null) {
-                      handleParseException(addResult.getParseException(), record);
+                      // with parallel indexing, the parse exception belongs to an earlier row
+                      handleParseException(
+                          addResult.getParseException(),
+                          tuningConfig.getNumIndexingThreads() > 1 ? null : record
+                      );
                     } else {
                       rowIngestionMeters.incrementProcessed();
                     }
@@ -767,6 +776,11 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
             }
           }
         }
+
+        // rows indexed in parallel report their parse exceptions with later rows, report the ones of the last rows
+        for (ParseException e : appenderator.drainParseExceptions()) {
+          handleParseException(e, null);
+        }
         ingestionState = IngestionState.COMPLETED;
       }
       catch (Exception e) {
@@ -1310,7 +1324,7 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
   }
 
 
-  private void handleParseException(ParseException e, OrderedPartitionableRecord record)
+  private void handleParseException(ParseException e, @Nullable OrderedPartitionableRecord record)
   {
     if (e.isFromPartiallyValidRow()) {
       rowIngestionMeters.incrementProcessedWithError();
@@ -1319,12 +1333,16 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
     }
 
     if (tuningConfig.isLogParseExceptions()) {
-      log.info(
-          e,
-          "Row at partition[%s] offset[%s] was unparseable.",
-          record.getPartitionId(),
-          record.getSequenceNumber()
-      );
+      if (record == null) {
+        log.info(e, "Row was unparseable.");
+      } else {
+        log.info(
+            e,
+            "Row at partition[%s] offset[%s] was unparseable.",
+            record.getPartitionId(),
+            record.getSequenceNumber()
+        );
+      }
     }
 
     if (savedParseExceptions != null) {
@@ -1867,6 +1885,27 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
     return startTime;
   }
 
+  /**
+   * Creates a {@link ParallelStreamChunkParser} if {@link SeekableStreamIndexTaskTuningConfig#getNumParseThreads()} is
+   * greater than 1. Returns null otherwise, or if this task uses the deprecated {@link InputRowParser}, which is not
+   * guaranteed to be thread-safe.
+   */
+  @Nullable
+  private ParallelStreamChunkParser createParallelParser(Supplier<StreamChunkParser> parserSupplier)
+  {
+    if (tuningConfig.getNumParseThreads() <= 1) {
+      return null;
+    }
+    if (parser != null) {
+      log.warn(
+          "numParseThreads[%d] is ignored because a parser is used instead of an inputFormat.",
+          tuningConfig.getNumParseThreads()
+      );
+      return null;
+    }
+    return new ParallelStreamChunkParser(tuningConfig.getNumParseThreads(), task.getId(), parserSupplier);
+  }
+
   /**
    * This method does two things:
    * <p>
@@ -1910,6 +1949,21 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
     return isMoreToReadBeforeReadingRecord(recordSequenceNumber.get(), endOffsets.get(partition));
   }
 
+  /**
+   * Returns true if the given record is within the offsets this task still has to read. Unlike
+   * {@link #verifyRecordInRange}, this never throws, so it can be used to filter records before they are processed.
+   */
+  private boolean isRecordToRead(OrderedPartitionableRecord<PartitionIdType, SequenceOffsetType> record)
+  {
+    final SequenceOffsetType currOffset = currOffsets.get(record.getPartitionId());
+    final SequenceOffsetType endOffset = endOffsets.get(record.getPartitionId());
+    return currOffset != null
+           && endOffset != null
+           && createSequenceNumber(record.getSequenceNumber()).compareTo(createSequenceNumber(currOffset)) >= 0
+           && !isRecordAlreadyRead(record.getPartitionId(), record.getSequenceNumber())
+           && isMoreToReadBeforeReadingRecord(record.getSequenceNumber(), endOffset);
+  }
+
   /**
    * checks if the input seqNum marks end of shard. Used by Kinesis only
    */
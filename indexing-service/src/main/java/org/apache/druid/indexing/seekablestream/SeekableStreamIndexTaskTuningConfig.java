@@ -20,6 +20,7 @@
 package org.apache.druid.indexing.seekablestream;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
 import org.apache.druid.indexer.partitions.DynamicPartitionsSpec;
 import org.apache.druid.segment.IndexSpec;
 import org.apache.druid.segment.indexing.RealtimeTuningConfig;
@@ -36,6 +37,10 @@ public abstract class SeekableStreamIndexTaskTuningConfig implements TuningConfi
 {
   private static final boolean DEFAULT_RESET_OFFSET_AUTOMATICALLY = false;
   private static final boolean DEFAULT_SKIP_SEQUENCE_NUMBER_AVAILABILITY_CHECK = false;
+  private static final boolean DEFAULT_USE_OFFHEAP_INCREMENTAL_INDEX = false;
+  private static final int DEFAULT_NUM_INDEXING_THREADS = 1;
+  private static final int DEFAULT_INTERMEDIATE_PERSIST_MERGE_FACTOR = 0;
+  private static final int DEFAULT_NUM_PARSE_THREADS = 1;
 
   private final int maxRowsInMemory;
   private final long maxBytesInMemory;
@@ -57,6 +62,10 @@ public abstract class SeekableStreamIndexTaskTuningConfig implements TuningConfi
   private final boolean logParseExceptions;
   private final int maxParseExceptions;
   private final int maxSavedParseExceptions;
+  private final boolean useOffheapIncrementalIndex;
+  private final int numIndexingThreads;
+  private final int intermediatePersistMergeFactor;
+  private final int numParseThreads;
 
   public SeekableStreamIndexTaskTuningConfig(
       @Nullable Integer maxRowsInMemory,
@@ -78,7 +87,11 @@ public abstract class SeekableStreamIndexTaskTuningConfig implements TuningConfi
       @Nullable Period intermediateHandoffPeriod,
       @Nullable Boolean logParseExceptions,
       @Nullable Integer maxParseExceptions,
-      @Nullable Integer maxSavedParseExceptions
+      @Nullable Integer maxSavedParseExceptions,
+      @Nullable Boolean useOffheapIncrementalIndex,
+      @Nullable Integer numIndexingThreads,
+      @Nullable Integer intermediatePersistMergeFactor,
+      @Nullable Integer numParseThreads
   )
   {
     // Cannot be a static because default basePersistDirectory is unique per-instance
@@ -128,6 +141,20 @@ public abstract class SeekableStreamIndexTaskTuningConfig implements TuningConfi
     this.logParseExceptions = logParseExceptions == null
                               ? TuningConfig.DEFAULT_LOG_PARSE_EXCEPTIONS
                               : logParseExceptions;
+    this.useOffheapIncrementalIndex = useOffheapIncrementalIndex == null
+                                      ? DEFAULT_USE_OFFHEAP_INCREMENTAL_INDEX
+                                      : useOffheapIncrementalIndex;
+    this.numIndexingThreads = numIndexingThreads == null ? DEFAULT_NUM_INDEXING_THREADS : numIndexingThreads;
+    Preconditions.checkArgument(this.numIndexingThreads > 0, "numIndexingThreads must be positive");
+    this.intermediatePersistMergeFactor = intermediatePersistMergeFactor == null
+                                          ? DEFAULT_INTERMEDIATE_PERSIST_MERGE_FACTOR
+                                          : intermediatePersistMergeFactor;
+    Preconditions.checkArgument(
+        this.intermediatePersistMergeFactor == 0 || this.intermediatePersistMergeFactor >= 2,
+        "intermediatePersistMergeFactor must be 0 (disabled) or at least 2"
+    );
+    this.numParseThreads = numParseThreads == null ? DEFAULT_NUM_PARSE_THREADS : numParseThreads;
+    Preconditions.checkArgument(this.numParseThreads > 0, "numParseThreads must be positive");
   }
 
   @Override
@@ -268,6 +295,33 @@ public abstract class SeekableStreamIndexTaskTuningConfig implements TuningConfi
     return skipSequenceNumberAvailabilityCheck;
   }
 
+  @Override
+  @JsonProperty
+  public boolean isUseOffheapIncrementalIndex()
+  {
+    return useOffheapIncrementalIndex;
+  }
+
+  @Override
+  @JsonProperty
+  public int getNumIndexingThreads()
+  {
+    return numIndexingThreads;
+  }
+
+  @Override
+  @JsonProperty
+  public int getIntermediatePersistMergeFactor()
+  {
+    return intermediatePersistMergeFactor;
+  }
+
+  @JsonProperty
+  public int getNumParseThreads()
+  {
+    return numParseThreads;
+  }
+
   @Override
   public abstract SeekableStreamIndexTaskTuningConfig withBasePersistDirectory(File dir);
 
@@ -291,6 +345,10 @@ public abstract class SeekableStreamIndexTaskTuningConfig implements TuningConfi
            logParseExceptions == that.logParseExceptions &&
            maxParseExceptions == that.maxParseExceptions &&
            maxSavedParseExceptions == that.maxSavedParseExceptions &&
+           useOffheapIncrementalIndex == that.useOffheapIncrementalIndex &&
+           numIndexingThreads == that.numIndexingThreads &&
+           intermediatePersistMergeFactor == that.intermediatePersistMergeFactor &&
+           numParseThreads == that.numParseThreads &&
            Objects.equals(partitionsSpec, that.partitionsSpec) &&
            Objects.equals(intermediatePersistPeriod, that.intermediatePersistPeriod) &&
            Objects.equals(basePersistDirectory, that.basePersistDirectory) &&
@@ -320,7 +378,11 @@ public abstract class SeekableStreamIndexTaskTuningConfig implements TuningConfi
         skipSequenceNumberAvailabilityCheck,
         logParseExceptions,
         maxParseExceptions,
-        maxSavedParseExceptions
+        maxSavedParseExceptions,
+        useOffheapIncrementalIndex,
+        numIndexingThreads,
+        intermediatePersistMergeFactor,
+        numParseThreads
     );
   }
 
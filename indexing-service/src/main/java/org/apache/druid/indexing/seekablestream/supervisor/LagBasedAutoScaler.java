@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.seekablestream.supervisor;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Decides the number of reading task groups of a {@link SeekableStreamSupervisor} from the total lag of the stream,
+ * sampled every {@link LagBasedAutoScalerConfig#getLagCollectionPeriod()}.
+ *
+ * A decision is made only once samples covering {@link LagBasedAutoScalerConfig#getLagCollectionRange()} are
+ * collected. The task count is increased by {@link LagBasedAutoScalerConfig#getScaleOutStep()} if enough samples are
+ * above {@link LagBasedAutoScalerConfig#getScaleOutThreshold()} and the lag did not decrease over the range, i.e.,
+ * the tasks do not catch up with the stream at their current ingestion rate. It is decreased by
+ * {@link LagBasedAutoScalerConfig#getScaleInStep()} if enough samples are below
+ * {@link LagBasedAutoScalerConfig#getScaleInThreshold()}. Samples are discarded after every change, and again by
+ * {@link #resetLagSamples()} once the tasks started before the change have completed, so that the next decision is
+ * based on the lag measured with the new task count only.
+ *
+ * This class is thread-safe.
+ */
+class LagBasedAutoScaler
+{
+  private final LagBasedAutoScalerConfig config;
+  private final int numSamplesToDecide;
+  private final Deque<Long> lagSamples = new ArrayDeque<>();
+
+  private long lastScaleActionMillis = Long.MIN_VALUE;
+
+  LagBasedAutoScaler(LagBasedAutoScalerConfig config)
+  {
+    this.config = config;
+    this.numSamplesToDecide = (int) Math.max(
+        1,
+        config.getLagCollectionRange().getMillis() / config.getLagCollectionPeriod().getMillis()
+    );
+  }
+
+  /**
+   * Returns the given task count bounded by {@link LagBasedAutoScalerConfig#getTaskCountMin()} and
+   * {@link LagBasedAutoScalerConfig#getTaskCountMax()}.
+   */
+  int boundTaskCount(int taskCount)
+  {
+    return Math.min(Math.max(taskCount, config.getTaskCountMin()), config.getTaskCountMax());
+  }
+
+  synchronized void addLagSample(long lag)
+  {
+    if (lagSamples.size() == numSamplesToDecide) {
+      lagSamples.removeFirst();
+    }
+    lagSamples.addLast(lag);
+  }
+
+  /**
+   * Discards the lag samples collected so far.
+   */
+  synchronized void resetLagSamples()
+  {
+    lagSamples.clear();
+  }
+
+  /**
+   * Computes the task count that the supervisor should run with.
+   *
+   * @param currentTaskCount current number of reading task groups
+   * @param numPartitions    number of partitions being read. The task count is never increased beyond it since
+   *                         the additional tasks would have nothing to read.
+   * @param nowMillis        current time
+   *
+   * @return the new task count, or currentTaskCount if it should not be changed
+   */
+  synchronized int computeDesiredTaskCount(int currentTaskCount, int numPartitions, long nowMillis)
+  {
+    if (lagSamples.size() < numSamplesToDecide
+        || nowMillis < lastScaleActionMillis + config.getMinScaleActionPeriod().getMillis()) {
+      return currentTaskCount;
+    }
+
+    int numSamplesAboveScaleOut = 0;
+    int numSamplesBelowScaleIn = 0;
+    for (long lag : lagSamples) {
+      if (lag > config.getScaleOutThreshold()) {
+        numSamplesAboveScaleOut++;
+      } else if (lag < config.getScaleInThreshold()) {
+        numSamplesBelowScaleIn++;
+      }
+    }
+
+    final int maxTaskCount = Math.max(Math.min(config.getTaskCountMax(), numPartitions), config.getTaskCountMin());
+    final int desiredTaskCount;
+    if (numSamplesAboveScaleOut >= config.getTriggerScaleOutFractionThreshold() * lagSamples.size()
+        && lagSamples.getLast() >= lagSamples.getFirst()) {
+      desiredTaskCount = Math.max(
+          currentTaskCount,
+          Math.min(currentTaskCount + config.getScaleOutStep(), maxTaskCount)
+      );
+    } else if (numSamplesBelowScaleIn >= config.getTriggerScaleInFractionThreshold() * lagSamples.size()) {
+      desiredTaskCount = Math.max(currentTaskCount - config.getScaleInStep(), config.getTaskCountMin());
+    } else {
+      desiredTaskCount = currentTaskCount;
+    }
+
+    if (desiredTaskCount != currentTaskCount) {
+      lagSamples.clear();
+      lastScaleActionMillis = nowMillis;
+    }
+    return desiredTaskCount;
+  }
+
+  @VisibleForTesting
+  synchronized int getNumLagSamples()
+  {
+    return lagSamples.size();
+  }
+}
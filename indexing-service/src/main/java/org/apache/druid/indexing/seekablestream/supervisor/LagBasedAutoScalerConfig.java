@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.seekablestream.supervisor;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import org.joda.time.Duration;
+import org.joda.time.Period;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * Configuration of {@link LagBasedAutoScaler}, which changes the number of reading task groups of a supervisor
+ * between {@link #getTaskCountMin()} and {@link #getTaskCountMax()} depending on the lag of the stream.
+ */
+public class LagBasedAutoScalerConfig
+{
+  private static final long DEFAULT_SCALE_OUT_THRESHOLD = 6_000_000;
+  private static final long DEFAULT_SCALE_IN_THRESHOLD = 1_000_000;
+  private static final double DEFAULT_TRIGGER_SCALE_OUT_FRACTION_THRESHOLD = 0.3;
+  private static final double DEFAULT_TRIGGER_SCALE_IN_FRACTION_THRESHOLD = 0.9;
+  private static final int DEFAULT_SCALE_OUT_STEP = 2;
+  private static final int DEFAULT_SCALE_IN_STEP = 1;
+
+  private final int taskCountMin;
+  private final int taskCountMax;
+  private final Duration lagCollectionPeriod;
+  private final Duration lagCollectionRange;
+  private final long scaleOutThreshold;
+  private final double triggerScaleOutFractionThreshold;
+  private final long scaleInThreshold;
+  private final double triggerScaleInFractionThreshold;
+  private final int scaleOutStep;
+  private final int scaleInStep;
+  private final Duration minScaleActionPeriod;
+
+  @JsonCreator
+  public LagBasedAutoScalerConfig(
+      @JsonProperty("taskCountMin") Integer taskCountMin,
+      @JsonProperty("taskCountMax") Integer taskCountMax,
+      @JsonProperty("lagCollectionPeriod") @Nullable Period lagCollectionPeriod,
+      @JsonProperty("lagCollectionRange") @Nullable Period lagCollectionRange,
+      @JsonProperty("scaleOutThreshold") @Nullable Long scaleOutThreshold,
+      @JsonProperty("triggerScaleOutFractionThreshold") @Nullable Double triggerScaleOutFractionThreshold,
+      @JsonProperty("scaleInThreshold") @Nullable Long scaleInThreshold,
+      @JsonProperty("triggerScaleInFractionThreshold") @Nullable Double triggerScaleInFractionThreshold,
+      @JsonProperty("scaleOutStep") @Nullable Integer scaleOutStep,
+      @JsonProperty("scaleInStep") @Nullable Integer scaleInStep,
+      @JsonProperty("minScaleActionPeriod") @Nullable Period minScaleActionPeriod
+  )
+  {
+    this.taskCountMin = Preconditions.checkNotNull(taskCountMin, "taskCountMin");
+    this.taskCountMax = Preconditions.checkNotNull(taskCountMax, "taskCountMax");
+    this.lagCollectionPeriod = defaultDuration(lagCollectionPeriod, "PT30S");
+    this.lagCollectionRange = defaultDuration(lagCollectionRange, "PT10M");
+    this.scaleOutThreshold = scaleOutThreshold == null ? DEFAULT_SCALE_OUT_THRESHOLD : scaleOutThreshold;
+    this.triggerScaleOutFractionThreshold = triggerScaleOutFractionThreshold == null
+                                            ? DEFAULT_TRIGGER_SCALE_OUT_FRACTION_THRESHOLD
+                                            : triggerScaleOutFractionThreshold;
+    this.scaleInThreshold = scaleInThreshold == null ? DEFAULT_SCALE_IN_THRESHOLD : scaleInThreshold;
+    this.triggerScaleInFractionThreshold = triggerScaleInFractionThreshold == null
+                                           ? DEFAULT_TRIGGER_SCALE_IN_FRACTION_THRESHOLD
+                                           : triggerScaleInFractionThreshold;
+    this.scaleOutStep = scaleOutStep == null ? DEFAULT_SCALE_OUT_STEP : scaleOutStep;
+    this.scaleInStep = scaleInStep == null ? DEFAULT_SCALE_IN_STEP : scaleInStep;
+    this.minScaleActionPeriod = defaultDuration(minScaleActionPeriod, "PT10M");
+
+    Preconditions.checkArgument(this.taskCountMin > 0, "taskCountMin must be positive");
+    Preconditions.checkArgument(
+        this.taskCountMax >= this.taskCountMin,
+        "taskCountMax[%s] must not be smaller than taskCountMin[%s]",
+        this.taskCountMax,
+        this.taskCountMin
+    );
+    Preconditions.checkArgument(this.lagCollectionPeriod.getMillis() > 0, "lagCollectionPeriod must be positive");
+    Preconditions.checkArgument(
+        this.lagCollectionRange.isLongerThan(this.lagCollectionPeriod)
+        || this.lagCollectionRange.equals(this.lagCollectionPeriod),
+        "lagCollectionRange must not be shorter than lagCollectionPeriod"
+    );
+    Preconditions.checkArgument(
+        this.scaleInThreshold <= this.scaleOutThreshold,
+        "scaleInThreshold[%s] must not be larger than scaleOutThreshold[%s]",
+        this.scaleInThreshold,
+        this.scaleOutThreshold
+    );
+    Preconditions.checkArgument(
+        this.triggerScaleOutFractionThreshold > 0 && this.triggerScaleOutFractionThreshold <= 1,
+        "triggerScaleOutFractionThreshold must be in (0, 1]"
+    );
+    Preconditions.checkArgument(
+        this.triggerScaleInFractionThreshold > 0 && this.triggerScaleInFractionThreshold <= 1,
+        "triggerScaleInFractionThreshold must be in (0, 1]"
+    );
+    Preconditions.checkArgument(this.scaleOutStep > 0, "scaleOutStep must be positive");
+    Preconditions.checkArgument(this.scaleInStep > 0, "scaleInStep must be positive");
+  }
+
+  private static Duration defaultDuration(@Nullable Period period, String theDefault)
+  {
+    return (period == null ? new Period(theDefault) : period).toStandardDuration();
+  }
+
+  @JsonProperty
+  public int getTaskCountMin()
+  {
+    return taskCountMin;
+  }
+
+  @JsonProperty
+  public int getTaskCountMax()
+  {
+    return taskCountMax;
+  }
+
+  @JsonProperty
+  public Duration getLagCollectionPeriod()
+  {
+    return lagCollectionPeriod;
+  }
+
+  @JsonProperty
+  public Duration getLagCollectionRange()
+  {
+    return lagCollectionRange;
+  }
+
+  @JsonProperty
+  public long getScaleOutThreshold()
+  {
+    return scaleOutThreshold;
+  }
+
+  @JsonProperty
+  public double getTriggerScaleOutFractionThreshold()
+  {
+    return triggerScaleOutFractionThreshold;
+  }
+
+  @JsonProperty
+  public long getScaleInThreshold()
+  {
+    return scaleInThreshold;
+  }
+
+  @JsonProperty
+  public double getTriggerScaleInFractionThreshold()
+  {
+    return triggerScaleInFractionThreshold;
+  }
+
+  @JsonProperty
+  public int getScaleOutStep()
+  {
+    return scaleOutStep;
+  }
+
+  @JsonProperty
+  public int getScaleInStep()
+  {
+    return scaleInStep;
+  }
+
+  @JsonProperty
+  public Duration getMinScaleActionPeriod()
+  {
+    return minScaleActionPeriod;
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    LagBasedAutoScalerConfig that = (LagBasedAutoScalerConfig) o;
+    return taskCountMin == that.taskCountMin &&
+           taskCountMax == that.taskCountMax &&
+           scaleOutThreshold == that.scaleOutThreshold &&
+           Double.compare(that.triggerScaleOutFractionThreshold, triggerScaleOutFractionThreshold) == 0 &&
+           scaleInThreshold == that.scaleInThreshold &&
+           Double.compare(that.triggerScaleInFractionThreshold, triggerScaleInFractionThreshold) == 0 &&
+           scaleOutStep == that.scaleOutStep &&
+           scaleInStep == that.scaleInStep &&
+           Objects.equals(lagCollectionPeriod, that.lagCollectionPeriod) &&
+           Objects.equals(lagCollectionRange, that.lagCollectionRange) &&
+           Objects.equals(minScaleActionPeriod, that.minScaleActionPeriod);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(
+        taskCountMin,
+        taskCountMax,
+        lagCollectionPeriod,
+        lagCollectionRange,
+        scaleOutThreshold,
+        triggerScaleOutFractionThreshold,
+        scaleInThreshold,
+        triggerScaleInFractionThreshold,
+        scaleOutStep,
+        scaleInStep,
+        minScaleActionPeriod
+    );
+  }
+
+  @Override
+  public String toString()
+  {
+    return "LagBasedAutoScalerConfig{" +
+           "taskCountMin=" + taskCountMin +
+           ", taskCountMax=" + taskCountMax +
+           ", lagCollectionPeriod=" + lagCollectionPeriod +
+           ", lagCollectionRange=" + lagCollectionRange +
+           ", scaleOutThreshold=" + scaleOutThreshold +
+           ", triggerScaleOutFractionThreshold=" + triggerScaleOutFractionThreshold +
+           ", scaleInThreshold=" + scaleInThreshold +
+           ", triggerScaleInFractionThreshold=" + triggerScaleInFractionThreshold +
+           ", scaleOutStep=" + scaleOutStep +
+           ", scaleInStep=" + scaleInStep +
+           ", minScaleActionPeriod=" + minScaleActionPeriod +
+           '}';
+  }
+}
@@ -54,6 +54,7 @@ import org.apache.druid.indexing.overlord.TaskRunnerListener;
 import org.apache.druid.indexing.overlord.TaskRunnerWorkItem;
 import org.apache.druid.indexing.overlord.TaskStorage;
 import org.apache.druid.indexing.overlord.supervisor.Supervisor;
+import org.apache.druid.indexing.overlord.supervisor.SupervisorManager;
 import org.apache.druid.indexing.overlord.supervisor.SupervisorReport;
 import org.apache.druid.indexing.overlord.supervisor.SupervisorStateManager;
 import org.apache.druid.indexing.seekablestream.SeekableStreamDataSourceMetadata;
@@ -314,6 +315,26 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
     }
   }
 
+  private class AutoScaleNotice implements Notice
+  {
+    @Override
+    public void handle() throws InterruptedException, ExecutionException, TimeoutException
+    {
+      if (spec.isSuspended() || awaitingHandoffForTaskCountChange) {
+        return;
+      }
+
+      final int desiredTaskCount = autoScaler.computeDesiredTaskCount(
+          activeTaskCount,
+          partitionIds.size(),
+          System.currentTimeMillis()
+      );
+      if (desiredTaskCount != activeTaskCount) {
+        changeTaskCount(desiredTaskCount);
+      }
+    }
+  }
+
   private class GracefulShutdownNotice extends ShutdownNotice
   {
     @Override
@@ -493,6 +514,13 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
   private volatile boolean lifecycleStarted = false;
   private final ServiceEmitter emitter;
 
+  @Nullable
+  private final LagBasedAutoScaler autoScaler;
+  // Number of task groups reading the stream. Equal to ioConfig.getTaskCount() unless autoScaler is set.
+  private volatile int activeTaskCount;
+  // Set when the task count was changed, until all task groups reading with the previous task count are completed.
+  private volatile boolean awaitingHandoffForTaskCountChange = false;
+
   public SeekableStreamSupervisor(
       final String supervisorId,
       final TaskStorage taskStorage,
@@ -526,9 +554,20 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
         spec.isSuspended()
     );
 
+    final int maxTaskCount;
+    if (ioConfig.getAutoScalerConfig() == null) {
+      this.autoScaler = null;
+      this.activeTaskCount = ioConfig.getTaskCount();
+      maxTaskCount = ioConfig.getTaskCount();
+    } else {
+      this.autoScaler = new LagBasedAutoScaler(ioConfig.getAutoScalerConfig());
+      this.activeTaskCount = autoScaler.boundTaskCount(ioConfig.getTaskCount());
+      maxTaskCount = ioConfig.getAutoScalerConfig().getTaskCountMax();
+    }
+
     int workerThreads = (this.tuningConfig.getWorkerThreads() != null
                          ? this.tuningConfig.getWorkerThreads()
-                         : Math.min(10, this.ioConfig.getTaskCount()));
+                         : Math.min(10, maxTaskCount));
 
     this.workerExec = MoreExecutors.listeningDecorator(Execs.multiThreaded(workerThreads, supervisorId + "-Worker-%d"));
     log.info("Created worker pool with [%d] threads for dataSource [%s]", workerThreads, this.dataSource);
@@ -571,7 +610,7 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
 
     int chatThreads = (this.tuningConfig.getChatThreads() != null
                        ? this.tuningConfig.getChatThreads()
-                       : Math.min(10, this.ioConfig.getTaskCount() * this.ioConfig.getReplicas()));
+                       : Math.min(10, maxTaskCount * this.ioConfig.getReplicas()));
     this.taskClient = taskClientFactory.build(
         taskInfoProvider,
         dataSource,
@@ -760,6 +799,9 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
         );
 
         scheduleReporting(reportingExec);
+        if (autoScaler != null) {
+          scheduleAutoScaler(reportingExec);
+        }
 
         started = true;
         log.info(
@@ -1054,8 +1096,15 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
       if (!spec.isSuspended()) {
         log.info("[%s] supervisor is running.", dataSource);
 
-        stateManager.maybeSetState(SeekableStreamSupervisorStateManager.SeekableStreamState.CREATING_TASKS);
-        createNewTasks();
+        if (isAwaitingHandoffForTaskCountChange()) {
+          log.info(
+              "[%s] supervisor is waiting for the task groups reading with the previous taskCount to complete.",
+              dataSource
+          );
+        } else {
+          stateManager.maybeSetState(SeekableStreamSupervisorStateManager.SeekableStreamState.CREATING_TASKS);
+          createNewTasks();
+        }
       } else {
         log.info("[%s] supervisor is suspended.", dataSource);
         gracefulShutdownInternal();
@@ -1126,6 +1175,90 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
     checkTaskDuration();
   }
 
+  /**
+   * Changes the number of task groups reading the stream. All task groups reading with the current task count are
+   * signalled to publish as in {@link #gracefulShutdownInternal()}, and the partitions are reassigned to the new task
+   * groups. No new task is created until the previous task groups are completed, see
+   * {@link #isAwaitingHandoffForTaskCountChange()}, so that a task group never reads partitions whose offsets are not
+   * yet published by a previous task group of a different partition assignment. This means that no partition is read
+   * until the previous task groups have published.
+   *
+   * The new task count is stored as the taskCount of the spec in the metadata store, so that a restarted supervisor
+   * keeps it. Task groups still publishing when the supervisor restarts are then handled like those of a spec updated
+   * with a different taskCount.
+   */
+  private void changeTaskCount(int desiredTaskCount)
+      throws ExecutionException, InterruptedException, TimeoutException
+  {
+    log.info(
+        "Changing taskCount of supervisor[%s] from [%d] to [%d] based on the lag of stream[%s]",
+        supervisorId,
+        activeTaskCount,
+        desiredTaskCount,
+        ioConfig.getStream()
+    );
+
+    gracefulShutdownInternal();
+
+    // Task groups which are still reading after gracefulShutdownInternal() have no running task, so they have not read
+    // anything yet and can be dropped without resetting their partition offsets.
+    for (Entry<Integer, TaskGroup> entry : activelyReadingTaskGroups.entrySet()) {
+      killTasksInGroup(entry.getValue(), "Killing task group [%d] for changing taskCount", entry.getKey());
+    }
+    activelyReadingTaskGroups.clear();
+
+    activeTaskCount = desiredTaskCount;
+    awaitingHandoffForTaskCountChange = true;
+    partitionGroups.clear();
+    updatePartitionDataFromStream();
+    persistTaskCount(desiredTaskCount);
+  }
+
+  /**
+   * Stores the task count in the spec. The metadata store is updated by a worker thread, since
+   * {@link SupervisorManager} may be stopping this supervisor and waiting for the notice being handled.
+   */
+  private void persistTaskCount(int taskCount)
+  {
+    ioConfig.setTaskCount(taskCount);
+    final Optional<SupervisorManager> supervisorManager = taskMaster.getSupervisorManager();
+    if (!supervisorManager.isPresent()) {
+      log.warn(
+          "SupervisorManager is not available, taskCount[%d] of supervisor[%s] is not persisted",
+          taskCount,
+          supervisorId
+      );
+      return;
+    }
+    workerExec.submit(
+        () -> {
+          try {
+            supervisorManager.get().persistSupervisorSpec(spec);
+          }
+          catch (Exception e) {
+            log.warn(e, "Failed to persist taskCount[%d] of supervisor[%s]", taskCount, supervisorId);
+          }
+        }
+    );
+  }
+
+  /**
+   * Returns true if the task count was changed and some task groups created with the previous task count are still
+   * publishing. Pending completion task groups are tracked by task group ID, which may map to different partitions
+   * after the task count changes.
+   */
+  private boolean isAwaitingHandoffForTaskCountChange()
+  {
+    if (awaitingHandoffForTaskCountChange
+        && pendingCompletionTaskGroups.values().stream().allMatch(List::isEmpty)) {
+      log.info("Task groups reading with the previous taskCount have completed, now running [%d]", activeTaskCount);
+      awaitingHandoffForTaskCountChange = false;
+      // Lag sampled while the old and new task groups overlapped says little about how the new task count keeps up.
+      autoScaler.resetLagSamples();
+    }
+    return awaitingHandoffForTaskCountChange;
+  }
+
   @VisibleForTesting
   public void resetInternal(DataSourceMetadata dataSourceMetadata)
   {
@@ -3336,6 +3469,16 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
    */
   protected abstract int getTaskGroupIdForPartition(PartitionIdType partition);
 
+  /**
+   * Returns the number of task groups reading the stream, which implementations of
+   * {@link #getTaskGroupIdForPartition} should use instead of {@link SeekableStreamSupervisorIOConfig#getTaskCount()}.
+   * It may differ from the latter if {@link SeekableStreamSupervisorIOConfig#getAutoScalerConfig()} is set.
+   */
+  protected int getActiveTaskCount()
+  {
+    return activeTaskCount;
+  }
+
   /**
    * checks if the passed in DataSourceMetadata is a specific instance
    * of [kafka/kinesis]DataSourceMetadata
@@ -3447,6 +3590,44 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
            && makeSequenceNumber(earliestOffset).compareTo(makeSequenceNumber(offsetFromMetadata)) <= 0;
   }
 
+  /**
+   * Schedules periodic collection of the lag for {@link LagBasedAutoScaler}. Each sample is followed by an
+   * {@link AutoScaleNotice}, so that the task count is changed in the notice handling thread.
+   */
+  private void scheduleAutoScaler(ScheduledExecutorService reportingExec)
+  {
+    final LagBasedAutoScalerConfig autoScalerConfig = ioConfig.getAutoScalerConfig();
+    reportingExec.scheduleAtFixedRate(
+        this::collectLagForAutoScaler,
+        ioConfig.getStartDelay().getMillis() + INITIAL_EMIT_LAG_METRIC_DELAY_MILLIS, // wait for tasks to start up
+        autoScalerConfig.getLagCollectionPeriod().getMillis(),
+        TimeUnit.MILLISECONDS
+    );
+  }
+
+  private void collectLagForAutoScaler()
+  {
+    if (spec.isSuspended() || awaitingHandoffForTaskCountChange) {
+      return;
+    }
+    try {
+      // Kinesis reports only the time lag.
+      Map<PartitionIdType, Long> partitionLags = getPartitionRecordLag();
+      if (partitionLags == null) {
+        partitionLags = getPartitionTimeLag();
+      }
+      if (partitionLags == null) {
+        log.debug("Latest offsets have not been fetched, skipping lag collection for autoscaling");
+        return;
+      }
+      autoScaler.addLagSample(partitionLags.values().stream().mapToLong(lag -> Math.max(lag, 0)).sum());
+      addNotice(new AutoScaleNotice());
+    }
+    catch (Exception e) {
+      log.warn(e, "Unable to collect lag for autoscaling");
+    }
+  }
+
   protected void emitLag()
   {
     if (spec.isSuspended()) {
@@ -38,7 +38,8 @@ public abstract class SeekableStreamSupervisorIOConfig
   @Nullable
   private final InputFormat inputFormat; // nullable for backward compatibility
   private final Integer replicas;
-  private final Integer taskCount;
+  // changed by the supervisor when autoScalerConfig is set, so that the spec stored in the metadata store keeps it
+  private volatile Integer taskCount;
   private final Duration taskDuration;
   private final Duration startDelay;
   private final Duration period;
@@ -47,6 +48,8 @@ public abstract class SeekableStreamSupervisorIOConfig
   private final Optional<Duration> lateMessageRejectionPeriod;
   private final Optional<Duration> earlyMessageRejectionPeriod;
   private final Optional<DateTime> lateMessageRejectionStartDateTime;
+  @Nullable
+  private final LagBasedAutoScalerConfig autoScalerConfig;
 
   public SeekableStreamSupervisorIOConfig(
       String stream,
@@ -60,7 +63,8 @@ public abstract class SeekableStreamSupervisorIOConfig
       Period completionTimeout,
       Period lateMessageRejectionPeriod,
       Period earlyMessageRejectionPeriod,
-      DateTime lateMessageRejectionStartDateTime
+      DateTime lateMessageRejectionStartDateTime,
+      @Nullable LagBasedAutoScalerConfig autoScalerConfig
   )
   {
     this.stream = Preconditions.checkNotNull(stream, "stream cannot be null");
@@ -81,6 +85,7 @@ public abstract class SeekableStreamSupervisorIOConfig
     this.earlyMessageRejectionPeriod = earlyMessageRejectionPeriod == null
                                        ? Optional.absent()
                                        : Optional.of(earlyMessageRejectionPeriod.toStandardDuration());
+    this.autoScalerConfig = autoScalerConfig;
 
     if (this.lateMessageRejectionPeriod.isPresent()
                 && this.lateMessageRejectionStartDateTime.isPresent()) {
@@ -130,6 +135,11 @@ public abstract class SeekableStreamSupervisorIOConfig
     return taskCount;
   }
 
+  public void setTaskCount(int taskCount)
+  {
+    this.taskCount = taskCount;
+  }
+
   @JsonProperty
   public Duration getTaskDuration()
   {
@@ -177,4 +187,15 @@ public abstract class SeekableStreamSupervisorIOConfig
   {
     return lateMessageRejectionStartDateTime;
   }
+
+  /**
+   * If not null, the supervisor changes its number of reading task groups based on the lag of the stream, starting
+   * from {@link #getTaskCount()} bounded by the min and max of the given config.
+   */
+  @Nullable
+  @JsonProperty
+  public LagBasedAutoScalerConfig getAutoScalerConfig()
+  {
+    return autoScalerConfig;
+  }
 }
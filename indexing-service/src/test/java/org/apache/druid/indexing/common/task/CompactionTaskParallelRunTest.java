@@ -228,6 +228,8 @@ public class CompactionTaskParallelRunTest extends AbstractParallelIndexSupervis
         null,
         null,
         null,
+        null,
+        null,
         null
     );
   }
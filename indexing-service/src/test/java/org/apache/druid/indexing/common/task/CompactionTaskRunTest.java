@@ -258,6 +258,57 @@ public class CompactionTaskRunTest extends IngestionTestBase
     Assert.assertEquals(TEST_ROWS, rowsFromSegment);
   }
 
+  @Test
+  public void testRunWithSegmentMerge() throws Exception
+  {
+    runIndexTask();
+
+    final Builder builder = new Builder(
+        DATA_SOURCE,
+        getObjectMapper(),
+        AuthTestUtils.TEST_AUTHORIZER_MAPPER,
+        new NoopChatHandlerProvider(),
+        rowIngestionMetersFactory,
+        indexingServiceClient,
+        coordinatorClient,
+        segmentLoaderFactory,
+        RETRY_POLICY_FACTORY,
+        appenderatorsManager
+    );
+
+    final CompactionTask compactionTask = builder
+        .interval(Intervals.of("2014-01-01/2014-01-02"))
+        .build();
+    // Segments are merged with time chunk locks, and indexed again with segment locks.
+    compactionTask.addToContext(CompactionTask.CTX_KEY_MERGE_SEGMENTS_IF_COMPATIBLE, true);
+
+    final Pair<TaskStatus, List<DataSegment>> resultPair = runTask(compactionTask);
+
+    Assert.assertTrue(resultPair.lhs.isSuccess());
+
+    final List<DataSegment> segments = resultPair.rhs;
+    Assert.assertEquals(3, segments.size());
+
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals(
+          Intervals.of("2014-01-01T0%d:00:00/2014-01-01T0%d:00:00", i, i + 1),
+          segments.get(i).getInterval()
+      );
+      Assert.assertEquals(DEFAULT_COMPACTION_STATE, segments.get(i).getLastCompactionState());
+      if (lockGranularity == LockGranularity.SEGMENT) {
+        Assert.assertEquals(
+            new NumberedOverwriteShardSpec(32768, 0, 2, (short) 1, (short) 1),
+            segments.get(i).getShardSpec()
+        );
+      } else {
+        Assert.assertEquals(new NumberedShardSpec(0, 0), segments.get(i).getShardSpec());
+      }
+    }
+
+    List<String> rowsFromSegment = getCSVFormatRowsFromSegments(segments);
+    Assert.assertEquals(TEST_ROWS, rowsFromSegment);
+  }
+
   @Test
   public void testRunCompactionTwice() throws Exception
   {
@@ -328,6 +328,8 @@ public class CompactionTaskTest
         null,
         null,
         null,
+        null,
+        null,
         null
     );
   }
@@ -634,6 +636,8 @@ public class CompactionTaskTest
         null,
         null,
         null,
+        null,
+        null,
         null
     );
     final List<ParallelIndexIngestionSpec> ingestionSpecs = CompactionTask.createIngestionSchema(
@@ -701,6 +705,8 @@ public class CompactionTaskTest
         null,
         null,
         null,
+        null,
+        null,
         null
     );
     final List<ParallelIndexIngestionSpec> ingestionSpecs = CompactionTask.createIngestionSchema(
@@ -768,6 +774,8 @@ public class CompactionTaskTest
         null,
         null,
         null,
+        null,
+        null,
         null
     );
     final List<ParallelIndexIngestionSpec> ingestionSpecs = CompactionTask.createIngestionSchema(
@@ -1163,6 +1171,8 @@ public class CompactionTaskTest
             null,
             null,
             null,
+            null,
+            null,
             null
         ),
         expectedSegmentGranularity
@@ -148,6 +148,8 @@ abstract class AbstractMultiPhaseParallelIndexingTest extends AbstractParallelIn
         null,
         null,
         null,
+        null,
+        null,
         null
     );
 
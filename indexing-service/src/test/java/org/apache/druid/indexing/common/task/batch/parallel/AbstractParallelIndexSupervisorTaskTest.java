@@ -158,6 +158,8 @@ public class AbstractParallelIndexSupervisorTaskTest extends IngestionTestBase
       null,
       null,
       null,
+      null,
+      null,
       null
   );
 
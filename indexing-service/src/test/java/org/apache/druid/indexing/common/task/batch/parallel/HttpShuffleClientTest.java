@@ -24,6 +24,7 @@ import org.apache.druid.java.util.common.Intervals;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.concurrent.Execs;
 import org.apache.druid.java.util.http.client.HttpClient;
+import org.apache.druid.utils.CompressionUtils;
 import org.easymock.EasyMock;
 import org.joda.time.Interval;
 import org.junit.Assert;
@@ -62,6 +63,7 @@ public class HttpShuffleClientTest
   public ExpectedException expectedException = ExpectedException.none();
 
   private File segmentFile;
+  private File zippedSegmentFile;
 
   @Before
   public void setup() throws IOException
@@ -72,6 +74,10 @@ public class HttpShuffleClientTest
         writer.write(StringUtils.format("let's write some data.\n"));
       }
     }
+    final File segmentDir = temporaryFolder.newFolder();
+    Files.copy(segmentFile.toPath(), new File(segmentDir, "00000.smoosh").toPath());
+    zippedSegmentFile = new File(temporaryFolder.newFolder(), "segment.zip");
+    CompressionUtils.zip(segmentDir, zippedSegmentFile);
   }
 
   @Test
@@ -176,20 +182,79 @@ public class HttpShuffleClientTest
     }
   }
 
+  @Test
+  public void testFetchAndUnzipSegmentFileReturningUnzippedDir() throws IOException
+  {
+    ShuffleClient shuffleClient = mockClient(0, zippedSegmentFile);
+    final File localDir = temporaryFolder.newFolder();
+    final File unzippedDir = new File(localDir, "unzipped");
+    final File fetchedDir = shuffleClient.fetchAndUnzipSegmentFile(
+        localDir,
+        SUPERVISOR_TASK_ID,
+        new TestPartitionLocation(),
+        unzippedDir
+    );
+    Assert.assertEquals(unzippedDir, fetchedDir);
+    assertUnzippedSegment(unzippedDir);
+    // The zipped file is never written to the local storage.
+    Assert.assertArrayEquals(new String[]{"unzipped"}, localDir.list());
+  }
+
+  @Test
+  public void testFetchAndUnzipSegmentFileWithTransientFailuresReturningUnzippedDir() throws IOException
+  {
+    ShuffleClient shuffleClient = mockClient(HttpShuffleClient.NUM_FETCH_RETRIES - 1, zippedSegmentFile);
+    final File unzippedDir = new File(temporaryFolder.newFolder(), "unzipped");
+    shuffleClient.fetchAndUnzipSegmentFile(
+        temporaryFolder.newFolder(),
+        SUPERVISOR_TASK_ID,
+        new TestPartitionLocation(),
+        unzippedDir
+    );
+    assertUnzippedSegment(unzippedDir);
+  }
+
+  @Test
+  public void testFetchAndUnzipUnknownPartitionThrowingIOExceptionAfterRetries() throws IOException
+  {
+    expectedException.expect(IOException.class);
+    ShuffleClient shuffleClient = mockClient(HttpShuffleClient.NUM_FETCH_RETRIES + 1, zippedSegmentFile);
+    shuffleClient.fetchAndUnzipSegmentFile(
+        temporaryFolder.newFolder(),
+        SUPERVISOR_TASK_ID,
+        new TestPartitionLocation(),
+        new File(temporaryFolder.newFolder(), "unzipped")
+    );
+  }
+
+  private void assertUnzippedSegment(File unzippedDir) throws IOException
+  {
+    final File[] unzippedFiles = unzippedDir.listFiles();
+    Assert.assertNotNull(unzippedFiles);
+    Assert.assertEquals(1, unzippedFiles.length);
+    Assert.assertEquals("00000.smoosh", unzippedFiles[0].getName());
+    Assert.assertArrayEquals(Files.readAllBytes(segmentFile.toPath()), Files.readAllBytes(unzippedFiles[0].toPath()));
+  }
+
   private HttpShuffleClient mockClient(int numFailures) throws FileNotFoundException
+  {
+    return mockClient(numFailures, segmentFile);
+  }
+
+  private HttpShuffleClient mockClient(int numFailures, File file) throws FileNotFoundException
   {
     HttpClient httpClient = EasyMock.strictMock(HttpClient.class);
     if (numFailures == 0) {
       EasyMock.expect(httpClient.go(EasyMock.anyObject(), EasyMock.anyObject()))
               // should return different instances of input stream
-              .andReturn(Futures.immediateFuture(new FileInputStream(segmentFile)))
-              .andReturn(Futures.immediateFuture(new FileInputStream(segmentFile)));
+              .andReturn(Futures.immediateFuture(new FileInputStream(file)))
+              .andReturn(Futures.immediateFuture(new FileInputStream(file)));
     } else {
       EasyMock.expect(httpClient.go(EasyMock.anyObject(), EasyMock.anyObject()))
               .andReturn(Futures.immediateFailedFuture(new RuntimeException())).times(numFailures)
               // should return different instances of input stream
-              .andReturn(Futures.immediateFuture(new FileInputStream(segmentFile)))
-              .andReturn(Futures.immediateFuture(new FileInputStream(segmentFile)));
+              .andReturn(Futures.immediateFuture(new FileInputStream(file)))
+              .andReturn(Futures.immediateFuture(new FileInputStream(file)));
     }
     EasyMock.replay(httpClient);
     return new HttpShuffleClient(httpClient);
@@ -305,6 +305,8 @@ public class ParallelIndexSupervisorTaskSerdeTest
           null,
           null,
           null,
+          null,
+          null,
           null
       );
 
@@ -19,19 +19,32 @@
 
 package org.apache.druid.indexing.common.task.batch.parallel;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Ordering;
+import org.apache.druid.data.input.impl.InlineInputSource;
+import org.apache.druid.indexer.partitions.SingleDimensionPartitionsSpec;
+import org.apache.druid.indexing.common.task.batch.parallel.distribution.StringDistribution;
+import org.apache.druid.indexing.common.task.batch.parallel.distribution.StringSketch;
+import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.Intervals;
 import org.apache.druid.java.util.common.Pair;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.timeline.partition.PartitionBoundaries;
 import org.hamcrest.Matchers;
 import org.joda.time.Interval;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
+import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -144,4 +157,113 @@ public class ParallelIndexSupervisorTaskTest
       Assert.assertEquals(expectedIds, actualIds);
     }
   }
+
+  public static class DetermineAllRangePartitionsTest
+  {
+    private static final Interval FIRST_DAY = Intervals.of("2020-01-01/2020-01-02");
+    private static final Interval SECOND_DAY = Intervals.of("2020-01-02/2020-01-03");
+    private static final int TARGET_ROWS_PER_SEGMENT = 20;
+    private static final int NUM_SAMPLED_ROWS = 100;
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final ParallelIndexSupervisorTask task = createTask();
+
+    @Test
+    public void testScaleBySampledFraction()
+    {
+      final Map<Interval, PartitionBoundaries> intervalToPartitions = task.determineAllRangePartitions(
+          createReports(ParallelIndexSupervisorTask.MIN_SAMPLED_SPLITS_PER_INTERVAL, FIRST_DAY, SECOND_DAY),
+          0.5
+      );
+      // 100 sampled rows are half of the input, so 200 rows are estimated for 20 rows per segment
+      Assert.assertEquals(10, intervalToPartitions.get(FIRST_DAY).getNumBuckets());
+      Assert.assertEquals(10, intervalToPartitions.get(SECOND_DAY).getNumBuckets());
+    }
+
+    @Test
+    public void testFindUndersampledIntervals()
+    {
+      Assert.assertEquals(
+          ImmutableSet.of(FIRST_DAY, SECOND_DAY),
+          task.findUndersampledIntervals(
+              createReports(ParallelIndexSupervisorTask.MIN_SAMPLED_SPLITS_PER_INTERVAL - 1, FIRST_DAY)
+          )
+      );
+      Assert.assertEquals(
+          ImmutableSet.of(SECOND_DAY),
+          task.findUndersampledIntervals(
+              createReports(ParallelIndexSupervisorTask.MIN_SAMPLED_SPLITS_PER_INTERVAL, FIRST_DAY)
+          )
+      );
+    }
+
+    @Test
+    public void testFailForUndersampledIntervals()
+    {
+      expectedException.expect(ISE.class);
+      expectedException.expectMessage("Cannot estimate partitions of undersampled intervals");
+      task.determineAllRangePartitions(
+          createReports(ParallelIndexSupervisorTask.MIN_SAMPLED_SPLITS_PER_INTERVAL, FIRST_DAY),
+          0.5
+      );
+    }
+
+    @Test
+    public void testNoSamplingSupportRequiredWithoutSampling()
+    {
+      final Map<Interval, PartitionBoundaries> intervalToPartitions = task.determineAllRangePartitions(
+          createReports(1, FIRST_DAY),
+          1.0
+      );
+      Assert.assertEquals(Collections.singleton(FIRST_DAY), intervalToPartitions.keySet());
+      Assert.assertEquals(5, intervalToPartitions.get(FIRST_DAY).getNumBuckets());
+    }
+
+    /**
+     * Creates numReports reports, which have {@link #NUM_SAMPLED_ROWS} distinct rows of each interval in total.
+     */
+    private static List<DimensionDistributionReport> createReports(int numReports, Interval... intervals)
+    {
+      final List<DimensionDistributionReport> reports = new ArrayList<>();
+      for (int report = 0; report < numReports; report++) {
+        final Map<Interval, StringDistribution> intervalToDistribution = new HashMap<>();
+        for (Interval interval : intervals) {
+          final StringSketch sketch = new StringSketch();
+          for (int i = report; i < NUM_SAMPLED_ROWS; i += numReports) {
+            sketch.put(StringUtils.format("%03d", i));
+          }
+          intervalToDistribution.put(interval, sketch);
+        }
+        reports.add(new DimensionDistributionReport("subtask" + report, intervalToDistribution));
+      }
+      return reports;
+    }
+
+    private static ParallelIndexSupervisorTask createTask()
+    {
+      final ParallelIndexTuningConfig tuningConfig = new ParallelIndexTestingFactory.TuningConfigBuilder()
+          .partitionsSpec(new SingleDimensionPartitionsSpec(TARGET_ROWS_PER_SEGMENT, null, "dim", false))
+          .build();
+      final ParallelIndexIngestionSpec ingestionSpec = ParallelIndexTestingFactory.createIngestionSpec(
+          new InlineInputSource("{}"),
+          ParallelIndexTestingFactory.getInputFormat(),
+          tuningConfig,
+          ParallelIndexTestingFactory.createDataSchema(ImmutableList.of(FIRST_DAY, SECOND_DAY))
+      );
+      return new ParallelIndexSupervisorTask(
+          ParallelIndexTestingFactory.ID,
+          null,
+          null,
+          ingestionSpec,
+          Collections.emptyMap(),
+          null,
+          null,
+          null,
+          null,
+          null
+      );
+    }
+  }
 }
@@ -178,7 +178,9 @@ class ParallelIndexTestingFactory
           22,
           logParseExceptions,
           maxParseExceptions,
-          25
+          25,
+          null,
+          null
       );
     }
   }
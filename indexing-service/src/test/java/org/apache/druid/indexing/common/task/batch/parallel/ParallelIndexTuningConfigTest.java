@@ -95,6 +95,8 @@ public class ParallelIndexTuningConfigTest
         null,
         false,
         null,
+        null,
+        null,
         null
     );
     final byte[] json = mapper.writeValueAsBytes(tuningConfig);
@@ -137,6 +139,8 @@ public class ParallelIndexTuningConfigTest
         null,
         false,
         null,
+        null,
+        null,
         null
     );
     final byte[] json = mapper.writeValueAsBytes(tuningConfig);
@@ -179,6 +183,8 @@ public class ParallelIndexTuningConfigTest
         null,
         false,
         null,
+        null,
+        null,
         null
     );
     final byte[] json = mapper.writeValueAsBytes(tuningConfig);
@@ -223,7 +229,85 @@ public class ParallelIndexTuningConfigTest
         null,
         false,
         null,
+        null,
+        null,
         null
     );
   }
+
+  @Test
+  public void testSerdeWithRangePartitionSamplingRatio() throws IOException
+  {
+    final ParallelIndexTuningConfig tuningConfig = new ParallelIndexTuningConfig(
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        0.1
+    );
+    final byte[] json = mapper.writeValueAsBytes(tuningConfig);
+    final ParallelIndexTuningConfig fromJson = (ParallelIndexTuningConfig) mapper.readValue(json, TuningConfig.class);
+    Assert.assertEquals(fromJson, tuningConfig);
+    Assert.assertEquals(0.1, fromJson.getRangePartitionSamplingRatio(), 0);
+  }
+
+  @Test
+  public void testInvalidRangePartitionSamplingRatio()
+  {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("rangePartitionSamplingRatio must be in (0, 1]");
+    new ParallelIndexTuningConfig(
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        1.5
+    );
+  }
 }
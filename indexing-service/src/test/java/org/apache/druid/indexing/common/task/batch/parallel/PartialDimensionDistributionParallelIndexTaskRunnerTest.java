@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.common.task.batch.parallel;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class PartialDimensionDistributionParallelIndexTaskRunnerTest
+{
+  @Test
+  public void testSampleAll()
+  {
+    final List<Integer> elements = createElements(10);
+    Assert.assertEquals(elements, sample(elements, 1.0));
+  }
+
+  @Test
+  public void testSampleSpreadsEvenly()
+  {
+    Assert.assertEquals(ImmutableList.of(0, 10, 20, 30, 40), sample(createElements(50), 0.1));
+    Assert.assertEquals(ImmutableList.of(0, 2, 4, 6, 8), sample(createElements(10), 0.5));
+    Assert.assertEquals(ImmutableList.of(0, 4, 8), sample(createElements(10), 0.25));
+  }
+
+  @Test
+  public void testSampleAtLeastOne()
+  {
+    Assert.assertEquals(ImmutableList.of(0), sample(createElements(5), 0.01));
+    Assert.assertEquals(Collections.emptyList(), sample(Collections.emptyList(), 0.01));
+  }
+
+  @Test
+  public void testSampleSizeMatchesEstimate()
+  {
+    for (double ratio : new double[]{0.01, 0.1, 0.3, 0.5, 0.99, 1.0}) {
+      for (int numElements : new int[]{0, 1, 7, 100, 1001}) {
+        Assert.assertEquals(
+            PartialDimensionDistributionParallelIndexTaskRunner.estimateNumSamples(numElements, ratio),
+            sample(createElements(numElements), ratio).size()
+        );
+      }
+    }
+  }
+
+  @Test
+  public void testSampledFraction()
+  {
+    // The number of samples is rounded up, so the actual fraction can be much larger than the ratio for small inputs
+    Assert.assertEquals(1.0 / 3, sampledFraction(createElements(3), 0.1), 0);
+    Assert.assertEquals(0.1, sampledFraction(createElements(100), 0.1), 0);
+    Assert.assertEquals(1.0, sampledFraction(createElements(10), 1.0), 0);
+    Assert.assertEquals(1.0, sampledFraction(Collections.emptyList(), 0.1), 0);
+  }
+
+  @Test
+  public void testScaleForSampling()
+  {
+    Assert.assertEquals(1000, ParallelIndexSupervisorTask.scaleForSampling(1000, 1.0));
+    Assert.assertEquals(100, ParallelIndexSupervisorTask.scaleForSampling(1000, 0.1));
+    Assert.assertEquals(1, ParallelIndexSupervisorTask.scaleForSampling(3, 0.1));
+  }
+
+  private static List<Integer> createElements(int numElements)
+  {
+    return IntStream.range(0, numElements).boxed().collect(Collectors.toList());
+  }
+
+  private static <T> double sampledFraction(List<T> elements, double ratio)
+  {
+    final PartialDimensionDistributionParallelIndexTaskRunner.SamplingIterator<T> iterator =
+        PartialDimensionDistributionParallelIndexTaskRunner.sample(elements.iterator(), ratio);
+    iterator.forEachRemaining(element -> {});
+    return iterator.getSampledFraction();
+  }
+
+  private static <T> List<T> sample(List<T> elements, double ratio)
+  {
+    return Lists.newArrayList(PartialDimensionDistributionParallelIndexTaskRunner.sample(elements.iterator(), ratio));
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.indexing.input;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.druid.data.input.InputRowSchema;
+import org.apache.druid.data.input.impl.DimensionsSpec;
+import org.apache.druid.data.input.impl.TimestampSpec;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.math.expr.ExprMacroTable;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.query.aggregation.CountAggregatorFactory;
+import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
+import org.apache.druid.query.filter.SelectorDimFilter;
+import org.apache.druid.segment.indexing.DataSchema;
+import org.apache.druid.segment.indexing.granularity.UniformGranularitySpec;
+import org.apache.druid.segment.transform.ExpressionTransform;
+import org.apache.druid.segment.transform.RowFunction;
+import org.apache.druid.segment.transform.Transform;
+import org.apache.druid.segment.transform.TransformSpec;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InputRowSchemasTest
+{
+  private static final AggregatorFactory[] AGGREGATORS = new AggregatorFactory[]{
+      new CountAggregatorFactory("count"),
+      new LongSumAggregatorFactory("sum_added", "added")
+  };
+
+  @Test
+  public void testFromDataSchema()
+  {
+    final InputRowSchema schema = InputRowSchemas.fromDataSchema(
+        createDataSchema(
+            new TransformSpec(
+                new SelectorDimFilter("page", "foo", null),
+                ImmutableList.of(new ExpressionTransform("concatenated", "concat(dim1, dim2)", ExprMacroTable.nil()))
+            )
+        )
+    );
+    Assert.assertEquals(ImmutableList.of("count", "sum_added"), schema.getMetricNames());
+    Assert.assertEquals(
+        ImmutableSet.of("added", "page", "dim1", "dim2"),
+        schema.getMetricAndTransformInputColumns()
+    );
+  }
+
+  @Test
+  public void testFromDataSchemaWithUnknownTransformInputs()
+  {
+    final Transform transform = new Transform()
+    {
+      @Override
+      public String getName()
+      {
+        return "unknown";
+      }
+
+      @Override
+      public RowFunction getRowFunction()
+      {
+        return row -> null;
+      }
+    };
+    final InputRowSchema schema = InputRowSchemas.fromDataSchema(
+        createDataSchema(new TransformSpec(null, ImmutableList.of(transform)))
+    );
+    Assert.assertNull(schema.getMetricAndTransformInputColumns());
+  }
+
+  private static DataSchema createDataSchema(TransformSpec transformSpec)
+  {
+    return new DataSchema(
+        "dataSource",
+        new TimestampSpec("ts", "auto", null),
+        new DimensionsSpec(DimensionsSpec.getDefaultSchemas(ImmutableList.of("page"))),
+        AGGREGATORS,
+        new UniformGranularitySpec(Granularities.DAY, Granularities.NONE, null),
+        transformSpec
+    );
+  }
+}
@@ -123,6 +123,34 @@ public class SupervisorManagerTest extends EasyMockSupport
     Assert.assertTrue(manager.getSupervisorIds().isEmpty());
   }
 
+  @Test
+  public void testPersistSupervisorSpec()
+  {
+    SupervisorSpec spec = new TestSupervisorSpec("id1", supervisor1);
+    SupervisorSpec spec2 = new TestSupervisorSpec("id1", supervisor2);
+
+    EasyMock.expect(metadataSupervisorManager.getLatest()).andReturn(ImmutableMap.of("id1", spec));
+    supervisor1.start();
+    metadataSupervisorManager.insert("id1", spec);
+    replayAll();
+
+    manager.start();
+    Assert.assertTrue(manager.persistSupervisorSpec(spec));
+    verifyAll();
+
+    // the spec of a replaced or removed supervisor is not stored again
+    resetAll();
+    metadataSupervisorManager.insert("id1", spec2);
+    supervisor1.stop(true);
+    supervisor2.start();
+    replayAll();
+
+    manager.createOrUpdateAndStartSupervisor(spec2);
+    Assert.assertFalse(manager.persistSupervisorSpec(spec));
+    Assert.assertFalse(manager.persistSupervisorSpec(new TestSupervisorSpec("id2", supervisor3)));
+    verifyAll();
+  }
+
   @Test
   public void testCreateOrUpdateAndStartSupervisorNotStarted()
   {
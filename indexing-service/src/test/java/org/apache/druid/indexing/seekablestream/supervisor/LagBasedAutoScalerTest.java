@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.seekablestream.supervisor;
+
+import org.joda.time.Period;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LagBasedAutoScalerTest
+{
+  private static final int NUM_PARTITIONS = 16;
+  private static final long COOLDOWN_MILLIS = Period.minutes(10).toStandardDuration().getMillis();
+
+  // 4 samples per decision, scale out above 1000 in half of the samples, scale in below 100 in all samples
+  private final LagBasedAutoScaler autoScaler = new LagBasedAutoScaler(
+      new LagBasedAutoScalerConfig(
+          2,
+          8,
+          Period.seconds(30),
+          Period.minutes(2),
+          1000L,
+          0.5,
+          100L,
+          1.0,
+          2,
+          1,
+          Period.minutes(10)
+      )
+  );
+
+  @Test
+  public void testBoundTaskCount()
+  {
+    Assert.assertEquals(2, autoScaler.boundTaskCount(1));
+    Assert.assertEquals(5, autoScaler.boundTaskCount(5));
+    Assert.assertEquals(8, autoScaler.boundTaskCount(10));
+  }
+
+  @Test
+  public void testNoDecisionBeforeEnoughSamples()
+  {
+    addSamples(5000, 5000, 5000);
+    Assert.assertEquals(4, autoScaler.computeDesiredTaskCount(4, NUM_PARTITIONS, 0));
+    Assert.assertEquals(3, autoScaler.getNumLagSamples());
+  }
+
+  @Test
+  public void testScaleOut()
+  {
+    addSamples(500, 800, 1500, 2000);
+    Assert.assertEquals(6, autoScaler.computeDesiredTaskCount(4, NUM_PARTITIONS, 0));
+    Assert.assertEquals(0, autoScaler.getNumLagSamples());
+  }
+
+  @Test
+  public void testNoScaleOutIfLagIsDecreasing()
+  {
+    addSamples(5000, 4000, 3000, 2000);
+    Assert.assertEquals(4, autoScaler.computeDesiredTaskCount(4, NUM_PARTITIONS, 0));
+    Assert.assertEquals(4, autoScaler.getNumLagSamples());
+  }
+
+  @Test
+  public void testScaleOutBoundedByTaskCountMaxAndPartitions()
+  {
+    addSamples(5000, 5000, 5000, 5000);
+    Assert.assertEquals(8, autoScaler.computeDesiredTaskCount(7, NUM_PARTITIONS, 0));
+
+    addSamples(5000, 5000, 5000, 5000);
+    Assert.assertEquals(3, autoScaler.computeDesiredTaskCount(2, 3, COOLDOWN_MILLIS));
+
+    addSamples(5000, 5000, 5000, 5000);
+    Assert.assertEquals(8, autoScaler.computeDesiredTaskCount(8, NUM_PARTITIONS, 2 * COOLDOWN_MILLIS));
+  }
+
+  @Test
+  public void testScaleIn()
+  {
+    addSamples(10, 0, 50, 99);
+    Assert.assertEquals(3, autoScaler.computeDesiredTaskCount(4, NUM_PARTITIONS, 0));
+
+    addSamples(0, 0, 0, 0);
+    Assert.assertEquals(2, autoScaler.computeDesiredTaskCount(2, NUM_PARTITIONS, COOLDOWN_MILLIS));
+  }
+
+  @Test
+  public void testNoScaleInIfAnySampleIsAboveThreshold()
+  {
+    addSamples(10, 0, 500, 50);
+    Assert.assertEquals(4, autoScaler.computeDesiredTaskCount(4, NUM_PARTITIONS, 0));
+  }
+
+  @Test
+  public void testOnlyLatestSamplesAreUsed()
+  {
+    addSamples(5000, 5000, 5000, 5000, 0, 0, 0, 0);
+    Assert.assertEquals(4, autoScaler.getNumLagSamples());
+    Assert.assertEquals(3, autoScaler.computeDesiredTaskCount(4, NUM_PARTITIONS, 0));
+  }
+
+  @Test
+  public void testResetLagSamples()
+  {
+    addSamples(5000, 5000, 5000);
+    autoScaler.resetLagSamples();
+    Assert.assertEquals(0, autoScaler.getNumLagSamples());
+
+    addSamples(5000);
+    Assert.assertEquals(4, autoScaler.computeDesiredTaskCount(4, NUM_PARTITIONS, 0));
+  }
+
+  @Test
+  public void testNoScaleActionDuringCooldown()
+  {
+    addSamples(5000, 5000, 5000, 5000);
+    Assert.assertEquals(6, autoScaler.computeDesiredTaskCount(4, NUM_PARTITIONS, 0));
+
+    addSamples(5000, 5000, 5000, 5000);
+    Assert.assertEquals(6, autoScaler.computeDesiredTaskCount(6, NUM_PARTITIONS, COOLDOWN_MILLIS - 1));
+    Assert.assertEquals(8, autoScaler.computeDesiredTaskCount(6, NUM_PARTITIONS, COOLDOWN_MILLIS));
+  }
+
+  private void addSamples(long... lags)
+  {
+    for (long lag : lags) {
+      autoScaler.addLagSample(lag);
+    }
+  }
+}
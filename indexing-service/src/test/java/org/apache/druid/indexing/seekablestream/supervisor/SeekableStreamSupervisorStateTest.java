@@ -713,7 +713,8 @@ public class SeekableStreamSupervisorStateTest extends EasyMockSupport
         false,
         new Period("PT30M"),
         null,
-        null, null
+        null, null,
+        null
     )
     {
     }).anyTimes();
@@ -767,7 +768,8 @@ public class SeekableStreamSupervisorStateTest extends EasyMockSupport
         false,
         new Period("PT30M"),
         null,
-        null, null
+        null, null,
+        null
     )
     {
     };
@@ -841,6 +843,10 @@ public class SeekableStreamSupervisorStateTest extends EasyMockSupport
             null,
             null,
             null,
+            null,
+            null,
+            null,
+            null,
             null
         )
         {
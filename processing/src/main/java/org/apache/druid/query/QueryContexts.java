@@ -52,12 +52,15 @@ public class QueryContexts
   public static final String JOIN_FILTER_REWRITE_ENABLE_KEY = "enableJoinFilterRewrite";
   public static final String JOIN_FILTER_REWRITE_VALUE_COLUMN_FILTERS_ENABLE_KEY = "enableJoinFilterRewriteValueColumnFilters";
   public static final String JOIN_FILTER_REWRITE_MAX_SIZE_KEY = "joinFilterRewriteMaxSize";
+  public static final String COALESCE_QUERIES_KEY = "coalesceQueries";
+  public static final String HEDGE_REQUESTS_KEY = "hedgeRequests";
 
   public static final boolean DEFAULT_BY_SEGMENT = false;
   public static final boolean DEFAULT_POPULATE_CACHE = true;
   public static final boolean DEFAULT_USE_CACHE = true;
   public static final boolean DEFAULT_POPULATE_RESULTLEVEL_CACHE = true;
   public static final boolean DEFAULT_USE_RESULTLEVEL_CACHE = true;
+  public static final boolean DEFAULT_COALESCE_QUERIES = true;
   public static final Vectorize DEFAULT_VECTORIZE = Vectorize.FALSE;
   public static final int DEFAULT_PRIORITY = 0;
   public static final int DEFAULT_UNCOVERED_INTERVALS_LIMIT = 0;
@@ -164,6 +167,16 @@ public class QueryContexts
     return parseBoolean(query, "useResultLevelCache", defaultValue);
   }
 
+  public static <T> boolean isCoalesceQueries(Query<T> query)
+  {
+    return parseBoolean(query, COALESCE_QUERIES_KEY, DEFAULT_COALESCE_QUERIES);
+  }
+
+  public static <T> boolean isHedgeRequests(Query<T> query, boolean defaultValue)
+  {
+    return parseBoolean(query, HEDGE_REQUESTS_KEY, defaultValue);
+  }
+
   public static <T> boolean isFinalize(Query<T> query, boolean defaultValue)
   {
     return parseBoolean(query, FINALIZE_KEY, defaultValue);
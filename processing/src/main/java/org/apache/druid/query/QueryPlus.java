@@ -65,6 +65,15 @@ public final class QueryPlus<T>
     return queryMetrics;
   }
 
+  /**
+   * Returns the identity of the user that issued this query, if known.
+   */
+  @Nullable
+  public String getIdentity()
+  {
+    return identity;
+  }
+
   /**
    * Returns the same QueryPlus object with the identity replaced. This new identity will affect future calls to
    * {@link #withoutQueryMetrics()} but will not affect any currently-existing queryMetrics.
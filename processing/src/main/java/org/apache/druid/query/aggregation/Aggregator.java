@@ -38,6 +38,21 @@ public interface Aggregator extends Closeable
 {
   void aggregate();
 
+  /**
+   * Same as {@link #aggregate()}, but also returns the number of bytes by which the on-heap memory held by this
+   * aggregator grew, so that callers sizing in-memory data (such as
+   * {@link org.apache.druid.segment.incremental.OnheapIncrementalIndex}) can account for aggregators whose state grows
+   * with the aggregated values. The initial size of the aggregator is given by
+   * {@link AggregatorFactory#factorizeWithSize}.
+   *
+   * The default implementation calls {@link #aggregate()} and returns 0, which is right for fixed-size aggregators.
+   */
+  default long aggregateWithSize()
+  {
+    aggregate();
+    return 0;
+  }
+
   @Nullable
   Object get();
   float getFloat();
@@ -54,6 +54,19 @@ public abstract class AggregatorFactory implements Cacheable
 
   public abstract Aggregator factorize(ColumnSelectorFactory metricFactory);
 
+  /**
+   * Creates an {@link Aggregator} like {@link #factorize}, along with the number of bytes of on-heap memory it holds
+   * right after creation. Further growth of the aggregator is reported by {@link Aggregator#aggregateWithSize()}.
+   *
+   * The default implementation assumes a fixed-size aggregator and returns {@link #getMaxIntermediateSizeWithNulls()}.
+   * Aggregators whose state grows with the aggregated values should override this method, together with
+   * {@link Aggregator#aggregateWithSize()}, rather than reserving their maximum size up front.
+   */
+  public AggregatorAndSize factorizeWithSize(ColumnSelectorFactory metricFactory)
+  {
+    return new AggregatorAndSize(factorize(metricFactory), getMaxIntermediateSizeWithNulls());
+  }
+
   public abstract BufferAggregator factorizeBuffered(ColumnSelectorFactory metricFactory);
 
   /**
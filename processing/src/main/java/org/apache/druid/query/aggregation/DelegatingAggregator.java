@@ -35,6 +35,12 @@ public abstract class DelegatingAggregator implements Aggregator
     delegate.aggregate();
   }
 
+  @Override
+  public long aggregateWithSize()
+  {
+    return delegate.aggregateWithSize();
+  }
+
   @Nullable
   @Override
   public Object get()
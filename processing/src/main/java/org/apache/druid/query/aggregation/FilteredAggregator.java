@@ -40,6 +40,15 @@ public class FilteredAggregator implements Aggregator
     }
   }
 
+  @Override
+  public long aggregateWithSize()
+  {
+    if (matcher.matches()) {
+      return delegate.aggregateWithSize();
+    }
+    return 0;
+  }
+
   @Override
   public Object get()
   {
@@ -85,6 +85,17 @@ public class FilteredAggregatorFactory extends AggregatorFactory
     );
   }
 
+  @Override
+  public AggregatorAndSize factorizeWithSize(ColumnSelectorFactory columnSelectorFactory)
+  {
+    final ValueMatcher valueMatcher = filter.makeMatcher(columnSelectorFactory);
+    final AggregatorAndSize delegateAggregatorAndSize = delegate.factorizeWithSize(columnSelectorFactory);
+    return new AggregatorAndSize(
+        new FilteredAggregator(valueMatcher, delegateAggregatorAndSize.getAggregator()),
+        delegateAggregatorAndSize.getInitialSizeBytes()
+    );
+  }
+
   @Override
   public BufferAggregator factorizeBuffered(ColumnSelectorFactory columnSelectorFactory)
   {
@@ -43,7 +43,9 @@ import org.apache.druid.query.groupby.epinephelinae.VectorGrouper;
 import org.apache.druid.query.vector.VectorCursorGranularizer;
 import org.apache.druid.segment.DimensionHandlerUtils;
 import org.apache.druid.segment.StorageAdapter;
+import org.apache.druid.segment.column.ColumnCapabilities;
 import org.apache.druid.segment.filter.Filters;
+import org.apache.druid.segment.incremental.IncrementalIndexStorageAdapter;
 import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
 import org.apache.druid.segment.vector.VectorCursor;
 import org.joda.time.DateTime;
@@ -56,6 +58,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class VectorGroupByEngine
@@ -83,7 +86,14 @@ public class VectorGroupByEngine
     // This situation should sort itself out pretty well once this engine supports multi-valued columns. Then we
     // won't have to worry about having this all-single-value-dims check here.
 
-    return GroupByQueryEngineV2.isAllSingleValueDims(adapter::getColumnCapabilities, query.getDimensions())
+    // IncrementalIndexStorageAdapter reports all string columns as multi-value, which only matters for its
+    // non-vectorized cursors.
+    final Function<String, ColumnCapabilities> capabilitiesFunction =
+        adapter instanceof IncrementalIndexStorageAdapter
+        ? ((IncrementalIndexStorageAdapter) adapter)::getVectorColumnCapabilities
+        : adapter::getColumnCapabilities;
+
+    return GroupByQueryEngineV2.isAllSingleValueDims(capabilitiesFunction, query.getDimensions())
            && query.getDimensions().stream().allMatch(DimensionSpec::canVectorize)
            && query.getAggregatorSpecs().stream().allMatch(AggregatorFactory::canVectorize)
            && adapter.canVectorize(filter, query.getVirtualColumns(), false);
@@ -303,12 +313,16 @@ public class VectorGroupByEngine
     {
       final VectorGrouper grouper;
 
-      final int cardinalityForArrayAggregation = GroupByQueryEngineV2.getCardinalityForArrayAggregation(
-          querySpecificConfig,
-          query,
-          storageAdapter,
-          processingBuffer
-      );
+      // Selectors over incremental indexes may give null an id beyond the cardinality of the adapter, so they can't use
+      // array-based aggregation. See IncrementalIndexVectorColumnSelectorFactory.
+      final int cardinalityForArrayAggregation = storageAdapter instanceof IncrementalIndexStorageAdapter
+                                                 ? -1
+                                                 : GroupByQueryEngineV2.getCardinalityForArrayAggregation(
+                                                     querySpecificConfig,
+                                                     query,
+                                                     storageAdapter,
+                                                     processingBuffer
+                                                 );
 
       if (cardinalityForArrayAggregation >= 0) {
         grouper = new BufferArrayGrouper(
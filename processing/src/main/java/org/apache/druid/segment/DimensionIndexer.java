@@ -136,6 +136,18 @@ public interface DimensionIndexer
    */
   long estimateEncodedKeyComponentSize(EncodedKeyComponentType key);
 
+  /**
+   * Gives the estimated on-heap size in bytes of the values this indexer keeps in its dictionary, if it has one.
+   * Dictionary values are stored once per indexer, so they are not part of
+   * {@link #estimateEncodedKeyComponentSize}. The default implementation is for indexers without a dictionary.
+   *
+   * @return the estimated size in bytes of the dictionary
+   */
+  default long estimateDictionarySizeInBytes()
+  {
+    return 0;
+  }
+
   /**
    * Given an encoded value that was ordered by associated actual value, return the equivalent
    * encoded value ordered by time of ingestion.
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.annotations.VisibleForTesting;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Configuration of {@link IndexMergerV9}, bound to "druid.indexer.merge".
+ */
+public class IndexMergerConfig
+{
+  /**
+   * Number of threads {@link IndexMergerV9} uses to write dimension dictionaries and bitmap indexes of different
+   * columns in parallel. The threads are shared by all merges of the process. Rows are still walked by a single thread.
+   */
+  @JsonProperty
+  @Min(1)
+  private int numColumnThreads = 1;
+
+  public IndexMergerConfig()
+  {
+  }
+
+  @VisibleForTesting
+  public IndexMergerConfig(int numColumnThreads)
+  {
+    this.numColumnThreads = numColumnThreads;
+  }
+
+  public int getNumColumnThreads()
+  {
+    return numColumnThreads;
+  }
+}
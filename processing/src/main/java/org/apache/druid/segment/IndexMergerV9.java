@@ -21,6 +21,9 @@ package org.apache.druid.segment;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -34,6 +37,7 @@ import org.apache.druid.java.util.common.FileUtils;
 import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.JodaUtils;
+import org.apache.druid.java.util.common.concurrent.Execs;
 import org.apache.druid.java.util.common.guava.Comparators;
 import org.apache.druid.java.util.common.io.Closer;
 import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
@@ -59,6 +63,7 @@ import org.apache.druid.segment.serde.FloatNumericColumnPartSerde;
 import org.apache.druid.segment.serde.FloatNumericColumnPartSerdeV2;
 import org.apache.druid.segment.serde.LongNumericColumnPartSerde;
 import org.apache.druid.segment.serde.LongNumericColumnPartSerdeV2;
+import org.apache.druid.segment.writeout.ChildSegmentWriteOutMedium;
 import org.apache.druid.segment.writeout.SegmentWriteOutMedium;
 import org.apache.druid.segment.writeout.SegmentWriteOutMediumFactory;
 import org.joda.time.DateTime;
@@ -80,31 +85,70 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class IndexMergerV9 implements IndexMerger
 {
   private static final Logger log = new Logger(IndexMergerV9.class);
+  private static final long COLUMN_THREAD_KEEP_ALIVE_SECONDS = 60;
 
   private final ObjectMapper mapper;
   private final IndexIO indexIO;
   private final SegmentWriteOutMediumFactory defaultSegmentWriteOutMediumFactory;
+  private final IndexMergerConfig config;
+
+  /**
+   * Pool writing the columns of all merges done by this merger, created on first use, so that concurrent merges don't
+   * add up to more than numColumnThreads column threads. Idle threads exit, so the pool needs no shutdown.
+   */
+  private final Supplier<ExecutorService> columnExecutorSupplier;
 
   @Inject
-  public IndexMergerV9(ObjectMapper mapper, IndexIO indexIO, SegmentWriteOutMediumFactory defaultSegmentWriteOutMediumFactory)
+  public IndexMergerV9(
+      ObjectMapper mapper,
+      IndexIO indexIO,
+      SegmentWriteOutMediumFactory defaultSegmentWriteOutMediumFactory,
+      IndexMergerConfig config
+  )
   {
     this.mapper = Preconditions.checkNotNull(mapper, "null ObjectMapper");
     this.indexIO = Preconditions.checkNotNull(indexIO, "null IndexIO");
     this.defaultSegmentWriteOutMediumFactory =
         Preconditions.checkNotNull(defaultSegmentWriteOutMediumFactory, "null SegmentWriteOutMediumFactory");
+    this.config = Preconditions.checkNotNull(config, "null IndexMergerConfig");
+    this.columnExecutorSupplier = Suppliers.memoize(
+        () -> {
+          final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+              config.getNumColumnThreads(),
+              config.getNumColumnThreads(),
+              COLUMN_THREAD_KEEP_ALIVE_SECONDS,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              Execs.makeThreadFactory("IndexMergerV9-column-%d")
+          );
+          executor.allowCoreThreadTimeOut(true);
+          return executor;
+        }
+    );
+  }
+
+  public IndexMergerV9(ObjectMapper mapper, IndexIO indexIO, SegmentWriteOutMediumFactory defaultSegmentWriteOutMediumFactory)
+  {
+    this(mapper, indexIO, defaultSegmentWriteOutMediumFactory, new IndexMergerConfig());
   }
 
   private File makeIndexFiles(
       final List<IndexableAdapter> adapters,
       final @Nullable AggregatorFactory[] metricAggs,
       final File outDir,
-      final ProgressIndicator progress,
+      final ProgressIndicator progressIndicator,
       final List<String> mergedDimensions,
       final List<String> mergedMetrics,
       final Function<List<TransformableRowIterator>, TimeAndDimsIterator> rowMergerFn,
@@ -113,6 +157,15 @@ public class IndexMergerV9 implements IndexMerger
       final @Nullable SegmentWriteOutMediumFactory segmentWriteOutMediumFactory
   ) throws IOException
   {
+    // Dictionaries and bitmap indexes of different dimensions are written by a pool of threads when configured.
+    // Every column writer then gets its own child of the write-out medium, and the output stays the same as the
+    // columns are still added to the smoosher in order by this thread. Progress indicators are not thread-safe, so
+    // the column threads and this thread report through a synchronized one.
+    final ExecutorService columnExecutor =
+        Math.min(config.getNumColumnThreads(), mergedDimensions.size()) > 1 ? columnExecutorSupplier.get() : null;
+    final ProgressIndicator progress =
+        columnExecutor == null ? progressIndicator : new SynchronizedProgressIndicator(progressIndicator);
+
     progress.start();
     progress.progress();
 
@@ -166,13 +219,25 @@ public class IndexMergerV9 implements IndexMerger
       final List<DimensionMergerV9> mergers = new ArrayList<>();
       for (int i = 0; i < mergedDimensions.size(); i++) {
         DimensionHandler handler = handlers.get(mergedDimensions.get(i));
-        mergers.add(handler.makeMerger(indexSpec, segmentWriteOutMedium, dimCapabilities.get(i), progress, closer));
+        if (columnExecutor == null) {
+          mergers.add(handler.makeMerger(indexSpec, segmentWriteOutMedium, dimCapabilities.get(i), progress, closer));
+        } else {
+          mergers.add(
+              handler.makeMerger(
+                  indexSpec,
+                  new ChildSegmentWriteOutMedium(segmentWriteOutMedium),
+                  dimCapabilities.get(i),
+                  progress,
+                  closer.register(Closer.create())
+              )
+          );
+        }
       }
 
       /************* Setup Dim Conversions **************/
       progress.progress();
       startTime = System.currentTimeMillis();
-      writeDimValuesAndSetupDimConversion(adapters, progress, mergedDimensions, mergers);
+      writeDimValuesAndSetupDimConversion(adapters, progress, mergedDimensions, mergers, columnExecutor);
       log.debug("Completed dim conversions in %,d millis.", System.currentTimeMillis() - startTime);
 
       /************* Walk through data sets, merge them, and write merged columns *************/
@@ -186,10 +251,13 @@ public class IndexMergerV9 implements IndexMerger
           mergers
       );
       closer.register(timeAndDimsIterator);
-      final GenericColumnSerializer timeWriter = setupTimeWriter(segmentWriteOutMedium, indexSpec);
+      final SegmentWriteOutMedium rowMedium = columnExecutor == null
+                                              ? segmentWriteOutMedium
+                                              : new ChildSegmentWriteOutMedium(segmentWriteOutMedium);
+      final GenericColumnSerializer timeWriter = setupTimeWriter(rowMedium, indexSpec);
       final ArrayList<GenericColumnSerializer> metricWriters =
-          setupMetricsWriters(segmentWriteOutMedium, mergedMetrics, metricsValueTypes, metricTypeNames, indexSpec);
-      List<IntBuffer> rowNumConversions = mergeIndexesAndWriteColumns(
+          setupMetricsWriters(rowMedium, mergedMetrics, metricsValueTypes, metricTypeNames, indexSpec);
+      final List<IntBuffer> rowNumConversions = mergeIndexesAndWriteColumns(
           adapters,
           progress,
           timeAndDimsIterator,
@@ -202,6 +270,16 @@ public class IndexMergerV9 implements IndexMerger
       /************ Create Inverted Indexes and Finalize Build Columns *************/
       final String section = "build inverted index and columns";
       progress.startSection(section);
+      // Inverted indexes are built in the background while the time and metric columns are added.
+      final List<Future<?>> indexFutures = columnExecutor == null ? null : submitForEachDimension(
+          columnExecutor,
+          mergedDimensions.size(),
+          dimIndex -> mergers.get(dimIndex).writeIndexes(rowNumConversions)
+      );
+      if (indexFutures != null) {
+        // The pool outlives this merge, so stop the index writers if the columns below fail.
+        closer.register(() -> indexFutures.forEach(future -> future.cancel(true)));
+      }
       makeTimeColumn(v9Smoosher, progress, timeWriter, indexSpec);
       makeMetricsColumns(
           v9Smoosher,
@@ -213,9 +291,14 @@ public class IndexMergerV9 implements IndexMerger
           indexSpec
       );
 
+      if (indexFutures != null) {
+        waitForAll(indexFutures);
+      }
       for (int i = 0; i < mergedDimensions.size(); i++) {
         DimensionMergerV9 merger = mergers.get(i);
-        merger.writeIndexes(rowNumConversions);
+        if (indexFutures == null) {
+          merger.writeIndexes(rowNumConversions);
+        }
         if (merger.canSkip()) {
           continue;
         }
@@ -693,18 +776,119 @@ public class IndexMergerV9 implements IndexMerger
       final List<IndexableAdapter> indexes,
       final ProgressIndicator progress,
       final List<String> mergedDimensions,
-      final List<DimensionMergerV9> mergers
+      final List<DimensionMergerV9> mergers,
+      @Nullable final ExecutorService columnExecutor
   ) throws IOException
   {
     final String section = "setup dimension conversions";
     progress.startSection(section);
 
-    for (int dimIndex = 0; dimIndex < mergedDimensions.size(); ++dimIndex) {
-      mergers.get(dimIndex).writeMergedValueDictionary(indexes);
+    if (columnExecutor == null) {
+      for (int dimIndex = 0; dimIndex < mergedDimensions.size(); ++dimIndex) {
+        mergers.get(dimIndex).writeMergedValueDictionary(indexes);
+      }
+    } else {
+      waitForAll(
+          submitForEachDimension(
+              columnExecutor,
+              mergedDimensions.size(),
+              dimIndex -> mergers.get(dimIndex).writeMergedValueDictionary(indexes)
+          )
+      );
     }
     progress.stopSection(section);
   }
 
+  private static List<Future<?>> submitForEachDimension(
+      final ExecutorService columnExecutor,
+      final int numDimensions,
+      final DimensionTask task
+  )
+  {
+    final List<Future<?>> futures = new ArrayList<>(numDimensions);
+    for (int i = 0; i < numDimensions; i++) {
+      final int dimIndex = i;
+      futures.add(
+          columnExecutor.submit(
+              () -> {
+                task.run(dimIndex);
+                return null;
+              }
+          )
+      );
+    }
+    return futures;
+  }
+
+  private static void waitForAll(final List<Future<?>> futures) throws IOException
+  {
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), IOException.class);
+      throw new RuntimeException(e.getCause());
+    }
+    finally {
+      // only has an effect if a task failed
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface DimensionTask
+  {
+    void run(int dimIndex) throws IOException;
+  }
+
+  private static class SynchronizedProgressIndicator implements ProgressIndicator
+  {
+    private final ProgressIndicator delegate;
+
+    private SynchronizedProgressIndicator(ProgressIndicator delegate)
+    {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void progress()
+    {
+      delegate.progress();
+    }
+
+    @Override
+    public synchronized void start()
+    {
+      delegate.start();
+    }
+
+    @Override
+    public synchronized void stop()
+    {
+      delegate.stop();
+    }
+
+    @Override
+    public synchronized void startSection(String section)
+    {
+      delegate.startSection(section);
+    }
+
+    @Override
+    public synchronized void stopSection(String section)
+    {
+      delegate.stopSection(section);
+    }
+  }
+
   private void mergeCapabilities(
       final List<IndexableAdapter> adapters,
       final List<String> mergedDimensions,
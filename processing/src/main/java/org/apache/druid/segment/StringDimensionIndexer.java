@@ -23,10 +23,9 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.collect.Lists;
 import com.google.common.primitives.Ints;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
 import it.unimi.dsi.fastutil.ints.IntArrays;
 import it.unimi.dsi.fastutil.ints.IntIterator;
-import it.unimi.dsi.fastutil.objects.Object2IntMap;
-import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntRBTreeMap;
 import it.unimi.dsi.fastutil.objects.Object2IntSortedMap;
 import org.apache.druid.collections.bitmap.BitmapFactory;
@@ -50,12 +49,11 @@ import org.apache.druid.segment.incremental.IncrementalIndexRow;
 import org.apache.druid.segment.incremental.IncrementalIndexRowHolder;
 
 import javax.annotation.Nullable;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class StringDimensionIndexer implements DimensionIndexer<Integer, int[], String>
 {
@@ -68,124 +66,122 @@ public class StringDimensionIndexer implements DimensionIndexer<Integer, int[],
 
   private static final int ABSENT_VALUE_ID = -1;
 
+  /**
+   * Append-only dictionary of the values of a dimension. Lookups of existing values and ids never block: ids are
+   * kept in a {@link ConcurrentHashMap} and values in an array that is only ever replaced by a larger copy. Only the
+   * insertion of a new value is serialized, so ingestion does not contend with queries reading the dictionary.
+   */
   private static class DimensionDictionary
   {
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * Estimated overhead of a value besides its characters: the {@link ConcurrentHashMap} node and boxed id in
+     * {@link #valueToId}, the String and char array headers and the slot in {@link #idToValue}.
+     */
+    private static final int ROUGH_OVERHEAD_PER_VALUE = 32 + 16 + 24 + 16 + Integer.BYTES;
+
     @Nullable
-    private String minValue = null;
+    private volatile String minValue = null;
     @Nullable
-    private String maxValue = null;
-    private int idForNull = ABSENT_VALUE_ID;
-
-    private final Object2IntMap<String> valueToId = new Object2IntOpenHashMap<>();
+    private volatile String maxValue = null;
+    private volatile int idForNull = ABSENT_VALUE_ID;
 
-    private final List<String> idToValue = new ArrayList<>();
-    private final ReentrantReadWriteLock lock;
+    private final ConcurrentHashMap<String, Integer> valueToId = new ConcurrentHashMap<>();
 
-    public DimensionDictionary()
-    {
-      this.lock = new ReentrantReadWriteLock();
-      valueToId.defaultReturnValue(-1);
-    }
+    private final Object appendLock = new Object();
+    /**
+     * Written before {@link #size} is incremented, so readers must read size first, see {@link #sort()}.
+     */
+    private volatile String[] idToValue = new String[INITIAL_CAPACITY];
+    private volatile int size = 0;
+    private volatile long sizeInBytes = 0;
 
     public int getId(@Nullable String value)
     {
-      lock.readLock().lock();
-      try {
-        if (value == null) {
-          return idForNull;
-        }
-        return valueToId.getInt(value);
-      }
-      finally {
-        lock.readLock().unlock();
+      if (value == null) {
+        return idForNull;
       }
+      final Integer id = valueToId.get(value);
+      return id == null ? ABSENT_VALUE_ID : id;
     }
 
     @Nullable
     public String getValue(int id)
     {
-      lock.readLock().lock();
-      try {
-        if (id == idForNull) {
-          return null;
-        }
-        return idToValue.get(id);
-      }
-      finally {
-        lock.readLock().unlock();
+      if (id == idForNull) {
+        return null;
       }
+      return idToValue[id];
     }
 
     public int size()
     {
-      lock.readLock().lock();
-      try {
-        // using idToValue rather than valueToId because the valueToId doesn't account null value, if it is present.
-        return idToValue.size();
-      }
-      finally {
-        lock.readLock().unlock();
-      }
+      // using idToValue rather than valueToId because the valueToId doesn't account null value, if it is present.
+      return size;
+    }
+
+    public long sizeInBytes()
+    {
+      return sizeInBytes;
     }
 
     public int add(@Nullable String originalValue)
     {
-      lock.writeLock().lock();
-      try {
-        if (originalValue == null) {
-          if (idForNull == ABSENT_VALUE_ID) {
-            idForNull = idToValue.size();
-            idToValue.add(null);
+      if (originalValue == null) {
+        if (idForNull == ABSENT_VALUE_ID) {
+          synchronized (appendLock) {
+            if (idForNull == ABSENT_VALUE_ID) {
+              idForNull = append(null);
+            }
           }
-          return idForNull;
         }
-        int prev = valueToId.getInt(originalValue);
-        if (prev >= 0) {
-          return prev;
+        return idForNull;
+      }
+      final Integer prev = valueToId.get(originalValue);
+      if (prev != null) {
+        return prev;
+      }
+      return valueToId.computeIfAbsent(originalValue, value -> {
+        synchronized (appendLock) {
+          final int index = append(value);
+          minValue = minValue == null || minValue.compareTo(value) > 0 ? value : minValue;
+          maxValue = maxValue == null || maxValue.compareTo(value) < 0 ? value : maxValue;
+          return index;
         }
-        final int index = idToValue.size();
-        valueToId.put(originalValue, index);
-        idToValue.add(originalValue);
-        minValue = minValue == null || minValue.compareTo(originalValue) > 0 ? originalValue : minValue;
-        maxValue = maxValue == null || maxValue.compareTo(originalValue) < 0 ? originalValue : maxValue;
-        return index;
-      }
-      finally {
-        lock.writeLock().unlock();
+      });
+    }
+
+    @GuardedBy("appendLock")
+    private int append(@Nullable String value)
+    {
+      final int index = size;
+      String[] values = idToValue;
+      if (index == values.length) {
+        values = Arrays.copyOf(values, values.length * 2);
+        values[index] = value;
+        idToValue = values;
+      } else {
+        values[index] = value;
       }
+      size = index + 1;
+      sizeInBytes += value == null ? Integer.BYTES : ROUGH_OVERHEAD_PER_VALUE + (long) value.length() * Character.BYTES;
+      return index;
     }
 
     public String getMinValue()
     {
-      lock.readLock().lock();
-      try {
-        return minValue;
-      }
-      finally {
-        lock.readLock().unlock();
-      }
+      return minValue;
     }
 
     public String getMaxValue()
     {
-      lock.readLock().lock();
-      try {
-        return maxValue;
-      }
-      finally {
-        lock.readLock().unlock();
-      }
+      return maxValue;
     }
 
     public SortedDimensionDictionary sort()
     {
-      lock.readLock().lock();
-      try {
-        return new SortedDimensionDictionary(idToValue, idToValue.size());
-      }
-      finally {
-        lock.readLock().unlock();
-      }
+      final int length = size;
+      return new SortedDimensionDictionary(Arrays.asList(idToValue), length);
     }
   }
 
@@ -304,19 +300,14 @@ public class StringDimensionIndexer implements DimensionIndexer<Integer, int[],
   @Override
   public long estimateEncodedKeyComponentSize(int[] key)
   {
-    // string length is being accounted for each time they are referenced, based on dimension handler interface,
-    // even though they are stored just once. It may overestimate the size by a bit, but we wanted to leave
-    // more buffer to be safe
-    long estimatedSize = key.length * Integer.BYTES;
-    long totalChars = 0;
-    for (int element : key) {
-      String val = dimLookup.getValue(element);
-      if (val != null) {
-        totalChars += val.length();
-      }
-    }
-    estimatedSize += totalChars * Character.BYTES;
-    return estimatedSize;
+    // the values themselves are stored just once, in the dictionary, see estimateDictionarySizeInBytes()
+    return key.length * Integer.BYTES;
+  }
+
+  @Override
+  public long estimateDictionarySizeInBytes()
+  {
+    return dimLookup.sizeInBytes();
   }
 
   public Integer getSortedEncodedValueFromUnsorted(Integer unsortedIntermediateValue)
@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.incremental;
+
+import com.google.common.base.Supplier;
+import org.apache.druid.data.input.InputRow;
+import org.apache.druid.java.util.common.logger.Logger;
+import org.apache.druid.java.util.common.parsers.ParseException;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.query.aggregation.BufferAggregator;
+import org.apache.druid.segment.ColumnSelectorFactory;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class of the {@link IncrementalIndex}es which aggregate rows with {@link BufferAggregator}s. The aggregators of
+ * a row are stored next to each other, starting at a position of a buffer chosen by the subclass.
+ */
+abstract class AbstractBufferIncrementalIndex extends IncrementalIndex<BufferAggregator>
+{
+  private static final Logger log = new Logger(AbstractBufferIncrementalIndex.class);
+
+  // assigned in initAggs(), which is called from the super constructor, so these must not have initializers
+  @Nullable
+  private volatile Map<String, ColumnSelectorFactory> selectors;
+
+  //given a ByteBuffer and an offset where all aggregates for a row are stored
+  //offset + aggOffsetInBuffer[i] would give position in ByteBuffer where ith aggregate
+  //is stored
+  @Nullable
+  private volatile int[] aggOffsetInBuffer;
+  private volatile int aggsTotalSize;
+
+  AbstractBufferIncrementalIndex(
+      IncrementalIndexSchema incrementalIndexSchema,
+      boolean deserializeComplexMetrics,
+      boolean reportParseExceptions,
+      boolean concurrentEventAdd
+  )
+  {
+    super(incrementalIndexSchema, deserializeComplexMetrics, reportParseExceptions, concurrentEventAdd);
+  }
+
+  /**
+   * @return the buffer holding the aggregators of the given row
+   */
+  protected abstract ByteBuffer getAggBuffer(int rowOffset);
+
+  /**
+   * @return the position of the aggregators of the given row in {@link #getAggBuffer}
+   */
+  protected abstract int getAggBufferPosition(int rowOffset);
+
+  /**
+   * @return number of bytes taken by the aggregators of a row
+   */
+  protected int getAggsTotalSize()
+  {
+    return aggsTotalSize;
+  }
+
+  @Override
+  protected BufferAggregator[] initAggs(
+      final AggregatorFactory[] metrics,
+      final Supplier<InputRow> rowSupplier,
+      final boolean deserializeComplexMetrics,
+      final boolean concurrentEventAdd
+  )
+  {
+    selectors = new HashMap<>();
+    aggOffsetInBuffer = new int[metrics.length];
+
+    int offset = 0;
+    for (int i = 0; i < metrics.length; i++) {
+      AggregatorFactory agg = metrics[i];
+
+      ColumnSelectorFactory columnSelectorFactory = makeColumnSelectorFactory(
+          agg,
+          rowSupplier,
+          deserializeComplexMetrics
+      );
+
+      selectors.put(
+          agg.getName(),
+          new OnheapIncrementalIndex.CachingColumnSelectorFactory(columnSelectorFactory, concurrentEventAdd)
+      );
+
+      aggOffsetInBuffer[i] = offset;
+      offset += agg.getMaxIntermediateSizeWithNulls();
+    }
+    aggsTotalSize = offset;
+
+    return new BufferAggregator[metrics.length];
+  }
+
+  /**
+   * Creates the aggregators if this is the first row. Must be called while holding the index lock.
+   */
+  protected void factorizeAggsIfNeeded(InputRow row, ThreadLocal<InputRow> rowContainer)
+  {
+    final AggregatorFactory[] metrics = getMetrics();
+    if (metrics.length > 0 && getAggs()[0] == null) {
+      // note: creation of Aggregators is done lazily when at least one row from input is available
+      // so that FilteredAggregators could be initialized correctly.
+      rowContainer.set(row);
+      for (int i = 0; i < metrics.length; i++) {
+        final AggregatorFactory agg = metrics[i];
+        getAggs()[i] = agg.factorizeBuffered(selectors.get(agg.getName()));
+      }
+      rowContainer.set(null);
+    }
+  }
+
+  /**
+   * Initializes the aggregators of a new row at the given position.
+   */
+  protected void initAggsAt(ByteBuffer buffer, int position)
+  {
+    final BufferAggregator[] aggs = getAggs();
+    for (int i = 0; i < aggs.length; i++) {
+      aggs[i].init(buffer, position + aggOffsetInBuffer[i]);
+    }
+  }
+
+  /**
+   * Aggregates the given row into the aggregators at the given position.
+   *
+   * @param parseExceptionMessages if not null, parse errors are collected in it. Otherwise, they are thrown if the
+   *                               index reports parse exceptions and skipped if it does not.
+   */
+  protected void aggregate(
+      InputRow row,
+      ThreadLocal<InputRow> rowContainer,
+      ByteBuffer buffer,
+      int position,
+      @Nullable List<String> parseExceptionMessages
+  )
+  {
+    final AggregatorFactory[] metrics = getMetrics();
+    rowContainer.set(row);
+
+    for (int i = 0; i < metrics.length; i++) {
+      final BufferAggregator agg = getAggs()[i];
+
+      synchronized (agg) {
+        try {
+          agg.aggregate(buffer, position + aggOffsetInBuffer[i]);
+        }
+        catch (ParseException e) {
+          // "aggregate" can throw ParseExceptions if a selector expects something but gets something else.
+          if (parseExceptionMessages == null && getReportParseExceptions()) {
+            throw new ParseException(e, "Encountered parse error for aggregator[%s]", metrics[i].getName());
+          }
+          log.debug(e, "Encountered parse error, skipping aggregator[%s].", metrics[i].getName());
+          if (parseExceptionMessages != null) {
+            parseExceptionMessages.add(e.getMessage());
+          }
+        }
+      }
+    }
+    rowContainer.set(null);
+  }
+
+  @Override
+  protected BufferAggregator[] getAggsForRow(int rowOffset)
+  {
+    return getAggs();
+  }
+
+  @Override
+  protected Object getAggVal(BufferAggregator agg, int rowOffset, int aggPosition)
+  {
+    return agg.get(getAggBuffer(rowOffset), getAggBufferPosition(rowOffset) + aggOffsetInBuffer[aggPosition]);
+  }
+
+  @Override
+  public float getMetricFloatValue(int rowOffset, int aggOffset)
+  {
+    return getAggs()[aggOffset].getFloat(getAggBuffer(rowOffset), getAggPosition(rowOffset, aggOffset));
+  }
+
+  @Override
+  public long getMetricLongValue(int rowOffset, int aggOffset)
+  {
+    return getAggs()[aggOffset].getLong(getAggBuffer(rowOffset), getAggPosition(rowOffset, aggOffset));
+  }
+
+  @Override
+  public Object getMetricObjectValue(int rowOffset, int aggOffset)
+  {
+    return getAggs()[aggOffset].get(getAggBuffer(rowOffset), getAggPosition(rowOffset, aggOffset));
+  }
+
+  @Override
+  public double getMetricDoubleValue(int rowOffset, int aggOffset)
+  {
+    return getAggs()[aggOffset].getDouble(getAggBuffer(rowOffset), getAggPosition(rowOffset, aggOffset));
+  }
+
+  @Override
+  public boolean isNull(int rowOffset, int aggOffset)
+  {
+    return getAggs()[aggOffset].isNull(getAggBuffer(rowOffset), getAggPosition(rowOffset, aggOffset));
+  }
+
+  /**
+   * NOTE: This is NOT thread-safe with add... so make sure all the adding is DONE before closing
+   */
+  @Override
+  public void close()
+  {
+    super.close();
+
+    if (selectors != null) {
+      selectors.clear();
+    }
+  }
+
+  private int getAggPosition(int rowOffset, int aggOffset)
+  {
+    return getAggBufferPosition(rowOffset) + aggOffsetInBuffer[aggOffset];
+  }
+}
@@ -97,6 +97,7 @@ import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 
 public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex implements Iterable<Row>, Closeable
@@ -250,6 +251,10 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
   private final Map<String, ColumnCapabilitiesImpl> columnCapabilities;
   private final AtomicInteger numEntries = new AtomicInteger();
   private final AtomicLong bytesInMemory = new AtomicLong();
+  // Components of bytesInMemory, see getBytesInMemory()
+  private final AtomicLong factsBytesInMemory = new AtomicLong();
+  private final AtomicLong aggregatorBytesInMemory = new AtomicLong();
+  private final AtomicLong dictionaryBytesInMemory = new AtomicLong();
 
   // This is modified on add() in a critical section.
   private final ThreadLocal<InputRow> in = new ThreadLocal<>();
@@ -429,7 +434,7 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
       return this;
     }
 
-    //maxBytesInMemory only applies to OnHeapIncrementalIndex
+    //maxBytesInMemory only applies to OnHeapIncrementalIndex and OffheapArenaIncrementalIndex
     public Builder setMaxBytesInMemory(final long maxBytesInMemory)
     {
       this.maxBytesInMemory = maxBytesInMemory;
@@ -469,6 +474,28 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
           Objects.requireNonNull(bufferPool, "bufferPool is null")
       );
     }
+
+    /**
+     * Builds an index that keeps row keys, facts and aggregator state in direct memory it allocates itself, see
+     * {@link OffheapArenaIncrementalIndex}. maxBytesInMemory bounds both the direct memory and the on-heap residue
+     * of the rows.
+     */
+    public OffheapArenaIncrementalIndex buildOffheapArena()
+    {
+      if (maxRowCount <= 0) {
+        throw new IllegalArgumentException("Invalid max row count: " + maxRowCount);
+      }
+
+      return new OffheapArenaIncrementalIndex(
+          Objects.requireNonNull(incrementalIndexSchema, "incrementalIndexSchema is null"),
+          deserializeComplexMetrics,
+          reportParseExceptions,
+          concurrentEventAdd,
+          sortFacts,
+          maxRowCount,
+          maxBytesInMemory
+      );
+    }
   }
 
   public boolean isRollup()
@@ -478,6 +505,15 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
 
   public abstract FactsHolder getFacts();
 
+  /**
+   * Returns the number of rows added so far that rolled up into a row recently added or rolled up into by the same
+   * thread, which was found without looking it up in the sorted facts.
+   */
+  public long getNumRowsRolledUpInBuffer()
+  {
+    return getFacts().getNumRowsRolledUpInBuffer();
+  }
+
   public abstract boolean canAppendRow();
 
   public abstract String getOutOfRowsReason();
@@ -644,6 +680,7 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
     Object[] dims;
     List<Object> overflow = null;
     long dimsKeySize = 0;
+    long dictionaryBytesAdded = 0;
     List<String> parseExceptionMessages = new ArrayList<>();
     synchronized (dimensionDescs) {
       dims = new Object[dimensionDescs.size()];
@@ -674,6 +711,7 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
         DimensionHandler handler = desc.getHandler();
         DimensionIndexer indexer = desc.getIndexer();
         Object dimsKey = null;
+        final long dictionarySizeBeforeAdd = indexer.estimateDictionarySizeInBytes();
         try {
           dimsKey = indexer.processRowValsToUnsortedEncodedKeyComponent(
               row.getRaw(dimension),
@@ -684,6 +722,7 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
           parseExceptionMessages.add(pe.getMessage());
         }
         dimsKeySize += indexer.estimateEncodedKeyComponentSize(dimsKey);
+        dictionaryBytesAdded += indexer.estimateDictionarySizeInBytes() - dictionarySizeBeforeAdd;
         // Set column capabilities as data is coming in
         if (!capabilities.hasMultipleValues() &&
             dimsKey != null &&
@@ -713,6 +752,12 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
       }
     }
 
+    if (dictionaryBytesAdded != 0) {
+      // Dictionaries only grow while the row is converted, so they are accounted for even if adding the row fails.
+      dictionaryBytesInMemory.addAndGet(dictionaryBytesAdded);
+      bytesInMemory.addAndGet(dictionaryBytesAdded);
+    }
+
     if (overflow != null) {
       // Merge overflow and non-overflow
       Object[] newDims = new Object[dims.length + overflow.size()];
@@ -810,11 +855,62 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
     return metrics;
   }
 
+  /**
+   * Returns the estimated size in bytes of this index, which is the sum of {@link #getFactsBytesInMemory()},
+   * {@link #getAggregatorBytesInMemory()} and {@link #getDictionaryBytesInMemory()}. Implementations must not add to
+   * it directly, but through {@link #addFactsBytesInMemory} and {@link #addAggregatorBytesInMemory}.
+   */
   public AtomicLong getBytesInMemory()
   {
     return bytesInMemory;
   }
 
+  /**
+   * Returns the estimated on-heap size in bytes of the rows, which are the facts keys and the map entries holding them.
+   * For {@link OffheapArenaIncrementalIndex}, this also includes the direct memory holding the rows.
+   */
+  public long getFactsBytesInMemory()
+  {
+    return factsBytesInMemory.get();
+  }
+
+  /**
+   * Returns the estimated on-heap size in bytes of the aggregators, including the growth reported by
+   * {@link org.apache.druid.query.aggregation.Aggregator#aggregateWithSize()}. Always 0 for off-heap indexes, whose
+   * aggregators live in off-heap buffers.
+   */
+  public long getAggregatorBytesInMemory()
+  {
+    return aggregatorBytesInMemory.get();
+  }
+
+  /**
+   * Returns the estimated on-heap size in bytes of the dimension dictionaries, see
+   * {@link DimensionIndexer#estimateDictionarySizeInBytes()}.
+   */
+  public long getDictionaryBytesInMemory()
+  {
+    return dictionaryBytesInMemory.get();
+  }
+
+  /**
+   * Adds to the facts component of {@link #getBytesInMemory()} and returns the new total.
+   */
+  long addFactsBytesInMemory(long bytes)
+  {
+    factsBytesInMemory.addAndGet(bytes);
+    return bytesInMemory.addAndGet(bytes);
+  }
+
+  /**
+   * Adds to the aggregator component of {@link #getBytesInMemory()} and returns the new total.
+   */
+  long addAggregatorBytesInMemory(long bytes)
+  {
+    aggregatorBytesInMemory.addAndGet(bytes);
+    return bytesInMemory.addAndGet(bytes);
+  }
+
   private long getMinTimeMillis()
   {
     return getFacts().getMinTimeMillis();
@@ -842,6 +938,14 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
     }
   }
 
+  /**
+   * @return the live list of dimensions, as referenced by the {@link IncrementalIndexRow}s of this index
+   */
+  List<DimensionDesc> getDimensionDescsList()
+  {
+    return dimensionDescsList;
+  }
+
   public List<DimensionDesc> getDimensions()
   {
     synchronized (dimensionDescs) {
@@ -1262,17 +1366,39 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
     int putIfAbsent(IncrementalIndexRow key, int rowIndex);
 
     void clear();
+
+    /**
+     * @return the number of {@link #getPriorIndex} calls that found the key among the keys recently used by the calling
+     * thread, without looking it up in the facts.
+     */
+    default long getNumRowsRolledUpInBuffer()
+    {
+      return 0;
+    }
   }
 
   static class RollupFactsHolder implements FactsHolder
   {
+    private static final int ROLLUP_BUFFER_SIZE = 1024;
+
     private final boolean sortFacts;
     // Can't use Set because we need to be able to get from collection
     private final ConcurrentMap<IncrementalIndexRow, IncrementalIndexRow> facts;
     private final List<DimensionDesc> dimensionDescsList;
 
+    // With high rollup ratios, most added rows roll up into a few recent keys. The recently used keys are kept in a
+    // hash map, so that these rows skip the lookup in the skip list. Unsorted facts are a hash map already. Buffers are
+    // not thread-safe, so if rows are added by several threads, each thread has its own buffer. They are kept in a map
+    // owned by this holder rather than in ThreadLocals, so that clear() drops the keys of all threads.
+    @Nullable
+    private final RollupBuffer rollupBuffer;
+    @Nullable
+    private final ConcurrentMap<Thread, RollupBuffer> threadRollupBuffers;
+    private final LongAdder numRowsRolledUpInBuffer = new LongAdder();
+
     RollupFactsHolder(
         boolean sortFacts,
+        boolean concurrentEventAdd,
         Comparator<IncrementalIndexRow> incrementalIndexRowComparator,
         List<DimensionDesc> dimensionDescsList
     )
@@ -1284,13 +1410,27 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
         this.facts = new ConcurrentHashMap<>();
       }
       this.dimensionDescsList = dimensionDescsList;
+      this.rollupBuffer = sortFacts && !concurrentEventAdd ? new RollupBuffer() : null;
+      this.threadRollupBuffers = sortFacts && concurrentEventAdd ? new ConcurrentHashMap<>() : null;
     }
 
     @Override
     public int getPriorIndex(IncrementalIndexRow key)
     {
+      final RollupBuffer buffer = getRollupBuffer();
+      if (buffer != null) {
+        final IncrementalIndexRow bufferedRow = buffer.get(key);
+        if (bufferedRow != null) {
+          numRowsRolledUpInBuffer.increment();
+          return bufferedRow.getRowIndex();
+        }
+      }
       IncrementalIndexRow row = facts.get(key);
-      return row == null ? IncrementalIndexRow.EMPTY_ROW_INDEX : row.getRowIndex();
+      if (row == null) {
+        return IncrementalIndexRow.EMPTY_ROW_INDEX;
+      }
+      addToRollupBuffer(row);
+      return row.getRowIndex();
     }
 
     @Override
@@ -1357,6 +1497,7 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
       // setRowIndex() must be called before facts.putIfAbsent() for visibility of rowIndex from concurrent readers.
       key.setRowIndex(rowIndex);
       IncrementalIndexRow prev = facts.putIfAbsent(key, key);
+      addToRollupBuffer(prev == null ? key : prev);
       return prev == null ? IncrementalIndexRow.EMPTY_ROW_INDEX : prev.getRowIndex();
     }
 
@@ -1364,6 +1505,72 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
     public void clear()
     {
       facts.clear();
+      if (rollupBuffer != null) {
+        rollupBuffer.clear();
+      }
+      if (threadRollupBuffers != null) {
+        threadRollupBuffers.clear();
+      }
+    }
+
+    @Override
+    public long getNumRowsRolledUpInBuffer()
+    {
+      return numRowsRolledUpInBuffer.sum();
+    }
+
+    /**
+     * Returns the buffer of the calling thread, or null if rows are not buffered.
+     */
+    @Nullable
+    private RollupBuffer getRollupBuffer()
+    {
+      if (threadRollupBuffers != null) {
+        // only the calling thread adds its own buffer, and get() does not lock unlike computeIfAbsent() on Java 8
+        final Thread thread = Thread.currentThread();
+        RollupBuffer buffer = threadRollupBuffers.get(thread);
+        if (buffer == null) {
+          buffer = new RollupBuffer();
+          threadRollupBuffers.put(thread, buffer);
+        }
+        return buffer;
+      }
+      return rollupBuffer;
+    }
+
+    private void addToRollupBuffer(IncrementalIndexRow row)
+    {
+      final RollupBuffer buffer = getRollupBuffer();
+      if (buffer != null) {
+        buffer.put(row);
+      }
+    }
+  }
+
+  /**
+   * Keys recently looked up or added by one thread, see {@link RollupFactsHolder}. Simply forgets all keys when full.
+   */
+  private static class RollupBuffer
+  {
+    private final Map<IncrementalIndexRow, IncrementalIndexRow> rows = new HashMap<>();
+
+    @Nullable
+    IncrementalIndexRow get(IncrementalIndexRow key)
+    {
+      return rows.get(key);
+    }
+
+    void put(IncrementalIndexRow row)
+    {
+      if (rows.size() >= RollupFactsHolder.ROLLUP_BUFFER_SIZE) {
+        rows.clear();
+      }
+      rows.put(row, row);
+    }
+
+    void clear()
+    {
+      rows.clear();
     }
   }
 
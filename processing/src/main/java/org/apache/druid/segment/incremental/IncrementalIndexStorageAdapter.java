@@ -22,6 +22,7 @@ package org.apache.druid.segment.incremental;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.granularity.Granularity;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Sequences;
@@ -35,6 +36,7 @@ import org.apache.druid.segment.Cursor;
 import org.apache.druid.segment.DimensionDictionarySelector;
 import org.apache.druid.segment.DimensionIndexer;
 import org.apache.druid.segment.Metadata;
+import org.apache.druid.segment.QueryableIndexStorageAdapter;
 import org.apache.druid.segment.StorageAdapter;
 import org.apache.druid.segment.VirtualColumns;
 import org.apache.druid.segment.column.ColumnCapabilities;
@@ -44,6 +46,8 @@ import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.data.Indexed;
 import org.apache.druid.segment.data.ListIndexed;
 import org.apache.druid.segment.filter.BooleanValueMatcher;
+import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
+import org.apache.druid.segment.vector.VectorCursor;
 import org.joda.time.DateTime;
 import org.joda.time.Interval;
 
@@ -170,6 +174,17 @@ public class IncrementalIndexStorageAdapter implements StorageAdapter
     }
   }
 
+  /**
+   * Returns capabilities of a column as seen by the selectors of {@link #makeVectorCursor}. Unlike
+   * {@link #getColumnCapabilities}, string columns are only multi-value if some row actually has multiple values,
+   * because the single-value vector selectors read rows without a value as null.
+   */
+  @Nullable
+  public ColumnCapabilities getVectorColumnCapabilities(String column)
+  {
+    return index.getCapabilities(column);
+  }
+
   @Override
   public String getColumnTypeName(String column)
   {
@@ -221,6 +236,54 @@ public class IncrementalIndexStorageAdapter implements StorageAdapter
         .map(i -> new IncrementalIndexCursor(virtualColumns, descending, filter, i, actualInterval, gran));
   }
 
+  @Override
+  public boolean canVectorize(
+      @Nullable final Filter filter,
+      final VirtualColumns virtualColumns,
+      final boolean descending
+  )
+  {
+    // 1) Virtual columns can't vectorize yet
+    // 2) Vector cursors can't iterate backwards yet
+    // Filters are evaluated row by row while filling vectors, so any filter works.
+    return virtualColumns.size() == 0 && !descending;
+  }
+
+  @Override
+  @Nullable
+  public VectorCursor makeVectorCursor(
+      @Nullable final Filter filter,
+      final Interval interval,
+      final VirtualColumns virtualColumns,
+      final boolean descending,
+      final int vectorSize,
+      @Nullable final QueryMetrics<?> queryMetrics
+  )
+  {
+    if (!canVectorize(filter, virtualColumns, descending)) {
+      throw new ISE("Cannot vectorize. Check 'canVectorize' before calling 'makeVectorCursor'.");
+    }
+
+    if (queryMetrics != null) {
+      queryMetrics.vectorized(true);
+    }
+
+    if (index.isEmpty()) {
+      return null;
+    }
+
+    final Interval dataInterval = new Interval(getMinTime(), getMaxTime().plus(1));
+    if (!interval.overlaps(dataInterval)) {
+      return null;
+    }
+
+    return new IncrementalIndexVectorCursor(
+        filter,
+        interval.overlap(dataInterval),
+        vectorSize > 0 ? vectorSize : QueryableIndexStorageAdapter.DEFAULT_VECTOR_SIZE
+    );
+  }
+
   @Override
   public Metadata getMetadata()
   {
@@ -390,4 +453,97 @@ public class IncrementalIndexStorageAdapter implements StorageAdapter
       return rowIndex > maxRowIndex;
     }
   }
+
+  /**
+   * Vector cursor over the facts of an {@link IncrementalIndex}, which are stored row by row. Each vector is made of
+   * the next rows that match the filter, which are then read by the selectors of
+   * {@link IncrementalIndexVectorColumnSelectorFactory}.
+   */
+  private class IncrementalIndexVectorCursor implements VectorCursor
+  {
+    private final IncrementalIndexVectorColumnSelectorFactory.RowVector rowVector;
+    private final IncrementalIndexVectorColumnSelectorFactory columnSelectorFactory;
+    private final ValueMatcher filterMatcher;
+    private final int maxRowIndex;
+    private final Iterable<IncrementalIndexRow> cursorIterable;
+    private Iterator<IncrementalIndexRow> baseIter;
+
+    IncrementalIndexVectorCursor(@Nullable Filter filter, Interval interval, int vectorSize)
+    {
+      rowVector = new IncrementalIndexVectorColumnSelectorFactory.RowVector(vectorSize);
+      columnSelectorFactory = new IncrementalIndexVectorColumnSelectorFactory(
+          IncrementalIndexStorageAdapter.this,
+          rowVector
+      );
+      // Set maxRowIndex before creating the filterMatcher. See https://github.com/apache/druid/pull/6340
+      maxRowIndex = index.getLastRowIndex();
+      filterMatcher = filter == null
+                      ? BooleanValueMatcher.of(true)
+                      : filter.makeMatcher(columnSelectorFactory.getRowSelectorFactory());
+      cursorIterable = index.getFacts().timeRangeIterable(false, interval.getStartMillis(), interval.getEndMillis());
+
+      reset();
+    }
+
+    @Override
+    public VectorColumnSelectorFactory getColumnSelectorFactory()
+    {
+      return columnSelectorFactory;
+    }
+
+    @Override
+    public void advance()
+    {
+      fillVector();
+    }
+
+    @Override
+    public boolean isDone()
+    {
+      return rowVector.getCurrentVectorSize() == 0;
+    }
+
+    @Override
+    public void reset()
+    {
+      baseIter = cursorIterable.iterator();
+      fillVector();
+    }
+
+    @Override
+    public int getMaxVectorSize()
+    {
+      return rowVector.getMaxVectorSize();
+    }
+
+    @Override
+    public int getCurrentVectorSize()
+    {
+      return rowVector.getCurrentVectorSize();
+    }
+
+    @Override
+    public void close()
+    {
+      // Nothing to close.
+    }
+
+    private void fillVector()
+    {
+      BaseQuery.checkInterrupted();
+
+      rowVector.clear();
+      while (!rowVector.isFull() && baseIter.hasNext()) {
+        final IncrementalIndexRow entry = baseIter.next();
+        // ignore rows added after this cursor was created, see IncrementalIndexCursor.beyondMaxRowIndex
+        if (entry.getRowIndex() > maxRowIndex) {
+          continue;
+        }
+        rowVector.getRowHolder().set(entry);
+        if (filterMatcher.matches()) {
+          rowVector.add(entry);
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,529 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.segment.incremental;
+
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.query.dimension.DefaultDimensionSpec;
+import org.apache.druid.query.dimension.DimensionSpec;
+import org.apache.druid.segment.ColumnSelectorFactory;
+import org.apache.druid.segment.ColumnValueSelector;
+import org.apache.druid.segment.DimensionSelector;
+import org.apache.druid.segment.IdLookup;
+import org.apache.druid.segment.VirtualColumns;
+import org.apache.druid.segment.column.ColumnCapabilities;
+import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.segment.data.ArrayBasedIndexedInts;
+import org.apache.druid.segment.data.IndexedInts;
+import org.apache.druid.segment.vector.MultiValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.NilVectorSelector;
+import org.apache.druid.segment.vector.SingleValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
+import org.apache.druid.segment.vector.VectorObjectSelector;
+import org.apache.druid.segment.vector.VectorSizeInspector;
+import org.apache.druid.segment.vector.VectorValueSelector;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Implementation of {@link VectorColumnSelectorFactory} over an {@link IncrementalIndex}. Its counterpart for
+ * historical segments is {@link org.apache.druid.segment.vector.QueryableIndexVectorColumnSelectorFactory}.
+ *
+ * The facts of an incremental index are not stored in columns, so the selectors made by this factory fill their
+ * vectors by reading the rows of the current {@link RowVector} one at a time through the selectors of an
+ * {@link IncrementalIndexColumnSelectorFactory}. A vector is filled when it is first requested, so columns that are
+ * not read for some vector cost nothing.
+ *
+ * Column capabilities are those of {@link IncrementalIndexStorageAdapter#getVectorColumnCapabilities}.
+ */
+class IncrementalIndexVectorColumnSelectorFactory implements VectorColumnSelectorFactory
+{
+  private final IncrementalIndexStorageAdapter adapter;
+  private final RowVector rowVector;
+  private final ColumnSelectorFactory rowSelectorFactory;
+
+  // Shared selectors are useful, since they cache vectors internally, and we can avoid recomputation if the same
+  // selector is used by more than one part of a query.
+  private final Map<DimensionSpec, SingleValueDimensionVectorSelector> singleValueDimensionSelectorCache;
+  private final Map<DimensionSpec, MultiValueDimensionVectorSelector> multiValueDimensionSelectorCache;
+  private final Map<String, VectorValueSelector> valueSelectorCache;
+  private final Map<String, VectorObjectSelector> objectSelectorCache;
+
+  IncrementalIndexVectorColumnSelectorFactory(IncrementalIndexStorageAdapter adapter, RowVector rowVector)
+  {
+    this.adapter = adapter;
+    this.rowVector = rowVector;
+    this.rowSelectorFactory = new IncrementalIndexColumnSelectorFactory(
+        adapter,
+        VirtualColumns.EMPTY,
+        false,
+        rowVector.rowHolder
+    );
+    this.singleValueDimensionSelectorCache = new HashMap<>();
+    this.multiValueDimensionSelectorCache = new HashMap<>();
+    this.valueSelectorCache = new HashMap<>();
+    this.objectSelectorCache = new HashMap<>();
+  }
+
+  /**
+   * Selector factory reading the row of {@link RowVector#rowHolder}, which is used to evaluate filters.
+   */
+  ColumnSelectorFactory getRowSelectorFactory()
+  {
+    return rowSelectorFactory;
+  }
+
+  @Override
+  public int getMaxVectorSize()
+  {
+    return rowVector.getMaxVectorSize();
+  }
+
+  @Override
+  public SingleValueDimensionVectorSelector makeSingleValueDimensionSelector(final DimensionSpec dimensionSpec)
+  {
+    if (!dimensionSpec.canVectorize()) {
+      throw new ISE("DimensionSpec[%s] cannot be vectorized", dimensionSpec);
+    }
+
+    return singleValueDimensionSelectorCache.computeIfAbsent(
+        dimensionSpec,
+        spec -> {
+          final ColumnCapabilities capabilities = getColumnCapabilities(spec.getDimension());
+          if (capabilities == null
+              || !capabilities.isDictionaryEncoded()
+              || capabilities.getType() != ValueType.STRING) {
+            // Asking for a single-value dimension selector on a non-string column gets you a bunch of nulls.
+            return NilVectorSelector.create(rowVector);
+          }
+
+          if (capabilities.hasMultipleValues()) {
+            // Asking for a single-value dimension selector on a multi-value column gets you an error.
+            throw new ISE("Column[%s] is multi-value, do not ask for a single-value selector", spec.getDimension());
+          }
+
+          return spec.decorate(
+              new SingleValueDimensionSelector(
+                  rowSelectorFactory.makeDimensionSelector(DefaultDimensionSpec.of(spec.getDimension()))
+              )
+          );
+        }
+    );
+  }
+
+  @Override
+  public MultiValueDimensionVectorSelector makeMultiValueDimensionSelector(final DimensionSpec dimensionSpec)
+  {
+    if (!dimensionSpec.canVectorize()) {
+      throw new ISE("DimensionSpec[%s] cannot be vectorized", dimensionSpec);
+    }
+
+    return multiValueDimensionSelectorCache.computeIfAbsent(
+        dimensionSpec,
+        spec -> {
+          final ColumnCapabilities capabilities = getColumnCapabilities(spec.getDimension());
+          if (capabilities == null
+              || !capabilities.isDictionaryEncoded()
+              || capabilities.getType() != ValueType.STRING) {
+            throw new ISE(
+                "Column[%s] is not a string column, do not ask for a multi-value selector",
+                spec.getDimension()
+            );
+          }
+
+          return spec.decorate(
+              new MultiValueDimensionSelector(
+                  rowSelectorFactory.makeDimensionSelector(DefaultDimensionSpec.of(spec.getDimension()))
+              )
+          );
+        }
+    );
+  }
+
+  @Override
+  public VectorValueSelector makeValueSelector(final String columnName)
+  {
+    return valueSelectorCache.computeIfAbsent(
+        columnName,
+        name -> new ValueSelector(rowSelectorFactory.makeColumnValueSelector(name))
+    );
+  }
+
+  @Override
+  public VectorObjectSelector makeObjectSelector(final String columnName)
+  {
+    return objectSelectorCache.computeIfAbsent(
+        columnName,
+        name -> new ObjectSelector(rowSelectorFactory.makeColumnValueSelector(name))
+    );
+  }
+
+  @Nullable
+  @Override
+  public ColumnCapabilities getColumnCapabilities(final String columnName)
+  {
+    return adapter.getVectorColumnCapabilities(columnName);
+  }
+
+  /**
+   * The rows of the current vector of a vector cursor over an {@link IncrementalIndex}.
+   */
+  static class RowVector implements VectorSizeInspector
+  {
+    private final IncrementalIndexRowHolder rowHolder = new IncrementalIndexRowHolder();
+    private final IncrementalIndexRow[] rows;
+    private int size = 0;
+    // Changes whenever the rows change, so that selectors know when to refill their vectors.
+    private int id = 0;
+
+    RowVector(int maxVectorSize)
+    {
+      this.rows = new IncrementalIndexRow[maxVectorSize];
+    }
+
+    /**
+     * Holder of the row that selectors read, which is also used to evaluate filters on candidate rows.
+     */
+    IncrementalIndexRowHolder getRowHolder()
+    {
+      return rowHolder;
+    }
+
+    void clear()
+    {
+      size = 0;
+      id++;
+    }
+
+    void add(IncrementalIndexRow row)
+    {
+      rows[size++] = row;
+    }
+
+    boolean isFull()
+    {
+      return size == rows.length;
+    }
+
+    @Override
+    public int getMaxVectorSize()
+    {
+      return rows.length;
+    }
+
+    @Override
+    public int getCurrentVectorSize()
+    {
+      return size;
+    }
+  }
+
+  private abstract class RowVectorSelector implements VectorSizeInspector
+  {
+    private int filledId = -1;
+
+    /**
+     * Fills the vectors of this selector from the current rows, unless they were already filled from them.
+     */
+    void fill()
+    {
+      if (filledId == rowVector.id) {
+        return;
+      }
+      for (int i = 0; i < rowVector.size; i++) {
+        rowVector.rowHolder.set(rowVector.rows[i]);
+        fillRow(i);
+      }
+      filledId = rowVector.id;
+    }
+
+    /**
+     * Reads the row of {@link RowVector#rowHolder} into position "i" of the vectors.
+     */
+    abstract void fillRow(int i);
+
+    @Override
+    public int getMaxVectorSize()
+    {
+      return rowVector.getMaxVectorSize();
+    }
+
+    @Override
+    public int getCurrentVectorSize()
+    {
+      return rowVector.getCurrentVectorSize();
+    }
+  }
+
+  private class ValueSelector implements VectorValueSelector
+  {
+    private final ColumnValueSelector<?> selector;
+    private final long[] longVector;
+    private final float[] floatVector;
+    private final double[] doubleVector;
+    private final boolean[] nullVector;
+    private boolean hasNulls;
+
+    // Ids of the row vectors that each vector was filled from, only the requested types are read.
+    private int longVectorId = -1;
+    private int floatVectorId = -1;
+    private int doubleVectorId = -1;
+    private int nullVectorId = -1;
+
+    private ValueSelector(ColumnValueSelector<?> selector)
+    {
+      this.selector = selector;
+      this.longVector = new long[rowVector.getMaxVectorSize()];
+      this.floatVector = new float[rowVector.getMaxVectorSize()];
+      this.doubleVector = new double[rowVector.getMaxVectorSize()];
+      this.nullVector = new boolean[rowVector.getMaxVectorSize()];
+    }
+
+    @Override
+    public long[] getLongVector()
+    {
+      if (longVectorId != rowVector.id) {
+        for (int i = 0; i < rowVector.size; i++) {
+          rowVector.rowHolder.set(rowVector.rows[i]);
+          longVector[i] = selector.isNull() ? 0L : selector.getLong();
+        }
+        longVectorId = rowVector.id;
+      }
+      return longVector;
+    }
+
+    @Override
+    public float[] getFloatVector()
+    {
+      if (floatVectorId != rowVector.id) {
+        for (int i = 0; i < rowVector.size; i++) {
+          rowVector.rowHolder.set(rowVector.rows[i]);
+          floatVector[i] = selector.isNull() ? 0f : selector.getFloat();
+        }
+        floatVectorId = rowVector.id;
+      }
+      return floatVector;
+    }
+
+    @Override
+    public double[] getDoubleVector()
+    {
+      if (doubleVectorId != rowVector.id) {
+        for (int i = 0; i < rowVector.size; i++) {
+          rowVector.rowHolder.set(rowVector.rows[i]);
+          doubleVector[i] = selector.isNull() ? 0d : selector.getDouble();
+        }
+        doubleVectorId = rowVector.id;
+      }
+      return doubleVector;
+    }
+
+    @Nullable
+    @Override
+    public boolean[] getNullVector()
+    {
+      if (NullHandling.replaceWithDefault()) {
+        return null;
+      }
+      if (nullVectorId != rowVector.id) {
+        hasNulls = false;
+        for (int i = 0; i < rowVector.size; i++) {
+          rowVector.rowHolder.set(rowVector.rows[i]);
+          nullVector[i] = selector.isNull();
+          hasNulls |= nullVector[i];
+        }
+        nullVectorId = rowVector.id;
+      }
+      return hasNulls ? nullVector : null;
+    }
+
+    @Override
+    public int getMaxVectorSize()
+    {
+      return rowVector.getMaxVectorSize();
+    }
+
+    @Override
+    public int getCurrentVectorSize()
+    {
+      return rowVector.getCurrentVectorSize();
+    }
+  }
+
+  private class ObjectSelector extends RowVectorSelector implements VectorObjectSelector
+  {
+    private final ColumnValueSelector<?> selector;
+    private final Object[] objectVector;
+
+    private ObjectSelector(ColumnValueSelector<?> selector)
+    {
+      this.selector = selector;
+      this.objectVector = new Object[rowVector.getMaxVectorSize()];
+    }
+
+    @Override
+    public Object[] getObjectVector()
+    {
+      fill();
+      return objectVector;
+    }
+
+    @Override
+    void fillRow(int i)
+    {
+      objectVector[i] = selector.getObject();
+    }
+  }
+
+  private abstract class DimensionVectorSelector extends RowVectorSelector
+  {
+    final DimensionSelector selector;
+
+    private DimensionVectorSelector(DimensionSelector selector)
+    {
+      this.selector = selector;
+    }
+
+    public int getValueCardinality()
+    {
+      return selector.getValueCardinality();
+    }
+
+    @Nullable
+    public String lookupName(int id)
+    {
+      return selector.lookupName(id);
+    }
+
+    public boolean nameLookupPossibleInAdvance()
+    {
+      return selector.nameLookupPossibleInAdvance();
+    }
+
+    @Nullable
+    public IdLookup idLookup()
+    {
+      return selector.idLookup();
+    }
+  }
+
+  private class SingleValueDimensionSelector extends DimensionVectorSelector
+      implements SingleValueDimensionVectorSelector, IdLookup
+  {
+    private final int[] ids;
+    @Nullable
+    private final IdLookup baseIdLookup;
+    // Rows without a value have no id in the dictionary of the underlying selector if null was never ingested, in
+    // which case they get the id following the dictionary.
+    private final int nullId;
+    private final boolean nullIdIsExtra;
+
+    private SingleValueDimensionSelector(DimensionSelector selector)
+    {
+      super(selector);
+      this.ids = new int[getMaxVectorSize()];
+      this.baseIdLookup = selector.idLookup();
+      final int baseNullId = baseIdLookup == null ? -1 : baseIdLookup.lookupId(null);
+      this.nullIdIsExtra = baseNullId < 0 || baseNullId >= selector.getValueCardinality();
+      this.nullId = nullIdIsExtra ? selector.getValueCardinality() : baseNullId;
+    }
+
+    @Override
+    public int[] getRowVector()
+    {
+      fill();
+      return ids;
+    }
+
+    @Override
+    void fillRow(int i)
+    {
+      final IndexedInts row = selector.getRow();
+      ids[i] = row.size() == 0 ? nullId : row.get(0);
+    }
+
+    @Override
+    public int getValueCardinality()
+    {
+      return nullIdIsExtra ? nullId + 1 : selector.getValueCardinality();
+    }
+
+    @Nullable
+    @Override
+    public String lookupName(int id)
+    {
+      return nullIdIsExtra && id == nullId ? null : selector.lookupName(id);
+    }
+
+    @Nullable
+    @Override
+    public IdLookup idLookup()
+    {
+      return baseIdLookup == null ? null : this;
+    }
+
+    @Override
+    public int lookupId(@Nullable String name)
+    {
+      if (NullHandling.emptyToNullIfNeeded(name) == null) {
+        return nullId;
+      }
+      return baseIdLookup.lookupId(name);
+    }
+  }
+
+  private class MultiValueDimensionSelector extends DimensionVectorSelector
+      implements MultiValueDimensionVectorSelector
+  {
+    private final ArrayBasedIndexedInts[] rows;
+
+    private MultiValueDimensionSelector(DimensionSelector selector)
+    {
+      super(selector);
+      this.rows = new ArrayBasedIndexedInts[getMaxVectorSize()];
+      for (int i = 0; i < rows.length; i++) {
+        rows[i] = new ArrayBasedIndexedInts();
+      }
+    }
+
+    @Override
+    public IndexedInts[] getRowVector()
+    {
+      fill();
+      return rows;
+    }
+
+    @Override
+    void fillRow(int i)
+    {
+      // The row of the underlying selector is reused, so copy it.
+      final IndexedInts row = selector.getRow();
+      final int size = row.size();
+      rows[i].ensureSize(size);
+      rows[i].setSize(size);
+      for (int j = 0; j < size; j++) {
+        rows[i].setValue(j, row.get(j));
+      }
+    }
+  }
+}
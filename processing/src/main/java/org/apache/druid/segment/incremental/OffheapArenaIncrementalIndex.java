@@ -0,0 +1,811 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.incremental;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.collect.Iterators;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import it.unimi.dsi.fastutil.HashCommon;
+import org.apache.druid.data.input.InputRow;
+import org.apache.druid.java.util.common.ByteBufferUtils;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.UOE;
+import org.apache.druid.query.aggregation.BufferAggregator;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link IncrementalIndex} that keeps its rows out of the Java heap. Every row is a single record in a direct
+ * memory arena laid out as {@code [aggregator state][key length][encoded key]}, where the encoded key is the row
+ * timestamp followed by the dictionary-encoded dimension values produced by the {@link
+ * org.apache.druid.segment.DimensionIndexer}s. Rollup lookups go through an off-heap open-addressing table over the
+ * encoded key bytes, and the facts are indexed by time bucket with primitive row id lists.
+ *
+ * On-heap cost per row is limited to a slot in the row directory and in its time bucket. {@link #getBytesInMemory()}
+ * tracks that residue plus the direct memory reported by {@link #getArenaBytes()}, so that maxBytesInMemory bounds
+ * the whole footprint of the index and triggers persists as the arena grows.
+ *
+ * Encoding the key, the rollup lookup and allocating a new record are serialized on the index monitor, because the
+ * scratch buffer, the key table and the arena are not thread-safe. Aggregation happens outside of it, so concurrent
+ * adds only contend for the short critical section.
+ *
+ * Unlike {@link OnheapIncrementalIndex}, rows within a time bucket are kept in insertion order and only sorted by
+ * dimensions in {@link FactsHolder#persistIterable()}. Queries only need time ordering, so this does not affect
+ * results.
+ */
+public class OffheapArenaIncrementalIndex extends AbstractBufferIncrementalIndex
+{
+  private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+  private static final int INITIAL_SCRATCH_SIZE = 256;
+
+  /**
+   * on-heap residue of a row: its slot in the {@link RowDirectory} and in the {@link RowIndexList} of its bucket.
+   */
+  private static final int HEAP_BYTES_PER_ROW = Long.BYTES + Integer.BYTES;
+
+  /**
+   * rough overhead of a time bucket: the map entry plus an empty {@link RowIndexList}.
+   */
+  private static final int HEAP_BYTES_PER_BUCKET = Long.BYTES * 8 + Integer.BYTES * 4;
+
+  private static final byte TYPE_NULL = 0;
+  private static final byte TYPE_INT_ARRAY = 1;
+  private static final byte TYPE_LONG = 2;
+  private static final byte TYPE_FLOAT = 3;
+  private static final byte TYPE_DOUBLE = 4;
+
+  private final int maxRowCount;
+  private final long maxBytesInMemory;
+  private final boolean sortFacts;
+
+  private final Arena arena;
+  private final RowDirectory directory;
+  @Nullable
+  private final KeyTable keyTable;
+  private final ArenaFactsHolder facts;
+  private final AtomicInteger indexIncrement = new AtomicInteger(0);
+
+  @GuardedBy("this")
+  private ByteBuffer scratch = ByteBuffer.allocate(INITIAL_SCRATCH_SIZE);
+
+  @Nullable
+  private String outOfRowsReason = null;
+
+  OffheapArenaIncrementalIndex(
+      IncrementalIndexSchema incrementalIndexSchema,
+      boolean deserializeComplexMetrics,
+      boolean reportParseExceptions,
+      boolean concurrentEventAdd,
+      boolean sortFacts,
+      int maxRowCount,
+      long maxBytesInMemory
+  )
+  {
+    super(incrementalIndexSchema, deserializeComplexMetrics, reportParseExceptions, concurrentEventAdd);
+    this.maxRowCount = maxRowCount;
+    this.maxBytesInMemory = maxBytesInMemory == 0 ? Long.MAX_VALUE : maxBytesInMemory;
+    this.sortFacts = sortFacts;
+    this.arena = new Arena(DEFAULT_CHUNK_SIZE);
+    this.directory = new RowDirectory();
+    this.keyTable = incrementalIndexSchema.isRollup() ? new KeyTable() : null;
+    this.facts = new ArenaFactsHolder();
+    addFactsBytesInMemory(getArenaBytes());
+  }
+
+  @Override
+  public FactsHolder getFacts()
+  {
+    return facts;
+  }
+
+  /**
+   * @return number of bytes of direct memory held by this index
+   */
+  public long getArenaBytes()
+  {
+    return arena.getAllocatedBytes() + (keyTable == null ? 0 : keyTable.getCapacityBytes());
+  }
+
+  @Override
+  protected AddToFactsResult addToFacts(
+      InputRow row,
+      IncrementalIndexRow key,
+      ThreadLocal<InputRow> rowContainer,
+      Supplier<InputRow> rowSupplier,
+      boolean skipMaxRowsInMemoryCheck
+  ) throws IndexSizeExceededException
+  {
+    final long address;
+
+    // guards the scratch buffer, key table, arena and row directory; see the class javadoc
+    synchronized (this) {
+      final int keyLength = encodeKey(key);
+      final int keyHash = keyTable == null ? 0 : hashScratch(keyLength);
+      final int priorIndex = keyTable == null ? IncrementalIndexRow.EMPTY_ROW_INDEX
+                                              : keyTable.find(keyHash, keyLength);
+
+      if (IncrementalIndexRow.EMPTY_ROW_INDEX != priorIndex) {
+        address = directory.get(priorIndex);
+      } else {
+        factorizeAggsIfNeeded(row, rowContainer);
+
+        if ((getNumEntries().get() >= maxRowCount || getBytesInMemory().get() >= maxBytesInMemory)
+            && !skipMaxRowsInMemoryCheck) {
+          throw new IndexSizeExceededException(
+              "Maximum number of rows [%d] or max size in bytes [%d] reached",
+              maxRowCount,
+              maxBytesInMemory
+          );
+        }
+
+        final int aggsTotalSize = getAggsTotalSize();
+        final long arenaBytesBefore = getArenaBytes();
+        final int recordSize = aggsTotalSize + Integer.BYTES + keyLength;
+        address = arena.allocate(recordSize);
+        final ByteBuffer chunk = arena.chunk(address);
+        final int offset = Arena.offset(address);
+
+        initAggsAt(chunk, offset);
+        chunk.putInt(offset + aggsTotalSize, keyLength);
+        final int keyOffset = offset + aggsTotalSize + Integer.BYTES;
+        for (int i = 0; i < keyLength; i++) {
+          chunk.put(keyOffset + i, scratch.get(i));
+        }
+
+        // the record and its directory slot must be written before the row id is published to its time bucket,
+        // because concurrent readers get hold of it as soon as it is there
+        final int rowIndex = indexIncrement.getAndIncrement();
+        directory.set(rowIndex, address);
+        final boolean newBucket = facts.insert(key.getTimestamp(), keyHash, rowIndex);
+
+        getNumEntries().incrementAndGet();
+        addFactsBytesInMemory(
+            HEAP_BYTES_PER_ROW + (newBucket ? HEAP_BYTES_PER_BUCKET : 0) + getArenaBytes() - arenaBytesBefore
+        );
+      }
+    }
+
+    final List<String> parseExceptionMessages = new ArrayList<>();
+    aggregate(row, rowContainer, arena.chunk(address), Arena.offset(address), parseExceptionMessages);
+    return new AddToFactsResult(getNumEntries().get(), getBytesInMemory().get(), parseExceptionMessages);
+  }
+
+  /**
+   * Writes the timestamp and dimension values of the given key into {@link #scratch}, trimming trailing nulls so
+   * that keys compare equal when their dims arrays differ only by absent dimensions.
+   *
+   * @return length of the encoded key
+   */
+  @GuardedBy("this")
+  private int encodeKey(IncrementalIndexRow key)
+  {
+    final Object[] dims = key.getDims();
+    int numDims = dims.length;
+    while (numDims > 0 && dims[numDims - 1] == null) {
+      numDims--;
+    }
+
+    scratch.clear();
+    ensureScratch(Long.BYTES + Integer.BYTES);
+    scratch.putLong(key.getTimestamp());
+    scratch.putInt(numDims);
+
+    for (int i = 0; i < numDims; i++) {
+      final Object value = dims[i];
+      if (value == null) {
+        ensureScratch(1);
+        scratch.put(TYPE_NULL);
+      } else if (value instanceof int[]) {
+        final int[] ids = (int[]) value;
+        ensureScratch(1 + Integer.BYTES * (ids.length + 1));
+        scratch.put(TYPE_INT_ARRAY);
+        scratch.putInt(ids.length);
+        for (int id : ids) {
+          scratch.putInt(id);
+        }
+      } else if (value instanceof Long) {
+        ensureScratch(1 + Long.BYTES);
+        scratch.put(TYPE_LONG);
+        scratch.putLong((Long) value);
+      } else if (value instanceof Float) {
+        ensureScratch(1 + Integer.BYTES);
+        scratch.put(TYPE_FLOAT);
+        scratch.putInt(Float.floatToIntBits((Float) value));
+      } else if (value instanceof Double) {
+        ensureScratch(1 + Long.BYTES);
+        scratch.put(TYPE_DOUBLE);
+        scratch.putLong(Double.doubleToLongBits((Double) value));
+      } else {
+        throw new UOE(
+            "Cannot store key component of type[%s] for dimension[%s] off-heap",
+            value.getClass().getName(),
+            getDimensionDescsList().get(i).getName()
+        );
+      }
+    }
+    return scratch.position();
+  }
+
+  @GuardedBy("this")
+  private void ensureScratch(int bytes)
+  {
+    if (scratch.remaining() < bytes) {
+      final ByteBuffer newScratch = ByteBuffer.allocate(Math.max(scratch.capacity() * 2, scratch.position() + bytes));
+      scratch.flip();
+      newScratch.put(scratch);
+      scratch = newScratch;
+    }
+  }
+
+  @GuardedBy("this")
+  private int hashScratch(int keyLength)
+  {
+    int hash = 0;
+    int i = 0;
+    for (; i + Long.BYTES <= keyLength; i += Long.BYTES) {
+      hash = 31 * hash + Long.hashCode(scratch.getLong(i));
+    }
+    for (; i < keyLength; i++) {
+      hash = 31 * hash + scratch.get(i);
+    }
+    return HashCommon.mix(hash);
+  }
+
+  /**
+   * Compares the encoded key of the given row with the first {@code keyLength} bytes of {@link #scratch}.
+   */
+  @GuardedBy("this")
+  private boolean keyEquals(int rowIndex, int keyLength)
+  {
+    final long address = directory.get(rowIndex);
+    final ByteBuffer chunk = arena.chunk(address);
+    final int lengthOffset = Arena.offset(address) + getAggsTotalSize();
+    if (chunk.getInt(lengthOffset) != keyLength) {
+      return false;
+    }
+    final int keyOffset = lengthOffset + Integer.BYTES;
+    int i = 0;
+    for (; i + Long.BYTES <= keyLength; i += Long.BYTES) {
+      if (chunk.getLong(keyOffset + i) != scratch.getLong(i)) {
+        return false;
+      }
+    }
+    for (; i < keyLength; i++) {
+      if (chunk.get(keyOffset + i) != scratch.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Decodes the key of the given row. The returned row shares the live dimension list of this index, like the rows
+   * created in {@link #toIncrementalIndexRow}.
+   */
+  private IncrementalIndexRow readRow(int rowIndex)
+  {
+    final long address = directory.get(rowIndex);
+    final ByteBuffer chunk = arena.chunk(address);
+    int position = Arena.offset(address) + getAggsTotalSize() + Integer.BYTES;
+
+    final long timestamp = chunk.getLong(position);
+    position += Long.BYTES;
+    final Object[] dims = new Object[chunk.getInt(position)];
+    position += Integer.BYTES;
+
+    for (int i = 0; i < dims.length; i++) {
+      final byte type = chunk.get(position++);
+      switch (type) {
+        case TYPE_NULL:
+          break;
+        case TYPE_INT_ARRAY:
+          final int[] ids = new int[chunk.getInt(position)];
+          position += Integer.BYTES;
+          for (int j = 0; j < ids.length; j++) {
+            ids[j] = chunk.getInt(position);
+            position += Integer.BYTES;
+          }
+          dims[i] = ids;
+          break;
+        case TYPE_LONG:
+          dims[i] = chunk.getLong(position);
+          position += Long.BYTES;
+          break;
+        case TYPE_FLOAT:
+          dims[i] = Float.intBitsToFloat(chunk.getInt(position));
+          position += Integer.BYTES;
+          break;
+        case TYPE_DOUBLE:
+          dims[i] = Double.longBitsToDouble(chunk.getLong(position));
+          position += Long.BYTES;
+          break;
+        default:
+          throw new ISE("Unknown key component type[%d] in row[%d]", type, rowIndex);
+      }
+    }
+
+    return new IncrementalIndexRow(timestamp, dims, getDimensionDescsList(), rowIndex);
+  }
+
+  @Override
+  public int getLastRowIndex()
+  {
+    return indexIncrement.get() - 1;
+  }
+
+  @Override
+  public boolean canAppendRow()
+  {
+    final boolean countCheck = size() < maxRowCount;
+    final boolean sizeCheck = getBytesInMemory().get() < maxBytesInMemory;
+    final boolean canAdd = countCheck && sizeCheck;
+    if (!countCheck && !sizeCheck) {
+      outOfRowsReason = StringUtils.format(
+          "Maximum number of rows [%d] and maximum size in bytes [%d] reached",
+          maxRowCount,
+          maxBytesInMemory
+      );
+    } else if (!countCheck) {
+      outOfRowsReason = StringUtils.format("Maximum number of rows [%d] reached", maxRowCount);
+    } else if (!sizeCheck) {
+      outOfRowsReason = StringUtils.format("Maximum size in bytes [%d] reached", maxBytesInMemory);
+    }
+    return canAdd;
+  }
+
+  @Override
+  public String getOutOfRowsReason()
+  {
+    return outOfRowsReason;
+  }
+
+  @Override
+  protected ByteBuffer getAggBuffer(int rowOffset)
+  {
+    return arena.chunk(directory.get(rowOffset));
+  }
+
+  @Override
+  protected int getAggBufferPosition(int rowOffset)
+  {
+    return Arena.offset(directory.get(rowOffset));
+  }
+
+  /**
+   * NOTE: This is NOT thread-safe with add... so make sure all the adding is DONE before closing
+   */
+  @Override
+  public void close()
+  {
+    super.close();
+    facts.clear();
+
+    for (BufferAggregator agg : getAggs()) {
+      if (agg != null) {
+        agg.close();
+      }
+    }
+
+    if (keyTable != null) {
+      keyTable.free();
+    }
+    arena.free();
+  }
+
+  /**
+   * Facts of an {@link OffheapArenaIncrementalIndex}: row ids grouped by timestamp. Rows are materialized from the
+   * arena as they are iterated.
+   */
+  private class ArenaFactsHolder implements FactsHolder
+  {
+    private final ConcurrentMap<Long, RowIndexList> buckets;
+
+    ArenaFactsHolder()
+    {
+      this.buckets = sortFacts ? new ConcurrentSkipListMap<>() : new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds a row whose key is not in the index yet. Its record must already be in the arena and the
+     * {@link RowDirectory}, since concurrent readers get hold of it as soon as it is added.
+     *
+     * @param keyHash hash of the encoded key of the row, ignored without rollup
+     *
+     * @return true if this created a new time bucket
+     */
+    @GuardedBy("OffheapArenaIncrementalIndex.this")
+    boolean insert(long timestamp, int keyHash, int rowIndex)
+    {
+      if (keyTable != null) {
+        keyTable.insert(keyHash, rowIndex);
+      }
+
+      RowIndexList rows = buckets.get(timestamp);
+      final boolean newBucket = rows == null;
+      if (newBucket) {
+        rows = new RowIndexList();
+        buckets.put(timestamp, rows);
+      }
+      rows.add(rowIndex);
+      return newBucket;
+    }
+
+    @Override
+    public int getPriorIndex(IncrementalIndexRow key)
+    {
+      if (keyTable == null) {
+        // always return EMPTY_ROW_INDEX to indicate that no prior key cause we always add new row
+        return IncrementalIndexRow.EMPTY_ROW_INDEX;
+      }
+      synchronized (OffheapArenaIncrementalIndex.this) {
+        final int keyLength = encodeKey(key);
+        return keyTable.find(hashScratch(keyLength), keyLength);
+      }
+    }
+
+    @Override
+    public long getMinTimeMillis()
+    {
+      if (sortFacts) {
+        return ((ConcurrentNavigableMap<Long, RowIndexList>) buckets).firstKey();
+      } else {
+        throw new UnsupportedOperationException("can't get minTime from unsorted facts data.");
+      }
+    }
+
+    @Override
+    public long getMaxTimeMillis()
+    {
+      if (sortFacts) {
+        return ((ConcurrentNavigableMap<Long, RowIndexList>) buckets).lastKey();
+      } else {
+        throw new UnsupportedOperationException("can't get maxTime from unsorted facts data.");
+      }
+    }
+
+    @Override
+    public Iterator<IncrementalIndexRow> iterator(boolean descending)
+    {
+      if (descending && sortFacts) {
+        return concat(((ConcurrentNavigableMap<Long, RowIndexList>) buckets).descendingMap().values(), true);
+      }
+      return concat(buckets.values(), false);
+    }
+
+    @Override
+    public Iterable<IncrementalIndexRow> timeRangeIterable(boolean descending, long timeStart, long timeEnd)
+    {
+      if (!sortFacts) {
+        throw new UnsupportedOperationException("can't get timeRange from unsorted facts data.");
+      }
+      ConcurrentNavigableMap<Long, RowIndexList> subMap =
+          ((ConcurrentNavigableMap<Long, RowIndexList>) buckets).subMap(timeStart, timeEnd);
+      final ConcurrentMap<Long, RowIndexList> rangeMap = descending ? subMap.descendingMap() : subMap;
+      return () -> concat(rangeMap.values(), descending);
+    }
+
+    @Override
+    public Iterable<IncrementalIndexRow> keySet()
+    {
+      return () -> iterator(false);
+    }
+
+    @Override
+    public Iterable<IncrementalIndexRow> persistIterable()
+    {
+      final Collection<RowIndexList> timeOrdered = sortFacts ? buckets.values() : new TreeMap<>(buckets).values();
+      return () -> Iterators.concat(
+          Iterators.transform(
+              timeOrdered.iterator(),
+              rows -> {
+                // decode the whole bucket once and sort it, rows are only ordered by time while ingesting
+                final IncrementalIndexRow[] sorted = new IncrementalIndexRow[rows.size()];
+                final int[] rowIds = rows.rows;
+                for (int i = 0; i < sorted.length; i++) {
+                  sorted[i] = readRow(rowIds[i]);
+                }
+                Arrays.sort(sorted, dimsComparator());
+                return Iterators.forArray(sorted);
+              }
+          )
+      );
+    }
+
+    /**
+     * Rows of this index live in the arena, so the given row index must refer to a record which was already written
+     * to the arena and the {@link RowDirectory} with the key of the given row, like the records written by
+     * {@link #addToFacts}. If the key is already in the index, the record is left unused.
+     */
+    @Override
+    public int putIfAbsent(IncrementalIndexRow key, int rowIndex)
+    {
+      synchronized (OffheapArenaIncrementalIndex.this) {
+        final int keyLength = encodeKey(key);
+        final int keyHash = keyTable == null ? 0 : hashScratch(keyLength);
+        if (keyTable != null) {
+          final int priorIndex = keyTable.find(keyHash, keyLength);
+          if (IncrementalIndexRow.EMPTY_ROW_INDEX != priorIndex) {
+            return priorIndex;
+          }
+        }
+        insert(key.getTimestamp(), keyHash, rowIndex);
+        return IncrementalIndexRow.EMPTY_ROW_INDEX;
+      }
+    }
+
+    @Override
+    public void clear()
+    {
+      buckets.clear();
+    }
+
+    private Iterator<IncrementalIndexRow> concat(Collection<RowIndexList> bucketRows, boolean descending)
+    {
+      return Iterators.concat(Iterators.transform(bucketRows.iterator(), rows -> rowIterator(rows, descending)));
+    }
+
+    private Iterator<IncrementalIndexRow> rowIterator(RowIndexList rows, boolean descending)
+    {
+      // size must be read before the array, see RowIndexList#add()
+      final int size = rows.size();
+      final int[] rowIds = rows.rows;
+      return new Iterator<IncrementalIndexRow>()
+      {
+        private int i = 0;
+
+        @Override
+        public boolean hasNext()
+        {
+          return i < size;
+        }
+
+        @Override
+        public IncrementalIndexRow next()
+        {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          final int position = descending ? size - 1 - i : i;
+          i++;
+          return readRow(rowIds[position]);
+        }
+      };
+    }
+  }
+
+  /**
+   * Append-only list of row ids with a single writer and any number of concurrent readers.
+   */
+  private static final class RowIndexList
+  {
+    private volatile int[] rows = new int[4];
+    private volatile int size = 0;
+
+    int size()
+    {
+      return size;
+    }
+
+    void add(int rowIndex)
+    {
+      int[] current = rows;
+      final int position = size;
+      if (position == current.length) {
+        current = Arrays.copyOf(current, current.length * 2);
+        current[position] = rowIndex;
+        rows = current;
+      } else {
+        current[position] = rowIndex;
+      }
+      // publish the new size last, so readers that see it also see the element and the array holding it
+      size = position + 1;
+    }
+  }
+
+  /**
+   * Maps row ids to record addresses in the {@link Arena}, in pages so that growing never copies the addresses.
+   */
+  private static final class RowDirectory
+  {
+    private static final int PAGE_SHIFT = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private volatile long[][] pages = new long[0][];
+
+    long get(int rowIndex)
+    {
+      return pages[rowIndex >>> PAGE_SHIFT][rowIndex & PAGE_MASK];
+    }
+
+    void set(int rowIndex, long address)
+    {
+      long[][] current = pages;
+      final int page = rowIndex >>> PAGE_SHIFT;
+      if (page >= current.length) {
+        current = Arrays.copyOf(current, Math.max(page + 1, current.length * 2));
+      }
+      if (current[page] == null) {
+        current[page] = new long[PAGE_SIZE];
+      }
+      current[page][rowIndex & PAGE_MASK] = address;
+      // volatile write so that readers of the address also see the page holding it
+      pages = current;
+    }
+  }
+
+  /**
+   * Bump allocator over direct memory chunks. Addresses are encoded as {@code (chunk index << 32) | offset}. Only
+   * the writer allocates; readers resolve addresses that were published after their chunk was.
+   */
+  private static final class Arena
+  {
+    private final int chunkSize;
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    private int chunkPosition = 0;
+    private volatile long allocatedBytes = 0;
+
+    Arena(int chunkSize)
+    {
+      this.chunkSize = chunkSize;
+    }
+
+    static int offset(long address)
+    {
+      return (int) address;
+    }
+
+    ByteBuffer chunk(long address)
+    {
+      return chunks[(int) (address >>> 32)];
+    }
+
+    long allocate(int size)
+    {
+      ByteBuffer[] current = chunks;
+      if (current.length == 0 || current[current.length - 1].capacity() - chunkPosition < size) {
+        final ByteBuffer chunk = ByteBuffer.allocateDirect(Math.max(chunkSize, size));
+        current = Arrays.copyOf(current, current.length + 1);
+        current[current.length - 1] = chunk;
+        chunks = current;
+        chunkPosition = 0;
+        allocatedBytes += chunk.capacity();
+      }
+      final long address = ((long) (current.length - 1) << 32) | chunkPosition;
+      chunkPosition += size;
+      return address;
+    }
+
+    long getAllocatedBytes()
+    {
+      return allocatedBytes;
+    }
+
+    void free()
+    {
+      final ByteBuffer[] current = chunks;
+      chunks = new ByteBuffer[0];
+      for (ByteBuffer chunk : current) {
+        ByteBufferUtils.free(chunk);
+      }
+      allocatedBytes = 0;
+    }
+  }
+
+  /**
+   * Open-addressing hash table in direct memory from encoded keys to row ids, used for rollup. Each slot holds the
+   * key hash and the row id plus one, zero meaning empty. Keys themselves stay in the arena and are compared with
+   * {@link #keyEquals}. Only accessed while holding the index lock.
+   */
+  private final class KeyTable
+  {
+    private static final int SLOT_SIZE = Integer.BYTES * 2;
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final int MAX_CAPACITY = 1 << 27;
+
+    private ByteBuffer table = ByteBuffer.allocateDirect(INITIAL_CAPACITY * SLOT_SIZE);
+    private int capacity = INITIAL_CAPACITY;
+    private int size = 0;
+
+    int find(int hash, int keyLength)
+    {
+      final int mask = capacity - 1;
+      for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+        final int rowIndexPlusOne = table.getInt(slot * SLOT_SIZE + Integer.BYTES);
+        if (rowIndexPlusOne == 0) {
+          return IncrementalIndexRow.EMPTY_ROW_INDEX;
+        }
+        if (table.getInt(slot * SLOT_SIZE) == hash && keyEquals(rowIndexPlusOne - 1, keyLength)) {
+          return rowIndexPlusOne - 1;
+        }
+      }
+    }
+
+    void insert(int hash, int rowIndex)
+    {
+      if ((size + 1) * 2 > capacity) {
+        grow();
+      }
+      put(table, capacity - 1, hash, rowIndex + 1);
+      size++;
+    }
+
+    long getCapacityBytes()
+    {
+      return (long) capacity * SLOT_SIZE;
+    }
+
+    void free()
+    {
+      ByteBufferUtils.free(table);
+      capacity = 0;
+      size = 0;
+    }
+
+    private void grow()
+    {
+      if (capacity >= MAX_CAPACITY) {
+        throw new ISE("Cannot grow rollup key table beyond [%,d] slots", MAX_CAPACITY);
+      }
+      final int newCapacity = capacity * 2;
+      final ByteBuffer newTable = ByteBuffer.allocateDirect(newCapacity * SLOT_SIZE);
+      for (int slot = 0; slot < capacity; slot++) {
+        final int rowIndexPlusOne = table.getInt(slot * SLOT_SIZE + Integer.BYTES);
+        if (rowIndexPlusOne != 0) {
+          put(newTable, newCapacity - 1, table.getInt(slot * SLOT_SIZE), rowIndexPlusOne);
+        }
+      }
+      ByteBufferUtils.free(table);
+      table = newTable;
+      capacity = newCapacity;
+    }
+
+    private void put(ByteBuffer target, int mask, int hash, int rowIndexPlusOne)
+    {
+      int slot = hash & mask;
+      while (target.getInt(slot * SLOT_SIZE + Integer.BYTES) != 0) {
+        slot = (slot + 1) & mask;
+      }
+      target.putInt(slot * SLOT_SIZE, hash);
+      target.putInt(slot * SLOT_SIZE + Integer.BYTES, rowIndexPlusOne);
+    }
+  }
+
+  @VisibleForTesting
+  int getTimeBucketCount()
+  {
+    return facts.buckets.size();
+  }
+}
@@ -27,29 +27,20 @@ import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.io.Closer;
-import org.apache.druid.java.util.common.logger.Logger;
-import org.apache.druid.java.util.common.parsers.ParseException;
-import org.apache.druid.query.aggregation.AggregatorFactory;
-import org.apache.druid.query.aggregation.BufferAggregator;
-import org.apache.druid.segment.ColumnSelectorFactory;
 
 import javax.annotation.Nullable;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  *
  */
-public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
+public class OffheapIncrementalIndex extends AbstractBufferIncrementalIndex
 {
-  private static final Logger log = new Logger(OffheapIncrementalIndex.class);
-
   private final NonBlockingPool<ByteBuffer> bufferPool;
 
   private final List<ResourceHolder<ByteBuffer>> aggBuffers = new ArrayList<>();
@@ -61,16 +52,6 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
 
   protected final int maxRowCount;
 
-  @Nullable
-  private volatile Map<String, ColumnSelectorFactory> selectors;
-
-  //given a ByteBuffer and an offset where all aggregates for a row are stored
-  //offset + aggOffsetInBuffer[i] would give position in ByteBuffer where ith aggregate
-  //is stored
-  @Nullable
-  private volatile int[] aggOffsetInBuffer;
-  private volatile int aggsTotalSize;
-
   @Nullable
   private String outOfRowsReason = null;
 
@@ -88,14 +69,15 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
     this.maxRowCount = maxRowCount;
     this.bufferPool = bufferPool;
 
-    this.facts = incrementalIndexSchema.isRollup() ? new RollupFactsHolder(sortFacts, dimsComparator(), getDimensions())
-                                                   : new PlainFactsHolder(sortFacts, dimsComparator());
+    this.facts = incrementalIndexSchema.isRollup()
+                 ? new RollupFactsHolder(sortFacts, concurrentEventAdd, dimsComparator(), getDimensions())
+                 : new PlainFactsHolder(sortFacts, dimsComparator());
 
     //check that stupid pool gives buffers that can hold at least one row's aggregators
     ResourceHolder<ByteBuffer> bb = bufferPool.take();
-    if (bb.get().capacity() < aggsTotalSize) {
+    if (bb.get().capacity() < getAggsTotalSize()) {
       bb.close();
-      throw new IAE("bufferPool buffers capacity must be >= [%s]", aggsTotalSize);
+      throw new IAE("bufferPool buffers capacity must be >= [%s]", getAggsTotalSize());
     }
     aggBuffers.add(bb);
   }
@@ -106,44 +88,6 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
     return facts;
   }
 
-  @Override
-  protected BufferAggregator[] initAggs(
-      final AggregatorFactory[] metrics,
-      final Supplier<InputRow> rowSupplier,
-      final boolean deserializeComplexMetrics,
-      final boolean concurrentEventAdd
-  )
-  {
-    selectors = new HashMap<>();
-    aggOffsetInBuffer = new int[metrics.length];
-
-    for (int i = 0; i < metrics.length; i++) {
-      AggregatorFactory agg = metrics[i];
-
-      ColumnSelectorFactory columnSelectorFactory = makeColumnSelectorFactory(
-          agg,
-          rowSupplier,
-          deserializeComplexMetrics
-      );
-
-      selectors.put(
-          agg.getName(),
-          new OnheapIncrementalIndex.CachingColumnSelectorFactory(columnSelectorFactory, concurrentEventAdd)
-      );
-
-      if (i == 0) {
-        aggOffsetInBuffer[i] = 0;
-      } else {
-        aggOffsetInBuffer[i] = aggOffsetInBuffer[i - 1] + metrics[i - 1].getMaxIntermediateSizeWithNulls();
-      }
-    }
-
-    aggsTotalSize = aggOffsetInBuffer[metrics.length - 1] + metrics[metrics.length
-                                                                    - 1].getMaxIntermediateSizeWithNulls();
-
-    return new BufferAggregator[metrics.length];
-  }
-
   @Override
   protected AddToFactsResult addToFacts(
       InputRow row,
@@ -158,7 +102,6 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
     int bufferOffset;
 
     synchronized (this) {
-      final AggregatorFactory[] metrics = getMetrics();
       final int priorIndex = facts.getPriorIndex(key);
       if (IncrementalIndexRow.EMPTY_ROW_INDEX != priorIndex) {
         final int[] indexAndOffset = indexAndOffsets.get(priorIndex);
@@ -166,16 +109,7 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
         bufferOffset = indexAndOffset[1];
         aggBuffer = aggBuffers.get(bufferIndex).get();
       } else {
-        if (metrics.length > 0 && getAggs()[0] == null) {
-          // note: creation of Aggregators is done lazily when at least one row from input is available
-          // so that FilteredAggregators could be initialized correctly.
-          rowContainer.set(row);
-          for (int i = 0; i < metrics.length; i++) {
-            final AggregatorFactory agg = metrics[i];
-            getAggs()[i] = agg.factorizeBuffered(selectors.get(agg.getName()));
-          }
-          rowContainer.set(null);
-        }
+        factorizeAggsIfNeeded(row, rowContainer);
 
         bufferIndex = aggBuffers.size() - 1;
         ByteBuffer lastBuffer = aggBuffers.isEmpty() ? null : aggBuffers.get(aggBuffers.size() - 1).get();
@@ -187,6 +121,7 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
           throw new ISE("last row's aggregate's buffer and last buffer index must be same");
         }
 
+        final int aggsTotalSize = getAggsTotalSize();
         bufferOffset = aggsTotalSize + (lastAggregatorsIndexAndOffset != null ? lastAggregatorsIndexAndOffset[1] : 0);
         if (lastBuffer != null &&
             lastBuffer.capacity() - bufferOffset >= aggsTotalSize) {
@@ -199,9 +134,7 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
           aggBuffer = bb.get();
         }
 
-        for (int i = 0; i < metrics.length; i++) {
-          getAggs()[i].init(aggBuffer, bufferOffset + aggOffsetInBuffer[i]);
-        }
+        initAggsAt(aggBuffer, bufferOffset);
 
         // Last ditch sanity checks
         if (getNumEntries().get() >= maxRowCount && facts.getPriorIndex(key) == IncrementalIndexRow.EMPTY_ROW_INDEX) {
@@ -222,26 +155,7 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
       }
     }
 
-    rowContainer.set(row);
-
-    for (int i = 0; i < getMetrics().length; i++) {
-      final BufferAggregator agg = getAggs()[i];
-
-      synchronized (agg) {
-        try {
-          agg.aggregate(aggBuffer, bufferOffset + aggOffsetInBuffer[i]);
-        }
-        catch (ParseException e) {
-          // "aggregate" can throw ParseExceptions if a selector expects something but gets something else.
-          if (getReportParseExceptions()) {
-            throw new ParseException(e, "Encountered parse error for aggregator[%s]", getMetricAggs()[i].getName());
-          } else {
-            log.debug(e, "Encountered parse error, skipping aggregator[%s].", getMetricAggs()[i].getName());
-          }
-        }
-      }
-    }
-    rowContainer.set(null);
+    aggregate(row, rowContainer, aggBuffer, bufferOffset, null);
     return new AddToFactsResult(getNumEntries().get(), 0, new ArrayList<>());
   }
 
@@ -268,62 +182,15 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
   }
 
   @Override
-  protected BufferAggregator[] getAggsForRow(int rowOffset)
-  {
-    return getAggs();
-  }
-
-  @Override
-  protected Object getAggVal(BufferAggregator agg, int rowOffset, int aggPosition)
-  {
-    int[] indexAndOffset = indexAndOffsets.get(rowOffset);
-    ByteBuffer bb = aggBuffers.get(indexAndOffset[0]).get();
-    return agg.get(bb, indexAndOffset[1] + aggOffsetInBuffer[aggPosition]);
-  }
-
-  @Override
-  public float getMetricFloatValue(int rowOffset, int aggOffset)
-  {
-    BufferAggregator agg = getAggs()[aggOffset];
-    int[] indexAndOffset = indexAndOffsets.get(rowOffset);
-    ByteBuffer bb = aggBuffers.get(indexAndOffset[0]).get();
-    return agg.getFloat(bb, indexAndOffset[1] + aggOffsetInBuffer[aggOffset]);
-  }
-
-  @Override
-  public long getMetricLongValue(int rowOffset, int aggOffset)
-  {
-    BufferAggregator agg = getAggs()[aggOffset];
-    int[] indexAndOffset = indexAndOffsets.get(rowOffset);
-    ByteBuffer bb = aggBuffers.get(indexAndOffset[0]).get();
-    return agg.getLong(bb, indexAndOffset[1] + aggOffsetInBuffer[aggOffset]);
-  }
-
-  @Override
-  public Object getMetricObjectValue(int rowOffset, int aggOffset)
+  protected ByteBuffer getAggBuffer(int rowOffset)
   {
-    BufferAggregator agg = getAggs()[aggOffset];
-    int[] indexAndOffset = indexAndOffsets.get(rowOffset);
-    ByteBuffer bb = aggBuffers.get(indexAndOffset[0]).get();
-    return agg.get(bb, indexAndOffset[1] + aggOffsetInBuffer[aggOffset]);
+    return aggBuffers.get(indexAndOffsets.get(rowOffset)[0]).get();
   }
 
   @Override
-  public double getMetricDoubleValue(int rowOffset, int aggOffset)
+  protected int getAggBufferPosition(int rowOffset)
   {
-    BufferAggregator agg = getAggs()[aggOffset];
-    int[] indexAndOffset = indexAndOffsets.get(rowOffset);
-    ByteBuffer bb = aggBuffers.get(indexAndOffset[0]).get();
-    return agg.getDouble(bb, indexAndOffset[1] + aggOffsetInBuffer[aggOffset]);
-  }
-
-  @Override
-  public boolean isNull(int rowOffset, int aggOffset)
-  {
-    BufferAggregator agg = getAggs()[aggOffset];
-    int[] indexAndOffset = indexAndOffsets.get(rowOffset);
-    ByteBuffer bb = aggBuffers.get(indexAndOffset[0]).get();
-    return agg.isNull(bb, indexAndOffset[1] + aggOffsetInBuffer[aggOffset]);
+    return indexAndOffsets.get(rowOffset)[1];
   }
 
   /**
@@ -336,10 +203,6 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
     facts.clear();
     indexAndOffsets.clear();
 
-    if (selectors != null) {
-      selectors.clear();
-    }
-
     Closer c = Closer.create();
     aggBuffers.forEach(c::register);
     try {
@@ -26,6 +26,7 @@ import org.apache.druid.java.util.common.io.Closer;
 import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.java.util.common.parsers.ParseException;
 import org.apache.druid.query.aggregation.Aggregator;
+import org.apache.druid.query.aggregation.AggregatorAndSize;
 import org.apache.druid.query.aggregation.AggregatorFactory;
 import org.apache.druid.query.dimension.DimensionSpec;
 import org.apache.druid.segment.ColumnSelectorFactory;
@@ -36,7 +37,6 @@ import org.apache.druid.segment.column.ColumnCapabilities;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -54,10 +54,13 @@ public class OnheapIncrementalIndex extends IncrementalIndex<Aggregator>
    * overhead per {@link ConcurrentHashMap.Node}  or {@link java.util.concurrent.ConcurrentSkipListMap.Node} object
    */
   private static final int ROUGH_OVERHEAD_PER_MAP_ENTRY = Long.BYTES * 5 + Integer.BYTES;
+  /**
+   * overhead per {@link Aggregator} object: object header and pointer to a selector, see {@link #factorizeAggs}
+   */
+  private static final int ROUGH_OVERHEAD_PER_AGGREGATOR = Long.BYTES * 2;
   private final ConcurrentHashMap<Integer, Aggregator[]> aggregators = new ConcurrentHashMap<>();
   private final FactsHolder facts;
   private final AtomicInteger indexIncrement = new AtomicInteger(0);
-  private final long maxBytesPerRowForAggregators;
   protected final int maxRowCount;
   protected final long maxBytesInMemory;
 
@@ -79,38 +82,9 @@ public class OnheapIncrementalIndex extends IncrementalIndex<Aggregator>
     super(incrementalIndexSchema, deserializeComplexMetrics, reportParseExceptions, concurrentEventAdd);
     this.maxRowCount = maxRowCount;
     this.maxBytesInMemory = maxBytesInMemory == 0 ? Long.MAX_VALUE : maxBytesInMemory;
-    this.facts = incrementalIndexSchema.isRollup() ? new RollupFactsHolder(sortFacts, dimsComparator(), getDimensions())
-                                                   : new PlainFactsHolder(sortFacts, dimsComparator());
-    maxBytesPerRowForAggregators = getMaxBytesPerRowForAggregators(incrementalIndexSchema);
-  }
-
-  /**
-   * Gives estimated max size per aggregator. It is assumed that every aggregator will have enough overhead for its own
-   * object header and for a pointer to a selector. We are adding a overhead-factor for each object as additional 16
-   * bytes.
-   * These 16 bytes or 128 bits is the object metadata for 64-bit JVM process and consists of:
-   * <ul>
-   * <li>Class pointer which describes the object type: 64 bits
-   * <li>Flags which describe state of the object including hashcode: 64 bits
-   * <ul/>
-   * total size estimation consists of:
-   * <ul>
-   * <li> metrics length : Integer.BYTES * len
-   * <li> maxAggregatorIntermediateSize : getMaxIntermediateSize per aggregator + overhead-factor(16 bytes)
-   * </ul>
-   *
-   * @param incrementalIndexSchema
-   *
-   * @return long max aggregator size in bytes
-   */
-  private static long getMaxBytesPerRowForAggregators(IncrementalIndexSchema incrementalIndexSchema)
-  {
-    long maxAggregatorIntermediateSize = Integer.BYTES * incrementalIndexSchema.getMetrics().length;
-    maxAggregatorIntermediateSize += Arrays.stream(incrementalIndexSchema.getMetrics())
-                                           .mapToLong(aggregator -> aggregator.getMaxIntermediateSizeWithNulls()
-                                                                    + Long.BYTES * 2)
-                                           .sum();
-    return maxAggregatorIntermediateSize;
+    this.facts = incrementalIndexSchema.isRollup()
+                 ? new RollupFactsHolder(sortFacts, concurrentEventAdd, dimsComparator(), getDimensions())
+                 : new PlainFactsHolder(sortFacts, dimsComparator());
   }
 
   @Override
@@ -150,7 +124,7 @@ public class OnheapIncrementalIndex extends IncrementalIndex<Aggregator>
       boolean skipMaxRowsInMemoryCheck
   ) throws IndexSizeExceededException
   {
-    List<String> parseExceptionMessages;
+    final List<String> parseExceptionMessages = new ArrayList<>();
     final int priorIndex = facts.getPriorIndex(key);
 
     Aggregator[] aggs;
@@ -159,11 +133,11 @@ public class OnheapIncrementalIndex extends IncrementalIndex<Aggregator>
     final AtomicLong sizeInBytes = getBytesInMemory();
     if (IncrementalIndexRow.EMPTY_ROW_INDEX != priorIndex) {
       aggs = concurrentGet(priorIndex);
-      parseExceptionMessages = doAggregate(metrics, aggs, rowContainer, row);
+      addAggregatorGrowth(doAggregate(metrics, aggs, rowContainer, row, parseExceptionMessages));
     } else {
       aggs = new Aggregator[metrics.length];
-      factorizeAggs(metrics, aggs, rowContainer, row);
-      parseExceptionMessages = doAggregate(metrics, aggs, rowContainer, row);
+      long aggregatorSizeInBytes = factorizeAggs(metrics, aggs, rowContainer, row);
+      aggregatorSizeInBytes += doAggregate(metrics, aggs, rowContainer, row, parseExceptionMessages);
 
       final int rowIndex = indexIncrement.getAndIncrement();
       concurrentSet(rowIndex, aggs);
@@ -181,12 +155,13 @@ public class OnheapIncrementalIndex extends IncrementalIndex<Aggregator>
       final int prev = facts.putIfAbsent(key, rowIndex);
       if (IncrementalIndexRow.EMPTY_ROW_INDEX == prev) {
         numEntries.incrementAndGet();
-        long estimatedRowSize = estimateRowSizeInBytes(key, maxBytesPerRowForAggregators);
-        sizeInBytes.addAndGet(estimatedRowSize);
+        addFactsBytesInMemory(estimateRowSizeInBytes(key));
+        addAggregatorBytesInMemory(aggregatorSizeInBytes);
       } else {
         // We lost a race
+        parseExceptionMessages.clear();
         aggs = concurrentGet(prev);
-        parseExceptionMessages = doAggregate(metrics, aggs, rowContainer, row);
+        addAggregatorGrowth(doAggregate(metrics, aggs, rowContainer, row, parseExceptionMessages));
         // Free up the misfire
         concurrentRemove(rowIndex);
         // This is expected to occur ~80% of the time in the worst scenarios
@@ -197,21 +172,26 @@ public class OnheapIncrementalIndex extends IncrementalIndex<Aggregator>
   }
 
   /**
-   * Gives an estimated size of row in bytes, it accounts for:
+   * Gives an estimated size of row in bytes, not including its aggregators. It accounts for:
    * <ul>
    * <li> overhead per Map Entry
    * <li> TimeAndDims key size
-   * <li> aggregator size
    * </ul>
    *
-   * @param key                          TimeAndDims key
-   * @param maxBytesPerRowForAggregators max size per aggregator
+   * @param key TimeAndDims key
    *
    * @return estimated size of row
    */
-  private long estimateRowSizeInBytes(IncrementalIndexRow key, long maxBytesPerRowForAggregators)
+  private long estimateRowSizeInBytes(IncrementalIndexRow key)
   {
-    return ROUGH_OVERHEAD_PER_MAP_ENTRY + key.estimateBytesInMemory() + maxBytesPerRowForAggregators;
+    return ROUGH_OVERHEAD_PER_MAP_ENTRY + key.estimateBytesInMemory();
+  }
+
+  private void addAggregatorGrowth(long bytes)
+  {
+    if (bytes != 0) {
+      addAggregatorBytesInMemory(bytes);
+    }
   }
 
   @Override
@@ -220,36 +200,53 @@ public class OnheapIncrementalIndex extends IncrementalIndex<Aggregator>
     return indexIncrement.get() - 1;
   }
 
-  private void factorizeAggs(
+  /**
+   * Creates the aggregators of a row and gives their estimated initial size in bytes, which is the sum of:
+   * <ul>
+   * <li> the slot of each aggregator in the row: Integer.BYTES per aggregator
+   * <li> the initial size of each aggregator given by {@link AggregatorFactory#factorizeWithSize}
+   * <li> the object header and selector pointer of each aggregator: {@link #ROUGH_OVERHEAD_PER_AGGREGATOR}
+   * </ul>
+   */
+  private long factorizeAggs(
       AggregatorFactory[] metrics,
       Aggregator[] aggs,
       ThreadLocal<InputRow> rowContainer,
       InputRow row
   )
   {
+    long sizeInBytes = (long) Integer.BYTES * metrics.length;
     rowContainer.set(row);
     for (int i = 0; i < metrics.length; i++) {
       final AggregatorFactory agg = metrics[i];
-      aggs[i] = agg.factorize(selectors.get(agg.getName()));
+      final AggregatorAndSize aggregatorAndSize = agg.factorizeWithSize(selectors.get(agg.getName()));
+      aggs[i] = aggregatorAndSize.getAggregator();
+      sizeInBytes += aggregatorAndSize.getInitialSizeBytes() + ROUGH_OVERHEAD_PER_AGGREGATOR;
     }
     rowContainer.set(null);
+    return sizeInBytes;
   }
 
-  private List<String> doAggregate(
+  /**
+   * Aggregates the row into the given aggregators and returns by how many bytes they grew, see
+   * {@link Aggregator#aggregateWithSize()}.
+   */
+  private long doAggregate(
       AggregatorFactory[] metrics,
       Aggregator[] aggs,
       ThreadLocal<InputRow> rowContainer,
-      InputRow row
+      InputRow row,
+      List<String> parseExceptionMessages
   )
   {
-    List<String> parseExceptionMessages = new ArrayList<>();
+    long growthInBytes = 0;
     rowContainer.set(row);
 
     for (int i = 0; i < aggs.length; i++) {
       final Aggregator agg = aggs[i];
       synchronized (agg) {
         try {
-          agg.aggregate();
+          growthInBytes += agg.aggregateWithSize();
         }
         catch (ParseException e) {
           // "aggregate" can throw ParseExceptions if a selector expects something but gets something else.
@@ -260,7 +257,7 @@ public class OnheapIncrementalIndex extends IncrementalIndex<Aggregator>
     }
 
     rowContainer.set(null);
-    return parseExceptionMessages;
+    return growthInBytes;
   }
 
   private void closeAggregators()
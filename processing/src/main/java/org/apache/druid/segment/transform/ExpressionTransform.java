@@ -32,6 +32,7 @@ import org.apache.druid.segment.virtual.ExpressionSelectors;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 public class ExpressionTransform implements Transform
 {
@@ -71,6 +72,14 @@ public class ExpressionTransform implements Transform
     return new ExpressionRowFunction(expr);
   }
 
+  @Override
+  public Set<String> getRequiredColumns()
+  {
+    return Parser.parse(expression, Preconditions.checkNotNull(this.macroTable, "macroTable"))
+                 .analyzeInputs()
+                 .getRequiredBindings();
+  }
+
   static class ExpressionRowFunction implements RowFunction
   {
     private final Expr expr;
@@ -23,6 +23,9 @@ import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import org.apache.druid.guice.annotations.ExtensionPoint;
 
+import javax.annotation.Nullable;
+import java.util.Set;
+
 /**
  * A row transform that is part of a {@link TransformSpec}. Transforms allow adding new fields to input rows. Each
  * one has a "name" (the name of the new field) which can be referred to by DimensionSpecs, AggregatorFactories, etc.
@@ -52,4 +55,13 @@ public interface Transform
    * as output.
    */
   RowFunction getRowFunction();
+
+  /**
+   * Returns the input fields read by the row function, or null if they are unknown.
+   */
+  @Nullable
+  default Set<String> getRequiredColumns()
+  {
+    return null;
+  }
 }
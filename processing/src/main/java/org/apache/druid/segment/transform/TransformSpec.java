@@ -94,6 +94,26 @@ public class TransformSpec
     return transforms;
   }
 
+  /**
+   * Returns the input fields read by the filter and the transforms, or null if they are unknown.
+   */
+  @Nullable
+  public Set<String> getRequiredColumns()
+  {
+    final Set<String> requiredColumns = new HashSet<>();
+    if (filter != null) {
+      requiredColumns.addAll(filter.getRequiredColumns());
+    }
+    for (Transform transform : transforms) {
+      final Set<String> transformColumns = transform.getRequiredColumns();
+      if (transformColumns == null) {
+        return null;
+      }
+      requiredColumns.addAll(transformColumns);
+    }
+    return requiredColumns;
+  }
+
   public <T> InputRowParser<T> decorate(final InputRowParser<T> parser)
   {
     // Always decorates, even if the transformSpec is a no-op. This is so fromInputRowParser can insist that the
@@ -20,10 +20,12 @@
 package org.apache.druid.segment.transform;
 
 import org.apache.druid.data.input.InputRow;
+import org.apache.druid.data.input.InputRowBatch;
 import org.apache.druid.data.input.InputRowListPlusRawValues;
 import org.apache.druid.data.input.InputSourceReader;
 import org.apache.druid.java.util.common.parsers.CloseableIterator;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 
 public class TransformingInputSourceReader implements InputSourceReader
@@ -43,6 +45,28 @@ public class TransformingInputSourceReader implements InputSourceReader
     return delegate.read().map(transformer::transform);
   }
 
+  @Override
+  public CloseableIterator<InputRowBatch> readBatches() throws IOException
+  {
+    return delegate.readBatches().map(
+        batch -> new InputRowBatch()
+        {
+          @Override
+          public int size()
+          {
+            return batch.size();
+          }
+
+          @Nullable
+          @Override
+          public InputRow getRow(int rowNumber)
+          {
+            return transformer.transform(batch.getRow(rowNumber));
+          }
+        }
+    );
+  }
+
   @Override
   public CloseableIterator<InputRowListPlusRawValues> sample() throws IOException
   {
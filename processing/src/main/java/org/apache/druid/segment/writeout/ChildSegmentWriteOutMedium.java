@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.writeout;
+
+import org.apache.druid.java.util.common.io.Closer;
+
+import java.io.IOException;
+
+/**
+ * A view of a parent {@link SegmentWriteOutMedium} that can be used from a different thread than the parent and its
+ * other children. {@link WriteOutBytes} are created by the parent while holding its monitor, and resources are
+ * registered in a separate {@link Closer} that is closed along with the parent.
+ *
+ * All threads sharing the parent must go through children, and a single child must not be used concurrently.
+ */
+public final class ChildSegmentWriteOutMedium implements SegmentWriteOutMedium
+{
+  private final SegmentWriteOutMedium parent;
+  private final Closer closer = Closer.create();
+
+  /**
+   * Must not be called concurrently with other uses of the parent.
+   */
+  public ChildSegmentWriteOutMedium(SegmentWriteOutMedium parent)
+  {
+    this.parent = parent;
+    parent.getCloser().register(closer);
+  }
+
+  @Override
+  public WriteOutBytes makeWriteOutBytes() throws IOException
+  {
+    synchronized (parent) {
+      return parent.makeWriteOutBytes();
+    }
+  }
+
+  @Override
+  public Closer getCloser()
+  {
+    return closer;
+  }
+
+  @Override
+  public void close() throws IOException
+  {
+    closer.close();
+  }
+}
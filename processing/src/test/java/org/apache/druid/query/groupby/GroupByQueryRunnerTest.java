@@ -422,11 +422,7 @@ public class GroupByQueryRunnerTest extends InitializedNullHandlingTest
       for (QueryRunner<ResultRow> runner : QueryRunnerTestHelper.makeQueryRunners(factory)) {
         for (boolean vectorize : ImmutableList.of(false, true)) {
           final String testName = StringUtils.format("config=%s, runner=%s, vectorize=%s", config, runner, vectorize);
-
-          // Add vectorization tests for any indexes that support it.
-          if (!vectorize || QueryRunnerTestHelper.isTestRunnerVectorizable(runner)) {
-            constructors.add(new Object[]{testName, config, factory, runner, vectorize});
-          }
+          constructors.add(new Object[]{testName, config, factory, runner, vectorize});
         }
       }
     }
@@ -137,10 +137,7 @@ public class GroupByTimeseriesQueryRunnerTest extends TimeseriesQueryRunnerTest
       };
 
       for (boolean vectorize : ImmutableList.of(false, true)) {
-        // Add vectorization tests for any indexes that support it.
-        if (!vectorize || QueryRunnerTestHelper.isTestRunnerVectorizable(runner)) {
-          constructors.add(new Object[]{modifiedRunner, vectorize});
-        }
+        constructors.add(new Object[]{modifiedRunner, vectorize});
       }
     }
 
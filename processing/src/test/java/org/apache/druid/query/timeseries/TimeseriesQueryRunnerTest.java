@@ -110,14 +110,12 @@ public class TimeseriesQueryRunnerTest extends InitializedNullHandlingTest
         Arrays.asList(QueryRunnerTestHelper.COMMON_DOUBLE_AGGREGATORS, QueryRunnerTestHelper.COMMON_FLOAT_AGGREGATORS)
     );
 
-    // Add vectorization tests for any indexes that support it.
+    // Vector cursors can't iterate backwards yet.
     return StreamSupport
         .stream(baseConstructors.spliterator(), false)
         .filter(
             constructor -> {
-              boolean canVectorize =
-                  QueryRunnerTestHelper.isTestRunnerVectorizable((QueryRunner) constructor[0])
-                  && !(boolean) constructor[1] /* descending */;
+              final boolean canVectorize = !(boolean) constructor[1] /* descending */;
               final boolean vectorize = (boolean) constructor[2]; /* vectorize */
               return !vectorize || canVectorize;
             }
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import org.apache.druid.data.input.MapBasedInputRow;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.query.aggregation.CountAggregatorFactory;
+import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
+import org.apache.druid.segment.data.IncrementalIndexTest;
+import org.apache.druid.segment.incremental.IncrementalIndex;
+import org.apache.druid.segment.writeout.OffHeapMemorySegmentWriteOutMediumFactory;
+import org.apache.druid.segment.writeout.SegmentWriteOutMediumFactory;
+import org.apache.druid.segment.writeout.TmpFileSegmentWriteOutMediumFactory;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IndexMergerV9ParallelColumnsTest
+{
+  private static final List<String> DIMENSIONS = ImmutableList.of("d0", "d1", "d2", "d3", "d4", "d5");
+  private static final AggregatorFactory[] METRICS = new AggregatorFactory[]{
+      new CountAggregatorFactory("count"),
+      new LongSumAggregatorFactory("sum", "m")
+  };
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testSameOutputAsSingleThreadedOffHeap() throws Exception
+  {
+    assertSameOutputAsSingleThreaded(OffHeapMemorySegmentWriteOutMediumFactory.instance());
+  }
+
+  @Test
+  public void testSameOutputAsSingleThreadedTmpFile() throws Exception
+  {
+    assertSameOutputAsSingleThreaded(TmpFileSegmentWriteOutMediumFactory.instance());
+  }
+
+  private void assertSameOutputAsSingleThreaded(SegmentWriteOutMediumFactory segmentWriteOutMediumFactory)
+      throws Exception
+  {
+    final IndexIO indexIO = TestHelper.getTestIndexIO();
+    final IndexMergerV9 serialMerger = TestHelper.getTestIndexMergerV9(segmentWriteOutMediumFactory);
+    final IndexMergerV9 parallelMerger = new IndexMergerV9(
+        TestHelper.JSON_MAPPER,
+        indexIO,
+        segmentWriteOutMediumFactory,
+        new IndexMergerConfig(4)
+    );
+
+    final List<QueryableIndex> indexes = makeIndexes(serialMerger, indexIO);
+
+    for (boolean rollup : new boolean[]{true, false}) {
+      final File serialDir = serialMerger.mergeQueryableIndex(
+          indexes,
+          rollup,
+          METRICS,
+          temporaryFolder.newFolder(),
+          new IndexSpec(),
+          null
+      );
+      final File parallelDir = parallelMerger.mergeQueryableIndex(
+          indexes,
+          rollup,
+          METRICS,
+          temporaryFolder.newFolder(),
+          new IndexSpec(),
+          null
+      );
+
+      final String[] files = serialDir.list();
+      Arrays.sort(files);
+      final String[] parallelFiles = parallelDir.list();
+      Arrays.sort(parallelFiles);
+      Assert.assertArrayEquals(files, parallelFiles);
+      for (String file : files) {
+        Assert.assertArrayEquals(
+            file,
+            Files.toByteArray(new File(serialDir, file)),
+            Files.toByteArray(new File(parallelDir, file))
+        );
+      }
+
+      try (QueryableIndex merged = indexIO.loadIndex(parallelDir)) {
+        Assert.assertEquals(DIMENSIONS, ImmutableList.copyOf(merged.getAvailableDimensions()));
+        Assert.assertEquals(1500, merged.getNumRows());
+      }
+    }
+
+    for (QueryableIndex index : indexes) {
+      index.close();
+    }
+  }
+
+  @Test
+  public void testProgressIsNotReportedConcurrently() throws Exception
+  {
+    final IndexIO indexIO = TestHelper.getTestIndexIO();
+    final IndexMergerV9 merger = new IndexMergerV9(
+        TestHelper.JSON_MAPPER,
+        indexIO,
+        OffHeapMemorySegmentWriteOutMediumFactory.instance(),
+        new IndexMergerConfig(4)
+    );
+    final List<QueryableIndex> indexes = makeIndexes(merger, indexIO);
+
+    final AtomicInteger callsInProgress = new AtomicInteger();
+    final AtomicInteger calls = new AtomicInteger();
+    final AtomicBoolean concurrentCall = new AtomicBoolean();
+    final ProgressIndicator progress = new BaseProgressIndicator()
+    {
+      @Override
+      public void progress()
+      {
+        calls.incrementAndGet();
+        if (callsInProgress.incrementAndGet() > 1) {
+          concurrentCall.set(true);
+        }
+        Thread.yield();
+        callsInProgress.decrementAndGet();
+      }
+    };
+
+    // Merge twice with the same merger, which reuses its column threads.
+    for (int i = 0; i < 2; i++) {
+      final File mergedDir = merger.mergeQueryableIndex(
+          indexes,
+          true,
+          METRICS,
+          temporaryFolder.newFolder(),
+          new IndexSpec(),
+          progress,
+          null
+      );
+      try (QueryableIndex merged = indexIO.loadIndex(mergedDir)) {
+        Assert.assertEquals(DIMENSIONS, ImmutableList.copyOf(merged.getAvailableDimensions()));
+      }
+    }
+    Assert.assertTrue(calls.get() > 0);
+    Assert.assertFalse(concurrentCall.get());
+
+    for (QueryableIndex index : indexes) {
+      index.close();
+    }
+  }
+
+  private List<QueryableIndex> makeIndexes(IndexMergerV9 merger, IndexIO indexIO) throws Exception
+  {
+    final List<QueryableIndex> indexes = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      final IncrementalIndex toPersist = IncrementalIndexTest.createIndex(METRICS);
+      for (int j = 0; j < 500; j++) {
+        final Map<String, Object> event = new HashMap<>();
+        event.put("d0", "v" + (j % 7));
+        event.put("d1", "v" + (j * 31 % 101));
+        event.put("d2", ImmutableList.of("a" + (j % 3), "b" + (j % 5)));
+        if (j % 4 != 0) {
+          event.put("d3", "v" + (j % 13));
+        }
+        event.put("d4", "v" + i);
+        event.put("d5", "v" + j);
+        event.put("m", j);
+        toPersist.add(new MapBasedInputRow(j % 10 * 1000L, DIMENSIONS, event));
+      }
+      final File persisted = merger.persist(toPersist, temporaryFolder.newFolder(), new IndexSpec(), null);
+      indexes.add(indexIO.loadIndex(persisted));
+    }
+    return indexes;
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.segment;
+
+import org.apache.druid.data.input.impl.DimensionSchema.MultiValueHandling;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.concurrent.Execs;
+import org.apache.druid.testing.InitializedNullHandlingTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class StringDimensionIndexerTest extends InitializedNullHandlingTest
+{
+  @Test
+  public void testConcurrentAddAssignsOneIdPerValue() throws Exception
+  {
+    final StringDimensionIndexer indexer = new StringDimensionIndexer(MultiValueHandling.ofDefault(), true);
+    final int numThreads = 4;
+    final int numValues = 10000;
+    final ExecutorService exec = Execs.multiThreaded(numThreads, "StringDimensionIndexerTest-%d");
+    final CountDownLatch start = new CountDownLatch(1);
+
+    try {
+      final List<Future<int[]>> futures = new ArrayList<>();
+      for (int t = 0; t < numThreads; t++) {
+        futures.add(
+            exec.submit(() -> {
+              start.await();
+              final int[] ids = new int[numValues];
+              for (int i = 0; i < numValues; i++) {
+                ids[i] = indexer.processRowValsToUnsortedEncodedKeyComponent(StringUtils.format("v%05d", i), false)[0];
+              }
+              return ids;
+            })
+        );
+      }
+      start.countDown();
+
+      final int[] expected = futures.get(0).get(1, TimeUnit.MINUTES);
+      for (Future<int[]> future : futures) {
+        Assert.assertArrayEquals(expected, future.get(1, TimeUnit.MINUTES));
+      }
+
+      Assert.assertEquals(numValues, indexer.getCardinality());
+      final Set<Integer> distinctIds = new HashSet<>();
+      for (int i = 0; i < numValues; i++) {
+        Assert.assertTrue(distinctIds.add(expected[i]));
+        Assert.assertEquals(
+            StringUtils.format("v%05d", i),
+            indexer.convertUnsortedEncodedKeyComponentToActualList(new int[]{expected[i]})
+        );
+      }
+      Assert.assertEquals("v00000", indexer.getMinValue());
+      Assert.assertEquals(StringUtils.format("v%05d", numValues - 1), indexer.getMaxValue());
+    }
+    finally {
+      exec.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testNullValue()
+  {
+    final StringDimensionIndexer indexer = new StringDimensionIndexer(MultiValueHandling.ofDefault(), true);
+    final int fooId = indexer.processRowValsToUnsortedEncodedKeyComponent("foo", false)[0];
+    final int nullId = indexer.processRowValsToUnsortedEncodedKeyComponent(null, false)[0];
+
+    Assert.assertNotEquals(fooId, nullId);
+    Assert.assertEquals(nullId, indexer.processRowValsToUnsortedEncodedKeyComponent(null, false)[0]);
+    Assert.assertEquals(2, indexer.getCardinality());
+    Assert.assertNull(indexer.convertUnsortedEncodedKeyComponentToActualList(new int[]{nullId}));
+    Assert.assertEquals("foo", indexer.getMinValue());
+  }
+}
@@ -45,7 +45,7 @@ public class IncrementalIndexRowSizeTest extends InitializedNullHandlingTest
     long time = System.currentTimeMillis();
     IncrementalIndex.IncrementalIndexRowResult tndResult = index.toIncrementalIndexRow(toMapRow(time, "billy", "A", "joe", "B"));
     IncrementalIndexRow td1 = tndResult.getIncrementalIndexRow();
-    Assert.assertEquals(44, td1.estimateBytesInMemory());
+    Assert.assertEquals(40, td1.estimateBytesInMemory());
   }
 
   @Test
@@ -65,7 +65,7 @@ public class IncrementalIndexRowSizeTest extends InitializedNullHandlingTest
         Arrays.asList("A", "B")
     ));
     IncrementalIndexRow td1 = tndResult.getIncrementalIndexRow();
-    Assert.assertEquals(50, td1.estimateBytesInMemory());
+    Assert.assertEquals(44, td1.estimateBytesInMemory());
   }
 
   @Test
@@ -85,7 +85,29 @@ public class IncrementalIndexRowSizeTest extends InitializedNullHandlingTest
         Arrays.asList("123", "abcdef")
     ));
     IncrementalIndexRow td1 = tndResult.getIncrementalIndexRow();
-    Assert.assertEquals(74, td1.estimateBytesInMemory());
+    Assert.assertEquals(44, td1.estimateBytesInMemory());
+  }
+
+  @Test
+  public void testDictionarySizeAccountedOnce()
+  {
+    IncrementalIndex index = new IncrementalIndex.Builder()
+        .setSimpleTestingIndexSchema(new CountAggregatorFactory("cnt"))
+        .setMaxRowCount(10000)
+        .setMaxBytesInMemory(1000)
+        .buildOnheap();
+    long time = System.currentTimeMillis();
+    index.toIncrementalIndexRow(toMapRow(time, "billy", "nelson", "joe", Arrays.asList("123", "abcdef")));
+    // 92 bytes of overhead per value plus 2 bytes per character: 104 + 98 + 104
+    Assert.assertEquals(306, index.getDictionaryBytesInMemory());
+    Assert.assertEquals(306, index.getBytesInMemory().get());
+
+    index.toIncrementalIndexRow(toMapRow(time + 1, "billy", "nelson", "joe", "abcdef"));
+    Assert.assertEquals(306, index.getDictionaryBytesInMemory());
+    index.toIncrementalIndexRow(toMapRow(time + 1, "billy", "nelson", "joe", "ab"));
+    Assert.assertEquals(306 + 96, index.getDictionaryBytesInMemory());
+    Assert.assertEquals(306 + 96, index.getBytesInMemory().get());
+    Assert.assertEquals(0, index.getFactsBytesInMemory());
   }
 
   private MapBasedInputRow toMapRow(long time, Object... dimAndVal)
@@ -64,6 +64,9 @@ import org.apache.druid.segment.VirtualColumns;
 import org.apache.druid.segment.data.IndexedInts;
 import org.apache.druid.segment.filter.Filters;
 import org.apache.druid.segment.filter.SelectorFilter;
+import org.apache.druid.segment.vector.SingleValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.VectorCursor;
+import org.apache.druid.segment.vector.VectorValueSelector;
 import org.apache.druid.testing.InitializedNullHandlingTest;
 import org.joda.time.DateTime;
 import org.joda.time.Interval;
@@ -74,6 +77,7 @@ import org.junit.runners.Parameterized;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -431,6 +435,79 @@ public class IncrementalIndexStorageAdapterTest extends InitializedNullHandlingT
     }
   }
 
+  @Test
+  public void testVectorCursor() throws Exception
+  {
+    IncrementalIndex index = indexCreator.createIndex();
+    final long timestamp = System.currentTimeMillis();
+    index.add(new MapBasedInputRow(timestamp, Collections.singletonList("billy"), ImmutableMap.of("billy", "hi")));
+    index.add(new MapBasedInputRow(timestamp + 1, Collections.singletonList("sally"), ImmutableMap.of("sally", "bo")));
+    index.add(new MapBasedInputRow(timestamp + 2, Collections.singletonList("billy"), ImmutableMap.of("billy", "hey")));
+
+    final StorageAdapter sa = new IncrementalIndexStorageAdapter(index);
+    Assert.assertTrue(sa.canVectorize(null, VirtualColumns.EMPTY, false));
+
+    try (final VectorCursor cursor = sa.makeVectorCursor(
+        null,
+        Intervals.utc(timestamp - 60_000, timestamp + 60_000),
+        VirtualColumns.EMPTY,
+        false,
+        2,
+        null
+    )) {
+      Assert.assertNotNull(cursor);
+      final SingleValueDimensionVectorSelector billySelector =
+          cursor.getColumnSelectorFactory().makeSingleValueDimensionSelector(DefaultDimensionSpec.of("billy"));
+      final VectorValueSelector cntSelector = cursor.getColumnSelectorFactory().makeValueSelector("cnt");
+
+      final List<String> billys = new ArrayList<>();
+      final List<Long> cnts = new ArrayList<>();
+      final List<Integer> vectorSizes = new ArrayList<>();
+      while (!cursor.isDone()) {
+        vectorSizes.add(cursor.getCurrentVectorSize());
+        final int[] ids = billySelector.getRowVector();
+        final long[] longs = cntSelector.getLongVector();
+        for (int i = 0; i < cursor.getCurrentVectorSize(); i++) {
+          billys.add(billySelector.lookupName(ids[i]));
+          cnts.add(longs[i]);
+        }
+        cursor.advance();
+      }
+
+      Assert.assertEquals(Arrays.asList(2, 1), vectorSizes);
+      Assert.assertEquals(Arrays.asList("hi", null, "hey"), billys);
+      Assert.assertEquals(Arrays.asList(1L, 1L, 1L), cnts);
+    }
+
+    try (final VectorCursor cursor = sa.makeVectorCursor(
+        new SelectorFilter("billy", "hey"),
+        Intervals.utc(timestamp - 60_000, timestamp + 60_000),
+        VirtualColumns.EMPTY,
+        false,
+        2,
+        null
+    )) {
+      Assert.assertNotNull(cursor);
+      final SingleValueDimensionVectorSelector billySelector =
+          cursor.getColumnSelectorFactory().makeSingleValueDimensionSelector(DefaultDimensionSpec.of("billy"));
+      Assert.assertEquals(1, cursor.getCurrentVectorSize());
+      Assert.assertEquals("hey", billySelector.lookupName(billySelector.getRowVector()[0]));
+      cursor.advance();
+      Assert.assertTrue(cursor.isDone());
+    }
+
+    Assert.assertNull(
+        sa.makeVectorCursor(
+            null,
+            Intervals.utc(timestamp + 60_000, timestamp + 120_000),
+            VirtualColumns.EMPTY,
+            false,
+            2,
+            null
+        )
+    );
+  }
+
   @Test
   public void testCursoringAndIndexUpdationInterleaving() throws Exception
   {
@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.segment.incremental;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.druid.data.input.MapBasedInputRow;
+import org.apache.druid.data.input.Row;
+import org.apache.druid.data.input.impl.DimensionsSpec;
+import org.apache.druid.data.input.impl.DoubleDimensionSchema;
+import org.apache.druid.data.input.impl.FloatDimensionSchema;
+import org.apache.druid.data.input.impl.LongDimensionSchema;
+import org.apache.druid.data.input.impl.StringDimensionSchema;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.query.aggregation.CountAggregatorFactory;
+import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
+import org.apache.druid.segment.DimensionIndexer;
+import org.apache.druid.testing.InitializedNullHandlingTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OffheapArenaIncrementalIndexTest extends InitializedNullHandlingTest
+{
+  private static IncrementalIndex.Builder builder(boolean rollup)
+  {
+    return new IncrementalIndex.Builder()
+        .setIndexSchema(
+            new IncrementalIndexSchema.Builder()
+                .withQueryGranularity(Granularities.NONE)
+                .withDimensionsSpec(
+                    new DimensionsSpec(
+                        ImmutableList.of(
+                            new StringDimensionSchema("string"),
+                            new LongDimensionSchema("long"),
+                            new FloatDimensionSchema("float"),
+                            new DoubleDimensionSchema("double")
+                        ),
+                        null,
+                        null
+                    )
+                )
+                .withMetrics(new CountAggregatorFactory("cnt"), new LongSumAggregatorFactory("sum", "value"))
+                .withRollup(rollup)
+                .build()
+        )
+        .setSortFacts(true)
+        .setMaxRowCount(100000);
+  }
+
+  private static MapBasedInputRow row(long timestamp, String string, long value)
+  {
+    return new MapBasedInputRow(
+        timestamp,
+        ImmutableList.of("string", "long", "float", "double"),
+        ImmutableMap.of("string", string, "long", 7L, "float", 1.5f, "double", 2.5d, "value", value)
+    );
+  }
+
+  @Test
+  public void testRollup() throws IndexSizeExceededException
+  {
+    try (OffheapArenaIncrementalIndex index = builder(true).buildOffheapArena()) {
+      index.add(row(1000, "a", 1));
+      index.add(row(1000, "b", 2));
+      index.add(row(1000, "a", 3));
+      index.add(row(2000, "a", 4));
+
+      Assert.assertEquals(3, index.size());
+
+      final List<Row> rows = ImmutableList.copyOf(index.iterator());
+      Assert.assertEquals(ImmutableList.of("a"), rows.get(0).getDimension("string"));
+      Assert.assertEquals(2L, rows.get(0).getMetric("cnt").longValue());
+      Assert.assertEquals(4L, rows.get(0).getMetric("sum").longValue());
+      Assert.assertEquals(ImmutableList.of("7"), rows.get(0).getDimension("long"));
+      Assert.assertEquals(ImmutableList.of("b"), rows.get(1).getDimension("string"));
+      Assert.assertEquals(2L, rows.get(1).getMetric("sum").longValue());
+      Assert.assertEquals(2000L, rows.get(2).getTimestampFromEpoch());
+      Assert.assertEquals(4L, rows.get(2).getMetric("sum").longValue());
+    }
+  }
+
+  @Test
+  public void testNoRollup() throws IndexSizeExceededException
+  {
+    try (OffheapArenaIncrementalIndex index = builder(false).buildOffheapArena()) {
+      index.add(row(1000, "a", 1));
+      index.add(row(1000, "a", 1));
+
+      Assert.assertEquals(2, index.size());
+      Assert.assertEquals(IncrementalIndexRow.EMPTY_ROW_INDEX, index.getFacts().getPriorIndex(
+          index.toIncrementalIndexRow(row(1000, "a", 1)).getIncrementalIndexRow()
+      ));
+    }
+  }
+
+  @Test
+  public void testPutIfAbsent() throws IndexSizeExceededException
+  {
+    try (OffheapArenaIncrementalIndex index = builder(true).buildOffheapArena()) {
+      index.add(row(1000, "a", 1));
+      index.add(row(1000, "b", 1));
+
+      final IncrementalIndexRow key = index.toIncrementalIndexRow(row(1000, "b", 1)).getIncrementalIndexRow();
+      Assert.assertEquals(1, index.getFacts().putIfAbsent(key, 5));
+      Assert.assertEquals(2, index.size());
+    }
+  }
+
+  @Test
+  public void testPutIfAbsentNoRollup() throws IndexSizeExceededException
+  {
+    try (OffheapArenaIncrementalIndex index = builder(false).buildOffheapArena()) {
+      index.add(row(1000, "a", 1));
+
+      // reuse the record of row 0, which has the same key
+      final IncrementalIndexRow key = index.toIncrementalIndexRow(row(1000, "a", 1)).getIncrementalIndexRow();
+      Assert.assertEquals(IncrementalIndexRow.EMPTY_ROW_INDEX, index.getFacts().putIfAbsent(key, 0));
+      Assert.assertEquals(ImmutableList.of("a", "a"), stringValues(index, index.getFacts().keySet()));
+    }
+  }
+
+  @Test
+  public void testPersistIterableIsSortedByDimensions() throws IndexSizeExceededException
+  {
+    try (OffheapArenaIncrementalIndex index = builder(true).buildOffheapArena()) {
+      index.add(row(2000, "b", 1));
+      index.add(row(1000, "c", 1));
+      index.add(row(1000, "a", 1));
+      index.add(row(1000, "b", 1));
+
+      // while ingesting, rows of a time bucket are kept in insertion order
+      Assert.assertEquals(ImmutableList.of("c", "a", "b", "b"), stringValues(index, index.getFacts().keySet()));
+      Assert.assertEquals(
+          ImmutableList.of("a", "b", "c", "b"),
+          stringValues(index, index.getFacts().persistIterable())
+      );
+    }
+  }
+
+  @Test
+  public void testTimeRange() throws IndexSizeExceededException
+  {
+    try (OffheapArenaIncrementalIndex index = builder(true).buildOffheapArena()) {
+      index.add(row(1000, "a", 1));
+      index.add(row(2000, "b", 1));
+      index.add(row(2000, "c", 1));
+      index.add(row(3000, "d", 1));
+
+      Assert.assertEquals(1000, index.getFacts().getMinTimeMillis());
+      Assert.assertEquals(3000, index.getFacts().getMaxTimeMillis());
+      Assert.assertEquals(
+          ImmutableList.of("b", "c"),
+          stringValues(index, index.getFacts().timeRangeIterable(false, 1500, 3000))
+      );
+      Assert.assertEquals(
+          ImmutableList.of("d", "c", "b"),
+          stringValues(index, index.getFacts().timeRangeIterable(true, 1500, 3001))
+      );
+      Assert.assertEquals(3, index.getTimeBucketCount());
+    }
+  }
+
+  @Test
+  public void testGrowth() throws IndexSizeExceededException
+  {
+    final int numRows = 50000;
+    try (OffheapArenaIncrementalIndex index = builder(true).buildOffheapArena()) {
+      for (int pass = 0; pass < 2; pass++) {
+        for (int i = 0; i < numRows; i++) {
+          index.add(row(i % 10, String.valueOf(i), i));
+        }
+      }
+
+      Assert.assertEquals(numRows, index.size());
+      Assert.assertEquals(numRows - 1, index.getLastRowIndex());
+      for (Row row : index) {
+        Assert.assertEquals(2L, row.getMetric("cnt").longValue());
+        Assert.assertEquals(2 * Long.parseLong(row.getDimension("string").get(0)), row.getMetric("sum").longValue());
+      }
+      Assert.assertTrue(index.getArenaBytes() > 0);
+    }
+  }
+
+  @Test
+  public void testMaxRowCount() throws IndexSizeExceededException
+  {
+    try (OffheapArenaIncrementalIndex index = builder(true).setMaxRowCount(2).buildOffheapArena()) {
+      index.add(row(1000, "a", 1));
+      index.add(row(1000, "b", 1));
+      // existing rows can still be updated
+      index.add(row(1000, "a", 1));
+      Assert.assertFalse(index.canAppendRow());
+      Assert.assertEquals("Maximum number of rows [2] reached", index.getOutOfRowsReason());
+
+      try {
+        index.add(row(1000, "c", 1));
+        Assert.fail("expected IndexSizeExceededException");
+      }
+      catch (IndexSizeExceededException e) {
+        Assert.assertEquals(2, index.size());
+      }
+    }
+  }
+
+  @Test
+  public void testBytesInMemoryIncludeArena() throws IndexSizeExceededException
+  {
+    try (OffheapArenaIncrementalIndex index = builder(true).buildOffheapArena()) {
+      final IncrementalIndexAddResult result = index.add(row(1000, "a", 1));
+      Assert.assertEquals(index.getBytesInMemory().get(), result.getBytesInMemory());
+      Assert.assertTrue(index.getArenaBytes() >= 1 << 20);
+      Assert.assertTrue(result.getBytesInMemory() >= index.getArenaBytes());
+      Assert.assertTrue(result.getBytesInMemory() < index.getArenaBytes() + 1000);
+    }
+  }
+
+  @Test
+  public void testMaxBytesInMemoryCountsArena() throws IndexSizeExceededException
+  {
+    try (OffheapArenaIncrementalIndex index = builder(true).setMaxBytesInMemory(1 << 20).buildOffheapArena()) {
+      // the first row allocates a whole arena chunk
+      index.add(row(1000, "a", 1));
+      Assert.assertFalse(index.canAppendRow());
+      Assert.assertEquals("Maximum size in bytes [1048576] reached", index.getOutOfRowsReason());
+
+      try {
+        index.add(row(1000, "b", 1));
+        Assert.fail("expected IndexSizeExceededException");
+      }
+      catch (IndexSizeExceededException e) {
+        Assert.assertEquals(1, index.size());
+      }
+    }
+  }
+
+  private static List<Object> stringValues(IncrementalIndex<?> index, Iterable<IncrementalIndexRow> rows)
+  {
+    final DimensionIndexer indexer = index.getDimension("string").getIndexer();
+    final List<Object> values = new ArrayList<>();
+    for (IncrementalIndexRow row : rows) {
+      values.add(indexer.convertUnsortedEncodedKeyComponentToActualList(row.getDims()[0]));
+    }
+    return values;
+  }
+}
@@ -208,7 +208,7 @@ public class OnheapIncrementalIndexBenchmark extends AbstractBenchmark
         final int prev = getFacts().putIfAbsent(key, rowIndex);
         if (IncrementalIndexRow.EMPTY_ROW_INDEX == prev) {
           numEntries.incrementAndGet();
-          sizeInBytes.incrementAndGet();
+          addFactsBytesInMemory(1);
         } else {
           // We lost a race
           aggs = indexedMap.get(prev);
@@ -22,6 +22,8 @@ package org.apache.druid.segment.incremental;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.apache.druid.data.input.MapBasedInputRow;
+import org.apache.druid.data.input.Row;
+import org.apache.druid.java.util.common.concurrent.Execs;
 import org.apache.druid.java.util.common.granularity.Granularities;
 import org.apache.druid.js.JavaScriptConfig;
 import org.apache.druid.query.aggregation.Aggregator;
@@ -35,8 +37,14 @@ import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -229,4 +237,92 @@ public class OnheapIncrementalIndexTest extends InitializedNullHandlingTest
     index.close();
     EasyMock.verify(mockedAggregator);
   }
+
+  @Test
+  public void testRollupInBuffer() throws Exception
+  {
+    final IncrementalIndex<?> index = new IncrementalIndex.Builder()
+        .setIndexSchema(
+            new IncrementalIndexSchema.Builder()
+                .withQueryGranularity(Granularities.MINUTE)
+                .withMetrics(new LongSumAggregatorFactory("sum", "met"))
+                .build()
+        )
+        .setMaxRowCount(MAX_ROWS)
+        .buildOnheap();
+
+    for (int i = 0; i < 100; i++) {
+      index.add(
+          new MapBasedInputRow(
+              i * 100L,
+              Collections.singletonList("billy"),
+              ImmutableMap.of("billy", i % 2 == 0 ? "a" : "b", "met", i)
+          )
+      );
+    }
+
+    Assert.assertEquals(2, index.size());
+    // only the first row of each key is looked up in the facts
+    Assert.assertEquals(98, index.getNumRowsRolledUpInBuffer());
+    final Map<String, Long> sums = new HashMap<>();
+    for (Row row : index) {
+      sums.put(row.getDimension("billy").get(0), row.getMetric("sum").longValue());
+    }
+    Assert.assertEquals(ImmutableMap.of("a", 2450L, "b", 2500L), sums);
+    index.close();
+  }
+
+  @Test
+  public void testRollupBufferPerThreadWithConcurrentEventAdd() throws Exception
+  {
+    final IncrementalIndex<?> index = new IncrementalIndex.Builder()
+        .setIndexSchema(
+            new IncrementalIndexSchema.Builder()
+                .withQueryGranularity(Granularities.MINUTE)
+                .withMetrics(new LongSumAggregatorFactory("sum", "met"))
+                .build()
+        )
+        .setConcurrentEventAdd(true)
+        .setMaxRowCount(MAX_ROWS)
+        .buildOnheap();
+
+    final ExecutorService executor = Execs.multiThreaded(2, "rollup-buffer-test-%d");
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (String key : ImmutableList.of("a", "b")) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 50; i++) {
+                    index.add(
+                        new MapBasedInputRow(
+                            i * 100L,
+                            Collections.singletonList("billy"),
+                            ImmutableMap.of("billy", key, "met", i)
+                        )
+                    );
+                  }
+                  return null;
+                }
+            )
+        );
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    Assert.assertEquals(2, index.size());
+    // each thread only looks up the first row of its key in the facts
+    Assert.assertEquals(98, index.getNumRowsRolledUpInBuffer());
+    final Map<String, Long> sums = new HashMap<>();
+    for (Row row : index) {
+      sums.put(row.getDimension("billy").get(0), row.getMetric("sum").longValue());
+    }
+    Assert.assertEquals(ImmutableMap.of("a", 1225L, "b", 1225L), sums);
+    index.close();
+  }
 }
@@ -36,6 +36,9 @@ public class BrokerSegmentWatcherConfig
   @JsonProperty
   private boolean awaitInitializationOnStart = true;
 
+  @JsonProperty
+  private long maxTimelineSnapshotStalenessMillis = 0;
+
   public Set<String> getWatchedTiers()
   {
     return watchedTiers;
@@ -50,4 +53,13 @@ public class BrokerSegmentWatcherConfig
   {
     return awaitInitializationOnStart;
   }
+
+  /**
+   * How long queries may keep using a timeline snapshot which misses segment updates while it is rebuilt in the
+   * background. 0 means that queries always see the latest updates.
+   */
+  public long getMaxTimelineSnapshotStalenessMillis()
+  {
+    return maxTimelineSnapshotStalenessMillis;
+  }
 }
@@ -44,6 +44,7 @@ import org.apache.druid.query.planning.DataSourceAnalysis;
 import org.apache.druid.server.coordination.DruidServerMetadata;
 import org.apache.druid.timeline.DataSegment;
 import org.apache.druid.timeline.SegmentId;
+import org.apache.druid.timeline.TimelineLookup;
 import org.apache.druid.timeline.VersionedIntervalTimeline;
 import org.apache.druid.timeline.partition.PartitionChunk;
 
@@ -71,7 +72,7 @@ public class BrokerServerView implements TimelineServerView
 
   private final ConcurrentMap<String, QueryableDruidServer> clients;
   private final Map<SegmentId, ServerSelector> selectors;
-  private final Map<String, VersionedIntervalTimeline<String, ServerSelector>> timelines;
+  private final ConcurrentMap<String, VersionedIntervalTimeline<String, ServerSelector>> timelines;
   private final ConcurrentMap<TimelineCallback, Executor> timelineCallbacks = new ConcurrentHashMap<>();
 
   private final QueryToolChestWarehouse warehouse;
@@ -83,6 +84,7 @@ public class BrokerServerView implements TimelineServerView
   private final ServiceEmitter emitter;
   private final BrokerSegmentWatcherConfig segmentWatcherConfig;
   private final Predicate<Pair<DruidServerMetadata, DataSegment>> segmentFilter;
+  private final ExecutorService timelineSnapshotExec = Execs.singleThreaded("BrokerServerView-snapshot-%s");
 
   private final CountDownLatch initialized = new CountDownLatch(1);
 
@@ -108,7 +110,7 @@ public class BrokerServerView implements TimelineServerView
     this.segmentWatcherConfig = segmentWatcherConfig;
     this.clients = new ConcurrentHashMap<>();
     this.selectors = new HashMap<>();
-    this.timelines = new HashMap<>();
+    this.timelines = new ConcurrentHashMap<>();
 
     this.segmentFilter = (Pair<DruidServerMetadata, DataSegment> metadataAndSegment) -> {
       if (segmentWatcherConfig.getWatchedTiers() != null
@@ -232,6 +234,7 @@ public class BrokerServerView implements TimelineServerView
         }
 
         timeline.add(segment.getInterval(), segment.getVersion(), segment.getShardSpec().createChunk(selector));
+        timeline.scheduleSnapshotRebuild(timelineSnapshotExec);
         selectors.put(segmentId, selector);
       }
 
@@ -284,22 +287,34 @@ public class BrokerServerView implements TimelineServerView
               segment.getVersion()
           );
         } else {
+          timeline.scheduleSnapshotRebuild(timelineSnapshotExec);
           runTimelineCallbacks(callback -> callback.segmentRemoved(segment));
         }
       }
     }
   }
 
+  /**
+   * Returns a view of the timeline of the given datasource whose lookups are served from immutable snapshots (see
+   * {@link VersionedIntervalTimeline#snapshot()}), so that queries neither wait for nor block inventory updates.
+   * Snapshots are rebuilt in the background after inventory updates. By default a query finding the snapshot stale
+   * rebuilds it, unless {@link BrokerSegmentWatcherConfig#getMaxTimelineSnapshotStalenessMillis()} allows it to miss
+   * recent updates.
+   */
   @Override
-  public Optional<VersionedIntervalTimeline<String, ServerSelector>> getTimeline(final DataSourceAnalysis analysis)
+  public Optional<TimelineLookup<String, ServerSelector>> getTimeline(final DataSourceAnalysis analysis)
   {
     final TableDataSource tableDataSource =
         analysis.getBaseTableDataSource()
                 .orElseThrow(() -> new ISE("Cannot handle datasource: %s", analysis.getDataSource()));
 
-    synchronized (lock) {
-      return Optional.ofNullable(timelines.get(tableDataSource.getName()));
-    }
+    return Optional.ofNullable(timelines.get(tableDataSource.getName()))
+                   .map(
+                       timeline -> timeline.asSnapshotView(
+                           timelineSnapshotExec,
+                           segmentWatcherConfig.getMaxTimelineSnapshotStalenessMillis()
+                       )
+                   );
   }
 
   @Override
@@ -63,6 +63,7 @@ import org.apache.druid.query.QueryToolChest;
 import org.apache.druid.query.QueryToolChestWarehouse;
 import org.apache.druid.query.Result;
 import org.apache.druid.query.SegmentDescriptor;
+import org.apache.druid.query.TableDataSource;
 import org.apache.druid.query.aggregation.MetricManipulatorFns;
 import org.apache.druid.query.context.ResponseContext;
 import org.apache.druid.query.filter.DimFilterUtils;
@@ -118,6 +119,7 @@ public class CachingClusteredClient implements QuerySegmentWalker
   private final DruidProcessingConfig processingConfig;
   private final ForkJoinPool pool;
   private final QueryScheduler scheduler;
+  private final QueryHedger queryHedger;
 
   @Inject
   public CachingClusteredClient(
@@ -130,7 +132,8 @@ public class CachingClusteredClient implements QuerySegmentWalker
       @Client DruidHttpClientConfig httpClientConfig,
       DruidProcessingConfig processingConfig,
       @Merging ForkJoinPool pool,
-      QueryScheduler scheduler
+      QueryScheduler scheduler,
+      QueryHedger queryHedger
   )
   {
     this.warehouse = warehouse;
@@ -143,6 +146,7 @@ public class CachingClusteredClient implements QuerySegmentWalker
     this.processingConfig = processingConfig;
     this.pool = pool;
     this.scheduler = scheduler;
+    this.queryHedger = queryHedger;
 
     if (cacheConfig.isQueryCacheable(Query.GROUP_BY) && (cacheConfig.isUseCache() || cacheConfig.isPopulateCache())) {
       log.warn(
@@ -238,8 +242,10 @@ public class CachingClusteredClient implements QuerySegmentWalker
     private final boolean useCache;
     private final boolean populateCache;
     private final boolean isBySegment;
+    private final boolean hedgingEnabled;
     private final int uncoveredIntervalsLimit;
     private final Map<String, Cache.NamedKey> cachePopulatorKeyMap = new HashMap<>();
+    private final Map<SegmentDescriptor, ServerSelector> segmentSelectors = new HashMap<>();
     private final DataSourceAnalysis dataSourceAnalysis;
     private final List<Interval> intervals;
 
@@ -254,6 +260,7 @@ public class CachingClusteredClient implements QuerySegmentWalker
       this.useCache = CacheUtil.isUseSegmentCache(query, strategy, cacheConfig, CacheUtil.ServerType.BROKER);
       this.populateCache = CacheUtil.isPopulateSegmentCache(query, strategy, cacheConfig, CacheUtil.ServerType.BROKER);
       this.isBySegment = QueryContexts.isBySegment(query);
+      this.hedgingEnabled = queryHedger.isHedgingEnabled(query);
       // Note that enabling this leads to putting uncovered intervals information in the response headers
       // and might blow up in some cases https://github.com/apache/druid/issues/2108
       this.uncoveredIntervalsLimit = QueryContexts.getUncoveredIntervalsLimit(query);
@@ -324,7 +331,7 @@ public class CachingClusteredClient implements QuerySegmentWalker
         return merge(sequencesByInterval);
       });
 
-      return scheduler.run(query, mergedResultSequence);
+      return scheduler.run(queryPlus, mergedResultSequence);
     }
 
     private Sequence<T> merge(List<Sequence<T>> sequencesByInterval)
@@ -564,6 +571,9 @@ public class CachingClusteredClient implements QuerySegmentWalker
         } else {
           final DruidServer server = queryableDruidServer.getServer();
           serverSegments.computeIfAbsent(server, s -> new ArrayList<>()).add(segmentServer.getSegmentDescriptor());
+          if (hedgingEnabled) {
+            segmentSelectors.put(segmentServer.getSegmentDescriptor(), segmentServer.getServer());
+          }
         }
       }
       return serverSegments;
@@ -633,8 +643,20 @@ public class CachingClusteredClient implements QuerySegmentWalker
 
         if (isBySegment) {
           serverResults = getBySegmentServerResults(serverRunner, segmentsOfServer, maxQueuedBytesPerServer);
+        } else if (server.segmentReplicatable() && !populateCache && hedgingEnabled) {
+          serverResults = getHedgedServerResults(
+              server,
+              serverRunner,
+              segmentsOfServer,
+              maxQueuedBytesPerServer
+          );
         } else if (!server.segmentReplicatable() || !populateCache) {
-          serverResults = getSimpleServerResults(serverRunner, segmentsOfServer, maxQueuedBytesPerServer);
+          serverResults = getSimpleServerResults(
+              serverRunner,
+              segmentsOfServer,
+              maxQueuedBytesPerServer,
+              responseContext
+          );
         } else {
           serverResults = getAndCacheServerResults(serverRunner, segmentsOfServer, maxQueuedBytesPerServer);
         }
@@ -669,17 +691,74 @@ public class CachingClusteredClient implements QuerySegmentWalker
     private Sequence<T> getSimpleServerResults(
         final QueryRunner serverRunner,
         final List<SegmentDescriptor> segmentsOfServer,
-        long maxQueuedBytesPerServer
+        long maxQueuedBytesPerServer,
+        final ResponseContext serverResponseContext
     )
     {
       return serverRunner.run(
           queryPlus.withQuery(
               Queries.withSpecificSegments(queryPlus.getQuery(), segmentsOfServer)
           ).withMaxQueuedBytes(maxQueuedBytesPerServer),
+          serverResponseContext
+      );
+    }
+
+    /**
+     * Like {@link #getSimpleServerResults}, but re-issues the request to other replicas through {@link QueryHedger}
+     * if the server is slow to respond. The original and the hedged request get their own response contexts, and only
+     * the winner's is merged into {@link #responseContext}.
+     */
+    private Sequence<T> getHedgedServerResults(
+        final DruidServer server,
+        final QueryRunner serverRunner,
+        final List<SegmentDescriptor> segmentsOfServer,
+        long maxQueuedBytesPerServer
+    )
+    {
+      return queryHedger.run(
+          dataSourceAnalysis.getBaseTableDataSource().map(TableDataSource::getName).orElse(""),
+          context -> getSimpleServerResults(serverRunner, segmentsOfServer, maxQueuedBytesPerServer, context),
+          context -> getBackupServerResults(server, segmentsOfServer, maxQueuedBytesPerServer, context),
           responseContext
       );
     }
 
+    /**
+     * Requests the given segments from replicas other than the given server. Returns null if some segment has no
+     * other replica.
+     */
+    @Nullable
+    private Sequence<T> getBackupServerResults(
+        final DruidServer excludedServer,
+        final List<SegmentDescriptor> segments,
+        long maxQueuedBytesPerServer,
+        final ResponseContext backupResponseContext
+    )
+    {
+      final SortedMap<DruidServer, List<SegmentDescriptor>> segmentsByBackupServer = new TreeMap<>();
+      for (SegmentDescriptor segment : segments) {
+        final ServerSelector selector = segmentSelectors.get(segment);
+        final QueryableDruidServer backupServer = selector == null ? null : selector.pickExcluding(excludedServer);
+        if (backupServer == null) {
+          return null;
+        }
+        segmentsByBackupServer.computeIfAbsent(backupServer.getServer(), s -> new ArrayList<>()).add(segment);
+      }
+
+      final List<Sequence<T>> backupSequences = new ArrayList<>(segmentsByBackupServer.size());
+      for (Map.Entry<DruidServer, List<SegmentDescriptor>> entry : segmentsByBackupServer.entrySet()) {
+        final QueryRunner backupRunner = serverView.getQueryRunner(entry.getKey());
+        if (backupRunner == null) {
+          return null;
+        }
+        backupSequences.add(
+            getSimpleServerResults(backupRunner, entry.getValue(), maxQueuedBytesPerServer, backupResponseContext)
+        );
+      }
+
+      return Sequences.simple(backupSequences).flatMerge(seq -> seq, query.getResultOrdering());
+    }
+
     private Sequence<T> getAndCacheServerResults(
         final QueryRunner serverRunner,
         final List<SegmentDescriptor> segmentsOfServer,
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.client;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * Exponentially weighted moving average whose value also decays towards zero while no samples are recorded. Used to
+ * track per-server response times: the decay ensures that a server that was once slow, and therefore stopped receiving
+ * traffic, is eventually tried again.
+ *
+ * Thread-safe.
+ */
+public class DecayingMovingAverage
+{
+  private final double alpha;
+  private final long halfLifeNanos;
+
+  private double value = 0;
+  private long lastUpdateNanos;
+  private boolean initialized = false;
+
+  /**
+   * @param alpha         weight of each new sample, between 0 (exclusive) and 1 (inclusive)
+   * @param halfLifeNanos time without samples after which the average is halved
+   */
+  public DecayingMovingAverage(double alpha, long halfLifeNanos)
+  {
+    Preconditions.checkArgument(alpha > 0 && alpha <= 1, "alpha must be in (0, 1]");
+    Preconditions.checkArgument(halfLifeNanos > 0, "halfLifeNanos must be positive");
+    this.alpha = alpha;
+    this.halfLifeNanos = halfLifeNanos;
+  }
+
+  public void add(double sample)
+  {
+    add(sample, System.nanoTime());
+  }
+
+  public double get()
+  {
+    return get(System.nanoTime());
+  }
+
+  @VisibleForTesting
+  synchronized void add(double sample, long nowNanos)
+  {
+    if (initialized) {
+      value = alpha * sample + (1 - alpha) * decayed(nowNanos);
+    } else {
+      value = sample;
+      initialized = true;
+    }
+
+    lastUpdateNanos = nowNanos;
+  }
+
+  @VisibleForTesting
+  synchronized double get(long nowNanos)
+  {
+    return initialized ? decayed(nowNanos) : 0;
+  }
+
+  private double decayed(long nowNanos)
+  {
+    final long idleNanos = nowNanos - lastUpdateNanos;
+
+    if (idleNanos <= 0) {
+      return value;
+    } else {
+      return value * Math.pow(0.5, (double) idleNanos / halfLifeNanos);
+    }
+  }
+}
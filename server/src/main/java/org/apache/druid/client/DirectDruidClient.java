@@ -86,6 +86,8 @@ public class DirectDruidClient<T> implements QueryRunner<T>
   public static final String QUERY_FAIL_TIME = "queryFailTime";
 
   private static final Logger log = new Logger(DirectDruidClient.class);
+  private static final double RESPONSE_TIME_ALPHA = 0.2;
+  private static final long RESPONSE_TIME_HALF_LIFE_NANOS = TimeUnit.SECONDS.toNanos(30);
 
   private final QueryToolChestWarehouse warehouse;
   private final QueryWatcher queryWatcher;
@@ -96,6 +98,8 @@ public class DirectDruidClient<T> implements QueryRunner<T>
   private final ServiceEmitter emitter;
 
   private final AtomicInteger openConnections;
+  private final AtomicLong inFlightBytes;
+  private final DecayingMovingAverage responseTimeMillis;
   private final boolean isSmile;
   private final ScheduledExecutorService queryCancellationExecutor;
 
@@ -134,6 +138,8 @@ public class DirectDruidClient<T> implements QueryRunner<T>
 
     this.isSmile = this.objectMapper.getFactory() instanceof SmileFactory;
     this.openConnections = new AtomicInteger();
+    this.inFlightBytes = new AtomicLong();
+    this.responseTimeMillis = new DecayingMovingAverage(RESPONSE_TIME_ALPHA, RESPONSE_TIME_HALF_LIFE_NANOS);
     this.queryCancellationExecutor = Execs.scheduledSingleThreaded("query-cancellation-executor");
   }
 
@@ -142,6 +148,23 @@ public class DirectDruidClient<T> implements QueryRunner<T>
     return openConnections.get();
   }
 
+  /**
+   * Number of response bytes received for requests to this server that have not yet completed.
+   */
+  public long getInFlightBytes()
+  {
+    return inFlightBytes.get();
+  }
+
+  /**
+   * Moving average of the time it took this server to start responding to recent requests, in milliseconds. Failed
+   * requests count with the time it took them to fail. Decays towards zero while no requests are made.
+   */
+  public double getResponseTimeMillis()
+  {
+    return responseTimeMillis.get();
+  }
+
   @Override
   public Sequence<T> run(final QueryPlus<T> queryPlus, final ResponseContext context)
   {
@@ -163,6 +186,7 @@ public class DirectDruidClient<T> implements QueryRunner<T>
       final AtomicLong totalBytesGathered = (AtomicLong) context.get(ResponseContext.Key.QUERY_TOTAL_BYTES_GATHERED);
       final long maxQueuedBytes = QueryContexts.getMaxQueuedBytes(query, 0);
       final boolean usingBackpressure = maxQueuedBytes > 0;
+      final AtomicLong requestInFlightBytes = new AtomicLong();
 
       final HttpResponseHandler<InputStream, InputStream> responseHandler = new HttpResponseHandler<InputStream, InputStream>()
       {
@@ -228,6 +252,7 @@ public class DirectDruidClient<T> implements QueryRunner<T>
           log.debug("Initial response from url[%s] for queryId[%s]", url, query.getId());
           responseStartTimeNs = System.nanoTime();
           acquireResponseMetrics().reportNodeTimeToFirstByte(responseStartTimeNs - requestStartTimeNs).emit(emitter);
+          responseTimeMillis.add(TimeUnit.NANOSECONDS.toMillis(responseStartTimeNs - requestStartTimeNs));
 
           final boolean continueReading;
           try {
@@ -257,6 +282,7 @@ public class DirectDruidClient<T> implements QueryRunner<T>
             throw new RuntimeException(e);
           }
           totalByteCount.addAndGet(response.getContent().readableBytes());
+          addInFlightBytes(requestInFlightBytes, response.getContent().readableBytes());
           return ClientResponse.finished(
               new SequenceInputStream(
                   new Enumeration<InputStream>()
@@ -322,6 +348,7 @@ public class DirectDruidClient<T> implements QueryRunner<T>
               throw new RuntimeException(e);
             }
             totalByteCount.addAndGet(bytes);
+            addInFlightBytes(requestInFlightBytes, bytes);
           }
 
           return ClientResponse.finished(clientResponse.getObj(), continueReading);
@@ -330,6 +357,7 @@ public class DirectDruidClient<T> implements QueryRunner<T>
         @Override
         public ClientResponse<InputStream> done(ClientResponse<InputStream> clientResponse)
         {
+          releaseInFlightBytes(requestInFlightBytes);
           long stopTimeNs = System.nanoTime();
           long nodeTimeNs = stopTimeNs - requestStartTimeNs;
           final long nodeTimeMs = TimeUnit.NANOSECONDS.toMillis(nodeTimeNs);
@@ -372,6 +400,8 @@ public class DirectDruidClient<T> implements QueryRunner<T>
         @Override
         public void exceptionCaught(final ClientResponse<InputStream> clientResponse, final Throwable e)
         {
+          releaseInFlightBytes(requestInFlightBytes);
+          responseTimeMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requestStartTimeNs));
           String msg = StringUtils.format(
               "Query[%s] url[%s] failed with exception msg [%s]",
               query.getId(),
@@ -468,6 +498,7 @@ public class DirectDruidClient<T> implements QueryRunner<T>
             public void onFailure(Throwable t)
             {
               openConnections.getAndDecrement();
+              releaseInFlightBytes(requestInFlightBytes);
               if (future.isCancelled()) {
                 cancelQuery(query, cancelUrl);
               }
@@ -521,6 +552,17 @@ public class DirectDruidClient<T> implements QueryRunner<T>
     return retVal;
   }
 
+  private void addInFlightBytes(AtomicLong requestInFlightBytes, long bytes)
+  {
+    requestInFlightBytes.addAndGet(bytes);
+    inFlightBytes.addAndGet(bytes);
+  }
+
+  private void releaseInFlightBytes(AtomicLong requestInFlightBytes)
+  {
+    inFlightBytes.addAndGet(-requestInFlightBytes.getAndSet(0));
+  }
+
   private <T> void cancelQuery(Query<T> query, String cancelUrl)
   {
     Runnable cancelRunnable = () -> {
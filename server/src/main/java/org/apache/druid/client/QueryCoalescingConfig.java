@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.client;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Configuration for {@link org.apache.druid.query.QueryCoalescer}, bound to "druid.broker.queryCoalescing".
+ */
+public class QueryCoalescingConfig
+{
+  @JsonProperty
+  private boolean enabled = false;
+
+  @JsonProperty
+  @Min(0)
+  private int maxResultRows = 100_000;
+
+  public boolean isEnabled()
+  {
+    return enabled;
+  }
+
+  /**
+   * Maximum number of result rows the first ("leader") query will buffer in order to share them with identical
+   * queries that arrived while it was running. If a result set is larger, the waiting queries run on their own.
+   */
+  public int getMaxResultRows()
+  {
+    return maxResultRows;
+  }
+}
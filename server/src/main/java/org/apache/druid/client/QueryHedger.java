@@ -0,0 +1,446 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.client;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Inject;
+import org.apache.druid.guice.LazySingleton;
+import org.apache.druid.java.util.common.concurrent.Execs;
+import org.apache.druid.java.util.common.guava.BaseSequence;
+import org.apache.druid.java.util.common.guava.CloseQuietly;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.guava.Yielder;
+import org.apache.druid.java.util.common.guava.Yielders;
+import org.apache.druid.java.util.common.logger.Logger;
+import org.apache.druid.java.util.emitter.service.ServiceEmitter;
+import org.apache.druid.java.util.emitter.service.ServiceMetricEvent;
+import org.apache.druid.query.Query;
+import org.apache.druid.query.QueryContexts;
+import org.apache.druid.query.QueryInterruptedException;
+import org.apache.druid.query.context.ResponseContext;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Issues "hedged" requests on behalf of {@link CachingClusteredClient} to reduce tail latency in scatter-gather.
+ *
+ * Each request to a data server is started as usual. If it has not started returning results after a delay (a
+ * configurable percentile of recent response times for the same datasource), the same segments are requested from
+ * other replicas. Whichever request starts returning results first is used, and the other one is closed.
+ *
+ * Requests wait for data servers on a bounded pool of threads. When all of them are busy, requests are run without
+ * hedging rather than queued.
+ *
+ * Emits "query/hedge/issued" and "query/hedge/won" metrics, the latter when a hedged request beat the original one.
+ */
+@LazySingleton
+public class QueryHedger
+{
+  private static final Logger log = new Logger(QueryHedger.class);
+
+  private final QueryHedgingConfig config;
+  private final ServiceEmitter emitter;
+  private final ConcurrentMap<String, ResponseTimeWindow> responseTimes = new ConcurrentHashMap<>();
+
+  // Created lazily, since most Brokers do not hedge.
+  private volatile ExecutorService exec;
+  private volatile ScheduledExecutorService scheduledExec;
+
+  @Inject
+  public QueryHedger(QueryHedgingConfig config, ServiceEmitter emitter)
+  {
+    this.config = config;
+    this.emitter = emitter;
+  }
+
+  public <T> boolean isHedgingEnabled(Query<T> query)
+  {
+    return QueryContexts.isHedgeRequests(query, config.isEnabled());
+  }
+
+  /**
+   * Returns the current hedging delay for a datasource, or -1 if not enough response times are known yet.
+   */
+  public long getHedgeDelayMillis(String dataSource)
+  {
+    final ResponseTimeWindow window = responseTimes.get(dataSource);
+    if (window == null) {
+      return -1;
+    }
+
+    final long percentile = window.getPercentile(config.getPercentile(), config.getMinSamples());
+    return percentile < 0 ? -1 : Math.max(config.getMinDelayMillis(), percentile);
+  }
+
+  /**
+   * Runs a request, hedging it if it takes too long to start returning results.
+   *
+   * The original and the hedged request each write into their own response context, and only the context of the
+   * request that is used is merged into the given one. Otherwise, a losing request could, for example, report missing
+   * segments that the winning one has returned, and they would be queried again.
+   *
+   * @param dataSource      datasource used for tracking response times and for metrics
+   * @param primary         starts the original request with the given response context
+   * @param backup          starts the hedged request with the given response context; may return null if the request
+   *                        cannot be hedged (for example, because some segments have no other replica)
+   * @param responseContext response context of the query, into which the context of the used request is merged
+   */
+  public <T> Sequence<T> run(
+      final String dataSource,
+      final Function<ResponseContext, Sequence<T>> primary,
+      final Function<ResponseContext, Sequence<T>> backup,
+      final ResponseContext responseContext
+  )
+  {
+    final long delayMillis = getHedgeDelayMillis(dataSource);
+    final long startNanos = System.nanoTime();
+    final HedgedRequest<T> request = new HedgedRequest<>();
+    final ResponseContext primaryResponseContext = makeRequestResponseContext(responseContext);
+
+    final CompletableFuture<Yielder<T>> primaryFuture;
+    try {
+      primaryFuture = CompletableFuture.supplyAsync(
+          () -> Yielders.each(primary.apply(primaryResponseContext)),
+          getExec()
+      );
+    }
+    catch (RejectedExecutionException e) {
+      log.debug("All hedging threads are busy, running request for dataSource[%s] without hedging", dataSource);
+      return primary.apply(responseContext);
+    }
+
+    primaryFuture
+        .whenComplete(
+            (yielder, e) -> {
+              if (e == null) {
+                getResponseTimeWindow(dataSource).add(
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)
+                );
+              }
+              request.complete(yielder, e, () -> mergeResponseContext(responseContext, primaryResponseContext));
+            }
+        );
+
+    if (delayMillis >= 0) {
+      getScheduledExec().schedule(
+          () -> {
+            if (request.startBackup()) {
+              final ResponseContext backupResponseContext = makeRequestResponseContext(responseContext);
+              final CompletableFuture<Yielder<T>> backupFuture;
+              try {
+                backupFuture = CompletableFuture.supplyAsync(
+                    () -> {
+                      final Sequence<T> backupSequence = backup.apply(backupResponseContext);
+                      return backupSequence == null ? null : Yielders.each(backupSequence);
+                    },
+                    getExec()
+                );
+              }
+              catch (RejectedExecutionException e) {
+                log.debug("All hedging threads are busy, not hedging request for dataSource[%s]", dataSource);
+                request.complete(null, null, null);
+                return;
+              }
+              emitMetric(dataSource, "query/hedge/issued");
+
+              backupFuture.whenComplete(
+                  (yielder, e) -> request.complete(
+                      yielder,
+                      e,
+                      () -> {
+                        emitMetric(dataSource, "query/hedge/won");
+                        mergeResponseContext(responseContext, backupResponseContext);
+                      }
+                  )
+              );
+            }
+          },
+          delayMillis,
+          TimeUnit.MILLISECONDS
+      );
+    }
+
+    return new BaseSequence<>(
+        new BaseSequence.IteratorMaker<T, YielderIterator<T>>()
+        {
+          @Override
+          public YielderIterator<T> make()
+          {
+            Yielder<T> yielder = null;
+            try {
+              yielder = request.await();
+              return new YielderIterator<>(yielder);
+            }
+            finally {
+              if (yielder == null) {
+                // The results will never be consumed, so close whichever request completes.
+                request.abandon();
+              }
+            }
+          }
+
+          @Override
+          public void cleanup(YielderIterator<T> iterFromMake)
+          {
+            iterFromMake.close();
+          }
+        }
+    );
+  }
+
+  /**
+   * Creates the response context of a single request. The scatter-gather byte limit is shared with the query.
+   */
+  private static ResponseContext makeRequestResponseContext(ResponseContext responseContext)
+  {
+    final ResponseContext requestResponseContext = DirectDruidClient.makeResponseContextForQuery();
+    final Object totalBytesGathered = responseContext.get(ResponseContext.Key.QUERY_TOTAL_BYTES_GATHERED);
+    if (totalBytesGathered != null) {
+      requestResponseContext.put(ResponseContext.Key.QUERY_TOTAL_BYTES_GATHERED, totalBytesGathered);
+    }
+    return requestResponseContext;
+  }
+
+  private static void mergeResponseContext(ResponseContext responseContext, ResponseContext requestResponseContext)
+  {
+    DirectDruidClient.removeMagicResponseContextFields(requestResponseContext);
+    responseContext.merge(requestResponseContext);
+  }
+
+  private ResponseTimeWindow getResponseTimeWindow(String dataSource)
+  {
+    return responseTimes.computeIfAbsent(dataSource, ds -> new ResponseTimeWindow(config.getMaxSamples()));
+  }
+
+  private void emitMetric(String dataSource, String metric)
+  {
+    emitter.emit(ServiceMetricEvent.builder().setDimension("dataSource", dataSource).build(metric, 1));
+  }
+
+  private ExecutorService getExec()
+  {
+    if (exec == null) {
+      synchronized (this) {
+        if (exec == null) {
+          // Threads in this pool block until data servers start responding. Instead of queueing requests when all
+          // threads are busy, they are rejected so that callers can run them without hedging.
+          exec = new ThreadPoolExecutor(
+              0,
+              config.getNumThreads(),
+              60L,
+              TimeUnit.SECONDS,
+              new SynchronousQueue<>(),
+              Execs.makeThreadFactory("QueryHedger-%d")
+          );
+        }
+      }
+    }
+    return exec;
+  }
+
+  private ScheduledExecutorService getScheduledExec()
+  {
+    if (scheduledExec == null) {
+      synchronized (this) {
+        if (scheduledExec == null) {
+          scheduledExec = Execs.scheduledSingleThreaded("QueryHedger-scheduler-%d");
+        }
+      }
+    }
+    return scheduledExec;
+  }
+
+  /**
+   * State of one hedged request: the original request, and possibly the hedged one.
+   */
+  private static class HedgedRequest<T>
+  {
+    private final CompletableFuture<Yielder<T>> winner = new CompletableFuture<>();
+    private final AtomicBoolean claimed = new AtomicBoolean(false);
+    private final AtomicInteger outstanding = new AtomicInteger(1);
+    private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+    /**
+     * Returns true if a hedged request should be started, i.e. the original request has not completed yet.
+     */
+    boolean startBackup()
+    {
+      if (claimed.get() || winner.isDone()) {
+        return false;
+      }
+      outstanding.incrementAndGet();
+      return true;
+    }
+
+    void complete(@Nullable Yielder<T> yielder, @Nullable Throwable t, @Nullable Runnable onWin)
+    {
+      final Throwable e = t instanceof CompletionException ? t.getCause() : t;
+
+      if (e == null && yielder != null) {
+        if (claimed.compareAndSet(false, true)) {
+          // Run the callback before handing out the results, so its effects are visible to the consumer.
+          try {
+            if (onWin != null) {
+              onWin.run();
+            }
+          }
+          finally {
+            if (!winner.complete(yielder)) {
+              // Abandoned by the consumer.
+              CloseQuietly.close(yielder);
+            }
+          }
+        } else {
+          // Lost the race. Closing the yielder closes the response stream.
+          CloseQuietly.close(yielder);
+        }
+      } else {
+        if (e != null) {
+          log.debug(e, "Request failed");
+          firstError.compareAndSet(null, e);
+        }
+        if (outstanding.decrementAndGet() == 0) {
+          winner.completeExceptionally(firstError.get() == null ? new NoSuchElementException() : firstError.get());
+        }
+      }
+    }
+
+    /**
+     * Called if the consumer stops waiting for the results. Closes the winning yielder if there is one already, or
+     * makes the request that completes first close its yielder.
+     */
+    void abandon()
+    {
+      if (!winner.completeExceptionally(new CancellationException()) && !winner.isCompletedExceptionally()) {
+        CloseQuietly.close(winner.getNow(null));
+      }
+    }
+
+    Yielder<T> await()
+    {
+      try {
+        return winner.get();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new QueryInterruptedException(e);
+      }
+      catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new RuntimeException(e.getCause());
+      }
+    }
+  }
+
+  private static class YielderIterator<T> implements Iterator<T>
+  {
+    private Yielder<T> yielder;
+
+    YielderIterator(Yielder<T> yielder)
+    {
+      this.yielder = yielder;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+      return !yielder.isDone();
+    }
+
+    @Override
+    public T next()
+    {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final T retVal = yielder.get();
+      yielder = yielder.next(null);
+      return retVal;
+    }
+
+    void close()
+    {
+      CloseQuietly.close(yielder);
+    }
+  }
+
+  /**
+   * Fixed-size window of the most recent response times, in milliseconds.
+   */
+  @VisibleForTesting
+  static class ResponseTimeWindow
+  {
+    private final long[] samples;
+    private int count = 0;
+    private int next = 0;
+
+    ResponseTimeWindow(int size)
+    {
+      this.samples = new long[size];
+    }
+
+    synchronized void add(long millis)
+    {
+      samples[next] = millis;
+      next = (next + 1) % samples.length;
+      count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * Returns the given percentile of the current samples, or -1 if there are fewer than minSamples of them.
+     */
+    long getPercentile(double percentile, int minSamples)
+    {
+      final long[] sorted;
+
+      synchronized (this) {
+        if (count < minSamples || count == 0) {
+          return -1;
+        }
+        sorted = Arrays.copyOf(samples, count);
+      }
+
+      Arrays.sort(sorted);
+      final int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+      return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+  }
+}
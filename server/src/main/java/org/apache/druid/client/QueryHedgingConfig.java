@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.client;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+/**
+ * Configuration for {@link QueryHedger}, bound to "druid.broker.hedging".
+ */
+public class QueryHedgingConfig
+{
+  @JsonProperty
+  private boolean enabled = false;
+
+  @JsonProperty
+  @Min(1)
+  @Max(100)
+  private double percentile = 95;
+
+  @JsonProperty
+  @Min(0)
+  private long minDelayMillis = 10;
+
+  @JsonProperty
+  @Min(1)
+  private int minSamples = 100;
+
+  @JsonProperty
+  @Min(1)
+  private int maxSamples = 1000;
+
+  @JsonProperty
+  @Min(1)
+  private int numThreads = 100;
+
+  /**
+   * Whether hedging is done for queries that do not set the "hedgeRequests" context parameter.
+   */
+  public boolean isEnabled()
+  {
+    return enabled;
+  }
+
+  /**
+   * Percentile of recent per-datasource response times after which a request is hedged.
+   */
+  public double getPercentile()
+  {
+    return percentile;
+  }
+
+  /**
+   * Lower bound on the hedging delay, so that fast datasources do not get hedged on every small hiccup.
+   */
+  public long getMinDelayMillis()
+  {
+    return minDelayMillis;
+  }
+
+  /**
+   * Number of response times that must be known for a datasource before its requests are hedged.
+   */
+  public int getMinSamples()
+  {
+    return minSamples;
+  }
+
+  /**
+   * Number of most recent response times per datasource used to compute the hedging delay.
+   */
+  public int getMaxSamples()
+  {
+    return maxSamples;
+  }
+
+  /**
+   * Maximum number of threads waiting for data servers to start responding to original and hedged requests. Requests
+   * are not hedged while all of them are busy.
+   */
+  public int getNumThreads()
+  {
+    return numThreads;
+  }
+}
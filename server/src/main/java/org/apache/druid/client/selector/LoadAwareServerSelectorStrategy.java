@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.client.selector;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Ordering;
+import org.apache.druid.client.DirectDruidClient;
+import org.apache.druid.timeline.DataSegment;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks servers based on their observed load, using the "power of two choices": two random candidates are compared
+ * and the one with the lower cost wins. This spreads queries almost as evenly as {@link RandomServerSelectorStrategy}
+ * while steering traffic away from servers that are slow (for example, due to GC) or already busy.
+ *
+ * The cost of a server is its recent response time (see {@link DirectDruidClient#getResponseTimeMillis()}) multiplied
+ * by its outstanding work: open connections, plus in-flight response bytes counted in units of
+ * {@link #BYTES_PER_CONNECTION}.
+ */
+public class LoadAwareServerSelectorStrategy implements ServerSelectorStrategy
+{
+  static final long BYTES_PER_CONNECTION = 1024 * 1024;
+
+  private static final Comparator<QueryableDruidServer> COMPARATOR =
+      Comparator.comparingDouble(LoadAwareServerSelectorStrategy::computeCost);
+
+  @Override
+  public QueryableDruidServer pick(Set<QueryableDruidServer> servers, DataSegment segment)
+  {
+    final int size = servers.size();
+
+    if (size == 1) {
+      return Iterators.getOnlyElement(servers.iterator());
+    }
+
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final int first = random.nextInt(size);
+    final int second = (first + 1 + random.nextInt(size - 1)) % size;
+
+    final QueryableDruidServer firstServer = Iterators.get(servers.iterator(), first);
+    final QueryableDruidServer secondServer = Iterators.get(servers.iterator(), second);
+
+    return COMPARATOR.compare(firstServer, secondServer) <= 0 ? firstServer : secondServer;
+  }
+
+  @Override
+  public List<QueryableDruidServer> pick(Set<QueryableDruidServer> servers, DataSegment segment, int numServersToPick)
+  {
+    if (servers.size() <= numServersToPick) {
+      return ImmutableList.copyOf(servers);
+    }
+    return Ordering.from(COMPARATOR).leastOf(servers, numServersToPick);
+  }
+
+  static double computeCost(QueryableDruidServer server)
+  {
+    if (!(server.getQueryRunner() instanceof DirectDruidClient)) {
+      return 0;
+    }
+
+    final DirectDruidClient client = (DirectDruidClient) server.getQueryRunner();
+    final double outstanding =
+        1 + client.getNumOpenConnections() + (double) client.getInFlightBytes() / BYTES_PER_CONNECTION;
+
+    // Add one so that servers with no response time history still compare by their outstanding work.
+    return (1 + client.getResponseTimeMillis()) * outstanding;
+  }
+}
@@ -19,8 +19,10 @@
 
 package org.apache.druid.client.selector;
 
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectRBTreeMap;
 import org.apache.druid.client.DataSegmentInterner;
+import org.apache.druid.client.DruidServer;
 import org.apache.druid.server.coordination.DruidServerMetadata;
 import org.apache.druid.server.coordination.ServerType;
 import org.apache.druid.timeline.DataSegment;
@@ -171,6 +173,41 @@ public class ServerSelector implements DiscoverySelector<QueryableDruidServer>,
     }
   }
 
+  /**
+   * Like {@link #pick()}, but never returns the given server. Returns null if no other server serves this segment.
+   */
+  @Nullable
+  public QueryableDruidServer pickExcluding(final DruidServer excluded)
+  {
+    synchronized (this) {
+      final QueryableDruidServer historical = strategy.pick(filterServers(historicalServers, excluded), segment.get());
+      if (historical != null) {
+        return historical;
+      }
+      return strategy.pick(filterServers(realtimeServers, excluded), segment.get());
+    }
+  }
+
+  private Int2ObjectRBTreeMap<Set<QueryableDruidServer>> filterServers(
+      final Int2ObjectRBTreeMap<Set<QueryableDruidServer>> servers,
+      final DruidServer excluded
+  )
+  {
+    final Int2ObjectRBTreeMap<Set<QueryableDruidServer>> filtered = new Int2ObjectRBTreeMap<>(strategy.getComparator());
+    for (Int2ObjectMap.Entry<Set<QueryableDruidServer>> entry : servers.int2ObjectEntrySet()) {
+      final Set<QueryableDruidServer> priorityServers = new HashSet<>();
+      for (QueryableDruidServer server : entry.getValue()) {
+        if (!server.getServer().equals(excluded)) {
+          priorityServers.add(server);
+        }
+      }
+      if (!priorityServers.isEmpty()) {
+        filtered.put(entry.getIntKey(), priorityServers);
+      }
+    }
+    return filtered;
+  }
+
   @Override
   public boolean overshadows(ServerSelector other)
   {
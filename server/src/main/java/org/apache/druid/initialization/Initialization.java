@@ -59,6 +59,7 @@ import org.apache.druid.guice.security.EscalatorModule;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.metadata.storage.derby.DerbyMetadataStorageDruidModule;
+import org.apache.druid.segment.IndexMergerModule;
 import org.apache.druid.segment.writeout.SegmentWriteOutMediumModule;
 import org.apache.druid.server.emitter.EmitterModule;
 import org.apache.druid.server.initialization.AuthenticatorMapperModule;
@@ -391,6 +392,7 @@ public class Initialization
         new AnnouncerModule(),
         new MetricsModule(),
         new SegmentWriteOutMediumModule(),
+        new IndexMergerModule(),
         new ServerModule(),
         new DruidProcessingConfigModule(),
         new StorageNodeModule(),
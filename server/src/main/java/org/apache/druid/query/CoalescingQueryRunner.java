@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import org.apache.druid.java.util.common.RE;
+import org.apache.druid.java.util.common.guava.LazySequence;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.guava.SequenceWrapper;
+import org.apache.druid.java.util.common.guava.Sequences;
+import org.apache.druid.java.util.common.logger.Logger;
+import org.apache.druid.query.context.ResponseContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shares the results of identical concurrent queries using a {@link QueryCoalescer}. The first query with a given
+ * key runs normally and buffers its results (up to {@link QueryCoalescer#getMaxResultRows()}) as they stream by.
+ * Identical queries that arrive while it is running wait for it and then return the buffered results. If the leader
+ * fails, is not fully consumed, or produces too many rows, waiting queries fall back to running themselves. Waiting
+ * queries give up on the leader after {@link #MAX_WAIT_FRACTION} of their timeout and run with whatever time is left.
+ *
+ * The leader buffers its rows serialized as in the result-level cache, and each waiting query deserializes its own
+ * copy of them, so that no two queries share mutable result objects. Waiting queries also receive a copy of the
+ * leader's response context, including its ETag and missing segments. Since they only get it after waiting, they do
+ * not answer "If-None-Match" requests with "304 Not Modified".
+ */
+public class CoalescingQueryRunner<T> implements QueryRunner<T>
+{
+  private static final Logger log = new Logger(CoalescingQueryRunner.class);
+
+  /**
+   * Fraction of the query timeout that a follower waits for its leader before running the query itself, so that it
+   * still has time left to do so. Queries without a timeout wait as if they had the default timeout.
+   */
+  static final double MAX_WAIT_FRACTION = 0.5;
+
+  private final QueryRunner<T> baseRunner;
+  private final QueryToolChest<T, Query<T>> toolChest;
+  private final QueryCoalescer coalescer;
+  private final ObjectMapper objectMapper;
+
+  public CoalescingQueryRunner(
+      QueryRunner<T> baseRunner,
+      QueryToolChest<T, Query<T>> toolChest,
+      QueryCoalescer coalescer,
+      ObjectMapper objectMapper
+  )
+  {
+    this.baseRunner = baseRunner;
+    this.toolChest = toolChest;
+    this.coalescer = coalescer;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public Sequence<T> run(QueryPlus<T> queryPlus, ResponseContext responseContext)
+  {
+    final Query<T> query = queryPlus.getQuery();
+
+    if (!coalescer.isEnabled() || !QueryContexts.isCoalesceQueries(query)) {
+      return baseRunner.run(queryPlus, responseContext);
+    }
+
+    final String key = QueryCoalescer.computeKey(query, toolChest);
+
+    if (key == null) {
+      return baseRunner.run(queryPlus, responseContext);
+    }
+
+    final CompletableFuture<QueryCoalescer.SharedResults> future = new CompletableFuture<>();
+    final CompletableFuture<QueryCoalescer.SharedResults> leaderFuture = coalescer.register(key, future);
+
+    if (leaderFuture == null) {
+      return runAsLeader(key, future, queryPlus, responseContext);
+    } else {
+      final long timeout = QueryContexts.getTimeout(query);
+      final long startMillis = System.currentTimeMillis();
+
+      return new LazySequence<>(
+          () -> {
+            final QueryCoalescer.SharedResults results = coalescer.await(
+                key,
+                leaderFuture,
+                Math.max(1, computeMaxWaitMillis(timeout) - (System.currentTimeMillis() - startMillis))
+            );
+
+            if (results == null) {
+              log.debug("Coalesced results not available for query[%s], running it directly.", query.getId());
+              return baseRunner.run(withRemainingTimeout(queryPlus, timeout, startMillis), responseContext);
+            } else {
+              responseContext.merge(results.getResponseContext());
+              return deserializeResults(query, results.getRows());
+            }
+          }
+      );
+    }
+  }
+
+  @VisibleForTesting
+  static long computeMaxWaitMillis(long timeout)
+  {
+    final long waitTimeout = timeout == QueryContexts.NO_TIMEOUT ? QueryContexts.DEFAULT_TIMEOUT_MILLIS : timeout;
+    return Math.max(1, (long) (waitTimeout * MAX_WAIT_FRACTION));
+  }
+  /**
+   * Deducts the time spent waiting for the leader from the query's timeout, so a follower that falls back to running
+   * itself does not get a fresh timeout.
+   */
+  private static <T> QueryPlus<T> withRemainingTimeout(QueryPlus<T> queryPlus, long timeout, long startMillis)
+  {
+    if (timeout == QueryContexts.NO_TIMEOUT) {
+      return queryPlus;
+    }
+
+    // At least 1ms, since a timeout of 0 means "no timeout".
+    final long remaining = Math.max(1, timeout - (System.currentTimeMillis() - startMillis));
+    return queryPlus.withQuery(QueryContexts.withTimeout(queryPlus.getQuery(), remaining));
+  }
+
+  private Sequence<T> runAsLeader(
+      final String key,
+      final CompletableFuture<QueryCoalescer.SharedResults> future,
+      final QueryPlus<T> queryPlus,
+      final ResponseContext responseContext
+  )
+  {
+    final int maxResultRows = coalescer.getMaxResultRows();
+    final Function<T, Object> cacheFn = toolChest.getCacheStrategy(queryPlus.getQuery()).prepareForCache(true);
+    final List<byte[]> buffer = new ArrayList<>();
+    final boolean[] unshareable = {false};
+
+    final Sequence<T> results;
+
+    try {
+      results = baseRunner.run(queryPlus, responseContext);
+    }
+    catch (Throwable t) {
+      coalescer.complete(key, future, null);
+      throw t;
+    }
+
+    return Sequences.wrap(
+        Sequences.map(
+            results,
+            row -> {
+              if (!unshareable[0]) {
+                if (buffer.size() < maxResultRows) {
+                  try {
+                    buffer.add(objectMapper.writeValueAsBytes(cacheFn.apply(row)));
+                  }
+                  catch (JsonProcessingException e) {
+                    log.warn(e, "Could not serialize results of query[%s] for sharing.", queryPlus.getQuery().getId());
+                    unshareable[0] = true;
+                    buffer.clear();
+                  }
+                } else {
+                  unshareable[0] = true;
+                  buffer.clear();
+                }
+              }
+              return row;
+            }
+        ),
+        new SequenceWrapper()
+        {
+          @Override
+          public void after(boolean isDone, Throwable thrown)
+          {
+            coalescer.complete(
+                key,
+                future,
+                isDone && thrown == null && !unshareable[0]
+                ? new QueryCoalescer.SharedResults(buffer, copyResponseContext(responseContext))
+                : null
+            );
+          }
+        }
+    );
+  }
+
+  private Sequence<T> deserializeResults(Query<T> query, List<byte[]> rows)
+  {
+    final CacheStrategy<T, Object, Query<T>> strategy = toolChest.getCacheStrategy(query);
+    final Function<Object, T> pullFromCacheFn = strategy.pullFromCache(true);
+    final TypeReference<Object> cacheObjectClazz = strategy.getCacheObjectClazz();
+
+    return Sequences.map(
+        Sequences.simple(rows),
+        row -> {
+          try {
+            return pullFromCacheFn.apply(objectMapper.readValue(row, cacheObjectClazz));
+          }
+          catch (IOException e) {
+            throw new RE(e, "Failed to read coalesced results for query ID [%s]", query.getId());
+          }
+        }
+    );
+  }
+
+  /**
+   * Copies the leader's response context for the queries waiting for it. Deadlines are specific to each query, so
+   * they are left out.
+   */
+  private static ResponseContext copyResponseContext(ResponseContext responseContext)
+  {
+    final ResponseContext copy = ResponseContext.createEmpty();
+    copy.merge(responseContext);
+    copy.remove(ResponseContext.Key.QUERY_FAIL_DEADLINE_MILLIS);
+    copy.remove(ResponseContext.Key.TIMEOUT_AT);
+    return copy;
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Inject;
+import org.apache.druid.client.QueryCoalescingConfig;
+import org.apache.druid.guice.LazySingleton;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.query.context.ResponseContext;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Broker-wide registry of in-flight queries, used by {@link CoalescingQueryRunner} to let identical queries that
+ * arrive concurrently share a single execution on the cluster instead of each fanning out to data servers.
+ *
+ * Queries are identified by their type, datasource, intervals, and {@link CacheStrategy#computeResultLevelCacheKey}.
+ * The first query with a given key becomes the "leader" and runs normally; queries with the same key that arrive
+ * before the leader finishes wait for its results instead of running. The number of such queries is emitted by
+ * {@link org.apache.druid.server.metrics.QueryCoalescingMonitor}.
+ */
+@LazySingleton
+public class QueryCoalescer
+{
+  private final QueryCoalescingConfig config;
+  private final ConcurrentMap<String, CompletableFuture<SharedResults>> inFlight = new ConcurrentHashMap<>();
+  private final AtomicLong coalescedQueryCount = new AtomicLong();
+
+  @Inject
+  public QueryCoalescer(QueryCoalescingConfig config)
+  {
+    this.config = config;
+  }
+
+  public boolean isEnabled()
+  {
+    return config.isEnabled();
+  }
+
+  public int getMaxResultRows()
+  {
+    return config.getMaxResultRows();
+  }
+
+  /**
+   * Total number of queries that were answered using the results of another identical in-flight query.
+   */
+  public long getCoalescedQueryCount()
+  {
+    return coalescedQueryCount.get();
+  }
+
+  /**
+   * Returns a coalescing key for the given query, or null if the query cannot be coalesced. A query can be coalesced
+   * if it could be stored in the result-level cache: its toolchest must provide a {@link CacheStrategy} that considers
+   * it cacheable, and its datasource must be cacheable.
+   */
+  @Nullable
+  public static <T> String computeKey(Query<T> query, QueryToolChest<T, Query<T>> toolChest)
+  {
+    final CacheStrategy<T, Object, Query<T>> strategy = toolChest.getCacheStrategy(query);
+
+    if (strategy == null || !strategy.isCacheable(query, true) || !query.getDataSource().isCacheable()) {
+      return null;
+    }
+
+    // The result-level cache key does not include datasource and intervals (the result-level cache relies on the
+    // ETag for those), so add them here.
+    return StringUtils.format(
+        "%s:%s:%s:%s",
+        query.getType(),
+        query.getDataSource(),
+        query.getIntervals(),
+        StringUtils.encodeBase64String(strategy.computeResultLevelCacheKey(query))
+    );
+  }
+
+  /**
+   * Registers a new leader for the given key.
+   *
+   * @return null if the caller is now the leader for this key, or the future of the existing leader otherwise.
+   */
+  @Nullable
+  CompletableFuture<SharedResults> register(String key, CompletableFuture<SharedResults> future)
+  {
+    return inFlight.putIfAbsent(key, future);
+  }
+
+  /**
+   * Called by the leader once its results are fully known. Followers receive the given results, or run the query
+   * themselves if they are null.
+   */
+  void complete(String key, CompletableFuture<SharedResults> future, @Nullable SharedResults results)
+  {
+    inFlight.remove(key, future);
+    future.complete(results);
+  }
+
+  /**
+   * Waits for the leader identified by the given future, for at most timeoutMillis.
+   *
+   * @return the leader's results, or null if they are not available and the caller must run the query itself.
+   */
+  @Nullable
+  SharedResults await(String key, CompletableFuture<SharedResults> future, long timeoutMillis)
+  {
+    try {
+      final SharedResults results = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+
+      if (results != null) {
+        coalescedQueryCount.incrementAndGet();
+      }
+
+      return results;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new QueryInterruptedException(e);
+    }
+    catch (ExecutionException e) {
+      return null;
+    }
+    catch (TimeoutException e) {
+      // The leader may have been abandoned without ever being consumed. Drop it so later queries don't wait on it.
+      inFlight.remove(key, future);
+      return null;
+    }
+  }
+
+  @VisibleForTesting
+  int getInFlightCount()
+  {
+    return inFlight.size();
+  }
+
+  /**
+   * Results of a leader query, shared with the identical queries that waited for it. Rows are kept in the serialized
+   * form of the result-level cache so that each query gets its own copy of them.
+   */
+  static class SharedResults
+  {
+    private final List<byte[]> rows;
+    private final ResponseContext responseContext;
+
+    SharedResults(List<byte[]> rows, ResponseContext responseContext)
+    {
+      this.rows = rows;
+      this.responseContext = responseContext;
+    }
+
+    List<byte[]> getRows()
+    {
+      return rows;
+    }
+
+    ResponseContext getResponseContext()
+    {
+      return responseContext;
+    }
+  }
+}
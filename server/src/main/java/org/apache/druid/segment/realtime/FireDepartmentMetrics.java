@@ -33,6 +33,7 @@ public class FireDepartmentMetrics
   private final AtomicLong unparseableCount = new AtomicLong(0);
   private final AtomicLong dedupCount = new AtomicLong(0);
   private final AtomicLong rowOutputCount = new AtomicLong(0);
+  private final AtomicLong rowsRolledUpInBufferCount = new AtomicLong(0);
   private final AtomicLong numPersists = new AtomicLong(0);
   private final AtomicLong persistTimeMillis = new AtomicLong(0);
   private final AtomicLong persistBackPressureMillis = new AtomicLong(0);
@@ -41,6 +42,9 @@ public class FireDepartmentMetrics
   private final AtomicLong mergeTimeMillis = new AtomicLong(0);
   private final AtomicLong mergeCpuTime = new AtomicLong(0);
   private final AtomicLong persistCpuTime = new AtomicLong(0);
+  private final AtomicLong persistedFactsBytes = new AtomicLong(0);
+  private final AtomicLong persistedAggregatorBytes = new AtomicLong(0);
+  private final AtomicLong persistedDictionaryBytes = new AtomicLong(0);
   private final AtomicLong handOffCount = new AtomicLong(0);
   private final AtomicLong sinkCount = new AtomicLong(0);
   private final AtomicLong messageMaxTimestamp = new AtomicLong(0);
@@ -76,6 +80,11 @@ public class FireDepartmentMetrics
     rowOutputCount.addAndGet(numRows);
   }
 
+  public void incrementRowsRolledUpInBufferCount(long numRows)
+  {
+    rowsRolledUpInBufferCount.addAndGet(numRows);
+  }
+
   public void incrementNumPersists()
   {
     numPersists.incrementAndGet();
@@ -116,6 +125,21 @@ public class FireDepartmentMetrics
     persistCpuTime.addAndGet(persistTime);
   }
 
+  public void incrementPersistedFactsBytes(long bytes)
+  {
+    persistedFactsBytes.addAndGet(bytes);
+  }
+
+  public void incrementPersistedAggregatorBytes(long bytes)
+  {
+    persistedAggregatorBytes.addAndGet(bytes);
+  }
+
+  public void incrementPersistedDictionaryBytes(long bytes)
+  {
+    persistedDictionaryBytes.addAndGet(bytes);
+  }
+
   public void incrementHandOffCount()
   {
     handOffCount.incrementAndGet();
@@ -161,6 +185,11 @@ public class FireDepartmentMetrics
     return rowOutputCount.get();
   }
 
+  public long rowsRolledUpInBuffer()
+  {
+    return rowsRolledUpInBufferCount.get();
+  }
+
   public long numPersists()
   {
     return numPersists.get();
@@ -201,6 +230,21 @@ public class FireDepartmentMetrics
     return persistCpuTime.get();
   }
 
+  public long persistedFactsBytes()
+  {
+    return persistedFactsBytes.get();
+  }
+
+  public long persistedAggregatorBytes()
+  {
+    return persistedAggregatorBytes.get();
+  }
+
+  public long persistedDictionaryBytes()
+  {
+    return persistedDictionaryBytes.get();
+  }
+
   public long handOffCount()
   {
     return handOffCount.get();
@@ -230,6 +274,7 @@ public class FireDepartmentMetrics
     retVal.unparseableCount.set(unparseableCount.get());
     retVal.dedupCount.set(dedupCount.get());
     retVal.rowOutputCount.set(rowOutputCount.get());
+    retVal.rowsRolledUpInBufferCount.set(rowsRolledUpInBufferCount.get());
     retVal.numPersists.set(numPersists.get());
     retVal.persistTimeMillis.set(persistTimeMillis.get());
     retVal.persistBackPressureMillis.set(persistBackPressureMillis.get());
@@ -238,6 +283,9 @@ public class FireDepartmentMetrics
     retVal.mergeTimeMillis.set(mergeTimeMillis.get());
     retVal.mergeCpuTime.set(mergeCpuTime.get());
     retVal.persistCpuTime.set(persistCpuTime.get());
+    retVal.persistedFactsBytes.set(persistedFactsBytes.get());
+    retVal.persistedAggregatorBytes.set(persistedAggregatorBytes.get());
+    retVal.persistedDictionaryBytes.set(persistedDictionaryBytes.get());
     retVal.handOffCount.set(handOffCount.get());
     retVal.sinkCount.set(sinkCount.get());
     retVal.messageMaxTimestamp.set(messageMaxTimestamp.get());
@@ -258,6 +306,7 @@ public class FireDepartmentMetrics
     processedWithErrorsCount.addAndGet(otherSnapshot.processedWithErrors());
     thrownAwayCount.addAndGet(otherSnapshot.thrownAway());
     rowOutputCount.addAndGet(otherSnapshot.rowOutput());
+    rowsRolledUpInBufferCount.addAndGet(otherSnapshot.rowsRolledUpInBuffer());
     unparseableCount.addAndGet(otherSnapshot.unparseable());
     dedupCount.addAndGet(otherSnapshot.dedup());
     numPersists.addAndGet(otherSnapshot.numPersists());
@@ -268,6 +317,9 @@ public class FireDepartmentMetrics
     mergeTimeMillis.addAndGet(otherSnapshot.mergeTimeMillis());
     mergeCpuTime.addAndGet(otherSnapshot.mergeCpuTime());
     persistCpuTime.addAndGet(otherSnapshot.persistCpuTime());
+    persistedFactsBytes.addAndGet(otherSnapshot.persistedFactsBytes());
+    persistedAggregatorBytes.addAndGet(otherSnapshot.persistedAggregatorBytes());
+    persistedDictionaryBytes.addAndGet(otherSnapshot.persistedDictionaryBytes());
     handOffCount.addAndGet(otherSnapshot.handOffCount());
     sinkCount.addAndGet(otherSnapshot.sinkCount());
     messageMaxTimestamp.set(Math.max(messageMaxTimestamp(), otherSnapshot.messageMaxTimestamp()));
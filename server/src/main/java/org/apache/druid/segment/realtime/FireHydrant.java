@@ -139,6 +139,27 @@ public class FireHydrant
     return new Pair<>(segment, segment.decrementOnceCloseable());
   }
 
+  /**
+   * Like {@link #getAndIncrementSegment()}, but returns null instead of failing if this hydrant was closed by swapping
+   * its segment to null.
+   */
+  @Nullable
+  public Pair<Segment, Closeable> getAndIncrementSegmentIfNotClosed()
+  {
+    while (true) {
+      final ReferenceCountingSegment segment = adapter.get();
+      if (segment == null) {
+        return null;
+      }
+      if (segment.increment()) {
+        return new Pair<>(segment, segment.decrementOnceCloseable());
+      }
+      if (adapter.get() == segment) {
+        throw new ISE("segment.close() is called somewhere outside FireHydrant.swapSegment()");
+      }
+    }
+  }
+
   @Override
   public String toString()
   {
@@ -98,6 +98,12 @@ public class RealtimeMetricsMonitor extends AbstractMonitor
 
       emitter.emit(builder.build("ingest/events/processed", metrics.processed() - previous.processed()));
       emitter.emit(builder.build("ingest/rows/output", metrics.rowOutput() - previous.rowOutput()));
+      emitter.emit(
+          builder.build(
+              "ingest/rows/rolledUpInBuffer",
+              metrics.rowsRolledUpInBuffer() - previous.rowsRolledUpInBuffer()
+          )
+      );
       emitter.emit(builder.build("ingest/persists/count", metrics.numPersists() - previous.numPersists()));
       emitter.emit(builder.build("ingest/persists/time", metrics.persistTimeMillis() - previous.persistTimeMillis()));
       emitter.emit(builder.build("ingest/persists/cpu", metrics.persistCpuTime() - previous.persistCpuTime()));
@@ -107,6 +113,24 @@ public class RealtimeMetricsMonitor extends AbstractMonitor
               metrics.persistBackPressureMillis() - previous.persistBackPressureMillis()
           )
       );
+      emitter.emit(
+          builder.build(
+              "ingest/persists/heapBytes/rows",
+              metrics.persistedFactsBytes() - previous.persistedFactsBytes()
+          )
+      );
+      emitter.emit(
+          builder.build(
+              "ingest/persists/heapBytes/aggregators",
+              metrics.persistedAggregatorBytes() - previous.persistedAggregatorBytes()
+          )
+      );
+      emitter.emit(
+          builder.build(
+              "ingest/persists/heapBytes/dictionaries",
+              metrics.persistedDictionaryBytes() - previous.persistedDictionaryBytes()
+          )
+      );
       emitter.emit(builder.build("ingest/persists/failed", metrics.failedPersists() - previous.failedPersists()));
       emitter.emit(builder.build("ingest/handoff/failed", metrics.failedHandoffs() - previous.failedHandoffs()));
       emitter.emit(builder.build("ingest/merge/time", metrics.mergeTimeMillis() - previous.mergeTimeMillis()));
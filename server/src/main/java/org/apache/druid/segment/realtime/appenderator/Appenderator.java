@@ -30,6 +30,7 @@ import org.apache.druid.segment.incremental.IndexSizeExceededException;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -164,6 +165,19 @@ public interface Appenderator extends QuerySegmentWalker
    */
   ListenableFuture<?> drop(SegmentIdWithShardSpec identifier);
 
+  /**
+   * Waits until all rows given to {@link #add} so far are indexed, and returns the parse exceptions of those rows which
+   * were not returned by {@link #add} yet. When rows are indexed in parallel, see
+   * {@link AppenderatorConfig#getNumIndexingThreads()}, the parse exception returned by {@link #add} belongs to an
+   * earlier row, and the parse exceptions of the last rows are only available from this method.
+   *
+   * @return parse exceptions not returned by {@link #add} yet, empty if rows are indexed by the calling thread
+   */
+  default List<ParseException> drainParseExceptions()
+  {
+    return Collections.emptyList();
+  }
+
   /**
    * Persist any in-memory indexed data to durable storage. This may be only somewhat durable, e.g. the
    * machine's local disk. The Committer will be made synchronously with the call to persistAll, but will actually
@@ -43,6 +43,33 @@ public interface AppenderatorConfig
 
   int getMaxPendingPersists();
 
+  /**
+   * Whether in-memory rows are kept off-heap, in an
+   * {@link org.apache.druid.segment.incremental.OffheapArenaIncrementalIndex}
+   */
+  default boolean isUseOffheapIncrementalIndex()
+  {
+    return false;
+  }
+
+  /**
+   * Number of threads adding rows to the in-memory indexes. With more than one, rows are handed to the threads by a
+   * hash of their dimensions and added in parallel.
+   */
+  default int getNumIndexingThreads()
+  {
+    return 1;
+  }
+
+  /**
+   * If more than one, intermediate persists of a segment are merged in the background whenever this many persists of
+   * about the same size exist, so that pushing only merges a few large pieces. Disabled otherwise.
+   */
+  default int getIntermediatePersistMergeFactor()
+  {
+    return 0;
+  }
+
   /**
    * Maximum number of rows in a single segment before pushing to deep storage
    */
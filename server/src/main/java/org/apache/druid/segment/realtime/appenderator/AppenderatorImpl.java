@@ -27,6 +27,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -50,6 +51,7 @@ import org.apache.druid.java.util.common.RetryUtils;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.concurrent.Execs;
 import org.apache.druid.java.util.common.io.Closer;
+import org.apache.druid.java.util.common.parsers.ParseException;
 import org.apache.druid.java.util.emitter.EmittingLogger;
 import org.apache.druid.query.Query;
 import org.apache.druid.query.QueryRunner;
@@ -84,12 +86,15 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -105,6 +110,12 @@ public class AppenderatorImpl implements Appenderator
   private static final EmittingLogger log = new EmittingLogger(AppenderatorImpl.class);
   private static final int WARN_DELAY = 1000;
   private static final String IDENTIFIER_FILE_NAME = "identifier.json";
+  private static final String TIERED_MERGE_DIR_NAME = "tiered";
+  private static final int INDEXING_QUEUE_CAPACITY = 1024;
+  /**
+   * How often, in added rows, the in-memory counters are recomputed from the sinks when rows are indexed in parallel.
+   */
+  private static final int COUNTER_SYNC_INTERVAL = 1000;
 
   private final String myId;
   private final DataSchema schema;
@@ -145,12 +156,31 @@ public class AppenderatorImpl implements Appenderator
   // where persist and push Executor try to put tasks in each other queues
   // thus creating circular dependency
   private volatile ListeningExecutorService intermediateTempExecutor = null;
+  // merges intermediate persists in the background, null unless enabled by the tuningConfig
+  @Nullable
+  private volatile TieredPersistMerger tieredPersistMerger = null;
   private volatile long nextFlush;
   private volatile FileLock basePersistDirLock = null;
   private volatile FileChannel basePersistDirLockChannel = null;
 
   private volatile Throwable persistError;
 
+  /**
+   * Single-threaded executors adding rows to sinks when {@link AppenderatorConfig#getNumIndexingThreads()} is more
+   * than one, null otherwise. Rows with the same dimensions always go to the same executor, so rollup of a given key
+   * is never contended.
+   */
+  @Nullable
+  private volatile ListeningExecutorService[] indexingExecutors = null;
+  private final ConcurrentLinkedQueue<ParseException> indexingParseExceptions = new ConcurrentLinkedQueue<>();
+  private volatile Throwable indexingError;
+  private int rowsSinceCounterSync = 0;
+  /**
+   * Largest average size in bytes of the rows in memory seen so far, used to estimate the size of the rows handed to
+   * the indexing executors since the counters were last synced.
+   */
+  private long bytesPerRowEstimate = 0;
+
   /**
    * This constructor allows the caller to provide its own SinkQuerySegmentWalker.
    *
@@ -229,6 +259,16 @@ public class AppenderatorImpl implements Appenderator
     }
   }
 
+  private void throwIndexingErrorIfExists() throws IndexSizeExceededException, SegmentNotWritableException
+  {
+    final Throwable t = indexingError;
+    if (t != null) {
+      Throwables.propagateIfInstanceOf(t, IndexSizeExceededException.class);
+      Throwables.propagateIfInstanceOf(t, SegmentNotWritableException.class);
+      throw new RE(t, "Error while indexing");
+    }
+  }
+
   @Override
   public AppenderatorAddResult add(
       final SegmentIdWithShardSpec identifier,
@@ -249,6 +289,37 @@ public class AppenderatorImpl implements Appenderator
 
     final Sink sink = getOrCreateSink(identifier);
     metrics.reportMessageMaxTimestamp(row.getTimestampFromEpoch());
+
+    final ParseException parseException;
+    if (indexingExecutors == null) {
+      parseException = addToSink(identifier, sink, row, allowIncrementalPersists);
+    } else {
+      throwIndexingErrorIfExists();
+      submitToSink(identifier, sink, row, allowIncrementalPersists);
+      rowsSinceCounterSync++;
+      if (allowIncrementalPersists && mayReachMemoryLimits()) {
+        // Wait for the rows in flight, so that maybePersist() sees the actual counters and persists before the next
+        // row would find the indexes full, as it does when rows are added serially.
+        awaitPendingRows();
+        syncInMemoryCounters();
+      } else if (rowsSinceCounterSync >= COUNTER_SYNC_INTERVAL) {
+        syncInMemoryCounters();
+      }
+      // parse exceptions surface on a later add() when rows are indexed in parallel, see drainParseExceptions()
+      parseException = indexingParseExceptions.poll();
+    }
+
+    return maybePersist(identifier, sink, committerSupplier, allowIncrementalPersists, parseException);
+  }
+
+  @Nullable
+  private ParseException addToSink(
+      final SegmentIdWithShardSpec identifier,
+      final Sink sink,
+      final InputRow row,
+      final boolean allowIncrementalPersists
+  ) throws IndexSizeExceededException, SegmentNotWritableException
+  {
     final int sinkRowsInMemoryBeforeAdd = sink.getNumRowsInMemory();
     final int sinkRowsInMemoryAfterAdd;
     final long bytesInMemoryBeforeAdd = sink.getBytesInMemory();
@@ -276,7 +347,154 @@ public class AppenderatorImpl implements Appenderator
     rowsCurrentlyInMemory.addAndGet(numAddedRows);
     bytesCurrentlyInMemory.addAndGet(bytesInMemoryAfterAdd - bytesInMemoryBeforeAdd);
     totalRows.addAndGet(numAddedRows);
+    return addResult.getParseException();
+  }
+
+  /**
+   * Returns true if the rows handed to the indexing executors since the counters were last synced may bring the
+   * in-memory rows or bytes to their limits. The size of those rows is estimated from the rows already in memory.
+   */
+  private boolean mayReachMemoryLimits()
+  {
+    return rowsCurrentlyInMemory.get() + rowsSinceCounterSync >= tuningConfig.getMaxRowsInMemory()
+           || bytesCurrentlyInMemory.get() + rowsSinceCounterSync * bytesPerRowEstimate >= maxBytesTuningConfig;
+  }
+
+  /**
+   * Hands the row to the indexing executor chosen by the hash of its dimensions. Failures are rethrown from a later
+   * call to {@link #add}.
+   */
+  private void submitToSink(
+      final SegmentIdWithShardSpec identifier,
+      final Sink sink,
+      final InputRow row,
+      final boolean allowIncrementalPersists
+  )
+  {
+    final ListeningExecutorService[] executors = indexingExecutors;
+    executors[Math.floorMod(hashDimensions(row), executors.length)].execute(
+        () -> {
+          if (indexingError != null) {
+            return;
+          }
+          try {
+            // add() keeps the rows in flight from filling up the index when incremental persists are allowed
+            final IncrementalIndexAddResult addResult = sink.add(row, !allowIncrementalPersists);
+            if (addResult.getRowCount() < 0) {
+              throw new SegmentNotWritableException(
+                  "Attempt to add row to swapped-out sink for segment[%s].",
+                  identifier
+              );
+            }
+            if (addResult.getParseException() != null) {
+              indexingParseExceptions.add(addResult.getParseException());
+            }
+          }
+          catch (IndexSizeExceededException e) {
+            log.error(e, "Sink for segment[%s] was unexpectedly full!", identifier);
+            indexingError = e;
+          }
+          catch (Throwable t) {
+            indexingError = t;
+          }
+        }
+    );
+  }
+
+  private static int hashDimensions(InputRow row)
+  {
+    // order-independent, rows listing the same dimensions in a different order still land on the same executor
+    int hash = 0;
+    for (String dimension : row.getDimensions()) {
+      hash += dimension.hashCode() ^ Objects.hashCode(row.getRaw(dimension));
+    }
+    return hash;
+  }
 
+  /**
+   * Waits until all rows handed to the indexing executors have been added to their sinks. Only the thread calling
+   * {@link #add} may submit rows meanwhile, so callers on that thread see every row it added.
+   */
+  private void awaitPendingRows()
+  {
+    final ListeningExecutorService[] executors = indexingExecutors;
+    if (executors == null) {
+      return;
+    }
+    final List<ListenableFuture<?>> futures = new ArrayList<>(executors.length);
+    for (ListeningExecutorService executor : executors) {
+      futures.add(executor.submit(() -> {}));
+    }
+    try {
+      Futures.allAsList(futures).get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    catch (ExecutionException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Waits for pending rows and brings the counters up to date with them, so the counter adjustments made when sinks are
+   * swapped or finished stay consistent. Throws if any row failed to be indexed, as rows queued after the failure were
+   * skipped and must not be committed, persisted or pushed.
+   */
+  private void awaitIndexing()
+  {
+    awaitIndexingIgnoringErrors();
+    final Throwable t = indexingError;
+    if (t != null) {
+      throw new RE(t, "Error while indexing");
+    }
+  }
+
+  /**
+   * Same as {@link #awaitIndexing} without rethrowing indexing failures, for callers discarding all data anyway.
+   */
+  private void awaitIndexingIgnoringErrors()
+  {
+    if (indexingExecutors != null) {
+      awaitPendingRows();
+      syncInMemoryCounters();
+    }
+  }
+
+  /**
+   * Recomputes the in-memory and total row counters from the writable sinks. When rows are indexed in parallel, the
+   * counters are not updated per row, as concurrent adds to a sink make per-row deltas unreliable.
+   */
+  private void syncInMemoryCounters()
+  {
+    int rowsInMemory = 0;
+    long bytesInMemory = 0;
+    int rows = 0;
+    for (Sink sink : sinks.values()) {
+      if (sink.isWritable()) {
+        rowsInMemory += sink.getNumRowsInMemory();
+        bytesInMemory += sink.getBytesInMemory();
+        rows += sink.getNumRows();
+      }
+    }
+    rowsCurrentlyInMemory.set(rowsInMemory);
+    bytesCurrentlyInMemory.set(bytesInMemory);
+    totalRows.set(rows);
+    rowsSinceCounterSync = 0;
+    if (rowsInMemory > 0) {
+      bytesPerRowEstimate = Math.max(bytesPerRowEstimate, bytesInMemory / rowsInMemory);
+    }
+  }
+
+  private AppenderatorAddResult maybePersist(
+      final SegmentIdWithShardSpec identifier,
+      final Sink sink,
+      @Nullable final Supplier<Committer> committerSupplier,
+      final boolean allowIncrementalPersists,
+      @Nullable final ParseException parseException
+  )
+  {
     boolean isPersistRequired = false;
     boolean persist = false;
     List<String> persistReasons = new ArrayList<>();
@@ -334,7 +552,7 @@ public class AppenderatorImpl implements Appenderator
         isPersistRequired = true;
       }
     }
-    return new AppenderatorAddResult(identifier, sink.getNumRows(), isPersistRequired, addResult.getParseException());
+    return new AppenderatorAddResult(identifier, sink.getNumRows(), isPersistRequired, parseException);
   }
 
   @Override
@@ -403,7 +621,10 @@ public class AppenderatorImpl implements Appenderator
           tuningConfig.getMaxRowsInMemory(),
           maxBytesTuningConfig,
           tuningConfig.isReportParseExceptions(),
-          null
+          null,
+          tuningConfig.isUseOffheapIncrementalIndex(),
+          tuningConfig.getNumIndexingThreads() > 1,
+          Collections.emptyList()
       );
 
       try {
@@ -450,6 +671,7 @@ public class AppenderatorImpl implements Appenderator
 
     try {
       throwPersistErrorIfExists();
+      awaitIndexingIgnoringErrors();
 
       if (persistExecutor != null) {
         final ListenableFuture<?> uncommitFuture = persistExecutor.submit(
@@ -486,6 +708,7 @@ public class AppenderatorImpl implements Appenderator
   @Override
   public ListenableFuture<?> drop(final SegmentIdWithShardSpec identifier)
   {
+    awaitIndexing();
     final Sink sink = sinks.get(identifier);
     if (sink != null) {
       return abandonSegment(identifier, sink, true);
@@ -494,10 +717,24 @@ public class AppenderatorImpl implements Appenderator
     }
   }
 
+  @Override
+  public List<ParseException> drainParseExceptions()
+  {
+    awaitIndexing();
+    final List<ParseException> parseExceptions = new ArrayList<>();
+    ParseException e;
+    while ((e = indexingParseExceptions.poll()) != null) {
+      parseExceptions.add(e);
+    }
+    return parseExceptions;
+  }
+
   @Override
   public ListenableFuture<Object> persistAll(@Nullable final Committer committer)
   {
     throwPersistErrorIfExists();
+    // rows handed to the indexing executors must be in the swapped indexes, or the committed metadata would skip them
+    awaitIndexing();
 
     final Map<String, Integer> currentHydrants = new HashMap<>();
     final List<Pair<FireHydrant, SegmentIdWithShardSpec>> indexesToPersist = new ArrayList<>();
@@ -542,6 +779,10 @@ public class AppenderatorImpl implements Appenderator
             try {
               for (Pair<FireHydrant, SegmentIdWithShardSpec> pair : indexesToPersist) {
                 metrics.incrementRowOutputCount(persistHydrant(pair.lhs, pair.rhs));
+                final Sink sink = sinks.get(pair.rhs);
+                if (tieredPersistMerger != null && sink != null) {
+                  tieredPersistMerger.add(pair.rhs, computeTieredMergeDir(pair.rhs), sink, pair.lhs);
+                }
               }
 
               if (committer != null) {
@@ -624,6 +865,7 @@ public class AppenderatorImpl implements Appenderator
       final boolean useUniquePath
   )
   {
+    awaitIndexing();
     final Map<SegmentIdWithShardSpec, Sink> theSinks = new HashMap<>();
     for (final SegmentIdWithShardSpec identifier : identifiers) {
       final Sink sink = sinks.get(identifier);
@@ -755,12 +997,30 @@ public class AppenderatorImpl implements Appenderator
       List<QueryableIndex> indexes = new ArrayList<>();
       Closer closer = Closer.create();
       try {
-        for (FireHydrant fireHydrant : sink) {
-          Pair<Segment, Closeable> segmentAndCloseable = fireHydrant.getAndIncrementSegment();
-          final QueryableIndex queryableIndex = segmentAndCloseable.lhs.asQueryableIndex();
-          log.debug("Segment[%s] adding hydrant[%s]", identifier, fireHydrant);
-          indexes.add(queryableIndex);
-          closer.register(segmentAndCloseable.rhs);
+        // Hydrants already merged in the background are replaced by their merged piece.
+        final Map<Integer, TieredPersistMerger.Piece> mergedPieces = new HashMap<>();
+        if (tieredPersistMerger != null) {
+          for (TieredPersistMerger.Piece piece : tieredPersistMerger.finish(identifier)) {
+            mergedPieces.put(piece.getStart(), piece);
+          }
+        }
+        final List<FireHydrant> hydrants = Lists.newArrayList(sink);
+        for (int i = 0; i < hydrants.size(); i++) {
+          final FireHydrant fireHydrant = hydrants.get(i);
+          final TieredPersistMerger.Piece piece = mergedPieces.get(fireHydrant.getCount());
+          final int lastCovered = piece == null ? i : i + piece.getEnd() - piece.getStart() - 1;
+          if (piece != null && lastCovered < hydrants.size()
+              && hydrants.get(lastCovered).getCount() == piece.getEnd() - 1) {
+            log.debug("Segment[%s] adding merged hydrants[%d-%d]", identifier, piece.getStart(), piece.getEnd() - 1);
+            indexes.add(piece.open(closer));
+            i = lastCovered;
+          } else {
+            Pair<Segment, Closeable> segmentAndCloseable = fireHydrant.getAndIncrementSegment();
+            final QueryableIndex queryableIndex = segmentAndCloseable.lhs.asQueryableIndex();
+            log.debug("Segment[%s] adding hydrant[%s]", identifier, fireHydrant);
+            indexes.add(queryableIndex);
+            closer.register(segmentAndCloseable.rhs);
+          }
         }
 
         mergedFile = indexMerger.mergeQueryableIndex(
@@ -833,6 +1093,7 @@ public class AppenderatorImpl implements Appenderator
 
     log.debug("Shutting down...");
 
+    awaitIndexingIgnoringErrors();
     final List<ListenableFuture<?>> futures = new ArrayList<>();
     for (Map.Entry<SegmentIdWithShardSpec, Sink> entry : sinks.entrySet()) {
       futures.add(abandonSegment(entry.getKey(), entry.getValue(), false));
@@ -982,6 +1243,32 @@ public class AppenderatorImpl implements Appenderator
           Execs.newBlockingSingleThreaded("[" + myId + "]-appenderator-abandon", 0)
       );
     }
+
+    final int mergeFactor = tuningConfig.getIntermediatePersistMergeFactor();
+    if (tieredPersistMerger == null && mergeFactor > 1) {
+      tieredPersistMerger = new TieredPersistMerger(
+          "[" + myId + "]-appenderator-tiered-merge",
+          mergeFactor,
+          schema.getGranularitySpec().isRollup(),
+          schema.getAggregators(),
+          tuningConfig.getIndexSpecForIntermediatePersists(),
+          tuningConfig.getSegmentWriteOutMediumFactory(),
+          indexIO,
+          indexMerger
+      );
+    }
+
+    final int numIndexingThreads = tuningConfig.getNumIndexingThreads();
+    if (indexingExecutors == null && numIndexingThreads > 1) {
+      // blocking executors throttle add() when indexing falls behind
+      final ListeningExecutorService[] executors = new ListeningExecutorService[numIndexingThreads];
+      for (int i = 0; i < numIndexingThreads; i++) {
+        executors[i] = MoreExecutors.listeningDecorator(
+            Execs.newBlockingSingleThreaded("[" + myId + "]-appenderator-index-" + i, INDEXING_QUEUE_CAPACITY)
+        );
+      }
+      indexingExecutors = executors;
+    }
   }
 
   private void shutdownExecutors()
@@ -997,6 +1284,16 @@ public class AppenderatorImpl implements Appenderator
     if (intermediateTempExecutor != null) {
       intermediateTempExecutor.shutdownNow();
     }
+
+    if (indexingExecutors != null) {
+      for (ListeningExecutorService executor : indexingExecutors) {
+        executor.shutdownNow();
+      }
+    }
+
+    if (tieredPersistMerger != null) {
+      tieredPersistMerger.close();
+    }
   }
 
   private void resetNextFlush()
@@ -1076,6 +1373,9 @@ public class AppenderatorImpl implements Appenderator
           continue;
         }
 
+        // Pieces merged in the background are not tracked in the commit metadata; start over from the hydrants.
+        FileUtils.deleteDirectory(new File(sinkDir, TIERED_MERGE_DIR_NAME));
+
         // To avoid reading and listing of "merged" dir and other special files
         final File[] sinkFiles = sinkDir.listFiles(
             (dir, fileName) -> !(Ints.tryParse(fileName) == null)
@@ -1123,6 +1423,8 @@ public class AppenderatorImpl implements Appenderator
             maxBytesTuningConfig,
             tuningConfig.isReportParseExceptions(),
             null,
+            tuningConfig.isUseOffheapIncrementalIndex(),
+            tuningConfig.getNumIndexingThreads() > 1,
             hydrants
         );
         rowsSoFar += currSink.getNumRows();
@@ -1186,6 +1488,9 @@ public class AppenderatorImpl implements Appenderator
               log.error("Sink for segment[%s] no longer valid, not abandoning.", identifier);
               return null;
             }
+            if (tieredPersistMerger != null) {
+              tieredPersistMerger.drop(identifier);
+            }
 
             metrics.setSinkCount(sinks.size());
 
@@ -1280,6 +1585,11 @@ public class AppenderatorImpl implements Appenderator
     return new File(tuningConfig.getBasePersistDirectory(), identifier.toString());
   }
 
+  private File computeTieredMergeDir(SegmentIdWithShardSpec identifier)
+  {
+    return new File(computePersistDir(identifier), TIERED_MERGE_DIR_NAME);
+  }
+
   private File computeIdentifierFile(SegmentIdWithShardSpec identifier)
   {
     return new File(computePersistDir(identifier), IDENTIFIER_FILE_NAME);
@@ -1326,6 +1636,10 @@ public class AppenderatorImpl implements Appenderator
       try {
         final long startTime = System.nanoTime();
         int numRows = indexToPersist.getIndex().size();
+        metrics.incrementRowsRolledUpInBufferCount(indexToPersist.getIndex().getNumRowsRolledUpInBuffer());
+        metrics.incrementPersistedFactsBytes(indexToPersist.getIndex().getFactsBytesInMemory());
+        metrics.incrementPersistedAggregatorBytes(indexToPersist.getIndex().getAggregatorBytesInMemory());
+        metrics.incrementPersistedDictionaryBytes(indexToPersist.getIndex().getDictionaryBytesInMemory());
 
         final File persistedFile;
         final File persistDir = createPersistDirIfNeeded(identifier);
@@ -22,6 +22,7 @@ package org.apache.druid.segment.realtime.appenderator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import org.apache.druid.client.CachingQueryRunner;
 import org.apache.druid.client.cache.Cache;
 import org.apache.druid.client.cache.CacheConfig;
@@ -69,6 +70,8 @@ import org.apache.druid.timeline.partition.PartitionHolder;
 import org.joda.time.Interval;
 
 import java.io.Closeable;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
@@ -202,56 +205,54 @@ public class SinkQuerySegmentWalker implements QuerySegmentWalker
           final Sink theSink = chunk.getObject();
           final SegmentId sinkSegmentId = theSink.getSegment().getId();
 
-          Iterable<QueryRunner<T>> perHydrantRunners = new SinkQueryRunners<>(
-              Iterables.transform(
-                  theSink,
-                  hydrant -> {
-                    // Hydrant might swap at any point, but if it's swapped at the start
-                    // then we know it's *definitely* swapped.
-                    final boolean hydrantDefinitelySwapped = hydrant.hasSwapped();
-
-                    if (skipIncrementalSegment && !hydrantDefinitelySwapped) {
-                      return new Pair<>(Intervals.ETERNITY, new NoopQueryRunner<>());
-                    }
+          final Function<FireHydrant, Pair<Interval, QueryRunner<T>>> hydrantRunnerFn = hydrant -> {
+            // Hydrant might swap at any point, but if it's swapped at the start
+            // then we know it's *definitely* swapped.
+            final boolean hydrantDefinitelySwapped = hydrant.hasSwapped();
 
-                    // Prevent the underlying segment from swapping when its being iterated
-                    final Pair<Segment, Closeable> segmentAndCloseable = hydrant.getAndIncrementSegment();
-                    try {
-                      final Segment mappedSegment = segmentMapFn.apply(segmentAndCloseable.lhs);
+            if (skipIncrementalSegment && !hydrantDefinitelySwapped) {
+              return new Pair<>(Intervals.ETERNITY, new NoopQueryRunner<>());
+            }
 
-                      QueryRunner<T> runner = factory.createRunner(mappedSegment);
+            // Prevent the underlying segment from swapping when its being iterated
+            return makeHydrantRunner(
+                hydrant.getAndIncrementSegment(),
+                hydrantDefinitelySwapped,
+                makeHydrantCacheIdentifier(hydrant),
+                descriptor,
+                factory,
+                segmentMapFn
+            );
+          };
 
-                      // 1) Only use caching if data is immutable
-                      // 2) Hydrants are not the same between replicas, make sure cache is local
-                      if (hydrantDefinitelySwapped && cache.isLocal()) {
-                        runner = new CachingQueryRunner<>(
-                            makeHydrantCacheIdentifier(hydrant),
-                            descriptor,
-                            objectMapper,
-                            cache,
-                            toolChest,
-                            runner,
-                            // Always populate in foreground regardless of config
-                            new ForegroundCachePopulator(
-                                objectMapper,
-                                cachePopulatorStats,
-                                cacheConfig.getMaxEntrySize()
-                            ),
-                            cacheConfig
+          // Persisted hydrants which were merged in the background are read through their merged hydrant
+          Iterable<QueryRunner<T>> perHydrantRunners = new SinkQueryRunners<>(
+              Iterables.concat(
+                  Iterables.transform(
+                      theSink.getHydrantsForQuery(),
+                      hydrantAndReplaced -> {
+                        final List<FireHydrant> replaced = hydrantAndReplaced.rhs;
+                        if (replaced.isEmpty()) {
+                          return Collections.singletonList(hydrantRunnerFn.apply(hydrantAndReplaced.lhs));
+                        }
+                        final Pair<Segment, Closeable> segmentAndCloseable =
+                            hydrantAndReplaced.lhs.getAndIncrementSegmentIfNotClosed();
+                        if (segmentAndCloseable == null) {
+                          // replaced by a bigger merge in the meantime
+                          return Lists.transform(replaced, hydrantRunnerFn::apply);
+                        }
+                        return Collections.singletonList(
+                            makeHydrantRunner(
+                                segmentAndCloseable,
+                                true,
+                                makeMergedHydrantCacheIdentifier(replaced),
+                                descriptor,
+                                factory,
+                                segmentMapFn
+                            )
                         );
                       }
-                      // Make it always use Closeable to decrement()
-                      runner = QueryRunnerHelper.makeClosingQueryRunner(
-                          runner,
-                          segmentAndCloseable.rhs
-                      );
-                      return new Pair<>(mappedSegment.getDataInterval(), runner);
-                    }
-                    catch (RuntimeException e) {
-                      CloseQuietly.close(segmentAndCloseable.rhs);
-                      throw e;
-                    }
-                  }
+                  )
               )
           );
           return new SpecificSegmentQueryRunner<>(
@@ -289,6 +290,58 @@ public class SinkQuerySegmentWalker implements QuerySegmentWalker
     );
   }
 
+  /**
+   * Creates the runner of one hydrant, whose segment was acquired as segmentAndCloseable. The segment is released when
+   * the runner is done, or right away if creating the runner fails.
+   *
+   * @param immutable whether the segment can't change anymore, which allows caching the results
+   */
+  private <T> Pair<Interval, QueryRunner<T>> makeHydrantRunner(
+      final Pair<Segment, Closeable> segmentAndCloseable,
+      final boolean immutable,
+      final String cacheIdentifier,
+      final SegmentDescriptor descriptor,
+      final QueryRunnerFactory<T, Query<T>> factory,
+      final Function<Segment, Segment> segmentMapFn
+  )
+  {
+    try {
+      final Segment mappedSegment = segmentMapFn.apply(segmentAndCloseable.lhs);
+
+      QueryRunner<T> runner = factory.createRunner(mappedSegment);
+
+      // 1) Only use caching if data is immutable
+      // 2) Hydrants are not the same between replicas, make sure cache is local
+      if (immutable && cache.isLocal()) {
+        runner = new CachingQueryRunner<>(
+            cacheIdentifier,
+            descriptor,
+            objectMapper,
+            cache,
+            factory.getToolchest(),
+            runner,
+            // Always populate in foreground regardless of config
+            new ForegroundCachePopulator(
+                objectMapper,
+                cachePopulatorStats,
+                cacheConfig.getMaxEntrySize()
+            ),
+            cacheConfig
+        );
+      }
+      // Make it always use Closeable to decrement()
+      runner = QueryRunnerHelper.makeClosingQueryRunner(
+          runner,
+          segmentAndCloseable.rhs
+      );
+      return new Pair<>(mappedSegment.getDataInterval(), runner);
+    }
+    catch (RuntimeException e) {
+      CloseQuietly.close(segmentAndCloseable.rhs);
+      throw e;
+    }
+  }
+
   /**
    * Decorates a Sink's query runner to emit query/segmentAndCache/time, query/segment/time, query/wait/time once
    * each for the whole Sink. Also adds CPU time to cpuTimeAccumulator.
@@ -335,4 +388,14 @@ public class SinkQuerySegmentWalker implements QuerySegmentWalker
   {
     return input.getSegmentId() + "_" + input.getCount();
   }
+
+  /**
+   * Cache identifier of the merge of the given persisted hydrants, which are immutable and so is their merge.
+   */
+  private static String makeMergedHydrantCacheIdentifier(List<FireHydrant> mergedHydrants)
+  {
+    final FireHydrant first = mergedHydrants.get(0);
+    final FireHydrant last = mergedHydrants.get(mergedHydrants.size() - 1);
+    return first.getSegmentId() + "_" + first.getCount() + "-" + last.getCount();
+  }
 }
@@ -0,0 +1,374 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.realtime.appenderator;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.druid.java.util.common.FileUtils;
+import org.apache.druid.java.util.common.Pair;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.concurrent.Execs;
+import org.apache.druid.java.util.common.io.Closer;
+import org.apache.druid.java.util.common.logger.Logger;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.segment.IndexIO;
+import org.apache.druid.segment.IndexMerger;
+import org.apache.druid.segment.IndexSpec;
+import org.apache.druid.segment.QueryableIndex;
+import org.apache.druid.segment.QueryableIndexSegment;
+import org.apache.druid.segment.Segment;
+import org.apache.druid.segment.realtime.FireHydrant;
+import org.apache.druid.segment.realtime.plumber.Sink;
+import org.apache.druid.segment.writeout.SegmentWriteOutMediumFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Merges the intermediate persists of each segment in the background while it is still being written, so that the
+ * merge at push time only has to combine a few large pieces instead of every persist.
+ *
+ * Persists are merged in tiers: whenever {@code mergeFactor} adjacent pieces of the same tier exist, they are merged
+ * into one piece of the next tier, so every row is rewritten about log(persists) times in total.
+ *
+ * Merged pieces are also registered with their {@link Sink} as merged hydrants, so that queries read a few large
+ * pieces instead of every persist, see {@link Sink#getHydrantsForQuery()}. A merged hydrant is closed once a piece of
+ * the next tier replaces it. The merged pieces are only a cache next to the hydrants; commit metadata and restore still
+ * use the hydrants, and the pieces of a segment are dropped on restart.
+ *
+ * A failed merge is not fatal: its inputs are merged again when the next persist of the segment is added, up to
+ * {@link #MAX_MERGE_ATTEMPTS} times, after which they are left to the merge at push time.
+ */
+class TieredPersistMerger
+{
+  private static final Logger log = new Logger(TieredPersistMerger.class);
+
+  @VisibleForTesting
+  static final int MAX_MERGE_ATTEMPTS = 3;
+
+  private final int mergeFactor;
+  private final boolean rollup;
+  private final AggregatorFactory[] aggregators;
+  private final IndexSpec indexSpec;
+  @Nullable
+  private final SegmentWriteOutMediumFactory segmentWriteOutMediumFactory;
+  private final IndexIO indexIO;
+  private final IndexMerger indexMerger;
+  private final ExecutorService mergeExecutor;
+  private final ConcurrentMap<SegmentIdWithShardSpec, SegmentPieces> segments = new ConcurrentHashMap<>();
+
+  TieredPersistMerger(
+      String threadName,
+      int mergeFactor,
+      boolean rollup,
+      AggregatorFactory[] aggregators,
+      IndexSpec indexSpec,
+      @Nullable SegmentWriteOutMediumFactory segmentWriteOutMediumFactory,
+      IndexIO indexIO,
+      IndexMerger indexMerger
+  )
+  {
+    this.mergeFactor = mergeFactor;
+    this.rollup = rollup;
+    this.aggregators = aggregators;
+    this.indexSpec = indexSpec;
+    this.segmentWriteOutMediumFactory = segmentWriteOutMediumFactory;
+    this.indexIO = indexIO;
+    this.indexMerger = indexMerger;
+    this.mergeExecutor = Execs.singleThreaded(threadName);
+  }
+
+  /**
+   * Registers a hydrant that was just persisted, possibly starting background merges.
+   *
+   * @param directory directory for the merged pieces of the segment, owned by this class
+   * @param sink      sink of the segment, which queries the merged pieces
+   */
+  void add(SegmentIdWithShardSpec identifier, File directory, Sink sink, FireHydrant hydrant)
+  {
+    final SegmentPieces pieces = segments.computeIfAbsent(identifier, id -> new SegmentPieces(directory, sink));
+    synchronized (pieces) {
+      final List<Piece> list = pieces.pieces;
+      if (pieces.finished || (!list.isEmpty() && hydrant.getCount() < list.get(list.size() - 1).end)) {
+        // already registered
+        return;
+      }
+      list.add(new Piece(hydrant.getCount(), hydrant.getCount() + 1, 0, hydrant, null));
+      scheduleMerges(identifier, pieces);
+    }
+  }
+
+  /**
+   * Stops merging for a segment that is about to be pushed and returns its merged pieces, ordered by the hydrants they
+   * cover. Merges still running are abandoned. The returned directories stay valid until {@link #drop}.
+   */
+  List<Piece> finish(SegmentIdWithShardSpec identifier)
+  {
+    final SegmentPieces pieces = segments.get(identifier);
+    if (pieces == null) {
+      return new ArrayList<>();
+    }
+    synchronized (pieces) {
+      pieces.finished = true;
+      final List<Piece> merged = new ArrayList<>();
+      for (Piece piece : pieces.pieces) {
+        if (piece.directory != null) {
+          merged.add(piece);
+        }
+      }
+      return merged;
+    }
+  }
+
+  /**
+   * Forgets a segment and closes its merged hydrants. Its merged pieces are removed along with the rest of its persist
+   * directory by the caller.
+   */
+  void drop(SegmentIdWithShardSpec identifier)
+  {
+    final SegmentPieces pieces = segments.remove(identifier);
+    if (pieces != null) {
+      synchronized (pieces) {
+        pieces.finished = true;
+      }
+      closeMergedHydrants(pieces.sink.removeMergedHydrants());
+    }
+  }
+
+  void close()
+  {
+    mergeExecutor.shutdownNow();
+    for (SegmentPieces pieces : segments.values()) {
+      closeMergedHydrants(pieces.sink.removeMergedHydrants());
+    }
+  }
+
+  /**
+   * Waits until the merges scheduled so far are done.
+   */
+  @VisibleForTesting
+  void awaitMerges() throws Exception
+  {
+    mergeExecutor.submit(() -> {}).get();
+  }
+
+  @VisibleForTesting
+  int getNumPieces(SegmentIdWithShardSpec identifier)
+  {
+    final SegmentPieces pieces = segments.get(identifier);
+    if (pieces == null) {
+      return 0;
+    }
+    synchronized (pieces) {
+      return pieces.pieces.size();
+    }
+  }
+
+  private void scheduleMerges(SegmentIdWithShardSpec identifier, SegmentPieces pieces)
+  {
+    final List<Piece> list = pieces.pieces;
+    for (int i = 0; i + mergeFactor <= list.size(); i++) {
+      if (isMergeable(list, i)) {
+        final List<Piece> toMerge = new ArrayList<>(list.subList(i, i + mergeFactor));
+        toMerge.forEach(piece -> piece.merging = true);
+        mergeExecutor.execute(() -> merge(identifier, pieces, toMerge));
+        i += mergeFactor - 1;
+      }
+    }
+  }
+
+  private boolean isMergeable(List<Piece> list, int from)
+  {
+    final int tier = list.get(from).tier;
+    for (int i = from; i < from + mergeFactor; i++) {
+      final Piece piece = list.get(i);
+      if (piece.merging || piece.tier != tier || (i > from && piece.start != list.get(i - 1).end)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void merge(SegmentIdWithShardSpec identifier, SegmentPieces pieces, List<Piece> toMerge)
+  {
+    final int start = toMerge.get(0).start;
+    final int end = toMerge.get(toMerge.size() - 1).end;
+    final File target = new File(pieces.directory, StringUtils.format("%d-%d", start, end));
+    final long startTime = System.nanoTime();
+
+    try {
+      synchronized (pieces) {
+        if (pieces.finished) {
+          return;
+        }
+      }
+
+      final Closer closer = Closer.create();
+      try {
+        final List<QueryableIndex> indexes = new ArrayList<>(toMerge.size());
+        for (Piece piece : toMerge) {
+          indexes.add(piece.open(closer));
+        }
+        FileUtils.deleteDirectory(target);
+        indexMerger.mergeQueryableIndex(
+            indexes,
+            rollup,
+            aggregators,
+            target,
+            indexSpec,
+            segmentWriteOutMediumFactory
+        );
+      }
+      catch (Throwable t) {
+        throw closer.rethrow(t);
+      }
+      finally {
+        closer.close();
+      }
+
+      final QueryableIndex mergedIndex = indexIO.loadIndex(target);
+      synchronized (pieces) {
+        if (pieces.finished) {
+          // a push may be reading the inputs, only the new piece is safe to remove
+          mergedIndex.close();
+          FileUtils.deleteDirectory(target);
+          return;
+        }
+        final FireHydrant mergedHydrant = new FireHydrant(
+            new QueryableIndexSegment(mergedIndex, identifier.asSegmentId()),
+            start
+        );
+        final int index = pieces.pieces.indexOf(toMerge.get(0));
+        pieces.pieces.subList(index, index + toMerge.size()).clear();
+        pieces.pieces.add(index, new Piece(start, end, toMerge.get(0).tier + 1, mergedHydrant, target));
+        // Queries still using the replaced merged hydrants keep them open until they are done
+        closeMergedHydrants(pieces.sink.addMergedHydrant(mergedHydrant, end));
+        for (Piece piece : toMerge) {
+          if (piece.directory != null) {
+            FileUtils.deleteDirectory(piece.directory);
+          }
+        }
+        scheduleMerges(identifier, pieces);
+      }
+
+      log.info(
+          "Merged persists[%d-%d] of segment[%s] in background in [%,d] ms.",
+          start,
+          end - 1,
+          identifier,
+          (System.nanoTime() - startTime) / 1_000_000
+      );
+    }
+    catch (Throwable t) {
+      log.warn(t, "Background merge of persists[%d-%d] of segment[%s] failed.", start, end - 1, identifier);
+      onMergeFailed(pieces, toMerge, target);
+    }
+  }
+
+  private void onMergeFailed(SegmentPieces pieces, List<Piece> toMerge, File target)
+  {
+    synchronized (pieces) {
+      if (!pieces.pieces.contains(toMerge.get(0))) {
+        // the merge itself succeeded and target is in use, only cleaning up the inputs failed
+        return;
+      }
+      for (Piece piece : toMerge) {
+        piece.failedMerges++;
+        // Pieces that failed too often stay marked as merging, so they are not merged again.
+        piece.merging = piece.failedMerges >= MAX_MERGE_ATTEMPTS;
+      }
+    }
+    try {
+      FileUtils.deleteDirectory(target);
+    }
+    catch (IOException e) {
+      log.warn(e, "Failed to delete directory[%s].", target);
+    }
+  }
+
+  private static void closeMergedHydrants(List<FireHydrant> mergedHydrants)
+  {
+    for (FireHydrant mergedHydrant : mergedHydrants) {
+      mergedHydrant.swapSegment(null);
+    }
+  }
+
+  private static class SegmentPieces
+  {
+    private final File directory;
+    private final Sink sink;
+    private final List<Piece> pieces = new ArrayList<>();
+    private boolean finished = false;
+
+    private SegmentPieces(File directory, Sink sink)
+    {
+      this.directory = directory;
+      this.sink = sink;
+    }
+  }
+
+  /**
+   * Either a single persisted hydrant or a merge of the hydrants with counts in [start, end). A merge is stored in
+   * directory and loaded as a merged hydrant.
+   */
+  static class Piece
+  {
+    private final int start;
+    private final int end;
+    private final int tier;
+    private final FireHydrant hydrant;
+    @Nullable
+    private final File directory;
+    private boolean merging = false;
+    private int failedMerges = 0;
+
+    private Piece(int start, int end, int tier, FireHydrant hydrant, @Nullable File directory)
+    {
+      this.start = start;
+      this.end = end;
+      this.tier = tier;
+      this.hydrant = hydrant;
+      this.directory = directory;
+    }
+
+    int getStart()
+    {
+      return start;
+    }
+
+    int getEnd()
+    {
+      return end;
+    }
+
+    QueryableIndex open(Closer closer)
+    {
+      final Pair<Segment, Closeable> segmentAndCloseable = hydrant.getAndIncrementSegment();
+      closer.register(segmentAndCloseable.rhs);
+      return segmentAndCloseable.lhs.asQueryableIndex();
+    }
+  }
+}
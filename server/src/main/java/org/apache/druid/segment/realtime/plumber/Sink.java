@@ -26,6 +26,7 @@ import com.google.common.collect.Lists;
 import org.apache.druid.data.input.InputRow;
 import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.Pair;
 import org.apache.druid.query.aggregation.AggregatorFactory;
 import org.apache.druid.segment.QueryableIndex;
 import org.apache.druid.segment.ReferenceCountingSegment;
@@ -34,6 +35,7 @@ import org.apache.druid.segment.incremental.IncrementalIndex;
 import org.apache.druid.segment.incremental.IncrementalIndexAddResult;
 import org.apache.druid.segment.incremental.IncrementalIndexSchema;
 import org.apache.druid.segment.incremental.IndexSizeExceededException;
+import org.apache.druid.segment.incremental.OffheapArenaIncrementalIndex;
 import org.apache.druid.segment.indexing.DataSchema;
 import org.apache.druid.segment.realtime.FireHydrant;
 import org.apache.druid.timeline.CompactionState;
@@ -43,6 +45,7 @@ import org.apache.druid.timeline.partition.ShardSpec;
 import org.joda.time.Interval;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -52,8 +55,11 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class Sink implements Iterable<FireHydrant>, Overshadowable<Sink>
 {
@@ -61,6 +67,11 @@ public class Sink implements Iterable<FireHydrant>, Overshadowable<Sink>
       new IncrementalIndexAddResult(-1, -1, null, "write after index swapped");
 
   private final Object hydrantLock = new Object();
+  /**
+   * Held for read while a row is added to the current index and for write while the index is swapped or the sink is
+   * finished, so that rows can be added concurrently without holding {@link #hydrantLock}.
+   */
+  private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
   private final Interval interval;
   private final DataSchema schema;
   private final ShardSpec shardSpec;
@@ -70,6 +81,8 @@ public class Sink implements Iterable<FireHydrant>, Overshadowable<Sink>
   private final int maxRowsInMemory;
   private final long maxBytesInMemory;
   private final boolean reportParseExceptions;
+  private final boolean useOffheapIncrementalIndex;
+  private final boolean concurrentEventAdd;
   private final CopyOnWriteArrayList<FireHydrant> hydrants = new CopyOnWriteArrayList<>();
   private final LinkedHashSet<String> dimOrder = new LinkedHashSet<>();
   private final AtomicInteger numRowsExcludingCurrIndex = new AtomicInteger();
@@ -77,6 +90,9 @@ public class Sink implements Iterable<FireHydrant>, Overshadowable<Sink>
   private volatile boolean writable = true;
   private final String dedupColumn;
   private final Set<Long> dedupSet = new HashSet<>();
+  // Persisted hydrants which were merged in the background, keyed by the count of the first hydrant each one replaces
+  // and paired with the count following the last one. Only read by queries. Guarded by itself.
+  private final TreeMap<Integer, Pair<FireHydrant, Integer>> mergedHydrants = new TreeMap<>();
 
   public Sink(
       Interval interval,
@@ -141,6 +157,42 @@ public class Sink implements Iterable<FireHydrant>, Overshadowable<Sink>
       String dedupColumn,
       List<FireHydrant> hydrants
   )
+  {
+    this(
+        interval,
+        schema,
+        shardSpec,
+        compactionState,
+        version,
+        maxRowsInMemory,
+        maxBytesInMemory,
+        reportParseExceptions,
+        dedupColumn,
+        false,
+        false,
+        hydrants
+    );
+  }
+
+  /**
+   * @param useOffheapIncrementalIndex whether in-memory rows are kept in an {@link OffheapArenaIncrementalIndex}
+   *                                   rather than on heap
+   * @param concurrentEventAdd         whether {@link #add} may be called by several threads at the same time
+   */
+  public Sink(
+      Interval interval,
+      DataSchema schema,
+      ShardSpec shardSpec,
+      @Nullable CompactionState compactionState,
+      String version,
+      int maxRowsInMemory,
+      long maxBytesInMemory,
+      boolean reportParseExceptions,
+      String dedupColumn,
+      boolean useOffheapIncrementalIndex,
+      boolean concurrentEventAdd,
+      List<FireHydrant> hydrants
+  )
   {
     this.schema = schema;
     this.shardSpec = shardSpec;
@@ -151,6 +203,8 @@ public class Sink implements Iterable<FireHydrant>, Overshadowable<Sink>
     this.maxBytesInMemory = maxBytesInMemory;
     this.reportParseExceptions = reportParseExceptions;
     this.dedupColumn = dedupColumn;
+    this.useOffheapIncrementalIndex = useOffheapIncrementalIndex;
+    this.concurrentEventAdd = concurrentEventAdd;
 
     int maxCount = -1;
     for (int i = 0; i < hydrants.size(); ++i) {
@@ -193,22 +247,30 @@ public class Sink implements Iterable<FireHydrant>, Overshadowable<Sink>
       throw new IAE("No currHydrant but given row[%s]", row);
     }
 
-    synchronized (hydrantLock) {
-      if (!writable) {
-        return Plumber.NOT_WRITABLE;
-      }
+    swapLock.readLock().lock();
+    try {
+      final IncrementalIndex index;
+      synchronized (hydrantLock) {
+        if (!writable) {
+          return Plumber.NOT_WRITABLE;
+        }
 
-      IncrementalIndex index = currHydrant.getIndex();
-      if (index == null) {
-        return ALREADY_SWAPPED; // the hydrant was swapped without being replaced
-      }
+        index = currHydrant.getIndex();
+        if (index == null) {
+          return ALREADY_SWAPPED; // the hydrant was swapped without being replaced
+        }
 
-      if (checkInDedupSet(row)) {
-        return Plumber.DUPLICATE;
+        if (checkInDedupSet(row)) {
+          return Plumber.DUPLICATE;
+        }
       }
 
+      // IncrementalIndex.add() is thread-safe, the read lock only keeps the index from being swapped meanwhile
       return index.add(row, skipMaxRowsInMemoryCheck);
     }
+    finally {
+      swapLock.readLock().unlock();
+    }
   }
 
   public boolean canAppendRow()
@@ -237,7 +299,13 @@ public class Sink implements Iterable<FireHydrant>, Overshadowable<Sink>
    */
   public FireHydrant swap()
   {
-    return makeNewCurrIndex(interval.getStartMillis(), schema);
+    swapLock.writeLock().lock();
+    try {
+      return makeNewCurrIndex(interval.getStartMillis(), schema);
+    }
+    finally {
+      swapLock.writeLock().unlock();
+    }
   }
 
   public boolean swappable()
@@ -258,12 +326,18 @@ public class Sink implements Iterable<FireHydrant>, Overshadowable<Sink>
    */
   public boolean finishWriting()
   {
-    synchronized (hydrantLock) {
-      if (!writable) {
-        return false;
+    swapLock.writeLock().lock();
+    try {
+      synchronized (hydrantLock) {
+        if (!writable) {
+          return false;
+        }
+        writable = false;
+        clearDedupCache();
       }
-      writable = false;
-      clearDedupCache();
+    }
+    finally {
+      swapLock.writeLock().unlock();
     }
     return true;
   }
@@ -360,12 +434,15 @@ public class Sink implements Iterable<FireHydrant>, Overshadowable<Sink>
         .withMetrics(schema.getAggregators())
         .withRollup(schema.getGranularitySpec().isRollup())
         .build();
-    final IncrementalIndex newIndex = new IncrementalIndex.Builder()
+    final IncrementalIndex.Builder indexBuilder = new IncrementalIndex.Builder()
         .setIndexSchema(indexSchema)
         .setReportParseExceptions(reportParseExceptions)
+        .setConcurrentEventAdd(concurrentEventAdd)
         .setMaxRowCount(maxRowsInMemory)
-        .setMaxBytesInMemory(maxBytesInMemory)
-        .buildOnheap();
+        .setMaxBytesInMemory(maxBytesInMemory);
+    final IncrementalIndex newIndex = useOffheapIncrementalIndex
+                                      ? indexBuilder.buildOffheapArena()
+                                      : indexBuilder.buildOnheap();
 
     final FireHydrant old;
     synchronized (hydrantLock) {
@@ -414,6 +491,76 @@ public class Sink implements Iterable<FireHydrant>, Overshadowable<Sink>
     return old;
   }
 
+  /**
+   * Makes queries read "merged", a merge of the persisted hydrants with counts in [merged.getCount(), endCount), in
+   * place of those hydrants. Iterating this sink is not affected.
+   *
+   * @return previously added merged hydrants which are covered by the new one and no longer used by queries, for the
+   * caller to close
+   */
+  public List<FireHydrant> addMergedHydrant(FireHydrant merged, int endCount)
+  {
+    final List<FireHydrant> replaced = new ArrayList<>();
+    synchronized (mergedHydrants) {
+      final Iterator<Pair<FireHydrant, Integer>> iterator =
+          mergedHydrants.subMap(merged.getCount(), endCount).values().iterator();
+      while (iterator.hasNext()) {
+        final Pair<FireHydrant, Integer> covered = iterator.next();
+        if (covered.rhs <= endCount) {
+          replaced.add(covered.lhs);
+          iterator.remove();
+        }
+      }
+      mergedHydrants.put(merged.getCount(), new Pair<>(merged, endCount));
+    }
+    return replaced;
+  }
+
+  /**
+   * Stops queries from reading merged hydrants, see {@link #addMergedHydrant}.
+   *
+   * @return the merged hydrants, for the caller to close
+   */
+  public List<FireHydrant> removeMergedHydrants()
+  {
+    synchronized (mergedHydrants) {
+      final List<FireHydrant> removed = new ArrayList<>();
+      mergedHydrants.values().forEach(pair -> removed.add(pair.lhs));
+      mergedHydrants.clear();
+      return removed;
+    }
+  }
+
+  /**
+   * Returns the hydrants that queries should read, in order. Runs of persisted hydrants that were merged in the
+   * background are replaced by their merged hydrant, which is paired with the hydrants it replaces so that a query can
+   * fall back to them if the merged hydrant gets closed before the query acquires it. Other hydrants are paired with
+   * an empty list.
+   */
+  public List<Pair<FireHydrant, List<FireHydrant>>> getHydrantsForQuery()
+  {
+    final List<FireHydrant> current = Lists.newArrayList(this);
+    final Map<Integer, Pair<FireHydrant, Integer>> merged;
+    synchronized (mergedHydrants) {
+      merged = new HashMap<>(mergedHydrants);
+    }
+
+    final List<Pair<FireHydrant, List<FireHydrant>>> retVal = new ArrayList<>(current.size());
+    for (int i = 0; i < current.size(); i++) {
+      final FireHydrant hydrant = current.get(i);
+      final Pair<FireHydrant, Integer> mergedHydrant = merged.get(hydrant.getCount());
+      final int last = mergedHydrant == null ? i : i + mergedHydrant.rhs - hydrant.getCount() - 1;
+      // hydrant counts are increasing, so this means that all the merged hydrants are here
+      if (mergedHydrant != null && last < current.size() && current.get(last).getCount() == mergedHydrant.rhs - 1) {
+        retVal.add(new Pair<>(mergedHydrant.lhs, current.subList(i, last + 1)));
+        i = last;
+      } else {
+        retVal.add(new Pair<>(hydrant, Collections.emptyList()));
+      }
+    }
+    return retVal;
+  }
+
   @Override
   public Iterator<FireHydrant> iterator()
   {
@@ -30,11 +30,13 @@ import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Sequences;
 import org.apache.druid.java.util.emitter.service.ServiceEmitter;
+import org.apache.druid.query.CoalescingQueryRunner;
 import org.apache.druid.query.DataSource;
 import org.apache.druid.query.FluentQueryRunnerBuilder;
 import org.apache.druid.query.InlineDataSource;
 import org.apache.druid.query.PostProcessingOperator;
 import org.apache.druid.query.Query;
+import org.apache.druid.query.QueryCoalescer;
 import org.apache.druid.query.QueryContexts;
 import org.apache.druid.query.QueryDataSource;
 import org.apache.druid.query.QueryPlus;
@@ -82,6 +84,7 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
   private final ServerConfig serverConfig;
   private final Cache cache;
   private final CacheConfig cacheConfig;
+  private final QueryCoalescer queryCoalescer;
 
   public ClientQuerySegmentWalker(
       ServiceEmitter emitter,
@@ -92,7 +95,8 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
       ObjectMapper objectMapper,
       ServerConfig serverConfig,
       Cache cache,
-      CacheConfig cacheConfig
+      CacheConfig cacheConfig,
+      QueryCoalescer queryCoalescer
   )
   {
     this.emitter = emitter;
@@ -104,6 +108,7 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
     this.serverConfig = serverConfig;
     this.cache = cache;
     this.cacheConfig = cacheConfig;
+    this.queryCoalescer = queryCoalescer;
   }
 
   @Inject
@@ -116,7 +121,8 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
       ObjectMapper objectMapper,
       ServerConfig serverConfig,
       Cache cache,
-      CacheConfig cacheConfig
+      CacheConfig cacheConfig,
+      QueryCoalescer queryCoalescer
   )
   {
     this(
@@ -128,7 +134,8 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
         objectMapper,
         serverConfig,
         cache,
-        cacheConfig
+        cacheConfig,
+        queryCoalescer
     );
   }
 
@@ -344,8 +351,8 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
 
   /**
    * Decorate query runners created by {@link #clusterClient}, adding result caching, result merging, metric
-   * emission, etc. Not to be used on runners from {@link #localClient}, since we expect it to do this kind
-   * of decoration to itself.
+   * emission, coalescing of identical concurrent queries, etc. Not to be used on runners from {@link #localClient},
+   * since we expect it to do this kind of decoration to itself.
    *
    * @param query             the query
    * @param baseClusterRunner runner from {@link #clusterClient}
@@ -385,7 +392,8 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
                     cache,
                     cacheConfig
                 )
-        );
+        )
+        .map(runner -> new CoalescingQueryRunner<>(runner, toolChest, queryCoalescer, objectMapper));
   }
 
   /**
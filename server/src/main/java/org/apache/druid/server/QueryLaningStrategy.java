@@ -25,6 +25,7 @@ import com.google.common.primitives.Ints;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import org.apache.druid.client.SegmentServerSelector;
 import org.apache.druid.query.QueryPlus;
+import org.apache.druid.server.scheduling.AdaptiveQueryLaningStrategy;
 import org.apache.druid.server.scheduling.HiLoQueryLaningStrategy;
 import org.apache.druid.server.scheduling.ManualQueryLaningStrategy;
 import org.apache.druid.server.scheduling.NoQueryLaningStrategy;
@@ -37,7 +38,8 @@ import java.util.Set;
 @JsonSubTypes(value = {
     @JsonSubTypes.Type(name = "none", value = NoQueryLaningStrategy.class),
     @JsonSubTypes.Type(name = "hilo", value = HiLoQueryLaningStrategy.class),
-    @JsonSubTypes.Type(name = "manual", value = ManualQueryLaningStrategy.class)
+    @JsonSubTypes.Type(name = "manual", value = ManualQueryLaningStrategy.class),
+    @JsonSubTypes.Type(name = "adaptive", value = AdaptiveQueryLaningStrategy.class)
 })
 public interface QueryLaningStrategy
 {
@@ -54,6 +56,17 @@ public interface QueryLaningStrategy
    */
   <T> Optional<String> computeLane(QueryPlus<T> query, Set<SegmentServerSelector> segments);
 
+  /**
+   * Called by {@link QueryScheduler} when a query that it ran has completed, with the time it spent holding its lane.
+   * Strategies may use this to adapt the lanes of future queries to observed query costs.
+   *
+   * This method must be thread safe
+   */
+  default <T> void queryCompleted(QueryPlus<T> query, long elapsedNanos)
+  {
+    // do nothing
+  }
+
   default int computeLimitFromPercent(int totalLimit, int value)
   {
     return Ints.checkedCast((long) Math.ceil(totalLimit * ((double) value / 100)));
@@ -138,8 +138,23 @@ public class QueryScheduler implements QueryWatcher
    */
   public <T> Sequence<T> run(Query<?> query, Sequence<T> resultSequence)
   {
-    List<Bulkhead> bulkheads = acquireLanes(query);
-    return resultSequence.withBaggage(() -> finishLanes(bulkheads));
+    return run(QueryPlus.wrap(query), resultSequence);
+  }
+
+  /**
+   * Like {@link #run(Query, Sequence)}, but also reports the identity of the user that issued the query, if any, to
+   * the {@link QueryLaningStrategy} when the query completes.
+   */
+  public <T> Sequence<T> run(QueryPlus<?> queryPlus, Sequence<T> resultSequence)
+  {
+    List<Bulkhead> bulkheads = acquireLanes(queryPlus.getQuery());
+    final long startNanos = System.nanoTime();
+    return resultSequence.withBaggage(
+        () -> {
+          finishLanes(bulkheads);
+          laningStrategy.queryCompleted(queryPlus, System.nanoTime() - startNanos);
+        }
+    );
   }
 
   /**
@@ -149,7 +164,7 @@ public class QueryScheduler implements QueryWatcher
   {
     return (queryPlus, responseContext) ->
         QueryScheduler.this.run(
-            queryPlus.getQuery(), new LazySequence<>(() -> baseRunner.run(queryPlus, responseContext))
+            queryPlus, new LazySequence<>(() -> baseRunner.run(queryPlus, responseContext))
         );
   }
 
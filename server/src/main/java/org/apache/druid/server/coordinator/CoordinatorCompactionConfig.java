@@ -41,6 +41,7 @@ public class CoordinatorCompactionConfig
   private final List<DataSourceCompactionConfig> compactionConfigs;
   private final double compactionTaskSlotRatio;
   private final int maxCompactionTaskSlots;
+  private final boolean prioritizeFragmentedIntervals;
 
   public static CoordinatorCompactionConfig from(
       CoordinatorCompactionConfig baseConfig,
@@ -50,7 +51,8 @@ public class CoordinatorCompactionConfig
     return new CoordinatorCompactionConfig(
         compactionConfigs,
         baseConfig.compactionTaskSlotRatio,
-        baseConfig.maxCompactionTaskSlots
+        baseConfig.maxCompactionTaskSlots,
+        baseConfig.prioritizeFragmentedIntervals
     );
   }
 
@@ -63,18 +65,32 @@ public class CoordinatorCompactionConfig
     return new CoordinatorCompactionConfig(
         baseConfig.compactionConfigs,
         compactionTaskSlotRatio == null ? baseConfig.compactionTaskSlotRatio : compactionTaskSlotRatio,
-        maxCompactionTaskSlots == null ? baseConfig.maxCompactionTaskSlots : maxCompactionTaskSlots
+        maxCompactionTaskSlots == null ? baseConfig.maxCompactionTaskSlots : maxCompactionTaskSlots,
+        baseConfig.prioritizeFragmentedIntervals
+    );
+  }
+
+  public static CoordinatorCompactionConfig from(
+      CoordinatorCompactionConfig baseConfig,
+      boolean prioritizeFragmentedIntervals
+  )
+  {
+    return new CoordinatorCompactionConfig(
+        baseConfig.compactionConfigs,
+        baseConfig.compactionTaskSlotRatio,
+        baseConfig.maxCompactionTaskSlots,
+        prioritizeFragmentedIntervals
     );
   }
 
   public static CoordinatorCompactionConfig from(List<DataSourceCompactionConfig> compactionConfigs)
   {
-    return new CoordinatorCompactionConfig(compactionConfigs, null, null);
+    return new CoordinatorCompactionConfig(compactionConfigs, null, null, null);
   }
 
   public static CoordinatorCompactionConfig empty()
   {
-    return new CoordinatorCompactionConfig(ImmutableList.of(), null, null);
+    return new CoordinatorCompactionConfig(ImmutableList.of(), null, null, null);
   }
 
   public static AtomicReference<CoordinatorCompactionConfig> watch(final JacksonConfigManager configManager)
@@ -96,7 +112,8 @@ public class CoordinatorCompactionConfig
   public CoordinatorCompactionConfig(
       @JsonProperty("compactionConfigs") List<DataSourceCompactionConfig> compactionConfigs,
       @JsonProperty("compactionTaskSlotRatio") @Nullable Double compactionTaskSlotRatio,
-      @JsonProperty("maxCompactionTaskSlots") @Nullable Integer maxCompactionTaskSlots
+      @JsonProperty("maxCompactionTaskSlots") @Nullable Integer maxCompactionTaskSlots,
+      @JsonProperty("prioritizeFragmentedIntervals") @Nullable Boolean prioritizeFragmentedIntervals
   )
   {
     this.compactionConfigs = compactionConfigs;
@@ -106,6 +123,7 @@ public class CoordinatorCompactionConfig
     this.maxCompactionTaskSlots = maxCompactionTaskSlots == null ?
                                   DEFAILT_MAX_COMPACTION_TASK_SLOTS :
                                   maxCompactionTaskSlots;
+    this.prioritizeFragmentedIntervals = prioritizeFragmentedIntervals != null && prioritizeFragmentedIntervals;
   }
 
   @JsonProperty
@@ -126,6 +144,15 @@ public class CoordinatorCompactionConfig
     return maxCompactionTaskSlots;
   }
 
+  /**
+   * Whether auto compaction compacts the time chunks having the most segments first rather than the newest ones.
+   */
+  @JsonProperty
+  public boolean isPrioritizeFragmentedIntervals()
+  {
+    return prioritizeFragmentedIntervals;
+  }
+
   @Override
   public String toString()
   {
@@ -133,13 +160,19 @@ public class CoordinatorCompactionConfig
            ", compactionConfigs=" + compactionConfigs +
            ", compactionTaskSlotRatio=" + compactionTaskSlotRatio +
            ", maxCompactionTaskSlots=" + maxCompactionTaskSlots +
+           ", prioritizeFragmentedIntervals=" + prioritizeFragmentedIntervals +
            '}';
   }
 
   @Override
   public int hashCode()
   {
-    return Objects.hash(compactionConfigs, compactionTaskSlotRatio, maxCompactionTaskSlots);
+    return Objects.hash(
+        compactionConfigs,
+        compactionTaskSlotRatio,
+        maxCompactionTaskSlots,
+        prioritizeFragmentedIntervals
+    );
   }
 
   @Override
@@ -161,6 +194,10 @@ public class CoordinatorCompactionConfig
       return false;
     }
 
-    return maxCompactionTaskSlots == that.maxCompactionTaskSlots;
+    if (maxCompactionTaskSlots != that.maxCompactionTaskSlots) {
+      return false;
+    }
+
+    return prioritizeFragmentedIntervals == that.prioritizeFragmentedIntervals;
   }
 }
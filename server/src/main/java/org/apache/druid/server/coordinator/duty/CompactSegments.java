@@ -58,7 +58,8 @@ public class CompactSegments implements CoordinatorDuty
 
   private static final Logger LOG = new Logger(CompactSegments.class);
 
-  private final CompactionSegmentSearchPolicy policy;
+  private final CompactionSegmentSearchPolicy newestSegmentFirstPolicy;
+  private final CompactionSegmentSearchPolicy fragmentedSegmentFirstPolicy;
   private final IndexingServiceClient indexingServiceClient;
 
   private Object2LongOpenHashMap<String> totalSizesOfSegmentsAwaitingCompactionPerDataSource;
@@ -69,7 +70,8 @@ public class CompactSegments implements CoordinatorDuty
       IndexingServiceClient indexingServiceClient
   )
   {
-    this.policy = new NewestSegmentFirstPolicy(objectMapper);
+    this.newestSegmentFirstPolicy = new NewestSegmentFirstPolicy(objectMapper);
+    this.fragmentedSegmentFirstPolicy = new FragmentedSegmentFirstPolicy(objectMapper);
     this.indexingServiceClient = indexingServiceClient;
   }
 
@@ -111,6 +113,9 @@ public class CompactSegments implements CoordinatorDuty
           }
         }
 
+        final CompactionSegmentSearchPolicy policy = dynamicConfig.isPrioritizeFragmentedIntervals()
+                                                     ? fragmentedSegmentFirstPolicy
+                                                     : newestSegmentFirstPolicy;
         final CompactionSegmentIterator iterator =
             policy.reset(compactionConfigs, dataSources, compactionTaskIntervals);
 
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.server.coordinator.duty;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.druid.server.coordinator.DataSourceCompactionConfig;
+import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.VersionedIntervalTimeline;
+import org.joda.time.Interval;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This policy searches segments for compaction from the time chunk having the most segments to the one having the
+ * least segments, so that compaction reduces the number of segments each query has to read as early as possible.
+ * Time chunks having the same number of segments are searched from the one having the smallest segments.
+ */
+public class FragmentedSegmentFirstPolicy implements CompactionSegmentSearchPolicy
+{
+  private final ObjectMapper objectMapper;
+
+  public FragmentedSegmentFirstPolicy(ObjectMapper objectMapper)
+  {
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public CompactionSegmentIterator reset(
+      Map<String, DataSourceCompactionConfig> compactionConfigs,
+      Map<String, VersionedIntervalTimeline<String, DataSegment>> dataSources,
+      Map<String, List<Interval>> skipIntervals
+  )
+  {
+    return new NewestSegmentFirstIterator(objectMapper, compactionConfigs, dataSources, skipIntervals, true);
+  }
+}
@@ -27,7 +27,6 @@ import com.google.common.collect.Maps;
 import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
 import org.apache.druid.indexer.partitions.DynamicPartitionsSpec;
 import org.apache.druid.indexer.partitions.PartitionsSpec;
-import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.JodaUtils;
 import org.apache.druid.java.util.common.guava.Comparators;
@@ -59,12 +58,27 @@ import java.util.PriorityQueue;
 import java.util.stream.Collectors;
 
 /**
- * This class iterates all segments of the dataSources configured for compaction from the newest to the oldest.
+ * This class iterates all segments of the dataSources configured for compaction from the newest to the oldest,
+ * or from the most fragmented time chunk to the least fragmented one if prioritizeFragmentedIntervals is set.
  */
 public class NewestSegmentFirstIterator implements CompactionSegmentIterator
 {
   private static final Logger log = new Logger(NewestSegmentFirstIterator.class);
 
+  private static final Comparator<SegmentsToCompact> NEWEST_FIRST =
+      (o1, o2) -> Comparators.intervalsByStartThenEnd().compare(o2.interval, o1.interval);
+
+  /**
+   * Queries fan out to every segment of the time chunks they read, so the time chunks having the most segments
+   * are compacted first. Among them, the ones having smaller segments are compacted first since they have the more
+   * per-segment overhead relative to their data.
+   */
+  private static final Comparator<SegmentsToCompact> MOST_FRAGMENTED_FIRST =
+      Comparator.<SegmentsToCompact>comparingInt(candidates -> candidates.segments.size())
+          .reversed()
+          .thenComparingLong(candidates -> candidates.getTotalSize() / candidates.segments.size())
+          .thenComparing(NEWEST_FIRST);
+
   private final ObjectMapper objectMapper;
   private final Map<String, DataSourceCompactionConfig> compactionConfigs;
   private final Map<String, VersionedIntervalTimeline<String, DataSegment>> dataSources;
@@ -74,9 +88,8 @@ public class NewestSegmentFirstIterator implements CompactionSegmentIterator
   // compact.
   private final Map<String, CompactibleTimelineObjectHolderCursor> timelineIterators;
 
-  private final PriorityQueue<QueueEntry> queue = new PriorityQueue<>(
-      (o1, o2) -> Comparators.intervalsByStartThenEnd().compare(o2.interval, o1.interval)
-  );
+  private final Comparator<SegmentsToCompact> priority;
+  private final PriorityQueue<SegmentsToCompact> queue;
 
   NewestSegmentFirstIterator(
       ObjectMapper objectMapper,
@@ -84,11 +97,24 @@ public class NewestSegmentFirstIterator implements CompactionSegmentIterator
       Map<String, VersionedIntervalTimeline<String, DataSegment>> dataSources,
       Map<String, List<Interval>> skipIntervals
   )
+  {
+    this(objectMapper, compactionConfigs, dataSources, skipIntervals, false);
+  }
+
+  NewestSegmentFirstIterator(
+      ObjectMapper objectMapper,
+      Map<String, DataSourceCompactionConfig> compactionConfigs,
+      Map<String, VersionedIntervalTimeline<String, DataSegment>> dataSources,
+      Map<String, List<Interval>> skipIntervals,
+      boolean prioritizeFragmentedIntervals
+  )
   {
     this.objectMapper = objectMapper;
     this.compactionConfigs = compactionConfigs;
     this.dataSources = dataSources;
     this.timelineIterators = Maps.newHashMapWithExpectedSize(dataSources.size());
+    this.priority = prioritizeFragmentedIntervals ? MOST_FRAGMENTED_FIRST : NEWEST_FIRST;
+    this.queue = new PriorityQueue<>(priority);
 
     dataSources.forEach((String dataSource, VersionedIntervalTimeline<String, DataSegment> timeline) -> {
       final DataSourceCompactionConfig config = compactionConfigs.get(dataSource);
@@ -97,7 +123,14 @@ public class NewestSegmentFirstIterator implements CompactionSegmentIterator
         final List<Interval> searchIntervals =
             findInitialSearchInterval(timeline, config.getSkipOffsetFromLatest(), skipIntervals.get(dataSource));
         if (!searchIntervals.isEmpty()) {
-          timelineIterators.put(dataSource, new CompactibleTimelineObjectHolderCursor(timeline, searchIntervals));
+          timelineIterators.put(
+              dataSource,
+              new CompactibleTimelineObjectHolderCursor(
+                  timeline,
+                  searchIntervals,
+                  prioritizeFragmentedIntervals ? MOST_FRAGMENTED_FIRST : null
+              )
+          );
         }
       }
     });
@@ -115,7 +148,13 @@ public class NewestSegmentFirstIterator implements CompactionSegmentIterator
   {
     final Object2LongOpenHashMap<String> resultMap = new Object2LongOpenHashMap<>();
     resultMap.defaultReturnValue(UNKNOWN_TOTAL_REMAINING_SEGMENTS_SIZE);
-    for (QueueEntry entry : queue) {
+    for (SegmentsToCompact entry : queue) {
+      if (priority != NEWEST_FIRST) {
+        // The remaining candidates are not contiguous in time, but all of them are still in the cursor.
+        final CompactibleTimelineObjectHolderCursor cursor = timelineIterators.get(entry.getDataSource());
+        resultMap.put(entry.getDataSource(), entry.getTotalSize() + cursor.getTotalSize());
+        continue;
+      }
       final VersionedIntervalTimeline<String, DataSegment> timeline = dataSources.get(entry.getDataSource());
       final Interval interval = new Interval(timeline.first().getInterval().getStart(), entry.interval.getEnd());
 
@@ -147,7 +186,7 @@ public class NewestSegmentFirstIterator implements CompactionSegmentIterator
       throw new NoSuchElementException();
     }
 
-    final QueueEntry entry = queue.poll();
+    final SegmentsToCompact entry = queue.poll();
 
     if (entry == null) {
       throw new NoSuchElementException();
@@ -185,24 +224,31 @@ public class NewestSegmentFirstIterator implements CompactionSegmentIterator
     );
 
     if (!segmentsToCompact.isEmpty()) {
-      queue.add(new QueueEntry(segmentsToCompact.segments));
+      queue.add(segmentsToCompact);
     }
   }
 
   /**
-   * Iterates the given {@link VersionedIntervalTimeline}. Only compactible {@link TimelineObjectHolder}s are returned,
-   * which means the holder always has at least one {@link DataSegment}.
+   * Iterates the given {@link VersionedIntervalTimeline} from the newest to the oldest, or in the given priority if
+   * any. Only compactible {@link TimelineObjectHolder}s are returned, which means the holder always has at least one
+   * {@link DataSegment}.
    */
-  private static class CompactibleTimelineObjectHolderCursor implements Iterator<List<DataSegment>>
+  private static class CompactibleTimelineObjectHolderCursor implements Iterator<SegmentsToCompact>
   {
+    // Oldest first, so that the newest holder can be removed from the end. Only turned into candidates when returned.
     private final List<TimelineObjectHolder<String, DataSegment>> holders;
+    // Sorting needs the candidates of all holders up front, so they are only built when a priority is given. Sorted
+    // in the reverse order of the priority, so that the next candidates can be removed from the end.
+    @Nullable
+    private final List<SegmentsToCompact> sortedCandidates;
 
     CompactibleTimelineObjectHolderCursor(
         VersionedIntervalTimeline<String, DataSegment> timeline,
-        List<Interval> totalIntervalsToSearch
+        List<Interval> totalIntervalsToSearch,
+        @Nullable Comparator<SegmentsToCompact> priority
     )
     {
-      this.holders = totalIntervalsToSearch
+      final List<TimelineObjectHolder<String, DataSegment>> compactibleHolders = totalIntervalsToSearch
           .stream()
           .flatMap(interval -> timeline
               .lookup(interval)
@@ -210,6 +256,26 @@ public class NewestSegmentFirstIterator implements CompactionSegmentIterator
               .filter(holder -> isCompactibleHolder(interval, holder))
           )
           .collect(Collectors.toList());
+      if (priority == null) {
+        this.holders = compactibleHolders;
+        this.sortedCandidates = null;
+      } else {
+        this.holders = Collections.emptyList();
+        this.sortedCandidates = compactibleHolders
+            .stream()
+            .map(CompactibleTimelineObjectHolderCursor::toCandidates)
+            .sorted(priority.reversed())
+            .collect(Collectors.toList());
+      }
+    }
+
+    private static SegmentsToCompact toCandidates(TimelineObjectHolder<String, DataSegment> holder)
+    {
+      return new SegmentsToCompact(
+          Streams.sequentialStreamFrom(holder.getObject())
+                 .map(PartitionChunk::getObject)
+                 .collect(Collectors.toList())
+      );
     }
 
     private boolean isCompactibleHolder(Interval interval, TimelineObjectHolder<String, DataSegment> holder)
@@ -232,18 +298,28 @@ public class NewestSegmentFirstIterator implements CompactionSegmentIterator
     @Override
     public boolean hasNext()
     {
-      return !holders.isEmpty();
+      return sortedCandidates == null ? !holders.isEmpty() : !sortedCandidates.isEmpty();
+    }
+
+    /**
+     * Returns the total size of the remaining candidates. Only available when a priority is given.
+     */
+    private long getTotalSize()
+    {
+      Preconditions.checkState(sortedCandidates != null, "No priority");
+      return sortedCandidates.stream().mapToLong(SegmentsToCompact::getTotalSize).sum();
     }
 
     @Override
-    public List<DataSegment> next()
+    public SegmentsToCompact next()
     {
-      if (holders.isEmpty()) {
+      if (!hasNext()) {
         throw new NoSuchElementException();
       }
-      return Streams.sequentialStreamFrom(holders.remove(holders.size() - 1).getObject())
-                    .map(PartitionChunk::getObject)
-                    .collect(Collectors.toList());
+      if (sortedCandidates != null) {
+        return sortedCandidates.remove(sortedCandidates.size() - 1);
+      }
+      return toCandidates(holders.remove(holders.size() - 1));
     }
   }
 
@@ -339,7 +415,7 @@ public class NewestSegmentFirstIterator implements CompactionSegmentIterator
     final long inputSegmentSize = config.getInputSegmentSizeBytes();
 
     while (compactibleTimelineObjectHolderCursor.hasNext()) {
-      final SegmentsToCompact candidates = new SegmentsToCompact(compactibleTimelineObjectHolderCursor.next());
+      final SegmentsToCompact candidates = compactibleTimelineObjectHolderCursor.next();
 
       if (!candidates.isEmpty()) {
         final boolean isCompactibleSize = candidates.getTotalSize() <= inputSegmentSize;
@@ -503,37 +579,12 @@ public class NewestSegmentFirstIterator implements CompactionSegmentIterator
     return filteredIntervals;
   }
 
-  private static class QueueEntry
-  {
-    private final Interval interval; // whole interval for all segments
-    private final List<DataSegment> segments;
-
-    private QueueEntry(List<DataSegment> segments)
-    {
-      Preconditions.checkArgument(segments != null && !segments.isEmpty());
-      DateTime minStart = DateTimes.MAX, maxEnd = DateTimes.MIN;
-      for (DataSegment segment : segments) {
-        if (segment.getInterval().getStart().compareTo(minStart) < 0) {
-          minStart = segment.getInterval().getStart();
-        }
-        if (segment.getInterval().getEnd().compareTo(maxEnd) > 0) {
-          maxEnd = segment.getInterval().getEnd();
-        }
-      }
-      this.interval = new Interval(minStart, maxEnd);
-      this.segments = segments;
-    }
-
-    private String getDataSource()
-    {
-      return segments.get(0).getDataSource();
-    }
-  }
-
   private static class SegmentsToCompact
   {
     private final List<DataSegment> segments;
     private final long totalSize;
+    @Nullable
+    private final Interval interval; // whole interval for all segments
 
     private SegmentsToCompact()
     {
@@ -544,6 +595,16 @@ public class NewestSegmentFirstIterator implements CompactionSegmentIterator
     {
       this.segments = segments;
       this.totalSize = segments.stream().mapToLong(DataSegment::getSize).sum();
+      this.interval = segments.isEmpty()
+                      ? null
+                      : JodaUtils.umbrellaInterval(
+                          segments.stream().map(DataSegment::getInterval).collect(Collectors.toList())
+                      );
+    }
+
+    private String getDataSource()
+    {
+      return segments.get(0).getDataSource();
     }
 
     private boolean isEmpty()
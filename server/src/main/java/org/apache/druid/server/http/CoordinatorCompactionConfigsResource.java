@@ -102,6 +102,38 @@ public class CoordinatorCompactionConfigsResource
     }
   }
 
+  @POST
+  @Path("/priority")
+  @Consumes(MediaType.APPLICATION_JSON)
+  public Response setCompactionPriority(
+      @QueryParam("fragmentedFirst") boolean prioritizeFragmentedIntervals,
+      @HeaderParam(AuditManager.X_DRUID_AUTHOR) @DefaultValue("") final String author,
+      @HeaderParam(AuditManager.X_DRUID_COMMENT) @DefaultValue("") final String comment,
+      @Context HttpServletRequest req
+  )
+  {
+    final CoordinatorCompactionConfig current = CoordinatorCompactionConfig.current(manager);
+
+    final CoordinatorCompactionConfig newCompactionConfig = CoordinatorCompactionConfig.from(
+        current,
+        prioritizeFragmentedIntervals
+    );
+
+    final SetResult setResult = manager.set(
+        CoordinatorCompactionConfig.CONFIG_KEY,
+        newCompactionConfig,
+        new AuditInfo(author, comment, req.getRemoteAddr())
+    );
+
+    if (setResult.isOk()) {
+      return Response.ok().build();
+    } else {
+      return Response.status(Response.Status.BAD_REQUEST)
+                     .entity(ImmutableMap.of("error", setResult.getException()))
+                     .build();
+    }
+  }
+
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   public Response addOrUpdateCompactionConfig(
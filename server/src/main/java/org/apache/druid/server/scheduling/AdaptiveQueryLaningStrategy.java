@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.scheduling;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.objects.Object2IntArrayMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import org.apache.druid.client.DecayingMovingAverage;
+import org.apache.druid.client.SegmentServerSelector;
+import org.apache.druid.query.Query;
+import org.apache.druid.query.QueryContexts;
+import org.apache.druid.query.QueryPlus;
+import org.apache.druid.server.QueryLaningStrategy;
+import org.joda.time.Period;
+
+import javax.annotation.Nullable;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query laning strategy which tracks the observed cost of queries, per identity and set of datasources, and assigns
+ * queries whose recent average cost exceeds a threshold into a 'low' lane. The cost of a query is the time it spent
+ * holding its scheduler slot on the broker, which covers both the time waiting on data servers and the time merging
+ * results. Averages decay while no queries are observed, so tenants that stop issuing expensive queries eventually
+ * return to the interactive lane. Like {@link HiLoQueryLaningStrategy}, queries with a priority lower than 0 are also
+ * assigned to the 'low' lane, and a lane set explicitly in the query context always takes precedence.
+ */
+public class AdaptiveQueryLaningStrategy implements QueryLaningStrategy
+{
+  public static final String LOW = HiLoQueryLaningStrategy.LOW;
+
+  private static final double COST_ALPHA = 0.3;
+  private static final Period DEFAULT_COST_HALF_LIFE = new Period("PT5M");
+  private static final int DEFAULT_MAX_TRACKED_KEYS = 10_000;
+
+  @JsonProperty
+  private final int maxLowPercent;
+
+  @JsonProperty
+  private final long costThresholdMillis;
+
+  @JsonProperty
+  private final Period costHalfLife;
+
+  @JsonProperty
+  private final int maxTrackedKeys;
+
+  private final ConcurrentMap<String, DecayingMovingAverage> costs = new ConcurrentHashMap<>();
+
+  @JsonCreator
+  public AdaptiveQueryLaningStrategy(
+      @JsonProperty("maxLowPercent") Integer maxLowPercent,
+      @JsonProperty("costThresholdMillis") Long costThresholdMillis,
+      @JsonProperty("costHalfLife") @Nullable Period costHalfLife,
+      @JsonProperty("maxTrackedKeys") @Nullable Integer maxTrackedKeys
+  )
+  {
+    this.maxLowPercent = Preconditions.checkNotNull(maxLowPercent, "maxLowPercent must be set");
+    Preconditions.checkArgument(
+        0 < maxLowPercent && maxLowPercent <= 100,
+        "maxLowPercent must be in the range 1 to 100"
+    );
+    this.costThresholdMillis = Preconditions.checkNotNull(costThresholdMillis, "costThresholdMillis must be set");
+    Preconditions.checkArgument(costThresholdMillis > 0, "costThresholdMillis must be greater than 0");
+    this.costHalfLife = costHalfLife == null ? DEFAULT_COST_HALF_LIFE : costHalfLife;
+    Preconditions.checkArgument(
+        this.costHalfLife.toStandardDuration().getMillis() > 0,
+        "costHalfLife must be greater than 0"
+    );
+    this.maxTrackedKeys = maxTrackedKeys == null ? DEFAULT_MAX_TRACKED_KEYS : maxTrackedKeys;
+    Preconditions.checkArgument(this.maxTrackedKeys > 0, "maxTrackedKeys must be greater than 0");
+  }
+
+  @Override
+  public Object2IntMap<String> getLaneLimits(int totalLimit)
+  {
+    Object2IntMap<String> onlyLow = new Object2IntArrayMap<>(1);
+    onlyLow.put(LOW, computeLimitFromPercent(totalLimit, maxLowPercent));
+    return onlyLow;
+  }
+
+  @Override
+  public <T> Optional<String> computeLane(QueryPlus<T> query, Set<SegmentServerSelector> segments)
+  {
+    final Query<T> theQuery = query.getQuery();
+    final String lane = theQuery.getContextValue(QueryContexts.LANE_KEY);
+    if (lane != null) {
+      return Optional.of(lane);
+    }
+
+    // QueryContexts.getPriority gives a default, since we are setting priority
+    final Integer priority = theQuery.getContextValue(QueryContexts.PRIORITY_KEY);
+    if (priority != null && priority < 0) {
+      return Optional.of(LOW);
+    }
+
+    final DecayingMovingAverage cost = costs.get(computeKey(query));
+    if (cost != null && cost.get() > costThresholdMillis) {
+      return Optional.of(LOW);
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  public <T> void queryCompleted(QueryPlus<T> query, long elapsedNanos)
+  {
+    final String key = computeKey(query);
+    DecayingMovingAverage cost = costs.get(key);
+    if (cost == null) {
+      if (costs.size() >= maxTrackedKeys) {
+        evictIdleKeys();
+        if (costs.size() >= maxTrackedKeys) {
+          return;
+        }
+      }
+      cost = costs.computeIfAbsent(
+          key,
+          k -> new DecayingMovingAverage(
+              COST_ALPHA,
+              TimeUnit.MILLISECONDS.toNanos(costHalfLife.toStandardDuration().getMillis())
+          )
+      );
+    }
+    cost.add(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+  }
+
+  @VisibleForTesting
+  int getTrackedKeyCount()
+  {
+    return costs.size();
+  }
+
+  /**
+   * Drops keys whose average has decayed far enough that they would not be assigned to the 'low' lane anyway.
+   */
+  private void evictIdleKeys()
+  {
+    costs.entrySet().removeIf(entry -> entry.getValue().get() < costThresholdMillis / 2.0);
+  }
+
+  private static String computeKey(QueryPlus<?> query)
+  {
+    final String identity = query.getIdentity();
+    final Set<String> tableNames = new TreeSet<>(query.getQuery().getDataSource().getTableNames());
+    return (identity == null ? "" : identity) + ":" + String.join(",", tableNames);
+  }
+}
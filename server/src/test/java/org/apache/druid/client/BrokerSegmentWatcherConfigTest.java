@@ -45,9 +45,11 @@ public class BrokerSegmentWatcherConfigTest
     );
 
     Assert.assertNull(config.getWatchedTiers());
+    Assert.assertEquals(0, config.getMaxTimelineSnapshotStalenessMillis());
 
     //non-defaults
-    json = "{ \"watchedTiers\": [\"t1\", \"t2\"], \"watchedDataSources\": [\"ds1\", \"ds2\"] }";
+    json = "{ \"watchedTiers\": [\"t1\", \"t2\"], \"watchedDataSources\": [\"ds1\", \"ds2\"],"
+           + " \"maxTimelineSnapshotStalenessMillis\": 1000 }";
 
     config = MAPPER.readValue(
         MAPPER.writeValueAsString(
@@ -58,6 +60,7 @@ public class BrokerSegmentWatcherConfigTest
 
     Assert.assertEquals(ImmutableSet.of("t1", "t2"), config.getWatchedTiers());
     Assert.assertEquals(ImmutableSet.of("ds1", "ds2"), config.getWatchedDataSources());
+    Assert.assertEquals(1000, config.getMaxTimelineSnapshotStalenessMillis());
 
   }
 }
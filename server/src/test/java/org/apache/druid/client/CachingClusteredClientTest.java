@@ -117,6 +117,7 @@ import org.apache.druid.query.topn.TopNQueryQueryToolChest;
 import org.apache.druid.query.topn.TopNResultValue;
 import org.apache.druid.segment.TestHelper;
 import org.apache.druid.server.QueryScheduler;
+import org.apache.druid.server.QueryStackTests;
 import org.apache.druid.server.coordination.ServerType;
 import org.apache.druid.server.initialization.ServerConfig;
 import org.apache.druid.server.scheduling.ManualQueryPrioritizationStrategy;
@@ -2483,7 +2484,8 @@ public class CachingClusteredClientTest
             ManualQueryPrioritizationStrategy.INSTANCE,
             NoQueryLaningStrategy.INSTANCE,
             new ServerConfig()
-        )
+        ),
+        QueryStackTests.DEFAULT_NOOP_HEDGER
     );
   }
 
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class DecayingMovingAverageTest
+{
+  private static final long HALF_LIFE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+  @Test
+  public void testEmpty()
+  {
+    Assert.assertEquals(0, new DecayingMovingAverage(0.5, HALF_LIFE_NANOS).get(0), 0);
+  }
+
+  @Test
+  public void testAdd()
+  {
+    final DecayingMovingAverage average = new DecayingMovingAverage(0.5, HALF_LIFE_NANOS);
+    average.add(100, 0);
+    Assert.assertEquals(100, average.get(0), 0);
+    average.add(50, 0);
+    Assert.assertEquals(75, average.get(0), 0);
+  }
+
+  @Test
+  public void testDecay()
+  {
+    final DecayingMovingAverage average = new DecayingMovingAverage(0.5, HALF_LIFE_NANOS);
+    average.add(100, 0);
+    Assert.assertEquals(50, average.get(HALF_LIFE_NANOS), 1e-9);
+    Assert.assertEquals(25, average.get(2 * HALF_LIFE_NANOS), 1e-9);
+
+    // New samples are combined with the decayed value.
+    average.add(50, HALF_LIFE_NANOS);
+    Assert.assertEquals(50, average.get(HALF_LIFE_NANOS), 1e-9);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidAlpha()
+  {
+    new DecayingMovingAverage(0, HALF_LIFE_NANOS);
+  }
+}
@@ -0,0 +1,352 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.client;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.guava.BaseSequence;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.guava.Sequences;
+import org.apache.druid.query.QueryInterruptedException;
+import org.apache.druid.query.SegmentDescriptor;
+import org.apache.druid.query.context.ResponseContext;
+import org.apache.druid.server.metrics.NoopServiceEmitter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+public class QueryHedgerTest
+{
+  private static final List<Integer> PRIMARY_RESULTS = ImmutableList.of(1, 2, 3);
+  private static final List<Integer> BACKUP_RESULTS = ImmutableList.of(4, 5, 6);
+
+  @Test
+  public void testResponseTimeWindow()
+  {
+    final QueryHedger.ResponseTimeWindow window = new QueryHedger.ResponseTimeWindow(10);
+    Assert.assertEquals(-1, window.getPercentile(50, 1));
+
+    for (int i = 1; i <= 20; i++) {
+      window.add(i);
+    }
+
+    // Only the last 10 samples (11 through 20) are kept.
+    Assert.assertEquals(15, window.getPercentile(50, 1));
+    Assert.assertEquals(20, window.getPercentile(100, 1));
+    Assert.assertEquals(11, window.getPercentile(1, 1));
+    Assert.assertEquals(-1, window.getPercentile(50, 11));
+  }
+
+  @Test
+  public void testNoHedgingWithoutSamples()
+  {
+    final QueryHedger hedger = makeHedger(10);
+    Assert.assertEquals(-1, hedger.getHedgeDelayMillis("foo"));
+
+    final ResponseContext responseContext = ResponseContext.createEmpty();
+    final Sequence<Integer> results = hedger.run(
+        "foo",
+        respond("primary", Sequences.simple(PRIMARY_RESULTS)),
+        respond("backup", Sequences.simple(BACKUP_RESULTS)),
+        responseContext
+    );
+
+    Assert.assertEquals(PRIMARY_RESULTS, results.toList());
+    Assert.assertEquals("primary", responseContext.get(ResponseContext.Key.ETAG));
+  }
+
+  @Test(timeout = 60_000L)
+  public void testSlowPrimaryIsHedged() throws InterruptedException
+  {
+    final QueryHedger hedger = makeHedger(1);
+
+    // Record one response time for the datasource, so requests will be hedged.
+    recordResponseTime(hedger);
+    Assert.assertTrue(hedger.getHedgeDelayMillis("foo") >= 0);
+
+    final CountDownLatch primaryLatch = new CountDownLatch(1);
+    final ResponseContext responseContext = ResponseContext.createEmpty();
+    final Sequence<Integer> results = hedger.run(
+        "foo",
+        respond("primary", blockingSequence(PRIMARY_RESULTS, primaryLatch)),
+        respond("backup", Sequences.simple(BACKUP_RESULTS)),
+        responseContext
+    );
+
+    Assert.assertEquals(BACKUP_RESULTS, results.toList());
+    Assert.assertEquals("backup", responseContext.get(ResponseContext.Key.ETAG));
+    primaryLatch.countDown();
+  }
+
+  @Test(timeout = 60_000L)
+  public void testNoBackupAvailable()
+  {
+    final QueryHedger hedger = makeHedger(1);
+    recordResponseTime(hedger);
+
+    final CountDownLatch primaryLatch = new CountDownLatch(1);
+    final ResponseContext responseContext = ResponseContext.createEmpty();
+    final Sequence<Integer> results = hedger.run(
+        "foo",
+        respond("primary", blockingSequence(PRIMARY_RESULTS, primaryLatch)),
+        context -> {
+          // No other replica; let the primary finish.
+          primaryLatch.countDown();
+          return null;
+        },
+        responseContext
+    );
+
+    Assert.assertEquals(PRIMARY_RESULTS, results.toList());
+    Assert.assertEquals("primary", responseContext.get(ResponseContext.Key.ETAG));
+  }
+
+  @Test
+  public void testPrimaryFailure()
+  {
+    final QueryHedger hedger = makeHedger(10);
+    final Sequence<Integer> results = hedger.run(
+        "foo",
+        context -> {
+          throw new ISE("failed");
+        },
+        context -> Sequences.simple(BACKUP_RESULTS),
+        ResponseContext.createEmpty()
+    );
+
+    try {
+      results.toList();
+      Assert.fail("expected exception");
+    }
+    catch (ISE e) {
+      Assert.assertEquals("failed", e.getMessage());
+    }
+  }
+
+  @Test(timeout = 60_000L)
+  public void testRunWithoutHedgingWhenThreadsAreBusy()
+  {
+    final QueryHedger hedger = makeHedger(10, 1);
+
+    // Occupies the only thread until released.
+    final CountDownLatch primaryLatch = new CountDownLatch(1);
+    final Sequence<Integer> blocked = hedger.run(
+        "foo",
+        context -> blockingSequence(PRIMARY_RESULTS, primaryLatch, new AtomicBoolean()),
+        context -> null,
+        ResponseContext.createEmpty()
+    );
+
+    // Run without hedging, directly with the query's response context.
+    final ResponseContext responseContext = ResponseContext.createEmpty();
+    final Sequence<Integer> results = hedger.run(
+        "foo",
+        respond("primary", Sequences.simple(BACKUP_RESULTS)),
+        context -> null,
+        responseContext
+    );
+    Assert.assertEquals(BACKUP_RESULTS, results.toList());
+    Assert.assertEquals("primary", responseContext.get(ResponseContext.Key.ETAG));
+
+    primaryLatch.countDown();
+    Assert.assertEquals(PRIMARY_RESULTS, blocked.toList());
+  }
+
+  @Test(timeout = 60_000L)
+  public void testAbandonedRequestIsClosed() throws InterruptedException
+  {
+    final QueryHedger hedger = makeHedger(10);
+    final CountDownLatch primaryLatch = new CountDownLatch(1);
+    final AtomicBoolean primaryClosed = new AtomicBoolean();
+    final Sequence<Integer> results = hedger.run(
+        "foo",
+        context -> blockingSequence(PRIMARY_RESULTS, primaryLatch, primaryClosed),
+        context -> null,
+        ResponseContext.createEmpty()
+    );
+
+    final Thread consumer = new Thread(
+        () -> {
+          Thread.currentThread().interrupt();
+          try {
+            results.toList();
+            Assert.fail("expected exception");
+          }
+          catch (QueryInterruptedException e) {
+            // expected
+          }
+        }
+    );
+    consumer.start();
+    consumer.join();
+
+    primaryLatch.countDown();
+    while (!primaryClosed.get()) {
+      Thread.sleep(10);
+    }
+  }
+
+  @Test(timeout = 60_000L)
+  public void testMissingSegmentsOfLosingRequestAreIgnored()
+  {
+    final QueryHedger hedger = makeHedger(1);
+    recordResponseTime(hedger);
+
+    final SegmentDescriptor segment = new SegmentDescriptor(Intervals.of("2000/2001"), "v1", 0);
+    final CountDownLatch primaryLatch = new CountDownLatch(1);
+    final ResponseContext responseContext = ResponseContext.createEmpty();
+    final Sequence<Integer> results = hedger.run(
+        "foo",
+        context -> {
+          // The original request reports a missing segment as soon as it starts, then loses the race.
+          context.add(ResponseContext.Key.MISSING_SEGMENTS, Collections.singletonList(segment));
+          return blockingSequence(PRIMARY_RESULTS, primaryLatch);
+        },
+        respond("backup", Sequences.simple(BACKUP_RESULTS)),
+        responseContext
+    );
+
+    Assert.assertEquals(BACKUP_RESULTS, results.toList());
+    primaryLatch.countDown();
+    Assert.assertNull(responseContext.get(ResponseContext.Key.MISSING_SEGMENTS));
+    Assert.assertEquals("backup", responseContext.get(ResponseContext.Key.ETAG));
+  }
+
+  @Test
+  public void testScatterGatherBytesAreShared()
+  {
+    final QueryHedger hedger = makeHedger(10);
+    final AtomicLong totalBytesGathered = new AtomicLong();
+    final ResponseContext responseContext = ResponseContext.createEmpty();
+    responseContext.put(ResponseContext.Key.QUERY_TOTAL_BYTES_GATHERED, totalBytesGathered);
+
+    final Sequence<Integer> results = hedger.run(
+        "foo",
+        context -> {
+          ((AtomicLong) context.get(ResponseContext.Key.QUERY_TOTAL_BYTES_GATHERED)).addAndGet(10);
+          return Sequences.simple(PRIMARY_RESULTS);
+        },
+        context -> null,
+        responseContext
+    );
+
+    Assert.assertEquals(PRIMARY_RESULTS, results.toList());
+    Assert.assertEquals(10, totalBytesGathered.get());
+    Assert.assertSame(totalBytesGathered, responseContext.get(ResponseContext.Key.QUERY_TOTAL_BYTES_GATHERED));
+  }
+
+  /**
+   * Records one response time for the datasource "foo", so that requests will be hedged with minSamples = 1.
+   */
+  private static void recordResponseTime(QueryHedger hedger)
+  {
+    hedger.run("foo", context -> Sequences.simple(PRIMARY_RESULTS), context -> null, ResponseContext.createEmpty())
+          .toList();
+  }
+
+  /**
+   * Returns a request that sets the given ETag in its response context and returns the given results.
+   */
+  private static Function<ResponseContext, Sequence<Integer>> respond(String etag, Sequence<Integer> results)
+  {
+    return context -> {
+      context.put(ResponseContext.Key.ETAG, etag);
+      return results;
+    };
+  }
+
+  private static QueryHedger makeHedger(int minSamples)
+  {
+    return makeHedger(minSamples, 100);
+  }
+
+  private static QueryHedger makeHedger(int minSamples, int numThreads)
+  {
+    return new QueryHedger(
+        new QueryHedgingConfig()
+        {
+          @Override
+          public boolean isEnabled()
+          {
+            return true;
+          }
+
+          @Override
+          public long getMinDelayMillis()
+          {
+            return 0;
+          }
+
+          @Override
+          public int getMinSamples()
+          {
+            return minSamples;
+          }
+
+          @Override
+          public int getNumThreads()
+          {
+            return numThreads;
+          }
+        },
+        new NoopServiceEmitter()
+    );
+  }
+
+  private static Sequence<Integer> blockingSequence(List<Integer> values, CountDownLatch latch)
+  {
+    return blockingSequence(values, latch, new AtomicBoolean());
+  }
+
+  private static Sequence<Integer> blockingSequence(List<Integer> values, CountDownLatch latch, AtomicBoolean closed)
+  {
+    return new BaseSequence<>(
+        new BaseSequence.IteratorMaker<Integer, Iterator<Integer>>()
+        {
+          @Override
+          public Iterator<Integer> make()
+          {
+            try {
+              latch.await();
+            }
+            catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              throw new RuntimeException(e);
+            }
+            return values.iterator();
+          }
+
+          @Override
+          public void cleanup(Iterator<Integer> iterFromMake)
+          {
+            closed.set(true);
+          }
+        }
+    );
+  }
+}
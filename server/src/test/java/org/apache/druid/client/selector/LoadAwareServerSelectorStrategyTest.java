@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.client.selector;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.druid.client.DirectDruidClient;
+import org.apache.druid.client.DruidServer;
+import org.apache.druid.server.coordination.ServerType;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+
+public class LoadAwareServerSelectorStrategyTest
+{
+  private final LoadAwareServerSelectorStrategy strategy = new LoadAwareServerSelectorStrategy();
+
+  @Test
+  public void testPickAvoidsSlowServer()
+  {
+    final QueryableDruidServer fast = makeServer("fast", 10, 1, 0);
+    final QueryableDruidServer slow = makeServer("slow", 1000, 1, 0);
+    final Set<QueryableDruidServer> servers = ImmutableSet.of(fast, slow);
+
+    for (int i = 0; i < 20; i++) {
+      Assert.assertSame(fast, strategy.pick(servers, null));
+    }
+  }
+
+  @Test
+  public void testPickAvoidsBusyServer()
+  {
+    final QueryableDruidServer idle = makeServer("idle", 10, 0, 0);
+    final QueryableDruidServer busy =
+        makeServer("busy", 10, 0, 10 * LoadAwareServerSelectorStrategy.BYTES_PER_CONNECTION);
+    final Set<QueryableDruidServer> servers = ImmutableSet.of(idle, busy);
+
+    for (int i = 0; i < 20; i++) {
+      Assert.assertSame(idle, strategy.pick(servers, null));
+    }
+  }
+
+  @Test
+  public void testPickSingleServer()
+  {
+    final QueryableDruidServer server = makeServer("only", 1000, 5, 0);
+    Assert.assertSame(server, strategy.pick(ImmutableSet.of(server), null));
+  }
+
+  @Test
+  public void testPickMultiple()
+  {
+    final QueryableDruidServer fast = makeServer("fast", 10, 0, 0);
+    final QueryableDruidServer medium = makeServer("medium", 100, 0, 0);
+    final QueryableDruidServer slow = makeServer("slow", 1000, 0, 0);
+
+    Assert.assertEquals(
+        ImmutableList.of(fast, medium),
+        strategy.pick(ImmutableSet.of(slow, medium, fast), null, 2)
+    );
+  }
+
+  private static QueryableDruidServer makeServer(
+      String name,
+      double responseTimeMillis,
+      int openConnections,
+      long inFlightBytes
+  )
+  {
+    final DirectDruidClient client = EasyMock.createMock(DirectDruidClient.class);
+    EasyMock.expect(client.getResponseTimeMillis()).andReturn(responseTimeMillis).anyTimes();
+    EasyMock.expect(client.getNumOpenConnections()).andReturn(openConnections).anyTimes();
+    EasyMock.expect(client.getInFlightBytes()).andReturn(inFlightBytes).anyTimes();
+    EasyMock.replay(client);
+
+    return new QueryableDruidServer(
+        new DruidServer(name, name, null, 0, ServerType.HISTORICAL, DruidServer.DEFAULT_TIER, 0),
+        client
+    );
+  }
+}
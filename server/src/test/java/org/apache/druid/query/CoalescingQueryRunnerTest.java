@@ -0,0 +1,305 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.druid.client.QueryCoalescingConfig;
+import org.apache.druid.jackson.DefaultObjectMapper;
+import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.guava.Sequences;
+import org.apache.druid.query.aggregation.CountAggregatorFactory;
+import org.apache.druid.query.context.ResponseContext;
+import org.apache.druid.query.timeseries.TimeseriesQuery;
+import org.apache.druid.query.timeseries.TimeseriesQueryQueryToolChest;
+import org.apache.druid.query.timeseries.TimeseriesResultValue;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CoalescingQueryRunnerTest
+{
+  private static final List<Result<TimeseriesResultValue>> RESULTS = ImmutableList.of(
+      new Result<>(DateTimes.of("2000"), new TimeseriesResultValue(ImmutableMap.<String, Object>of("rows", 1L))),
+      new Result<>(DateTimes.of("2001"), new TimeseriesResultValue(ImmutableMap.<String, Object>of("rows", 2L)))
+  );
+
+  private static final ObjectMapper OBJECT_MAPPER = new DefaultObjectMapper();
+  private static final SegmentDescriptor MISSING_SEGMENT = new SegmentDescriptor(
+      Intervals.of("2000/2001"),
+      "v1",
+      0
+  );
+
+  private final AtomicInteger baseRunCount = new AtomicInteger();
+  private final AtomicLong lastTimeout = new AtomicLong();
+  private QueryRunner<Result<TimeseriesResultValue>> baseRunner;
+
+  @Before
+  public void setUp()
+  {
+    baseRunCount.set(0);
+    baseRunner = (queryPlus, responseContext) -> {
+      baseRunCount.incrementAndGet();
+      lastTimeout.set(QueryContexts.getTimeout(queryPlus.getQuery()));
+      responseContext.put(ResponseContext.Key.ETAG, "etag");
+      responseContext.put(ResponseContext.Key.QUERY_FAIL_DEADLINE_MILLIS, 1L);
+      responseContext.add(ResponseContext.Key.MISSING_SEGMENTS, ImmutableList.of(MISSING_SEGMENT));
+      return Sequences.simple(RESULTS);
+    };
+  }
+
+  @Test
+  public void testIdenticalConcurrentQueriesShareExecution()
+  {
+    final QueryCoalescer coalescer = makeCoalescer(true, 100);
+    final CoalescingQueryRunner<Result<TimeseriesResultValue>> runner = makeRunner(coalescer);
+
+    final Sequence<Result<TimeseriesResultValue>> leader = runner.run(QueryPlus.wrap(makeQuery("a")));
+    final Sequence<Result<TimeseriesResultValue>> follower = runner.run(QueryPlus.wrap(makeQuery("b")));
+    Assert.assertEquals(1, coalescer.getInFlightCount());
+
+    Assert.assertEquals(RESULTS, leader.toList());
+    assertSameResults(follower.toList());
+    Assert.assertEquals(1, baseRunCount.get());
+    Assert.assertEquals(1, coalescer.getCoalescedQueryCount());
+    Assert.assertEquals(0, coalescer.getInFlightCount());
+  }
+
+  @Test
+  public void testFollowersGetOwnCopyOfResults()
+  {
+    final QueryCoalescer coalescer = makeCoalescer(true, 100);
+    final CoalescingQueryRunner<Result<TimeseriesResultValue>> runner = makeRunner(coalescer);
+
+    final Sequence<Result<TimeseriesResultValue>> leader = runner.run(QueryPlus.wrap(makeQuery("a")));
+    final Sequence<Result<TimeseriesResultValue>> follower1 = runner.run(QueryPlus.wrap(makeQuery("b")));
+    final Sequence<Result<TimeseriesResultValue>> follower2 = runner.run(QueryPlus.wrap(makeQuery("c")));
+
+    final List<Result<TimeseriesResultValue>> leaderResults = leader.toList();
+    final List<Result<TimeseriesResultValue>> follower1Results = follower1.toList();
+    final List<Result<TimeseriesResultValue>> follower2Results = follower2.toList();
+    assertSameResults(follower1Results);
+    assertSameResults(follower2Results);
+    Assert.assertEquals(1, baseRunCount.get());
+    Assert.assertNotSame(leaderResults.get(0).getValue(), follower1Results.get(0).getValue());
+    Assert.assertNotSame(follower1Results.get(0).getValue(), follower2Results.get(0).getValue());
+  }
+
+  @Test
+  public void testFollowerGetsLeaderResponseContext()
+  {
+    final QueryCoalescer coalescer = makeCoalescer(true, 100);
+    final CoalescingQueryRunner<Result<TimeseriesResultValue>> runner = makeRunner(coalescer);
+    final ResponseContext followerContext = ResponseContext.createEmpty();
+
+    final Sequence<Result<TimeseriesResultValue>> leader = runner.run(QueryPlus.wrap(makeQuery("a")));
+    final Sequence<Result<TimeseriesResultValue>> follower = runner.run(
+        QueryPlus.wrap(makeQuery("b")),
+        followerContext
+    );
+
+    leader.toList();
+    follower.toList();
+    Assert.assertEquals(1, baseRunCount.get());
+    Assert.assertEquals("etag", followerContext.get(ResponseContext.Key.ETAG));
+    Assert.assertEquals(
+        ImmutableList.of(MISSING_SEGMENT),
+        followerContext.get(ResponseContext.Key.MISSING_SEGMENTS)
+    );
+    Assert.assertNull(followerContext.get(ResponseContext.Key.QUERY_FAIL_DEADLINE_MILLIS));
+  }
+
+  @Test
+  public void testQueriesAfterCompletionRunAgain()
+  {
+    final QueryCoalescer coalescer = makeCoalescer(true, 100);
+    final CoalescingQueryRunner<Result<TimeseriesResultValue>> runner = makeRunner(coalescer);
+
+    Assert.assertEquals(RESULTS, runner.run(QueryPlus.wrap(makeQuery("a"))).toList());
+    Assert.assertEquals(RESULTS, runner.run(QueryPlus.wrap(makeQuery("b"))).toList());
+    Assert.assertEquals(2, baseRunCount.get());
+    Assert.assertEquals(0, coalescer.getCoalescedQueryCount());
+  }
+
+  @Test
+  public void testFollowerStopsWaitingBeforeTimeout()
+  {
+    final QueryCoalescer coalescer = makeCoalescer(true, 100);
+    final CoalescingQueryRunner<Result<TimeseriesResultValue>> runner = makeRunner(coalescer);
+    final long timeout = 1000;
+
+    // The leader is never consumed, so it never completes.
+    runner.run(QueryPlus.wrap(QueryContexts.withTimeout(makeQuery("a"), timeout)));
+
+    final long startMillis = System.currentTimeMillis();
+    Assert.assertEquals(
+        RESULTS,
+        runner.run(QueryPlus.wrap(QueryContexts.withTimeout(makeQuery("b"), timeout))).toList()
+    );
+    final long elapsedMillis = System.currentTimeMillis() - startMillis;
+
+    Assert.assertEquals(2, baseRunCount.get());
+    Assert.assertEquals(0, coalescer.getCoalescedQueryCount());
+    Assert.assertTrue(elapsedMillis < timeout);
+    Assert.assertTrue(lastTimeout.get() > 0);
+    Assert.assertTrue(lastTimeout.get() <= timeout - (long) (timeout * CoalescingQueryRunner.MAX_WAIT_FRACTION));
+  }
+
+  @Test
+  public void testMaxWaitWithoutTimeout()
+  {
+    Assert.assertEquals(500, CoalescingQueryRunner.computeMaxWaitMillis(1000));
+    Assert.assertEquals(
+        (long) (QueryContexts.DEFAULT_TIMEOUT_MILLIS * CoalescingQueryRunner.MAX_WAIT_FRACTION),
+        CoalescingQueryRunner.computeMaxWaitMillis(QueryContexts.NO_TIMEOUT)
+    );
+  }
+
+  @Test
+  public void testTooManyRowsFallsBackToRunning()
+  {
+    final QueryCoalescer coalescer = makeCoalescer(true, 1);
+    final CoalescingQueryRunner<Result<TimeseriesResultValue>> runner = makeRunner(coalescer);
+
+    final Sequence<Result<TimeseriesResultValue>> leader = runner.run(QueryPlus.wrap(makeQuery("a")));
+    final Sequence<Result<TimeseriesResultValue>> follower = runner.run(QueryPlus.wrap(makeQuery("b")));
+
+    Assert.assertEquals(RESULTS, leader.toList());
+    Assert.assertEquals(RESULTS, follower.toList());
+    Assert.assertEquals(2, baseRunCount.get());
+    Assert.assertEquals(0, coalescer.getCoalescedQueryCount());
+  }
+
+  @Test
+  public void testDisabled()
+  {
+    final QueryCoalescer coalescer = makeCoalescer(false, 100);
+    final CoalescingQueryRunner<Result<TimeseriesResultValue>> runner = makeRunner(coalescer);
+
+    final Sequence<Result<TimeseriesResultValue>> first = runner.run(QueryPlus.wrap(makeQuery("a")));
+    final Sequence<Result<TimeseriesResultValue>> second = runner.run(QueryPlus.wrap(makeQuery("b")));
+
+    Assert.assertEquals(RESULTS, first.toList());
+    Assert.assertEquals(RESULTS, second.toList());
+    Assert.assertEquals(2, baseRunCount.get());
+    Assert.assertEquals(0, coalescer.getInFlightCount());
+  }
+
+  @Test
+  public void testDisabledByContext()
+  {
+    final QueryCoalescer coalescer = makeCoalescer(true, 100);
+    final CoalescingQueryRunner<Result<TimeseriesResultValue>> runner = makeRunner(coalescer);
+    final TimeseriesQuery query = makeQuery("a").withOverriddenContext(
+        ImmutableMap.<String, Object>of(QueryContexts.COALESCE_QUERIES_KEY, false)
+    );
+
+    runner.run(QueryPlus.wrap(query));
+    Assert.assertEquals(0, coalescer.getInFlightCount());
+  }
+
+  @Test
+  public void testDifferentIntervalsDoNotShare()
+  {
+    final TimeseriesQuery query = makeQuery("a");
+    final TimeseriesQuery otherQuery = Druids.TimeseriesQueryBuilder.copy(query)
+                                                                    .intervals("2000/2003")
+                                                                    .build();
+    final TimeseriesQueryQueryToolChest toolChest = new TimeseriesQueryQueryToolChest();
+
+    Assert.assertNotEquals(
+        QueryCoalescer.computeKey(query, castToolChest(toolChest)),
+        QueryCoalescer.computeKey(otherQuery, castToolChest(toolChest))
+    );
+    Assert.assertEquals(
+        QueryCoalescer.computeKey(query, castToolChest(toolChest)),
+        QueryCoalescer.computeKey(makeQuery("b"), castToolChest(toolChest))
+    );
+  }
+
+  private CoalescingQueryRunner<Result<TimeseriesResultValue>> makeRunner(QueryCoalescer coalescer)
+  {
+    return new CoalescingQueryRunner<>(
+        baseRunner,
+        castToolChest(new TimeseriesQueryQueryToolChest()),
+        coalescer,
+        OBJECT_MAPPER
+    );
+  }
+
+  /**
+   * Shared results are deserialized from their cached form, where numbers may change type, so compare them as JSON.
+   */
+  private static void assertSameResults(List<Result<TimeseriesResultValue>> results)
+  {
+    try {
+      Assert.assertEquals(OBJECT_MAPPER.writeValueAsString(RESULTS), OBJECT_MAPPER.writeValueAsString(results));
+    }
+    catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static TimeseriesQuery makeQuery(String queryId)
+  {
+    return Druids.newTimeseriesQueryBuilder()
+                 .dataSource("foo")
+                 .intervals("2000/2002")
+                 .granularity("year")
+                 .aggregators(new CountAggregatorFactory("rows"))
+                 .context(ImmutableMap.<String, Object>of(BaseQuery.QUERY_ID, queryId))
+                 .build();
+  }
+
+  private static QueryCoalescer makeCoalescer(boolean enabled, int maxResultRows)
+  {
+    return new QueryCoalescer(
+        new QueryCoalescingConfig()
+        {
+          @Override
+          public boolean isEnabled()
+          {
+            return enabled;
+          }
+
+          @Override
+          public int getMaxResultRows()
+          {
+            return maxResultRows;
+          }
+        }
+    );
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static <T> QueryToolChest<T, Query<T>> castToolChest(QueryToolChest toolChest)
+  {
+    return (QueryToolChest<T, Query<T>>) toolChest;
+  }
+}
@@ -30,6 +30,7 @@ import org.apache.druid.data.input.Committer;
 import org.apache.druid.data.input.InputRow;
 import org.apache.druid.data.input.MapBasedInputRow;
 import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.Intervals;
 import org.apache.druid.java.util.common.granularity.Granularities;
 import org.apache.druid.query.Druids;
@@ -43,6 +44,7 @@ import org.apache.druid.query.scan.ScanResultValue;
 import org.apache.druid.query.spec.MultipleSpecificSegmentSpec;
 import org.apache.druid.query.timeseries.TimeseriesQuery;
 import org.apache.druid.query.timeseries.TimeseriesResultValue;
+import org.apache.druid.segment.QueryableIndex;
 import org.apache.druid.segment.indexing.RealtimeTuningConfig;
 import org.apache.druid.segment.realtime.plumber.Committers;
 import org.apache.druid.timeline.DataSegment;
@@ -50,6 +52,7 @@ import org.apache.druid.timeline.partition.LinearShardSpec;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -177,15 +180,15 @@ public class AppenderatorTest
 
       appenderator.startJob();
       appenderator.add(IDENTIFIERS.get(0), ir("2000", "foo", 1), committerSupplier);
-      //expectedSizeInBytes = 44(map overhead) + 28 (TimeAndDims overhead) + 56 (aggregator metrics) + 10 (dimsKeySize) = 138 + 1 byte when null handling is enabled
+      //expectedSizeInBytes = 44(map overhead) + 28 (TimeAndDims overhead) + 56 (aggregator metrics) + 4 (dimsKeySize) + 98 (dictionary) = 230 + 1 byte when null handling is enabled
       int nullHandlingOverhead = NullHandling.sqlCompatible() ? 1 : 0;
       Assert.assertEquals(
-          138 + nullHandlingOverhead,
+          230 + nullHandlingOverhead,
           ((AppenderatorImpl) appenderator).getBytesInMemory(IDENTIFIERS.get(0))
       );
       appenderator.add(IDENTIFIERS.get(1), ir("2000", "bar", 1), committerSupplier);
       Assert.assertEquals(
-          138 + nullHandlingOverhead,
+          230 + nullHandlingOverhead,
           ((AppenderatorImpl) appenderator).getBytesInMemory(IDENTIFIERS.get(1))
       );
       appenderator.close();
@@ -220,12 +223,12 @@ public class AppenderatorTest
 
       appenderator.startJob();
       appenderator.add(IDENTIFIERS.get(0), ir("2000", "foo", 1), committerSupplier);
-      //expectedSizeInBytes = 44(map overhead) + 28 (TimeAndDims overhead) + 56 (aggregator metrics) + 10 (dimsKeySize) = 138
+      //expectedSizeInBytes = 44(map overhead) + 28 (TimeAndDims overhead) + 56 (aggregator metrics) + 4 (dimsKeySize) + 98 (dictionary) = 230
       int nullHandlingOverhead = NullHandling.sqlCompatible() ? 1 : 0;
-      Assert.assertEquals(138 + nullHandlingOverhead, ((AppenderatorImpl) appenderator).getBytesCurrentlyInMemory());
+      Assert.assertEquals(230 + nullHandlingOverhead, ((AppenderatorImpl) appenderator).getBytesCurrentlyInMemory());
       appenderator.add(IDENTIFIERS.get(1), ir("2000", "bar", 1), committerSupplier);
       Assert.assertEquals(
-          276 + 2 * nullHandlingOverhead,
+          460 + 2 * nullHandlingOverhead,
           ((AppenderatorImpl) appenderator).getBytesCurrentlyInMemory()
       );
       appenderator.close();
@@ -265,13 +268,13 @@ public class AppenderatorTest
       //we still calculate the size even when ignoring it to make persist decision
       int nullHandlingOverhead = NullHandling.sqlCompatible() ? 1 : 0;
       Assert.assertEquals(
-          138 + nullHandlingOverhead,
+          230 + nullHandlingOverhead,
           ((AppenderatorImpl) appenderator).getBytesInMemory(IDENTIFIERS.get(0))
       );
       Assert.assertEquals(1, ((AppenderatorImpl) appenderator).getRowsInMemory());
       appenderator.add(IDENTIFIERS.get(1), ir("2000", "bar", 1), committerSupplier);
       Assert.assertEquals(
-          276 + 2 * nullHandlingOverhead,
+          460 + 2 * nullHandlingOverhead,
           ((AppenderatorImpl) appenderator).getBytesCurrentlyInMemory()
       );
       Assert.assertEquals(2, ((AppenderatorImpl) appenderator).getRowsInMemory());
@@ -479,6 +482,166 @@ public class AppenderatorTest
     }
   }
 
+  @Test(timeout = 60_000L)
+  public void testParallelIndexing() throws Exception
+  {
+    try (final AppenderatorTester tester = new AppenderatorTester(10_000, -1, null, true, 4, 0)) {
+      final Appenderator appenderator = tester.getAppenderator();
+      final ConcurrentMap<String, String> commitMetadata = new ConcurrentHashMap<>();
+      final Supplier<Committer> committerSupplier = committerSupplierFromConcurrentMap(commitMetadata);
+
+      appenderator.startJob();
+      for (int i = 0; i < 2000; i++) {
+        commitMetadata.put("x", String.valueOf(i));
+        // the last segment sees every dimension value twice, which rolls up into 1000 rows
+        appenderator.add(IDENTIFIERS.get(i % 2), ir("2000", "dim" + (i / 2 % 1000), 1), committerSupplier);
+        appenderator.add(IDENTIFIERS.get(2), ir("2001", "dim" + (i % 1000), 1), committerSupplier);
+      }
+
+      appenderator.persistAll(committerSupplier.get()).get();
+      Assert.assertEquals(1000, appenderator.getRowCount(IDENTIFIERS.get(0)));
+      Assert.assertEquals(1000, appenderator.getRowCount(IDENTIFIERS.get(1)));
+      Assert.assertEquals(1000, appenderator.getRowCount(IDENTIFIERS.get(2)));
+      Assert.assertEquals(3000, appenderator.getTotalRowCount());
+      Assert.assertEquals(0, ((AppenderatorImpl) appenderator).getRowsInMemory());
+
+      final SegmentsAndCommitMetadata segmentsAndCommitMetadata = appenderator.push(
+          appenderator.getSegments(),
+          committerSupplier.get(),
+          false
+      ).get();
+      Assert.assertEquals(ImmutableMap.of("x", "1999"), segmentsAndCommitMetadata.getCommitMetadata());
+      Assert.assertEquals(IDENTIFIERS, sorted(appenderator.getSegments()));
+      Assert.assertEquals(0, appenderator.getTotalRowCount());
+      Assert.assertEquals(3, tester.getPushedSegments().size());
+
+      appenderator.clear();
+      Assert.assertTrue(appenderator.getSegments().isEmpty());
+    }
+  }
+
+  @Test(timeout = 60_000L)
+  public void testTieredPersistMerge() throws Exception
+  {
+    try (final AppenderatorTester tester = new AppenderatorTester(2, -1, null, false, 1, 2)) {
+      final Appenderator appenderator = tester.getAppenderator();
+      final ConcurrentMap<String, String> commitMetadata = new ConcurrentHashMap<>();
+      final Supplier<Committer> committerSupplier = committerSupplierFromConcurrentMap(commitMetadata);
+
+      appenderator.startJob();
+      // persists every two rows; every value is added twice, in different persists
+      for (int i = 0; i < 40; i++) {
+        commitMetadata.put("x", String.valueOf(i));
+        appenderator.add(IDENTIFIERS.get(0), ir("2000", "dim" + (i % 20), i), committerSupplier);
+      }
+      Assert.assertEquals(40, appenderator.getRowCount(IDENTIFIERS.get(0)));
+
+      // queries read the pieces merged so far in place of the persists they contain
+      final TimeseriesQuery query = Druids.newTimeseriesQueryBuilder()
+                                          .dataSource(AppenderatorTester.DATASOURCE)
+                                          .intervals(ImmutableList.of(Intervals.of("2000/2001")))
+                                          .aggregators(
+                                              Arrays.asList(
+                                                  new LongSumAggregatorFactory("count", "count"),
+                                                  new LongSumAggregatorFactory("met", "met")
+                                              )
+                                          )
+                                          .granularity(Granularities.DAY)
+                                          .build();
+      Assert.assertEquals(
+          ImmutableList.of(
+              new Result<>(
+                  DateTimes.of("2000"),
+                  new TimeseriesResultValue(ImmutableMap.of("count", 40L, "met", 780L))
+              )
+          ),
+          QueryPlus.wrap(query).run(appenderator, ResponseContext.createEmpty()).toList()
+      );
+
+      appenderator.push(appenderator.getSegments(), committerSupplier.get(), false).get();
+      Assert.assertEquals(1, tester.getPushedSegments().size());
+
+      final File mergedDir = new File(
+          new File(tester.getTuningConfig().getBasePersistDirectory(), IDENTIFIERS.get(0).toString()),
+          "merged"
+      );
+      try (final QueryableIndex merged = tester.getIndexIO().loadIndex(mergedDir)) {
+        Assert.assertEquals(20, merged.getNumRows());
+      }
+    }
+  }
+
+  @Test(timeout = 60_000L)
+  public void testParallelIndexingFailureFailsPersist() throws Exception
+  {
+    try (final AppenderatorTester tester = new AppenderatorTester(10_000, -1, null, true, 4)) {
+      final Appenderator appenderator = tester.getAppenderator();
+      final ConcurrentMap<String, String> commitMetadata = new ConcurrentHashMap<>();
+      final Supplier<Committer> committerSupplier = committerSupplierFromConcurrentMap(commitMetadata);
+      final Thread addingThread = Thread.currentThread();
+
+      appenderator.startJob();
+      commitMetadata.put("x", "1");
+      // fails only when read by an indexing thread, after add() has handed it off
+      appenderator.add(
+          IDENTIFIERS.get(0),
+          new MapBasedInputRow(
+              DateTimes.of("2000").getMillis(),
+              ImmutableList.of("dim"),
+              ImmutableMap.of("dim", "foo", "met", 1)
+          )
+          {
+            @Override
+            public Object getRaw(String dimension)
+            {
+              if (Thread.currentThread() != addingThread) {
+                throw new ISE("Failed to read dimension[%s]", dimension);
+              }
+              return super.getRaw(dimension);
+            }
+          },
+          committerSupplier
+      );
+
+      try {
+        appenderator.persistAll(committerSupplier.get());
+        Assert.fail("Expected persistAll to fail");
+      }
+      catch (RuntimeException e) {
+        Assert.assertEquals("Error while indexing", e.getMessage());
+        Assert.assertTrue(e.getCause() instanceof ISE);
+      }
+    }
+  }
+
+  @Test(timeout = 60_000L)
+  public void testParallelIndexingParseExceptions() throws Exception
+  {
+    try (final AppenderatorTester tester = new AppenderatorTester(10_000, -1, null, false, 4, 0)) {
+      final Appenderator appenderator = tester.getAppenderator();
+      final Supplier<Committer> committerSupplier = Suppliers.ofInstance(Committers.nil());
+
+      appenderator.startJob();
+      int numParseExceptions = 0;
+      for (int i = 0; i < 10; i++) {
+        final InputRow row = new MapBasedInputRow(
+            DateTimes.of("2000").getMillis(),
+            ImmutableList.of("dim"),
+            ImmutableMap.of("dim", "dim" + i, "met", i % 2 == 0 ? "notANumber" : i)
+        );
+        if (appenderator.add(IDENTIFIERS.get(0), row, committerSupplier).getParseException() != null) {
+          numParseExceptions++;
+        }
+      }
+
+      // the parse exceptions not returned by add() yet are returned by drainParseExceptions()
+      numParseExceptions += appenderator.drainParseExceptions().size();
+      Assert.assertEquals(5, numParseExceptions);
+      Assert.assertEquals(Collections.emptyList(), appenderator.drainParseExceptions());
+      Assert.assertEquals(10, appenderator.getRowCount(IDENTIFIERS.get(0)));
+    }
+  }
+
   @Test
   public void testQueryByIntervals() throws Exception
   {
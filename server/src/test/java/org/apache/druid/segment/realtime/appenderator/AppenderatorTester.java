@@ -120,6 +120,18 @@ public class AppenderatorTester implements AutoCloseable
       final File basePersistDirectory,
       final boolean enablePushFailure
   )
+  {
+    this(maxRowsInMemory, maxSizeInBytes, basePersistDirectory, enablePushFailure, 1, 0);
+  }
+
+  public AppenderatorTester(
+      final int maxRowsInMemory,
+      long maxSizeInBytes,
+      final File basePersistDirectory,
+      final boolean enablePushFailure,
+      final int numIndexingThreads,
+      final int intermediatePersistMergeFactor
+  )
   {
     objectMapper = new DefaultObjectMapper();
     objectMapper.registerSubtypes(LinearShardSpec.class);
@@ -167,7 +179,20 @@ public class AppenderatorTester implements AutoCloseable
         null,
         null,
         null
-    );
+    )
+    {
+      @Override
+      public int getNumIndexingThreads()
+      {
+        return numIndexingThreads;
+      }
+
+      @Override
+      public int getIntermediatePersistMergeFactor()
+      {
+        return intermediatePersistMergeFactor;
+      }
+    };
 
     metrics = new FireDepartmentMetrics();
     queryExecutor = Execs.singleThreaded("queryExecutor(%d)");
@@ -319,6 +344,11 @@ public class AppenderatorTester implements AutoCloseable
     return objectMapper;
   }
 
+  public IndexIO getIndexIO()
+  {
+    return indexIO;
+  }
+
   public Appenderator getAppenderator()
   {
     return appenderator;
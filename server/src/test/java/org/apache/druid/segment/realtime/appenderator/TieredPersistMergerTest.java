@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.realtime.appenderator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.druid.data.input.MapBasedInputRow;
+import org.apache.druid.data.input.impl.DimensionsSpec;
+import org.apache.druid.data.input.impl.TimestampSpec;
+import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.query.aggregation.CountAggregatorFactory;
+import org.apache.druid.segment.IndexIO;
+import org.apache.druid.segment.IndexMergerV9;
+import org.apache.druid.segment.IndexSpec;
+import org.apache.druid.segment.QueryableIndex;
+import org.apache.druid.segment.QueryableIndexSegment;
+import org.apache.druid.segment.TestHelper;
+import org.apache.druid.segment.incremental.IncrementalIndex;
+import org.apache.druid.segment.incremental.IncrementalIndexSchema;
+import org.apache.druid.segment.indexing.DataSchema;
+import org.apache.druid.segment.indexing.granularity.UniformGranularitySpec;
+import org.apache.druid.segment.realtime.FireHydrant;
+import org.apache.druid.segment.realtime.plumber.Sink;
+import org.apache.druid.segment.writeout.OffHeapMemorySegmentWriteOutMediumFactory;
+import org.apache.druid.segment.writeout.SegmentWriteOutMediumFactory;
+import org.apache.druid.timeline.partition.LinearShardSpec;
+import org.joda.time.Interval;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TieredPersistMergerTest
+{
+  private static final Interval INTERVAL = Intervals.of("2000/2001");
+  private static final AggregatorFactory[] METRICS = new AggregatorFactory[]{new CountAggregatorFactory("count")};
+  private static final SegmentIdWithShardSpec IDENTIFIER = new SegmentIdWithShardSpec(
+      "foo",
+      INTERVAL,
+      "A",
+      new LinearShardSpec(0)
+  );
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final IndexIO indexIO = TestHelper.getTestIndexIO();
+  private final List<FireHydrant> hydrants = new ArrayList<>();
+  private File persisted;
+  private Sink sink;
+
+  @Before
+  public void setUp() throws Exception
+  {
+    try (IncrementalIndex index = new IncrementalIndex.Builder()
+        .setIndexSchema(new IncrementalIndexSchema.Builder().withMetrics(METRICS).build())
+        .setMaxRowCount(10)
+        .buildOnheap()) {
+      index.add(new MapBasedInputRow(DateTimes.of("2000"), ImmutableList.of("dim"), ImmutableMap.of("dim", "foo")));
+      persisted = TestHelper.getTestIndexMergerV9(OffHeapMemorySegmentWriteOutMediumFactory.instance())
+                            .persist(index, temporaryFolder.newFolder(), new IndexSpec(), null);
+    }
+    sink = new Sink(
+        INTERVAL,
+        new DataSchema(
+            "foo",
+            new TimestampSpec(null, null, null),
+            DimensionsSpec.EMPTY,
+            METRICS,
+            new UniformGranularitySpec(Granularities.YEAR, Granularities.NONE, null),
+            null
+        ),
+        IDENTIFIER.getShardSpec(),
+        IDENTIFIER.getVersion(),
+        100,
+        1_000_000,
+        false,
+        null
+    );
+  }
+
+  @After
+  public void tearDown()
+  {
+    for (FireHydrant hydrant : hydrants) {
+      hydrant.swapSegment(null);
+    }
+  }
+
+  @Test(timeout = 60_000L)
+  public void testFailedMergeIsRetried() throws Exception
+  {
+    final FailingIndexMerger indexMerger = new FailingIndexMerger(indexIO, 1);
+    final TieredPersistMerger merger = makeMerger(indexMerger);
+    try {
+      final File directory = temporaryFolder.newFolder();
+      addHydrant(merger, directory, 0);
+      addHydrant(merger, directory, 1);
+      Assert.assertEquals(1, indexMerger.numMerges);
+      Assert.assertEquals(2, merger.getNumPieces(IDENTIFIER));
+      Assert.assertFalse(new File(directory, "0-2").exists());
+
+      // the next persist retries the failed merge
+      addHydrant(merger, directory, 2);
+      Assert.assertEquals(2, indexMerger.numMerges);
+      Assert.assertEquals(2, merger.getNumPieces(IDENTIFIER));
+
+      final List<TieredPersistMerger.Piece> merged = merger.finish(IDENTIFIER);
+      Assert.assertEquals(1, merged.size());
+      Assert.assertEquals(0, merged.get(0).getStart());
+      Assert.assertEquals(2, merged.get(0).getEnd());
+    }
+    finally {
+      merger.close();
+    }
+  }
+
+  @Test(timeout = 60_000L)
+  public void testFailedMergeIsRetriedBoundedTimes() throws Exception
+  {
+    final FailingIndexMerger indexMerger = new FailingIndexMerger(indexIO, Integer.MAX_VALUE);
+    final TieredPersistMerger merger = makeMerger(indexMerger);
+    try {
+      final File directory = temporaryFolder.newFolder();
+      for (int i = 0; i < 8; i++) {
+        addHydrant(merger, directory, i);
+      }
+      Assert.assertEquals(TieredPersistMerger.MAX_MERGE_ATTEMPTS, indexMerger.numMergesOf(directory, 0, 2));
+      Assert.assertEquals(TieredPersistMerger.MAX_MERGE_ATTEMPTS, indexMerger.numMergesOf(directory, 2, 4));
+      Assert.assertEquals(8, merger.getNumPieces(IDENTIFIER));
+      Assert.assertTrue(merger.finish(IDENTIFIER).isEmpty());
+    }
+    finally {
+      merger.close();
+    }
+  }
+
+  private TieredPersistMerger makeMerger(IndexMergerV9 indexMerger)
+  {
+    return new TieredPersistMerger(
+        "test-merger",
+        2,
+        true,
+        METRICS,
+        new IndexSpec(),
+        null,
+        indexIO,
+        indexMerger
+    );
+  }
+
+  private void addHydrant(TieredPersistMerger merger, File directory, int count) throws Exception
+  {
+    final FireHydrant hydrant = new FireHydrant(
+        new QueryableIndexSegment(indexIO.loadIndex(persisted), IDENTIFIER.asSegmentId()),
+        count
+    );
+    hydrants.add(hydrant);
+    merger.add(IDENTIFIER, directory, sink, hydrant);
+    merger.awaitMerges();
+  }
+
+  /**
+   * Fails the first merges.
+   */
+  private static class FailingIndexMerger extends IndexMergerV9
+  {
+    private final int numFailures;
+    private final List<File> outDirs = new ArrayList<>();
+    private int numMerges = 0;
+
+    private FailingIndexMerger(IndexIO indexIO, int numFailures)
+    {
+      super(TestHelper.JSON_MAPPER, indexIO, OffHeapMemorySegmentWriteOutMediumFactory.instance());
+      this.numFailures = numFailures;
+    }
+
+    @Override
+    public File mergeQueryableIndex(
+        List<QueryableIndex> indexes,
+        boolean rollup,
+        AggregatorFactory[] metricAggs,
+        File outDir,
+        IndexSpec indexSpec,
+        @Nullable SegmentWriteOutMediumFactory segmentWriteOutMediumFactory
+    ) throws IOException
+    {
+      outDirs.add(outDir);
+      if (numMerges++ < numFailures) {
+        // leave a partial output behind, like a merge failing halfway would
+        Assert.assertTrue(outDir.mkdirs());
+        throw new IOException("failed");
+      }
+      return super.mergeQueryableIndex(indexes, rollup, metricAggs, outDir, indexSpec, segmentWriteOutMediumFactory);
+    }
+
+    private int numMergesOf(File directory, int start, int end)
+    {
+      final File outDir = new File(directory, start + "-" + end);
+      return (int) outDirs.stream().filter(outDir::equals).count();
+    }
+  }
+}
@@ -29,6 +29,7 @@ import org.apache.druid.data.input.impl.DimensionsSpec;
 import org.apache.druid.data.input.impl.TimestampSpec;
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.Pair;
 import org.apache.druid.java.util.common.granularity.Granularities;
 import org.apache.druid.query.aggregation.AggregatorFactory;
 import org.apache.druid.query.aggregation.CountAggregatorFactory;
@@ -37,6 +38,7 @@ import org.apache.druid.segment.indexing.RealtimeTuningConfig;
 import org.apache.druid.segment.indexing.TuningConfigs;
 import org.apache.druid.segment.indexing.granularity.UniformGranularitySpec;
 import org.apache.druid.segment.realtime.FireHydrant;
+import org.apache.druid.timeline.partition.NumberedShardSpec;
 import org.joda.time.DateTime;
 import org.joda.time.Interval;
 import org.joda.time.Period;
@@ -45,6 +47,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  */
@@ -288,4 +291,63 @@ public class SinkTest
     ), false).getRowCount();
     Assert.assertTrue(rows == -2);
   }
+
+  @Test
+  public void testGetHydrantsForQueryWithMergedHydrants()
+  {
+    final DataSchema schema = new DataSchema(
+        "test",
+        new TimestampSpec(null, null, null),
+        DimensionsSpec.EMPTY,
+        new AggregatorFactory[]{new CountAggregatorFactory("rows")},
+        new UniformGranularitySpec(Granularities.HOUR, Granularities.MINUTE, null),
+        null
+    );
+    final Sink sink = new Sink(
+        Intervals.of("2013-01-01/2013-01-02"),
+        schema,
+        new NumberedShardSpec(0, 1),
+        DateTimes.nowUtc().toString(),
+        100,
+        TuningConfigs.getMaxBytesInMemoryOrDefault(0),
+        false,
+        null
+    );
+    // hydrants 0 to 4
+    for (int i = 0; i < 4; i++) {
+      sink.swap();
+    }
+    final List<FireHydrant> hydrants = ImmutableList.copyOf(sink);
+    Assert.assertEquals(5, hydrants.size());
+
+    final FireHydrant merged01 = new FireHydrant(hydrants.get(0).getIndex(), 0, sink.getSegment().getId());
+    final FireHydrant merged23 = new FireHydrant(hydrants.get(2).getIndex(), 2, sink.getSegment().getId());
+    Assert.assertEquals(ImmutableList.of(), sink.addMergedHydrant(merged01, 2));
+    Assert.assertEquals(ImmutableList.of(), sink.addMergedHydrant(merged23, 4));
+    Assert.assertEquals(
+        ImmutableList.of(
+            new Pair<>(merged01, hydrants.subList(0, 2)),
+            new Pair<>(merged23, hydrants.subList(2, 4)),
+            new Pair<>(hydrants.get(4), ImmutableList.of())
+        ),
+        sink.getHydrantsForQuery()
+    );
+
+    // a merge of the first four hydrants replaces both previous merges
+    final FireHydrant merged0123 = new FireHydrant(hydrants.get(0).getIndex(), 0, sink.getSegment().getId());
+    Assert.assertEquals(ImmutableList.of(merged01, merged23), sink.addMergedHydrant(merged0123, 4));
+    Assert.assertEquals(
+        ImmutableList.of(
+            new Pair<>(merged0123, hydrants.subList(0, 4)),
+            new Pair<>(hydrants.get(4), ImmutableList.of())
+        ),
+        sink.getHydrantsForQuery()
+    );
+
+    Assert.assertEquals(ImmutableList.of(merged0123), sink.removeMergedHydrants());
+    Assert.assertEquals(
+        hydrants.stream().map(hydrant -> new Pair<>(hydrant, ImmutableList.of())).collect(Collectors.toList()),
+        sink.getHydrantsForQuery()
+    );
+  }
 }
@@ -64,11 +64,11 @@ public class ObservableQueryScheduler extends QueryScheduler
 
   @Override
   public <T> Sequence<T> run(
-      Query<?> query,
+      QueryPlus<?> queryPlus,
       Sequence<T> resultSequence
   )
   {
-    return super.run(query, resultSequence).withBaggage(totalRun::incrementAndGet);
+    return super.run(queryPlus, resultSequence).withBaggage(totalRun::incrementAndGet);
   }
 
   @Override
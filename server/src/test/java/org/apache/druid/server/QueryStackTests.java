@@ -20,6 +20,9 @@
 package org.apache.druid.server;
 
 import com.google.common.collect.ImmutableMap;
+import org.apache.druid.client.QueryCoalescingConfig;
+import org.apache.druid.client.QueryHedger;
+import org.apache.druid.client.QueryHedgingConfig;
 import org.apache.druid.client.cache.CacheConfig;
 import org.apache.druid.collections.CloseableStupidPool;
 import org.apache.druid.java.util.common.Pair;
@@ -29,6 +32,7 @@ import org.apache.druid.query.DefaultGenericQueryMetricsFactory;
 import org.apache.druid.query.DefaultQueryRunnerFactoryConglomerate;
 import org.apache.druid.query.DruidProcessingConfig;
 import org.apache.druid.query.Query;
+import org.apache.druid.query.QueryCoalescer;
 import org.apache.druid.query.QueryRunnerFactory;
 import org.apache.druid.query.QueryRunnerFactoryConglomerate;
 import org.apache.druid.query.QueryRunnerTestHelper;
@@ -84,6 +88,7 @@ public class QueryStackTests
       new ServerConfig()
   );
   private static final ServiceEmitter EMITTER = new NoopServiceEmitter();
+  public static final QueryHedger DEFAULT_NOOP_HEDGER = new QueryHedger(new QueryHedgingConfig(), EMITTER);
   private static final int COMPUTE_BUFFER_SIZE = 10 * 1024 * 1024;
 
   private QueryStackTests()
@@ -139,7 +144,8 @@ public class QueryStackTests
           {
             return false;
           }
-        }
+        },
+        new QueryCoalescer(new QueryCoalescingConfig())
     );
   }
 
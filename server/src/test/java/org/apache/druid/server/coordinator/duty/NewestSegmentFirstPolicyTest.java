@@ -455,6 +455,42 @@ public class NewestSegmentFirstPolicyTest
     );
   }
 
+  @Test
+  public void testFragmentedSegmentFirstPolicy()
+  {
+    final Period segmentPeriod = new Period("P1D");
+    final CompactionSegmentIterator iterator = new FragmentedSegmentFirstPolicy(new DefaultObjectMapper()).reset(
+        ImmutableMap.of(DATA_SOURCE, createCompactionConfig(10000, new Period("PT0S"))),
+        ImmutableMap.of(
+            DATA_SOURCE,
+            createTimeline(
+                new SegmentGenerateSpec(Intervals.of("2017-11-13/2017-11-14"), segmentPeriod, 500, 4),
+                new SegmentGenerateSpec(Intervals.of("2017-11-14/2017-11-15"), segmentPeriod, 1000, 2),
+                new SegmentGenerateSpec(Intervals.of("2017-11-15/2017-11-16"), segmentPeriod, 1000, 8),
+                new SegmentGenerateSpec(Intervals.of("2017-11-16/2017-11-17"), segmentPeriod, 1000, 4)
+            )
+        ),
+        Collections.emptyMap()
+    );
+
+    final List<Interval> expectedIntervals = ImmutableList.of(
+        Intervals.of("2017-11-15/2017-11-16"),
+        Intervals.of("2017-11-13/2017-11-14"),
+        Intervals.of("2017-11-16/2017-11-17"),
+        Intervals.of("2017-11-14/2017-11-15")
+    );
+    final List<Integer> expectedNumSegments = ImmutableList.of(8, 4, 4, 2);
+    for (int i = 0; i < expectedIntervals.size(); i++) {
+      Assert.assertTrue(iterator.hasNext());
+      final List<DataSegment> segments = iterator.next();
+      Assert.assertEquals((int) expectedNumSegments.get(i), segments.size());
+      for (DataSegment segment : segments) {
+        Assert.assertEquals(expectedIntervals.get(i), segment.getInterval());
+      }
+    }
+    Assert.assertFalse(iterator.hasNext());
+  }
+
   private static void assertCompactSegmentIntervals(
       CompactionSegmentIterator iterator,
       Period segmentPeriod,
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.metrics;
+
+import org.apache.druid.client.QueryCoalescingConfig;
+import org.apache.druid.java.util.metrics.StubServiceEmitter;
+import org.apache.druid.query.QueryCoalescer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class QueryCoalescingMonitorTest
+{
+  @Test
+  public void testMonitorEmitsDelta()
+  {
+    final AtomicLong coalescedQueryCount = new AtomicLong(3);
+    final QueryCoalescer coalescer = new QueryCoalescer(new QueryCoalescingConfig())
+    {
+      @Override
+      public long getCoalescedQueryCount()
+      {
+        return coalescedQueryCount.get();
+      }
+    };
+    final QueryCoalescingMonitor monitor = new QueryCoalescingMonitor(coalescer);
+    final StubServiceEmitter emitter = new StubServiceEmitter("service", "host");
+
+    monitor.doMonitor(emitter);
+    coalescedQueryCount.set(5);
+    monitor.doMonitor(emitter);
+
+    Assert.assertEquals(2, emitter.getEvents().size());
+    Assert.assertEquals("query/coalesced/count", emitter.getEvents().get(0).toMap().get("metric"));
+    Assert.assertEquals(3L, emitter.getEvents().get(0).toMap().get("value"));
+    Assert.assertEquals(2L, emitter.getEvents().get(1).toMap().get("value"));
+  }
+}
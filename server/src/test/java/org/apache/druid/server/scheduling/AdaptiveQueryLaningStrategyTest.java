@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.server.scheduling;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.query.Druids;
+import org.apache.druid.query.QueryContexts;
+import org.apache.druid.query.QueryPlus;
+import org.apache.druid.query.aggregation.CountAggregatorFactory;
+import org.apache.druid.query.timeseries.TimeseriesQuery;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.concurrent.TimeUnit;
+
+public class AdaptiveQueryLaningStrategyTest
+{
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private Druids.TimeseriesQueryBuilder queryBuilder;
+  private AdaptiveQueryLaningStrategy strategy;
+
+  @Before
+  public void setup()
+  {
+    this.queryBuilder = Druids.newTimeseriesQueryBuilder()
+                              .dataSource("test")
+                              .intervals(ImmutableList.of(Intervals.ETERNITY))
+                              .granularity(Granularities.DAY)
+                              .aggregators(new CountAggregatorFactory("count"));
+
+    this.strategy = new AdaptiveQueryLaningStrategy(40, 1000L, null, null);
+  }
+
+  @Test
+  public void testMaxLowPercentRequired()
+  {
+    expectedException.expect(NullPointerException.class);
+    expectedException.expectMessage("maxLowPercent must be set");
+    new AdaptiveQueryLaningStrategy(null, 1000L, null, null);
+  }
+
+  @Test
+  public void testMaxLowPercentMustBeInRange()
+  {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("maxLowPercent must be in the range 1 to 100");
+    new AdaptiveQueryLaningStrategy(101, 1000L, null, null);
+  }
+
+  @Test
+  public void testCostThresholdRequired()
+  {
+    expectedException.expect(NullPointerException.class);
+    expectedException.expectMessage("costThresholdMillis must be set");
+    new AdaptiveQueryLaningStrategy(40, null, null, null);
+  }
+
+  @Test
+  public void testLaneLimits()
+  {
+    Object2IntMap<String> laneConfig = strategy.getLaneLimits(5);
+    Assert.assertEquals(1, laneConfig.size());
+    Assert.assertEquals(2, laneConfig.getInt(AdaptiveQueryLaningStrategy.LOW));
+  }
+
+  @Test
+  public void testLaningNoHistory()
+  {
+    TimeseriesQuery query = queryBuilder.build();
+    Assert.assertFalse(strategy.computeLane(QueryPlus.wrap(query), ImmutableSet.of()).isPresent());
+  }
+
+  @Test
+  public void testLaningLowPriority()
+  {
+    TimeseriesQuery query = queryBuilder.context(ImmutableMap.of(QueryContexts.PRIORITY_KEY, -1)).build();
+    Assert.assertEquals(
+        AdaptiveQueryLaningStrategy.LOW,
+        strategy.computeLane(QueryPlus.wrap(query), ImmutableSet.of()).get()
+    );
+  }
+
+  @Test
+  public void testLaningCheapQueries()
+  {
+    QueryPlus<?> query = QueryPlus.wrap(queryBuilder.build()).withIdentity("alice");
+    for (int i = 0; i < 10; i++) {
+      strategy.queryCompleted(query, TimeUnit.MILLISECONDS.toNanos(100));
+    }
+    Assert.assertFalse(strategy.computeLane(query, ImmutableSet.of()).isPresent());
+  }
+
+  @Test
+  public void testLaningExpensiveQueries()
+  {
+    QueryPlus<?> query = QueryPlus.wrap(queryBuilder.build()).withIdentity("alice");
+    strategy.queryCompleted(query, TimeUnit.SECONDS.toNanos(10));
+    Assert.assertEquals(AdaptiveQueryLaningStrategy.LOW, strategy.computeLane(query, ImmutableSet.of()).get());
+
+    // costs are tracked per identity and datasource
+    QueryPlus<?> otherIdentity = QueryPlus.wrap(queryBuilder.build()).withIdentity("bob");
+    Assert.assertFalse(strategy.computeLane(otherIdentity, ImmutableSet.of()).isPresent());
+    QueryPlus<?> otherDataSource = QueryPlus.wrap(queryBuilder.dataSource("other").build()).withIdentity("alice");
+    Assert.assertFalse(strategy.computeLane(otherDataSource, ImmutableSet.of()).isPresent());
+  }
+
+  @Test
+  public void testLaningPreservesManualSetLane()
+  {
+    QueryPlus<?> query = QueryPlus.wrap(
+        queryBuilder.context(ImmutableMap.of(QueryContexts.LANE_KEY, "reporting")).build()
+    ).withIdentity("alice");
+    strategy.queryCompleted(query, TimeUnit.SECONDS.toNanos(10));
+    Assert.assertEquals("reporting", strategy.computeLane(query, ImmutableSet.of()).get());
+  }
+
+  @Test
+  public void testMaxTrackedKeys()
+  {
+    AdaptiveQueryLaningStrategy limited = new AdaptiveQueryLaningStrategy(40, 1000L, null, 2);
+    for (String identity : ImmutableList.of("a", "b", "c")) {
+      limited.queryCompleted(QueryPlus.wrap(queryBuilder.build()).withIdentity(identity), TimeUnit.SECONDS.toNanos(10));
+    }
+    Assert.assertEquals(2, limited.getTrackedKeyCount());
+    Assert.assertFalse(
+        limited.computeLane(QueryPlus.wrap(queryBuilder.build()).withIdentity("c"), ImmutableSet.of()).isPresent()
+    );
+  }
+}